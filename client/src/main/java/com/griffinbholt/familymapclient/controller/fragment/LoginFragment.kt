@@ -17,9 +17,7 @@ import org.jetbrains.anko.uiThread
 import shared.model.Gender
 import shared.request.LoginRequest
 import shared.request.RegisterRequest
-import shared.result.AllEventsResult
-import shared.result.FamilyMembersResult
-import shared.result.RegisterResult
+import shared.result.BootstrapResult
 
 /**
  * A simple [Fragment] subclass to display the login screen.
@@ -279,19 +277,23 @@ class LoginFragment : Fragment() {
 
 	private fun runLoginTask(request: LoginRequest) {
 		doAsync {
-			val result = ServerProxy.login(request)
+			val result = ServerProxy.bootstrapLogin(request)
 
 			uiThread {
-				handleInfoResult(TaskType.Login, result)
+				handleBootstrapResult(TaskType.Login, result)
 			}
 		}
 	}
 
-	private fun handleInfoResult(taskType: TaskType, result: shared.result.InfoResult) {
+	private fun handleBootstrapResult(taskType: TaskType, result: BootstrapResult) {
 		if (result.isSuccess) {
 			DataCache.personID = result.personID
 			DataCache.authToken = result.authToken
-			runFetchDataTask(taskType)
+			loadFamilyData(result)
+
+			displayFetchDataSuccess(taskType, DataCache.firstName()!!, DataCache.lastName()!!)
+
+			startMapFragment()
 		} else {
 			displayFailureToast(taskType, result.message)
 		}
@@ -314,36 +316,9 @@ class LoginFragment : Fragment() {
 
 	private fun getFailureString(stringValue: Int, failureMessage: String) = getString(stringValue, failureMessage)
 
-	private fun runFetchDataTask(taskType: TaskType) {
-		doAsync {
-			val familyMembersResult = ServerProxy.requestFamilyMembers(DataCache.authToken!!)
-			val familyEventsResult = ServerProxy.requestFamilyEvents(DataCache.authToken!!)
-
-			uiThread {
-				handleFetchDataResult(taskType, familyMembersResult, familyEventsResult)
-			}
-		}
-	}
-
-	private fun handleFetchDataResult(
-			taskType: TaskType,
-			familyMembersResult: FamilyMembersResult,
-			familyEventsResult: AllEventsResult
-	) {
-		if (familyMembersResult.isSuccess && familyEventsResult.isSuccess) {
-			loadFamilyData(familyMembersResult, familyEventsResult)
-
-			displayFetchDataSuccess(taskType, DataCache.firstName()!!, DataCache.lastName()!!)
-
-			startMapFragment()
-		} else {
-			displayFetchDataFailure(familyMembersResult, familyEventsResult, taskType)
-		}
-	}
-
-	private fun loadFamilyData(familyMembersResult: FamilyMembersResult, familyEventsResult: AllEventsResult) {
-		DataCache.loadFamilyMembers(familyMembersResult.data)
-		DataCache.loadFamilyEvents(familyEventsResult.data)
+	private fun loadFamilyData(result: BootstrapResult) {
+		DataCache.loadFamilyMembers(result.persons)
+		DataCache.loadFamilyEvents(result.events)
 	}
 
 	private fun displayFetchDataSuccess(taskType: TaskType, firstName: String, lastName: String) {
@@ -370,22 +345,6 @@ class LoginFragment : Fragment() {
 				.commit()
 	}
 
-	private fun displayFetchDataFailure(
-			familyMembersResult: FamilyMembersResult,
-			familyEventsResult: AllEventsResult,
-			taskType: TaskType
-	) {
-		val failureMessage = getFetchDataFailureMessage(familyMembersResult, familyEventsResult)
-		displayFailureToast(taskType, failureMessage)
-	}
-
-	private fun getFetchDataFailureMessage(
-			familyMembersResult: FamilyMembersResult,
-			familyEventsResult: AllEventsResult
-	): String {
-		return if (!familyMembersResult.isSuccess) familyMembersResult.message else familyEventsResult.message
-	}
-
 	private fun setRegisterButtonListener() {
 		setRegisterButtonEnable()
 
@@ -403,10 +362,10 @@ class LoginFragment : Fragment() {
 
 	private fun runRegisterTask(request: RegisterRequest) {
 		doAsync {
-			val result: RegisterResult = ServerProxy.register(request)
+			val result: BootstrapResult = ServerProxy.bootstrapRegister(request)
 
 			uiThread {
-				handleInfoResult(TaskType.Register, result)
+				handleBootstrapResult(TaskType.Register, result)
 			}
 		}
 	}
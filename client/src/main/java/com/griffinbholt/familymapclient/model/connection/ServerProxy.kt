@@ -8,12 +8,19 @@ import shared.model.AuthToken
 import shared.request.LoginRequest
 import shared.request.RegisterRequest
 import shared.result.AllEventsResult
+import shared.result.BootstrapResult
+import shared.result.EventChangesResult
 import shared.result.FamilyMembersResult
 import shared.result.LoginResult
+import shared.result.PersonChangesResult
 import shared.result.RegisterResult
+import shared.result.Result
 import java.io.*
 import java.net.HttpURLConnection
 import java.net.URL
+import java.util.concurrent.ConcurrentHashMap
+import java.util.zip.GZIPInputStream
+import java.util.zip.InflaterInputStream
 
 /**
  * A singleton object responsible for communicating with the FamilyMap server.
@@ -24,6 +31,11 @@ object ServerProxy {
 	private const val POST: String = "POST"
 	private const val GET: String = "GET"
 	private const val AUTHORIZATION: String = "Authorization"
+	private const val ACCEPT_ENCODING: String = "Accept-Encoding"
+	private const val GZIP: String = "gzip"
+	private const val DEFLATE: String = "deflate"
+	private const val ETAG: String = "ETag"
+	private const val IF_NONE_MATCH: String = "If-None-Match"
 	private const val READ_BUFFER_LENGTH = 1024
 
 	/**
@@ -36,16 +48,33 @@ object ServerProxy {
 	 */
 	var serverPort: Int? = null
 
+	/**
+	 * The last successful result of each GET request, along with its ETag, keyed by the authorization token the
+	 * request was sent with and its URL (see [validatorKey]), so that a result is only ever revalidated and reused for
+	 * the user it was sent to.
+	 */
+	private val validatedResults = ConcurrentHashMap<String, ValidatedResult>()
+
+	private class ValidatedResult(val etag: String, val result: Result)
+
+	private fun validatorKey(urlString: String, authToken: AuthToken): String = "$authToken $urlString"
+
 	private fun baseUrl(): String? = "http://$serverHost:$serverPort"
 
 	private fun loginUrl(): String? = baseUrl() + FamilyMapUrl.LOGIN
 
 	private fun registerUrl(): String? = baseUrl() + FamilyMapUrl.REGISTER
 
+	private fun bootstrapLoginUrl(): String? = baseUrl() + FamilyMapUrl.BOOTSTRAP_LOGIN
+
+	private fun bootstrapRegisterUrl(): String? = baseUrl() + FamilyMapUrl.BOOTSTRAP_REGISTER
+
 	private fun personUrl(): String? = baseUrl() + FamilyMapUrl.PERSON
 
 	private fun eventUrl(): String? = baseUrl() + FamilyMapUrl.EVENT
 
+	private fun changesUrl(url: String, since: Long): String = "$url?${FamilyMapUrl.SINCE}=$since"
+
 	/**
 	 * Sends a [LoginRequest] to the FamilyMap server.
 	 *
@@ -88,9 +117,44 @@ object ServerProxy {
 		}
 	}
 
+	/**
+	 * Sends a [LoginRequest] to the FamilyMap server, which logs the user in and sends back all of his/her family
+	 * member and event data along with the login result, in a single round trip.
+	 *
+	 * @param request The [LoginRequest] being sent to the FamilyMap server (contains a username and password)
+	 * @return The result of the request sent back by the server, in the form of a [BootstrapResult]
+	 */
+	fun bootstrapLogin(request: LoginRequest): BootstrapResult = sendBootstrapRequest(bootstrapLoginUrl()!!, request)
+
+	/**
+	 * Sends a [RegisterRequest] to the FamilyMap server, which registers the user and sends back all of his/her
+	 * generated family member and event data along with the register result, in a single round trip.
+	 *
+	 * @param request The [RegisterRequest] being sent to the FamilyMap server (contains user registry information)
+	 * @return The result of the request sent back by the server, in the form of a [BootstrapResult]
+	 */
+	fun bootstrapRegister(request: RegisterRequest): BootstrapResult =
+			sendBootstrapRequest(bootstrapRegisterUrl()!!, request)
+
+	private fun sendBootstrapRequest(urlString: String, request: Any): BootstrapResult {
+		DataCache.clear()
+
+		val connection = prepareConnection(urlString)
+		val jsonRequest = preparePostRequest(request, connection)
+
+		return try {
+			connection.connect()
+			writeStringToOutputStream(jsonRequest, connection.outputStream)
+			readBootstrapResponse(connection)
+		} catch (e: Exception) {
+			BootstrapResult.newFailure(e.localizedMessage)
+		}
+	}
+
 	private fun prepareConnection(urlString: String): HttpURLConnection {
 		val connection = openConnection(urlString)
 		connection.readTimeout = 5000
+		connection.setRequestProperty(ACCEPT_ENCODING, "$GZIP, $DEFLATE")
 		return connection
 	}
 
@@ -108,7 +172,7 @@ object ServerProxy {
 	@Throws(BadResponseException::class)
 	private fun readLoginResponse(connection: HttpURLConnection): LoginResult {
 		if (connection.responseCode == HttpURLConnection.HTTP_OK) {
-			val jsonResponse: String? = readStringFromInputStream(connection.inputStream)
+			val jsonResponse: String? = readStringFromInputStream(decodedInputStream(connection))
 			return JsonInterpreter.parseJson(jsonResponse, LoginResult::class.java) as LoginResult
 		}
 
@@ -118,17 +182,40 @@ object ServerProxy {
 	@Throws(BadResponseException::class)
 	private fun readRegisterResponse(connection: HttpURLConnection): RegisterResult {
 		if (connection.responseCode == HttpURLConnection.HTTP_OK) {
-			val jsonResponse: String? = readStringFromInputStream(connection.inputStream)
+			val jsonResponse: String? = readStringFromInputStream(decodedInputStream(connection))
 			return JsonInterpreter.parseJson(jsonResponse, RegisterResult::class.java) as RegisterResult
 		}
 
 		throw BadResponseException()
 	}
 
+	@Throws(BadResponseException::class)
+	private fun readBootstrapResponse(connection: HttpURLConnection): BootstrapResult {
+		if (connection.responseCode == HttpURLConnection.HTTP_OK) {
+			val jsonResponse: String? = readStringFromInputStream(decodedInputStream(connection))
+			return JsonInterpreter.parseJson(jsonResponse, BootstrapResult::class.java) as BootstrapResult
+		}
+
+		throw BadResponseException()
+	}
+
+	/**
+	 * Since the Accept-Encoding header is set explicitly, [HttpURLConnection] leaves the response compressed, so it is
+	 * decoded here according to its Content-Encoding.
+	 */
+	@Throws(IOException::class)
+	private fun decodedInputStream(connection: HttpURLConnection): InputStream {
+		return when (connection.contentEncoding?.toLowerCase()) {
+			GZIP -> GZIPInputStream(connection.inputStream)
+			DEFLATE -> InflaterInputStream(connection.inputStream)
+			else -> connection.inputStream
+		}
+	}
+
 	@Throws(IOException::class)
 	private fun readStringFromInputStream(inputStream: InputStream): String? {
 		val stringBuilder = StringBuilder()
-		val streamReader = InputStreamReader(inputStream)
+		val streamReader = InputStreamReader(inputStream, Charsets.UTF_8)
 		val buf = CharArray(READ_BUFFER_LENGTH)
 		var len: Int
 
@@ -155,10 +242,11 @@ object ServerProxy {
 	 * @return The result of the request sent back by the server, in the form of a [FamilyMembersResult]
 	 */
 	fun requestFamilyMembers(authToken: AuthToken): FamilyMembersResult {
-		val connection: HttpURLConnection = sendGetRequest(personUrl()!!, authToken)
+		val urlString = personUrl()!!
+		val connection: HttpURLConnection = sendGetRequest(urlString, authToken)
 
 		return try {
-			readFamilyMembersResponse(connection)
+			readValidatedResponse(connection, urlString, authToken, FamilyMembersResult::class.java)
 		} catch (e: Exception) {
 			FamilyMembersResult.newFailure(e.localizedMessage)
 		}
@@ -169,19 +257,45 @@ object ServerProxy {
 
 		connection.requestMethod = GET
 		connection.addRequestProperty(AUTHORIZATION, authToken.toString())
+		validatedResults[validatorKey(urlString, authToken)]?.let {
+			connection.setRequestProperty(IF_NONE_MATCH, it.etag)
+		}
 		connection.connect()
 
 		return connection
 	}
 
-	@Throws(BadResponseException::class)
-	private fun readFamilyMembersResponse(connection: HttpURLConnection): FamilyMembersResult {
-		if (connection.responseCode == HttpURLConnection.HTTP_OK) {
-			val jsonResponse: String? = readStringFromInputStream(connection.inputStream)
-			return JsonInterpreter.parseJson(jsonResponse, FamilyMembersResult::class.java) as FamilyMembersResult
+	/**
+	 * Reads the response to a GET request. If the server answers that the data is not modified since the last
+	 * successful result of the request, that result is returned again; otherwise, the new result is remembered along
+	 * with its ETag.
+	 */
+	@Throws(BadResponseException::class, IOException::class)
+	private fun <T : Result> readValidatedResponse(connection: HttpURLConnection, urlString: String,
+												   authToken: AuthToken, resultClass: Class<T>): T {
+		val key = validatorKey(urlString, authToken)
+
+		when (connection.responseCode) {
+			HttpURLConnection.HTTP_NOT_MODIFIED -> {
+				val validatedResult = validatedResults[key] ?: throw BadResponseException()
+				return resultClass.cast(validatedResult.result)
+			}
+			HttpURLConnection.HTTP_OK -> {
+				val jsonResponse: String? = readStringFromInputStream(decodedInputStream(connection))
+				val result: T = resultClass.cast(JsonInterpreter.parseJson(jsonResponse, resultClass))
+				rememberResult(key, connection.getHeaderField(ETAG), result)
+				return result
+			}
+			else -> throw BadResponseException()
 		}
+	}
 
-		throw BadResponseException()
+	private fun rememberResult(key: String, etag: String?, result: Result) {
+		if (etag != null && result.isSuccess) {
+			validatedResults[key] = ValidatedResult(etag, result)
+		} else {
+			validatedResults.remove(key)
+		}
 	}
 
 	/**
@@ -191,10 +305,11 @@ object ServerProxy {
 	 * @return The result of the request sent back by the server, in the form of a [AllEventsResult]
 	 */
 	fun requestFamilyEvents(authToken: AuthToken): AllEventsResult {
-		val connection: HttpURLConnection = sendGetRequest(eventUrl()!!, authToken)
+		val urlString = eventUrl()!!
+		val connection: HttpURLConnection = sendGetRequest(urlString, authToken)
 
 		return try {
-			readFamilyEventsResponse(connection)
+			readValidatedResponse(connection, urlString, authToken, AllEventsResult::class.java)
 		} catch (e: IOException) {
 			AllEventsResult.newFailure(e.localizedMessage)
 		} catch (e: BadResponseException) {
@@ -202,13 +317,49 @@ object ServerProxy {
 		}
 	}
 
-	@Throws(BadResponseException::class)
-	private fun readFamilyEventsResponse(connection: HttpURLConnection): AllEventsResult {
+	/**
+	 * Requests the changes to the family member data of the user with the input [AuthToken] since the input version
+	 * from the FamilyMap server.
+	 *
+	 * @param authToken The authorization token of the user requesting the family member data.
+	 * @param since The version of the family member data held by the client (0, if it holds none).
+	 * @return The result of the request sent back by the server, in the form of a [PersonChangesResult]
+	 */
+	fun requestFamilyMemberChanges(authToken: AuthToken, since: Long): PersonChangesResult {
+		val connection: HttpURLConnection = sendGetRequest(changesUrl(personUrl()!!, since), authToken)
+
+		return try {
+			readChangesResponse(connection, PersonChangesResult::class.java)
+		} catch (e: Exception) {
+			PersonChangesResult.newFailure(e.localizedMessage)
+		}
+	}
+
+	/**
+	 * Requests the changes to the family event data of the user with the input [AuthToken] since the input version
+	 * from the FamilyMap server.
+	 *
+	 * @param authToken The authorization token of the user requesting the family event data.
+	 * @param since The version of the family event data held by the client (0, if it holds none).
+	 * @return The result of the request sent back by the server, in the form of an [EventChangesResult]
+	 */
+	fun requestFamilyEventChanges(authToken: AuthToken, since: Long): EventChangesResult {
+		val connection: HttpURLConnection = sendGetRequest(changesUrl(eventUrl()!!, since), authToken)
+
+		return try {
+			readChangesResponse(connection, EventChangesResult::class.java)
+		} catch (e: Exception) {
+			EventChangesResult.newFailure(e.localizedMessage)
+		}
+	}
+
+	@Throws(BadResponseException::class, IOException::class)
+	private fun <T : Result> readChangesResponse(connection: HttpURLConnection, resultClass: Class<T>): T {
 		if (connection.responseCode == HttpURLConnection.HTTP_OK) {
-			val jsonResponse: String? = readStringFromInputStream(connection.inputStream)
-			return JsonInterpreter.parseJson(jsonResponse, AllEventsResult::class.java) as AllEventsResult
+			val jsonResponse: String? = readStringFromInputStream(decodedInputStream(connection))
+			return resultClass.cast(JsonInterpreter.parseJson(jsonResponse, resultClass))
 		}
 
 		throw BadResponseException()
 	}
-}
\ No newline at end of file
+}
@@ -7,6 +7,8 @@ import com.griffinbholt.familymapclient.model.data.item.ClientPerson
 import com.griffinbholt.familymapclient.model.data.item.SideOfFamily
 import com.griffinbholt.familymapclient.model.data.utils.SearchTool
 import shared.model.*
+import shared.result.EventChangesResult
+import shared.result.PersonChangesResult
 import java.util.*
 import kotlin.collections.ArrayList
 
@@ -57,6 +59,28 @@ object DataCache {
 	private var fatherSideFemaleEvents: ArrayList<ClientEvent> = ArrayList()
 	private var fatherSideMaleEvents: ArrayList<ClientEvent> = ArrayList()
 
+	private val eventCaches: List<MutableList<ClientEvent>> =
+			listOf(immediateFamilyMaleEvents, immediateFamilyFemaleEvents, motherSideFemaleEvents,
+					motherSideMaleEvents, fatherSideFemaleEvents, fatherSideMaleEvents)
+
+	/**
+	 * The version of the family member data, as of the last changes applied by [applyFamilyChanges]
+	 * (0, if no changes were ever applied)
+	 */
+	var personsVersion: Long = 0
+		private set
+
+	/**
+	 * The version of the family event data, as of the last changes applied by [applyFamilyChanges]
+	 * (0, if no changes were ever applied)
+	 */
+	var eventsVersion: Long = 0
+		private set
+
+	private val serverPersons: MutableMap<String, ServerPerson> = LinkedHashMap()
+	private val serverEvents: MutableMap<String, ServerEvent> = LinkedHashMap()
+	private val clientEvents: MutableMap<String, ClientEvent> = HashMap()
+
 	private var familyMembersTmpCache: List<ServerPerson>? = null
 	private var familyEventsTmpCache: List<ServerEvent>? = null
 
@@ -68,6 +92,7 @@ object DataCache {
 	 */
 	fun loadFamilyMembers(familyMembers: List<ServerPerson>) {
 		familyMembersTmpCache = familyMembers
+		recordServerItems(serverPersons, familyMembers) { it.personID }
 
 		val userPerson: ServerPerson = findServerPerson(personID)!!
 
@@ -162,6 +187,7 @@ object DataCache {
 		val possibleEventTypes: MutableSet<EventType> = TreeSet()
 
 		familyEventsTmpCache = familyEvents
+		recordServerItems(serverEvents, familyEvents) { it.eventID }
 
 		for (event in familyEventsTmpCache!!) {
 			val person: ClientPerson = findClientPerson(event.personID)!!
@@ -172,6 +198,8 @@ object DataCache {
 
 			addToCorrectEventCache(person, clientEvent)
 
+			clientEvents[event.eventID] = clientEvent
+
 			possibleEventTypes.add(clientEvent.eventType)
 		}
 
@@ -180,6 +208,83 @@ object DataCache {
 		clearTemporaryCaches()
 	}
 
+	private fun <T> recordServerItems(items: MutableMap<String, T>, newItems: List<T>, idOf: (T) -> String) {
+		items.clear()
+		newItems.associateByTo(items, idOf)
+	}
+
+	/**
+	 * Applies the changes to the family member and family event data received from the FamilyMap server since
+	 * [personsVersion] and [eventsVersion]. Changes to the family events alone are applied to the events in place;
+	 * any change to the family members rebuilds the family tree from the retained data, since it may move people
+	 * between sides of the family. Either way, nothing is requested again from the server.
+	 *
+	 * @param personChanges The changes to the family member data, in the form of a [PersonChangesResult]
+	 * @param eventChanges The changes to the family event data, in the form of an [EventChangesResult]
+	 */
+	fun applyFamilyChanges(personChanges: PersonChangesResult, eventChanges: EventChangesResult) {
+		val personsChanged: Boolean = applyChanges(serverPersons, personChanges.isReset, personChanges.data,
+				personChanges.deleted) { it.personID }
+		applyChanges(serverEvents, eventChanges.isReset, eventChanges.data, eventChanges.deleted) { it.eventID }
+
+		if (personsChanged || eventChanges.isReset) {
+			rebuildFamily()
+		} else {
+			eventChanges.deleted.forEach { removeClientEvent(it) }
+			eventChanges.data.forEach { replaceClientEvent(it) }
+			recordPossibleEventTypes(clientEvents.values.mapTo(TreeSet()) { it.eventType })
+		}
+
+		personsVersion = personChanges.version
+		eventsVersion = eventChanges.version
+	}
+
+	private fun <T> applyChanges(
+			items: MutableMap<String, T>,
+			reset: Boolean,
+			upserts: List<T>,
+			deletedIDs: List<String>,
+			idOf: (T) -> String
+	): Boolean {
+		if (reset) {
+			items.clear()
+		}
+
+		deletedIDs.forEach { items.remove(it) }
+		upserts.forEach { items[idOf(it)] = it }
+
+		return reset || upserts.isNotEmpty() || deletedIDs.isNotEmpty()
+	}
+
+	private fun rebuildFamily() {
+		val familyMembers: List<ServerPerson> = serverPersons.values.toList()
+		val familyEvents: List<ServerEvent> = serverEvents.values.toList()
+
+		clearPeople()
+		clearEvents()
+
+		loadFamilyMembers(familyMembers)
+		loadFamilyEvents(familyEvents)
+	}
+
+	private fun removeClientEvent(eventID: String) {
+		val clientEvent: ClientEvent = clientEvents.remove(eventID) ?: return
+
+		clientEvent.person?.removeEvent(clientEvent)
+		eventCaches.forEach { it.remove(clientEvent) }
+	}
+
+	private fun replaceClientEvent(event: ServerEvent) {
+		removeClientEvent(event.eventID)
+
+		val person: ClientPerson = findClientPerson(event.personID) ?: return
+		val clientEvent = ClientEvent(person, event)
+
+		person.addEvent(clientEvent)
+		addToCorrectEventCache(person, clientEvent)
+		clientEvents[event.eventID] = clientEvent
+	}
+
 	private fun recordPossibleEventTypes(possibleEventTypes: Set<EventType>) {
 		IconGenerator.setPossibleEventTypes(possibleEventTypes.toList())
 	}
@@ -298,6 +403,7 @@ object DataCache {
 		clearUserInfo()
 		clearPeople()
 		clearEvents()
+		clearServerData()
 	}
 
 	private fun clearUserInfo() {
@@ -320,6 +426,14 @@ object DataCache {
 		motherSideMaleEvents.clear()
 		fatherSideFemaleEvents.clear()
 		fatherSideMaleEvents.clear()
+		clientEvents.clear()
+	}
+
+	private fun clearServerData() {
+		serverPersons.clear()
+		serverEvents.clear()
+		personsVersion = 0
+		eventsVersion = 0
 	}
 
 	/**
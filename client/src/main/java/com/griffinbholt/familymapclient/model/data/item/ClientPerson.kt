@@ -69,6 +69,15 @@ class ClientPerson(
 		events.add(event)
 	}
 
+	/**
+	 * Removes an event from the internal list of [ClientEvent]s associated with the [ClientPerson]
+	 *
+	 * @param event A [ClientEvent] that is no longer associated with the [ClientPerson]
+	 */
+	fun removeEvent(event: ClientEvent) {
+		events.remove(event)
+	}
+
 	/**
 	 * Tests if the input [ClientPerson] object is equal to the current instance.
 	 *
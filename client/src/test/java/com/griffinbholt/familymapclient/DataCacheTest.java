@@ -11,6 +11,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -18,6 +19,8 @@ import shared.model.Gender;
 import shared.model.ServerEvent;
 import shared.model.ServerPerson;
 import shared.model.User;
+import shared.result.EventChangesResult;
+import shared.result.PersonChangesResult;
 
 import static junit.framework.TestCase.assertNotNull;
 import static junit.framework.TestCase.assertSame;
@@ -28,7 +31,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
 /*
-7 Public Methods: 14 Tests
+8 Public Methods: 16 Tests
     1. loadFamilyMembers() - DONE
     2. loadFamilyEvents() - DONE
     3. searchEnabledPeople() - DONE
@@ -36,6 +39,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
     5. clear() - DONE
     6. enabledPersons() - DONE
     7. enabledEvents() - DONE
+    8. applyFamilyChanges() - DONE
  */
 class DataCacheTest extends SingletonTest {
     private final DataCache DATA_CACHE = DataCache.INSTANCE;
@@ -339,6 +343,34 @@ class DataCacheTest extends SingletonTest {
         }
     }
 
+    @Test
+    void applyResetFamilyChanges() {
+        DATA_CACHE.applyFamilyChanges(
+                PersonChangesResult.newSuccess(serverPersons, Collections.emptyList(), 5, true),
+                EventChangesResult.newSuccess(serverEvents, Collections.emptyList(), 5, true));
+
+        assertDataCacheContainsEqualNumberOfPersons(serverPersons);
+        assertClientEventsEqualServerEvents(DATA_CACHE.enabledEvents(), serverEvents);
+        assertEquals(5, DATA_CACHE.getPersonsVersion());
+        assertEquals(5, DATA_CACHE.getEventsVersion());
+    }
+
+    @Test
+    void applyEventOnlyFamilyChanges() {
+        loadDataCache();
+
+        List<ServerEvent> remainingEvents = new ArrayList<>(serverEvents);
+        ServerEvent deletedEvent = remainingEvents.remove(0);
+
+        DATA_CACHE.applyFamilyChanges(
+                PersonChangesResult.newSuccess(Collections.emptyList(), Collections.emptyList(), 7, false),
+                EventChangesResult.newSuccess(Collections.emptyList(),
+                        Collections.singletonList(deletedEvent.getEventID()), 7, false));
+
+        assertClientEventsEqualServerEvents(DATA_CACHE.enabledEvents(), remainingEvents);
+        assertEquals(7, DATA_CACHE.getEventsVersion());
+    }
+
     @Test
     void searchEnabledPeoplePass() {
         loadDataCache();
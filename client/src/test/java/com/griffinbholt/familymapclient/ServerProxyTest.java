@@ -15,6 +15,7 @@ import shared.model.User;
 import shared.request.LoginRequest;
 import shared.request.RegisterRequest;
 import shared.result.AllEventsResult;
+import shared.result.BootstrapResult;
 import shared.result.FamilyMembersResult;
 import shared.result.LoginResult;
 import shared.result.RegisterResult;
@@ -26,11 +27,12 @@ import static org.junit.Assert.assertNull;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
 /*
-4 Public Methods: 8 Tests
+5 Public Methods: 11 Tests
    1. login()
    2. register()
    3. requestFamilyMembers()
    4. requestFamilyEvents()
+   5. bootstrapLogin()
  */
 class ServerProxyTest extends SingletonTest {
     private final ServerProxy SERVER_PROXY = ServerProxy.INSTANCE;
@@ -176,6 +178,20 @@ class ServerProxyTest extends SingletonTest {
         }
     }
 
+    @Test
+    void requestFamilyEventsTwiceWithValidAuthToken() {
+        AuthToken authToken = loginExistingUser(user.getUserName(), user.getPassword(), user.getPersonID());
+
+        AllEventsResult firstResult = SERVER_PROXY.requestFamilyEvents(authToken);
+        AllEventsResult secondResult = SERVER_PROXY.requestFamilyEvents(authToken);
+
+        assertTrue(firstResult.isSuccess());
+        assertTrue(secondResult.isSuccess());
+        assertEquals(firstResult.getData().size(), secondResult.getData().size());
+
+        assertContainsSameEvents(firstResult.getData(), secondResult.getData());
+    }
+
     @Test
     void requestFamilyEventsWithInvalidAuthToken() {
         AuthToken invalidAuthToken = new AuthToken(UUID.randomUUID().toString());
@@ -185,4 +201,36 @@ class ServerProxyTest extends SingletonTest {
         assertFalse(result.isSuccess());
         assertNull(result.getData());
     }
+
+    @Test
+    void bootstrapLoginExistingUser() {
+        LoginRequest request = new LoginRequest(user.getUserName(), user.getPassword());
+
+        BootstrapResult result = SERVER_PROXY.bootstrapLogin(request);
+
+        assertTrue(result.isSuccess());
+        assertNotNull(result.getAuthToken().toString());
+        assertEquals(user.getPersonID(), result.getPersonID());
+        assertEquals(user.getUserName(), result.getUserName());
+
+        List<ServerPerson> expectedFamilyMembers = getSheilaFamilyMembers();
+        List<ServerEvent> expectedFamilyEvents = getSheilaFamilyEvents();
+
+        assertEquals(expectedFamilyMembers.size(), result.getPersons().size());
+        assertContainsSameMembers(expectedFamilyMembers, result.getPersons());
+        assertEquals(expectedFamilyEvents.size(), result.getEvents().size());
+        assertContainsSameEvents(expectedFamilyEvents, result.getEvents());
+    }
+
+    @Test
+    void bootstrapLoginNonExistentUser() {
+        LoginRequest request = new LoginRequest("nonexistentUser", "notAPassword");
+
+        BootstrapResult result = SERVER_PROXY.bootstrapLogin(request);
+
+        assertFalse(result.isSuccess());
+        assertNull(result.getUserName());
+        assertNull(result.getPersons());
+        assertNull(result.getEvents());
+    }
 }
@@ -7,16 +7,31 @@ import java.net.InetSocketAddress;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import server.auth.SignedAuthTokens;
+import server.cache.AuthTokenCache;
+import server.cache.ResponseCache;
+import server.dao.ConnectionPool;
 import server.dao.DatabaseChecker;
+import server.dao.GeneralDao;
+import server.dao.VirtualTreeDao;
 import server.exception.DataAccessException;
+import server.executor.RequestExecutorFactory;
+import server.handler.BootstrapRequestHandler;
 import server.handler.ClearRequestHandler;
+import server.handler.CompressionSettings;
 import server.handler.EventRequestHandler;
 import server.handler.FileRequestHandler;
 import server.handler.FillRequestHandler;
 import server.handler.LoadRequestHandler;
 import server.handler.LoginRequestHandler;
 import server.handler.PersonRequestHandler;
+import server.handler.PrecompressedAssets;
 import server.handler.RegisterRequestHandler;
+import server.handler.StaticAssetCache;
+import server.service.LoadSettings;
+import server.service.helper.GenerationSettings;
+import server.service.helper.SampleDataCatalog;
+import server.service.helper.VirtualFamilyGenerator;
 import shared.http.FamilyMapUrl;
 
 /**
@@ -27,7 +42,27 @@ public final class Server {
     @SuppressWarnings("StaticVariableOfConcreteClass")
     private static final Server familyMapServer = new Server();
 
-    private static final String USAGE = "USAGE: java familymapserver.server portNumber";
+    private static final String USAGE = "USAGE: java familymapserver.server portNumber [option=value ...]\n" +
+            "Options: executor=dispatcher|pool|virtual, threads=N, queue=N, " +
+            "poolMin=N, poolMax=N, poolTimeout=millis, poolLeak=millis, writerTimeout=millis, writerLeak=millis, " +
+            "journal=wal|rollback, synchronous=OFF|NORMAL|FULL|EXTRA, cacheKb=N, mmapSize=bytes, " +
+            "tempStore=DEFAULT|FILE|MEMORY, " +
+            "batchSize=N, fetchSize=N, tokenCacheSize=N, tokenCacheTtl=millis, tokenNegativeTtl=millis, " +
+            "tokenMode=table|signed, tokenLifetime=minutes, responseCacheMb=N, " +
+            "loadCommit=all|chunked, loadChunkRows=N, compressLevel=0-9, compressMinBytes=N, " +
+            "staticCacheMb=N, staticMaxAge=seconds, staticRecheck=millis, generatorThreads=N, generatorQueue=N, " +
+            "fillStorage=rows|virtual, virtualMaxGenerations=N, virtualCacheRows=N, sampleRecheck=millis";
+
+    /*
+     * The JDK HTTP server writes the headers and the body of a response in separate segments, so without TCP_NODELAY,
+     * Nagle's algorithm holds the body back until the client acknowledges the headers, which a client delaying its
+     * ACKs does only after about 40 ms. This property is read once, when the first HttpServer is created.
+     */
+    private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private static final String BATCH_SIZE_OPTION = "batchSize";
+    private static final String FETCH_SIZE_OPTION = "fetchSize";
+    private static final String VIRTUAL_CACHE_ROWS_OPTION = "virtualCacheRows";
 
     private final Logger logger = Logger.getLogger("Server");
 
@@ -36,13 +71,36 @@ public final class Server {
 
     /**
      * Starts up the server, which runs perpetually or until a fatal error occurs
-     * USAGE: java familymapserver.server portNumber
-     * @param args The number of the port on which to run the server
+     * USAGE: java familymapserver.server portNumber [option=value ...]
+     * @param args The number of the port on which to run the server, followed by any startup options
      */
     public static void main(String[] args) {
+        ServerOptions options = getServerOptions(args);
+        configureDatabase(options);
         checkDatabase();
-        int portNumber = getPortNumber(args);
-        familyMapServer.startServer(portNumber);
+        loadStaticAssets();
+        loadSampleData();
+        familyMapServer.startServer(options);
+    }
+
+    /**
+     * Configures and starts a server with the input startup options, as {@link #main(String[])} does, but reports
+     * any failure to the caller instead of exiting. The static assets are not loaded. Used by the tests, which start
+     * a server on a free port (port number 0).
+     * @param options The startup options of the server
+     * @return The started {@link HttpServer}
+     * @throws IOException An error that occurs when attempting to set up the database files, or to open the port
+     * @throws DataAccessException An error that occurs when attempting to set up the database
+     * @throws IllegalArgumentException One of the options has an invalid value
+     */
+    static HttpServer start(ServerOptions options) throws IOException, DataAccessException {
+        configure(options);
+        DatabaseChecker.checkDatabase();
+        SampleDataCatalog.getInstance();
+
+        HttpServer server = familyMapServer.createServer(options.getPortNumber(), new RequestExecutorFactory(options));
+        server.start();
+        return server;
     }
 
     private static void checkDatabase() {
@@ -54,38 +112,101 @@ public final class Server {
         }
     }
 
-    private static int getPortNumber(String[] args) {
-        if (1 != args.length) {
-            familyMapServer.log(Level.SEVERE, "Invalid number of arguments.\n" + USAGE);
+    private static void loadStaticAssets() {
+        try {
+            PrecompressedAssets.precompress();
+            StaticAssetCache.getInstance().load();
+        } catch (IOException e) {
+            familyMapServer.log(Level.WARNING, "Unable to load static assets: " + e.getMessage());
+        }
+    }
+
+    private static void loadSampleData() {
+        try {
+            SampleDataCatalog.getInstance();
+        } catch (IllegalStateException e) {
+            familyMapServer.log(Level.WARNING, e.getMessage());
+        }
+    }
+
+    private static void configureDatabase(ServerOptions options) {
+        try {
+            configure(options);
+        } catch (IllegalArgumentException e) {
+            familyMapServer.log(Level.SEVERE, "Invalid arguments: " + e.getMessage() + "\n" + USAGE);
             closeServer();
         }
+    }
 
-        return Integer.parseInt(args[0]);
+    private static void configure(ServerOptions options) {
+        GeneralDao.setBatchSize(options.getInt(BATCH_SIZE_OPTION, GeneralDao.DEFAULT_BATCH_SIZE));
+        GeneralDao.setFetchSize(options.getInt(FETCH_SIZE_OPTION, GeneralDao.DEFAULT_FETCH_SIZE));
+        AuthTokenCache.configure(options);
+        SignedAuthTokens.configure(options);
+        ResponseCache.configure(options);
+        LoadSettings.configure(options);
+        GenerationSettings.configure(options);
+        SampleDataCatalog.configure(options);
+        VirtualTreeDao.setFamilySource(new VirtualFamilyGenerator());
+        VirtualTreeDao.setRowCacheSize(options.getInt(VIRTUAL_CACHE_ROWS_OPTION,
+                VirtualTreeDao.DEFAULT_ROW_CACHE_SIZE));
+        CompressionSettings.configure(options);
+        StaticAssetCache.configure(options);
+        String connectionSettings = ConnectionPool.configure(options);
+        familyMapServer.log(Level.INFO, "Database journal mode: " + connectionSettings);
     }
 
-    private void startServer(int portNumber) {
+    private static ServerOptions getServerOptions(String[] args) {
         try {
-            InetSocketAddress serverAddress = new InetSocketAddress(portNumber);
+            return ServerOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            familyMapServer.log(Level.SEVERE, "Invalid arguments: " + e.getMessage() + "\n" + USAGE);
+            closeServer();
+            return null;
+        }
+    }
 
-            HttpServer server = HttpServer.create(serverAddress, 10);
+    private void startServer(ServerOptions options) {
+        int portNumber = options.getPortNumber();
 
-            registerHandlers(server);
+        try {
+            RequestExecutorFactory executorFactory = new RequestExecutorFactory(options);
+
+            HttpServer server = createServer(portNumber, executorFactory);
 
             server.start();
 
-            log(Level.INFO, "FamilyMapServer listening on port " + portNumber);
-        } catch (IOException e) {
+            log(Level.INFO, "FamilyMapServer listening on port " + portNumber + " (executor: " + executorFactory + ")");
+        } catch (IOException | IllegalArgumentException e) {
             log(Level.SEVERE, e.getMessage());
             e.printStackTrace();
             closeServer();
         }
     }
 
+    private HttpServer createServer(int portNumber, RequestExecutorFactory executorFactory) throws IOException {
+        InetSocketAddress serverAddress = new InetSocketAddress(portNumber);
+
+        if (null == System.getProperty(NO_DELAY_PROPERTY)) {
+            System.setProperty(NO_DELAY_PROPERTY, Boolean.TRUE.toString());
+        }
+
+        HttpServer server = HttpServer.create(serverAddress, 10);
+
+        registerHandlers(server);
+
+        server.setExecutor(executorFactory.createExecutor());
+
+        return server;
+    }
+
     private void registerHandlers(HttpServer server) {
         server.createContext(FamilyMapUrl.REGISTER, new RegisterRequestHandler());
 
         server.createContext(FamilyMapUrl.LOGIN, new LoginRequestHandler());
 
+        server.createContext(FamilyMapUrl.BOOTSTRAP, new BootstrapRequestHandler());
+
         server.createContext(FamilyMapUrl.CLEAR, new ClearRequestHandler());
 
         server.createContext(FamilyMapUrl.FILL, new FillRequestHandler());
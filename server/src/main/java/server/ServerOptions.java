@@ -0,0 +1,87 @@
+package server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The startup options of the server, parsed from the command-line arguments.
+ * The first argument is always the port number; every following argument has the form <code>name=value</code>.
+ * @author griffinbholt
+ */
+public final class ServerOptions {
+    private static final String OPTION_SEPARATOR = "=";
+
+    private final int portNumber;
+    private final Map<String, String> options;
+
+    private ServerOptions(int portNumber, Map<String, String> options) {
+        this.portNumber = portNumber;
+        this.options = options;
+    }
+
+    /**
+     * Parses the command-line arguments of the server
+     * @param args The command-line arguments (portNumber [name=value ...])
+     * @return The parsed <code>ServerOptions</code>
+     * @throws IllegalArgumentException The arguments are missing the port number, or contain a malformed option
+     */
+    public static ServerOptions parse(String[] args) {
+        if (0 == args.length) {
+            throw new IllegalArgumentException("Missing port number.");
+        }
+
+        int portNumber = parseInt("portNumber", args[0]);
+        Map<String, String> options = new HashMap<>();
+
+        for (int i = 1; i < args.length; i++) {
+            addOption(args[i], options);
+        }
+
+        return new ServerOptions(portNumber, options);
+    }
+
+    private static void addOption(String arg, Map<String, String> options) {
+        int separatorIndex = arg.indexOf(OPTION_SEPARATOR);
+
+        if (0 >= separatorIndex) {
+            throw new IllegalArgumentException("Malformed option: " + arg);
+        }
+
+        options.put(arg.substring(0, separatorIndex), arg.substring(separatorIndex + 1));
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option " + name + " must be an integer: " + value);
+        }
+    }
+
+    /**
+     * Returns the value of the named option
+     * @param name The name of the option
+     * @param defaultValue The value returned if the option was not specified
+     * @return The value of the option; the default value, if unspecified
+     */
+    public String getString(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * Returns the integer value of the named option
+     * @param name The name of the option
+     * @param defaultValue The value returned if the option was not specified
+     * @return The value of the option; the default value, if unspecified
+     * @throws IllegalArgumentException The option was specified, but is not an integer
+     */
+    public int getInt(String name, int defaultValue) {
+        String value = options.get(name);
+        return (null == value) ? defaultValue : parseInt(name, value);
+    }
+
+    // Getter
+    public int getPortNumber() {
+        return portNumber;
+    }
+}
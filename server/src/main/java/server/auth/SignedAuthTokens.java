@@ -0,0 +1,236 @@
+package server.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import server.ServerOptions;
+import server.cache.AuthTokenCache;
+import server.exception.InvalidAuthTokenException;
+import shared.model.AuthToken;
+
+/**
+ * Issues and verifies self-validating authorization tokens, configured by the startup options of the server:
+ * <ul>
+ *     <li><code>tokenMode</code> - table or signed (default: table)</li>
+ *     <li><code>tokenLifetime</code> - minutes a signed token stays valid (default: 1440)</li>
+ * </ul>
+ * A signed token carries the userID and username of its user, along with its issue and expiry times, and is signed
+ * with an HMAC-SHA256 key that only lives in the memory of the server. Verifying a token needs no database access.
+ * <p>
+ * Signed tokens cannot be deleted like the rows of the auth_tokens table, so instead:
+ * <ul>
+ *     <li>{@link #rotateKey()} replaces the signing key, invalidating every token issued so far
+ *     (used by /clear and /load)</li>
+ *     <li>{@link #revokeUser(String)} invalidates every token issued so far to a single user (used by /fill)</li>
+ * </ul>
+ * Since the key is never stored, restarting the server also invalidates every signed token.
+ * <p>
+ * The issue times of tokens and the revocation times of users are drawn from one strictly increasing clock (the
+ * current time in milliseconds, moved forward by one whenever it would not advance), so that a token issued in the
+ * same millisecond as a revocation is still ordered before or after it.
+ * @author griffinbholt
+ */
+public final class SignedAuthTokens {
+    private static final String MODE_OPTION = "tokenMode";
+    private static final String LIFETIME_OPTION = "tokenLifetime";
+
+    private static final int DEFAULT_LIFETIME_MINUTES = 24 * 60;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int KEY_LENGTH = 32;
+    private static final String FIELD_SEPARATOR = ".";
+    private static final String FIELD_SEPARATOR_REGEX = "\\.";
+    private static final int NUM_FIELDS = 6;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @SuppressWarnings("StaticVariableOfConcreteClass")
+    private static volatile SignedAuthTokens signedAuthTokens =
+            new SignedAuthTokens(TokenMode.TABLE, DEFAULT_LIFETIME_MINUTES);
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final TokenMode mode;
+    private final long lifetimeMillis;
+
+    private volatile SigningKey signingKey;
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+    private final AtomicLong lastStamp = new AtomicLong();
+
+    private SignedAuthTokens(TokenMode mode, int lifetimeMinutes) {
+        if (0 >= lifetimeMinutes) {
+            throw new IllegalArgumentException("Option " + LIFETIME_OPTION + " must be positive: " + lifetimeMinutes);
+        }
+
+        this.mode = mode;
+        this.lifetimeMillis = TimeUnit.MINUTES.toMillis(lifetimeMinutes);
+        this.signingKey = generateKey(0);
+    }
+
+    /**
+     * Replaces the token settings of the server with ones configured by the input startup options
+     * @param options The startup options of the server
+     * @throws IllegalArgumentException One of the options has an invalid value
+     */
+    public static void configure(ServerOptions options) {
+        signedAuthTokens = new SignedAuthTokens(
+                TokenMode.generate(options.getString(MODE_OPTION, TokenMode.TABLE.toString())),
+                options.getInt(LIFETIME_OPTION, DEFAULT_LIFETIME_MINUTES));
+    }
+
+    /**
+     * Returns the token settings of the server
+     * @return The token settings of the server
+     */
+    public static SignedAuthTokens getInstance() {
+        return signedAuthTokens;
+    }
+
+    /**
+     * Checks whether the server issues signed tokens
+     * @return true, if the server issues signed tokens; false, if it stores its tokens in the auth_tokens table
+     */
+    public boolean isEnabled() {
+        return TokenMode.SIGNED == mode;
+    }
+
+    /**
+     * Issues a signed token for the input user
+     * @param userID The userID of the user
+     * @param username The username of the user
+     * @return The signed {@link AuthToken}
+     */
+    public AuthToken issue(String userID, String username) {
+        SigningKey key = signingKey;
+        long issuedAt = nextStamp();
+
+        String payload = key.id + FIELD_SEPARATOR + encode(userID) + FIELD_SEPARATOR + encode(username) +
+                FIELD_SEPARATOR + issuedAt + FIELD_SEPARATOR + (issuedAt + lifetimeMillis);
+
+        return new AuthToken(payload + FIELD_SEPARATOR + ENCODER.encodeToString(key.sign(payload)));
+    }
+
+    /**
+     * Verifies a signed token, without accessing the database
+     * @param authToken The signed authorization token
+     * @return The {@link AuthTokenCache.Authorization Authorization} carried by the token
+     * @throws InvalidAuthTokenException The token is missing, malformed, forged, expired, or revoked
+     */
+    public AuthTokenCache.Authorization verify(String authToken) throws InvalidAuthTokenException {
+        if (null == authToken) {
+            throw new InvalidAuthTokenException();
+        }
+
+        String[] fields = authToken.split(FIELD_SEPARATOR_REGEX, -1);
+        SigningKey key = signingKey;
+
+        if (NUM_FIELDS != fields.length || !key.id.equals(fields[0])) {
+            throw new InvalidAuthTokenException();
+        }
+
+        String payload = authToken.substring(0, authToken.lastIndexOf(FIELD_SEPARATOR));
+
+        try {
+            if (!MessageDigest.isEqual(key.sign(payload), DECODER.decode(fields[5]))) {
+                throw new InvalidAuthTokenException();
+            }
+
+            String userID = decode(fields[1]);
+            String username = decode(fields[2]);
+            long issuedAt = Long.parseLong(fields[3]);
+            long expiresAt = Long.parseLong(fields[4]);
+
+            checkNotExpired(expiresAt);
+            checkNotRevoked(username, issuedAt);
+
+            return new AuthTokenCache.Authorization(userID, username);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidAuthTokenException();
+        }
+    }
+
+    private static void checkNotExpired(long expiresAt) throws InvalidAuthTokenException {
+        if (System.currentTimeMillis() >= expiresAt) {
+            throw new InvalidAuthTokenException("Expired authorization token.");
+        }
+    }
+
+    private void checkNotRevoked(String username, long issuedAt) throws InvalidAuthTokenException {
+        Long revocationTime = revokedBefore.get(username);
+
+        if (null != revocationTime && issuedAt < revocationTime) {
+            throw new InvalidAuthTokenException();
+        }
+    }
+
+    /**
+     * Invalidates every token issued so far, by replacing the signing key
+     */
+    public void rotateKey() {
+        signingKey = generateKey(signingKey.generation + 1);
+        revokedBefore.clear();
+    }
+
+    /**
+     * Invalidates every token issued so far to the user with the input username
+     * @param username The username of the user
+     */
+    public void revokeUser(String username) {
+        long now = nextStamp();
+        revokedBefore.put(username, now);
+
+        // Once every token issued before a revocation has expired, the revocation is no longer needed
+        revokedBefore.values().removeIf(revocationTime -> revocationTime + lifetimeMillis < now);
+    }
+
+    private long nextStamp() {
+        return lastStamp.accumulateAndGet(System.currentTimeMillis(), (last, now) -> Math.max(last + 1, now));
+    }
+
+    private SigningKey generateKey(int generation) {
+        byte[] keyBytes = new byte[KEY_LENGTH];
+        random.nextBytes(keyBytes);
+        return new SigningKey(generation, new SecretKeySpec(keyBytes, MAC_ALGORITHM));
+    }
+
+    private static String encode(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String value) {
+        return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+    }
+
+    private static final class SigningKey {
+        private final int generation;
+        private final String id;
+        private final SecretKeySpec secretKey;
+
+        private SigningKey(int generation, SecretKeySpec secretKey) {
+            this.generation = generation;
+            this.id = "k" + generation;
+            this.secretKey = secretKey;
+        }
+
+        private byte[] sign(String payload) {
+            try {
+                Mac mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(secretKey);
+                return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to sign authorization token", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package server.auth;
+
+/**
+ * An enumeration of the kinds of authorization tokens the server can issue
+ * @author griffinbholt
+ */
+public enum TokenMode {
+    /**
+     * Random tokens, stored in the auth_tokens table and verified against it
+     */
+    TABLE,
+
+    /**
+     * Self-validating tokens, signed by the server and verified in memory (see {@link SignedAuthTokens})
+     */
+    SIGNED;
+
+    /**
+     * Returns the <code>TokenMode</code> with the input name, ignoring case
+     * @param name The name of the mode (table or signed)
+     * @return The matching <code>TokenMode</code>
+     * @throws IllegalArgumentException No mode exists with the input name
+     */
+    public static TokenMode generate(String name) {
+        for (TokenMode mode : values()) {
+            if (mode.toString().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown token mode: " + name);
+    }
+}
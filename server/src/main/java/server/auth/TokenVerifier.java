@@ -0,0 +1,31 @@
+package server.auth;
+
+import server.cache.AuthTokenCache;
+import server.exception.InvalidAuthTokenException;
+
+/**
+ * Verifies authorization tokens without accessing the database, whenever the token mode allows it
+ * @author griffinbholt
+ */
+public final class TokenVerifier {
+    private TokenVerifier() {
+    }
+
+    /**
+     * Verifies an authorization token in memory: a signed token by its signature (see {@link SignedAuthTokens}),
+     * and a table token through the {@link AuthTokenCache}
+     * @param authToken The authorization token
+     * @return The {@link AuthTokenCache.Authorization Authorization} of the token; null, if the token can only be
+     *         verified against the database
+     * @throws InvalidAuthTokenException The token is known to be invalid
+     */
+    public static AuthTokenCache.Authorization verifyInMemory(String authToken) throws InvalidAuthTokenException {
+        SignedAuthTokens signedAuthTokens = SignedAuthTokens.getInstance();
+
+        if (signedAuthTokens.isEnabled()) {
+            return signedAuthTokens.verify(authToken);
+        }
+
+        return AuthTokenCache.getInstance().get(authToken);
+    }
+}
@@ -0,0 +1,361 @@
+package server.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import server.ServerOptions;
+import server.exception.InvalidAuthTokenException;
+
+/**
+ * A bounded, concurrent cache of verified authorization tokens, configured by the startup options of the server:
+ * <ul>
+ *     <li><code>tokenCacheSize</code> - the maximum number of cached tokens; 0 disables the cache (default: 10000)</li>
+ *     <li><code>tokenCacheTtl</code> - milliseconds a verified token stays cached (default: 300000)</li>
+ *     <li><code>tokenNegativeTtl</code> - milliseconds an unknown token stays cached as invalid (default: 5000)</li>
+ * </ul>
+ * The cache is only a shortcut in front of the auth_tokens table, so it must be invalidated whenever tokens are
+ * deleted from the table, after the deletion is committed. Every invalidation moves the cache to a new generation. A
+ * token verified against the table is only cached if the cache is still in the generation read before the database
+ * was read, so that a reader that saw a token just before a /clear deleted it cannot cache it after the /clear
+ * invalidated the cache.
+ * @author griffinbholt
+ */
+public final class AuthTokenCache {
+    private static final String SIZE_OPTION = "tokenCacheSize";
+    private static final String TTL_OPTION = "tokenCacheTtl";
+    private static final String NEGATIVE_TTL_OPTION = "tokenNegativeTtl";
+
+    private static final int DEFAULT_SIZE = 10000;
+    private static final int DEFAULT_TTL_MILLIS = 300000;
+    private static final int DEFAULT_NEGATIVE_TTL_MILLIS = 5000;
+
+    @SuppressWarnings("StaticVariableOfConcreteClass")
+    private static volatile AuthTokenCache authTokenCache =
+            new AuthTokenCache(DEFAULT_SIZE, DEFAULT_TTL_MILLIS, DEFAULT_NEGATIVE_TTL_MILLIS);
+
+    private final ExpiringMap<Authorization> verifiedTokens;
+    private final ExpiringMap<Boolean> invalidTokens;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder numHits = new LongAdder();
+    private final LongAdder numNegativeHits = new LongAdder();
+    private final LongAdder numMisses = new LongAdder();
+
+    private AuthTokenCache(int maxSize, long ttlMillis, long negativeTtlMillis) {
+        if (0 > maxSize || 0 > ttlMillis || 0 > negativeTtlMillis) {
+            throw new IllegalArgumentException("The auth token cache options must not be negative.");
+        }
+
+        this.verifiedTokens = new ExpiringMap<>(maxSize, ttlMillis);
+        this.invalidTokens = new ExpiringMap<>(maxSize, negativeTtlMillis);
+    }
+
+    /**
+     * Replaces the auth token cache of the server with one configured by the input startup options
+     * @param options The startup options of the server
+     * @throws IllegalArgumentException One of the options has an invalid value
+     */
+    public static void configure(ServerOptions options) {
+        authTokenCache = new AuthTokenCache(options.getInt(SIZE_OPTION, DEFAULT_SIZE),
+                options.getInt(TTL_OPTION, DEFAULT_TTL_MILLIS),
+                options.getInt(NEGATIVE_TTL_OPTION, DEFAULT_NEGATIVE_TTL_MILLIS));
+    }
+
+    /**
+     * Returns the auth token cache of the server
+     * @return The auth token cache of the server
+     */
+    public static AuthTokenCache getInstance() {
+        return authTokenCache;
+    }
+
+    /**
+     * Looks up an authorization token in the cache
+     * @param authToken The authorization token
+     * @return The cached {@link Authorization} of the token; null, if the token is not cached
+     * @throws InvalidAuthTokenException The token is missing, or was recently found to be invalid
+     */
+    public Authorization get(String authToken) throws InvalidAuthTokenException {
+        if (null == authToken) {
+            throw new InvalidAuthTokenException();
+        }
+
+        Authorization authorization = verifiedTokens.get(authToken);
+
+        if (null != authorization) {
+            numHits.increment();
+            return authorization;
+        }
+
+        if (null != invalidTokens.get(authToken)) {
+            numNegativeHits.increment();
+            throw new InvalidAuthTokenException();
+        }
+
+        numMisses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the current generation of the cache, which changes on every invalidation. It must be read before the
+     * database transaction whose result is cached begins.
+     * @return The current generation of the cache
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a verified authorization token, unless the cache was invalidated since it was verified
+     * @param authToken The authorization token
+     * @param userID The userID of the user linked to the token
+     * @param username The username of the user linked to the token
+     * @param verifiedInGeneration The generation of the cache read before the token was verified
+     * @return true, if the token was cached; false, if it was verified in a previous generation
+     */
+    public boolean put(String authToken, String userID, String username, long verifiedInGeneration) {
+        return putIfCurrent(verifiedTokens, authToken, new Authorization(userID, username), verifiedInGeneration);
+    }
+
+    /**
+     * Caches an authorization token that is not linked to any user, unless the cache was invalidated since it was
+     * looked up
+     * @param authToken The invalid authorization token
+     * @param verifiedInGeneration The generation of the cache read before the token was looked up
+     * @return true, if the token was cached; false, if it was looked up in a previous generation
+     */
+    public boolean putInvalid(String authToken, long verifiedInGeneration) {
+        return putIfCurrent(invalidTokens, authToken, Boolean.TRUE, verifiedInGeneration);
+    }
+
+    /*
+     * An invalidation moves to the next generation before removing any entry, so an entry put in the old generation is
+     * either removed by the invalidation, or seen by the second check here and removed again
+     */
+    private <V> boolean putIfCurrent(ExpiringMap<V> map, String authToken, V value, long verifiedInGeneration) {
+        if (verifiedInGeneration != generation.get()) {
+            return false;
+        }
+
+        Entry<V> entry = map.put(authToken, value);
+
+        if (null != entry && verifiedInGeneration != generation.get()) {
+            map.remove(authToken, entry);
+            return false;
+        }
+
+        return null != entry;
+    }
+
+    /**
+     * Removes an authorization token from the negative cache, once it has been linked to a user
+     * @param authToken The newly generated authorization token
+     */
+    public void forgetInvalid(String authToken) {
+        invalidTokens.remove(authToken);
+    }
+
+    /**
+     * Removes every cached token of the user with the input username
+     * @param username The username of the user
+     */
+    public void invalidateUser(String username) {
+        generation.incrementAndGet();
+        verifiedTokens.removeIf(authorization -> username.equals(authorization.getUsername()));
+    }
+
+    /**
+     * Removes every cached token
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        verifiedTokens.clear();
+        invalidTokens.clear();
+    }
+
+    /**
+     * Takes a snapshot of the hit and miss statistics of the cache
+     * @return The current {@link Statistics} of the cache
+     */
+    public Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    /**
+     * The user linked to a verified authorization token
+     */
+    public static final class Authorization {
+        private final String userID;
+        private final String username;
+
+        /**
+         * Constructor
+         * @param userID The userID of the user linked to the token
+         * @param username The username of the user linked to the token
+         */
+        public Authorization(String userID, String username) {
+            this.userID = userID;
+            this.username = username;
+        }
+
+        // Getters
+        public String getUserID() {
+            return userID;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+    }
+
+    /**
+     * A snapshot of the hit and miss statistics of an {@link AuthTokenCache}
+     */
+    public static final class Statistics {
+        private final long numHits;
+        private final long numNegativeHits;
+        private final long numMisses;
+        private final long numEvictions;
+        private final int size;
+
+        private Statistics(AuthTokenCache cache) {
+            this.numHits = cache.numHits.sum();
+            this.numNegativeHits = cache.numNegativeHits.sum();
+            this.numMisses = cache.numMisses.sum();
+            this.numEvictions = cache.verifiedTokens.numEvictions.sum() + cache.invalidTokens.numEvictions.sum();
+            this.size = cache.verifiedTokens.entries.size();
+        }
+
+        /**
+         * Generates a string representation of the cache statistics
+         * @return The string representation of the cache statistics
+         */
+        @Override
+        public String toString() {
+            return "AuthTokenCache.Statistics{" +
+                    "hits=" + numHits +
+                    ", negativeHits=" + numNegativeHits +
+                    ", misses=" + numMisses +
+                    ", evictions=" + numEvictions +
+                    ", size=" + size +
+                    '}';
+        }
+
+        // Getters
+        public long getNumHits() {
+            return numHits;
+        }
+
+        public long getNumNegativeHits() {
+            return numNegativeHits;
+        }
+
+        public long getNumMisses() {
+            return numMisses;
+        }
+
+        public long getNumEvictions() {
+            return numEvictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+
+    /*
+     * A concurrent map whose entries expire after a fixed time. Once the map outgrows its maximum size, the expired
+     * entries are purged, and then arbitrary entries are evicted until the map is a tenth below its maximum size, so
+     * that the cost of a purge is spread over many insertions.
+     */
+    private static final class ExpiringMap<V> {
+        private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+        private final LongAdder numEvictions = new LongAdder();
+        private final int maxSize;
+        private final long ttlNanos;
+
+        private ExpiringMap(int maxSize, long ttlMillis) {
+            this.maxSize = maxSize;
+            this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        }
+
+        private V get(String key) {
+            Entry<V> entry = entries.get(key);
+
+            if (null == entry) {
+                return null;
+            }
+
+            if (entry.isExpired(System.nanoTime())) {
+                entries.remove(key, entry);
+                return null;
+            }
+
+            return entry.value;
+        }
+
+        private Entry<V> put(String key, V value) {
+            if (0 == maxSize || 0 == ttlNanos) {
+                return null;
+            }
+
+            Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+            entries.put(key, entry);
+
+            if (entries.size() > maxSize) {
+                purge();
+            }
+
+            return entry;
+        }
+
+        private void remove(String key) {
+            entries.remove(key);
+        }
+
+        private void remove(String key, Entry<V> entry) {
+            entries.remove(key, entry);
+        }
+
+        private void removeIf(Predicate<V> predicate) {
+            entries.values().removeIf(entry -> predicate.test(entry.value));
+        }
+
+        private void clear() {
+            entries.clear();
+        }
+
+        private void purge() {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> entry.isExpired(now));
+
+            int targetSize = maxSize - maxSize / 10;
+            Iterator<Entry<V>> iterator = entries.values().iterator();
+
+            while (entries.size() > targetSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                numEvictions.increment();
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return 0 < now - expiresAt;
+        }
+    }
+}
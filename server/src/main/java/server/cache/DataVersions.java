@@ -0,0 +1,101 @@
+package server.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The versions of the data (persons and events) of every user, from which the entity tags of the /person and /event
+ * responses are built, so that clients can revalidate their copy of the data with a conditional GET.
+ * <p>
+ * Every change to the data of a user draws a new stamp from a single, increasing counter: /fill stamps its user, and
+ * /load and /clear stamp every user at once. The version of a user is the last stamp that touched its data. The
+ * versions are only kept in memory, so every tag also carries the startup time of the server, and a restart changes
+ * the tags of every user. Every tag also carries a truncated SHA-256 digest of the username, so that the tags of two
+ * users never match, even if their data has the same version.
+ * @author griffinbholt
+ */
+public final class DataVersions {
+    @SuppressWarnings("StaticVariableOfConcreteClass")
+    private static final DataVersions dataVersions = new DataVersions();
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int USER_DIGEST_BYTES = 16;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong stamps = new AtomicLong();
+    private final Map<String, Long> userVersions = new ConcurrentHashMap<>();
+    private volatile long allUsersVersion;
+
+    private DataVersions() {
+    }
+
+    /**
+     * Returns the data versions of the server
+     * @return The data versions of the server
+     */
+    public static DataVersions getInstance() {
+        return dataVersions;
+    }
+
+    /**
+     * Returns the current stamp. A version read after a query is only known to describe the data read by the query,
+     * if it is not newer than the stamp taken before the query.
+     * @return The current stamp
+     */
+    public long currentStamp() {
+        return stamps.get();
+    }
+
+    /**
+     * Returns the version of the data of a user
+     * @param username The username of the user
+     * @return The version of the data of the user
+     */
+    public long getVersion(String username) {
+        Long userVersion = userVersions.get(username);
+        return (null == userVersion) ? allUsersVersion : Math.max(userVersion, allUsersVersion);
+    }
+
+    /**
+     * Builds the weak entity tag of the data of a user at the input version
+     * @param username The username of the user
+     * @param version The version of the data of the user
+     * @return The entity tag, quoted as in an ETag header
+     */
+    public String toEtag(String username, long version) {
+        return "W/\"" + epoch + "." + Long.toString(version, Character.MAX_RADIX) + "." +
+                digestUsername(username) + "\"";
+    }
+
+    private static String digestUsername(String username) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            byte[] hash = digest.digest(username.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, USER_DIGEST_BYTES));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * Stamps the data of a user as changed. Must be called after the change is committed.
+     * @param username The username of the user
+     */
+    public void bumpUser(String username) {
+        userVersions.put(username, stamps.incrementAndGet());
+    }
+
+    /**
+     * Stamps the data of every user as changed. Must be called after the change is committed.
+     */
+    public synchronized void bumpAll() {
+        allUsersVersion = stamps.incrementAndGet();
+        userVersions.values().removeIf(userVersion -> userVersion <= allUsersVersion);
+    }
+}
@@ -0,0 +1,290 @@
+package server.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import server.ServerOptions;
+
+/**
+ * A per-user cache of the encoded bodies of successful responses, configured by the startup options of the server:
+ * <ul>
+ *     <li><code>responseCacheMb</code> - the memory budget of the cache, in MiB; 0 disables the cache (default: 64)</li>
+ * </ul>
+ * The least recently used responses are evicted once the cached bodies (and their gzip-compressed variants) outgrow
+ * the memory budget. The cached data of a user only changes through /fill, /load, and /clear, which must invalidate
+ * the cache.
+ * @author griffinbholt
+ */
+public final class ResponseCache {
+    private static final String BUDGET_OPTION = "responseCacheMb";
+
+    private static final int DEFAULT_BUDGET_MB = 64;
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
+    @SuppressWarnings("StaticVariableOfConcreteClass")
+    private static volatile ResponseCache responseCache = new ResponseCache(DEFAULT_BUDGET_MB);
+
+    private final long budgetBytes;
+
+    private final Map<String, CachedResponse> responses = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+    private long generation;
+
+    private final LongAdder numHits = new LongAdder();
+    private final LongAdder numMisses = new LongAdder();
+    private final LongAdder numEvictions = new LongAdder();
+
+    private ResponseCache(int budgetMb) {
+        if (0 > budgetMb) {
+            throw new IllegalArgumentException("Option " + BUDGET_OPTION + " must not be negative: " + budgetMb);
+        }
+
+        this.budgetBytes = budgetMb * BYTES_PER_MB;
+    }
+
+    /**
+     * Replaces the response cache of the server with one configured by the input startup options
+     * @param options The startup options of the server
+     * @throws IllegalArgumentException One of the options has an invalid value
+     */
+    public static void configure(ServerOptions options) {
+        responseCache = new ResponseCache(options.getInt(BUDGET_OPTION, DEFAULT_BUDGET_MB));
+    }
+
+    /**
+     * Returns the response cache of the server
+     * @return The response cache of the server
+     */
+    public static ResponseCache getInstance() {
+        return responseCache;
+    }
+
+    /**
+     * Looks up the cached response to a request of a user
+     * @param username The username of the user
+     * @param resource The requested resource (e.g. "event" or "person")
+     * @return The {@link CachedResponse}; null, if the response is not cached
+     */
+    public synchronized CachedResponse get(String username, String resource) {
+        CachedResponse response = responses.get(toKey(username, resource));
+
+        if (null == response) {
+            numMisses.increment();
+        } else {
+            numHits.increment();
+        }
+
+        return response;
+    }
+
+    /**
+     * Returns the current generation of the cache, which changes on every invalidation.
+     * Read it before building a response, and pass it to {@link #put(String, String, byte[], long)}.
+     * @return The current generation of the cache
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Caches the response to a request of a user, unless the cache was invalidated since the response was built
+     * @param username The username of the user
+     * @param resource The requested resource
+     * @param body The encoded body of the response
+     * @param builtInGeneration The generation of the cache read before the response was built
+     */
+    public synchronized void put(String username, String resource, byte[] body, long builtInGeneration) {
+        if (builtInGeneration != generation || body.length > budgetBytes) {
+            return;
+        }
+
+        CachedResponse previous = responses.put(toKey(username, resource), new CachedResponse(this, username, body));
+
+        if (null != previous) {
+            remove(previous);
+        }
+
+        usedBytes += body.length;
+        evictUntilWithinBudget();
+    }
+
+    private synchronized void attachCompressedBody(CachedResponse response, byte[] compressedBody) {
+        if (null != response.compressedBody) {
+            return;
+        }
+
+        response.compressedBody = compressedBody;
+
+        if (response.cached) {
+            usedBytes += compressedBody.length;
+            evictUntilWithinBudget();
+        }
+    }
+
+    private void evictUntilWithinBudget() {
+        Iterator<CachedResponse> iterator = responses.values().iterator();
+
+        while (usedBytes > budgetBytes && iterator.hasNext()) {
+            remove(iterator.next());
+            iterator.remove();
+            numEvictions.increment();
+        }
+    }
+
+    private void remove(CachedResponse response) {
+        usedBytes -= response.getSize();
+        response.cached = false;
+    }
+
+    /**
+     * Removes every cached response of the user with the input username
+     * @param username The username of the user
+     */
+    public synchronized void invalidateUser(String username) {
+        generation++;
+
+        Iterator<CachedResponse> iterator = responses.values().iterator();
+
+        while (iterator.hasNext()) {
+            CachedResponse response = iterator.next();
+
+            if (username.equals(response.username)) {
+                remove(response);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes every cached response
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        responses.values().forEach(this::remove);
+        responses.clear();
+    }
+
+    /**
+     * Takes a snapshot of the hit, miss, and memory statistics of the cache
+     * @return The current {@link Statistics} of the cache
+     */
+    public synchronized Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    private static String toKey(String username, String resource) {
+        return resource + '/' + username;
+    }
+
+    /**
+     * The encoded body of a cached response, along with its gzip-compressed variant (compressed when first needed).
+     * Whether the response is still cached, and its compressed variant, are guarded by the lock of the cache.
+     */
+    public static final class CachedResponse {
+        private final ResponseCache cache;
+        private final String username;
+        private final byte[] body;
+        private volatile byte[] compressedBody;
+        private boolean cached = true;
+
+        private CachedResponse(ResponseCache cache, String username, byte[] body) {
+            this.cache = cache;
+            this.username = username;
+            this.body = body;
+        }
+
+        /**
+         * Returns the gzip-compressed body of the response, compressing it the first time
+         * @return The gzip-compressed body
+         */
+        public byte[] getCompressedBody() {
+            if (null == compressedBody) {
+                cache.attachCompressedBody(this, gzip(body));
+            }
+
+            return compressedBody;
+        }
+
+        private static byte[] gzip(byte[] bytes) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+                gzipStream.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return compressed.toByteArray();
+        }
+
+        private long getSize() {
+            return body.length + ((null == compressedBody) ? 0 : compressedBody.length);
+        }
+
+        // Getter
+        public byte[] getBody() {
+            return body;
+        }
+    }
+
+    /**
+     * A snapshot of the hit, miss, and memory statistics of a {@link ResponseCache}
+     */
+    public static final class Statistics {
+        private final long numHits;
+        private final long numMisses;
+        private final long numEvictions;
+        private final int numResponses;
+        private final long usedBytes;
+
+        private Statistics(ResponseCache cache) {
+            this.numHits = cache.numHits.sum();
+            this.numMisses = cache.numMisses.sum();
+            this.numEvictions = cache.numEvictions.sum();
+            this.numResponses = cache.responses.size();
+            this.usedBytes = cache.usedBytes;
+        }
+
+        /**
+         * Generates a string representation of the cache statistics
+         * @return The string representation of the cache statistics
+         */
+        @Override
+        public String toString() {
+            return "ResponseCache.Statistics{" +
+                    "hits=" + numHits +
+                    ", misses=" + numMisses +
+                    ", evictions=" + numEvictions +
+                    ", responses=" + numResponses +
+                    ", usedBytes=" + usedBytes +
+                    '}';
+        }
+
+        // Getters
+        public long getNumHits() {
+            return numHits;
+        }
+
+        public long getNumMisses() {
+            return numMisses;
+        }
+
+        public long getNumEvictions() {
+            return numEvictions;
+        }
+
+        public int getNumResponses() {
+            return numResponses;
+        }
+
+        public long getUsedBytes() {
+            return usedBytes;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package server.dao;
 
+import server.auth.SignedAuthTokens;
+import server.cache.AuthTokenCache;
 import server.dao.tablecolumns.AuthTokenColumns;
+import server.dao.tablecolumns.UserColumns;
 import server.exception.DataAccessException;
 import server.exception.InvalidAuthTokenException;
 import shared.model.AuthToken;
@@ -15,6 +18,9 @@ import java.util.UUID;
  * @author griffinbholt
  */
 public final class AuthTokenDao extends GeneralDao {
+    private static final String SELECT_USERNAME_SQL = "SELECT " + UserColumns.USERNAME.toLowerCase() +
+            " FROM users WHERE " + UserColumns.ID.toLowerCase() + " = ?;";
+
     /**
      * Creates a new <code>AuthTokenDao</code> object with the input {@link java.sql.Connection Connection} object
      * @param conn The {@link java.sql.Connection Connection} object, connecting to the database
@@ -34,17 +40,42 @@ public final class AuthTokenDao extends GeneralDao {
     }
 
     /**
-     * Generates a unique authorization token for the given userID and adds it to the database
+     * Generates a unique authorization token for the given userID and adds it to the database.
+     * If the server issues signed tokens (see {@link SignedAuthTokens}), the token is signed instead, and nothing
+     * is added to the database.
      * @param userID The userID of the user for which the authorization token is generated
      * @return The generated unique authorization token for the user
      * @throws DataAccessException An error that occurs when attempting to access the database
      */
     public AuthToken generate(String userID) throws DataAccessException {
+        SignedAuthTokens signedAuthTokens = SignedAuthTokens.getInstance();
+
+        if (signedAuthTokens.isEnabled()) {
+            return signedAuthTokens.issue(userID, queryUsername(userID));
+        }
+
         AuthToken newAuthToken = generateValidAuthToken();
         addAuthTokenToDatabase(userID, newAuthToken);
+        AuthTokenCache.getInstance().forgetInvalid(newAuthToken.toString());
         return newAuthToken;
     }
 
+    private String queryUsername(String userID) throws DataAccessException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_USERNAME_SQL)) {
+            executeQuery(stmt, userID);
+
+            if (!queryFound()) {
+                throw new DataAccessException("No user exists in the database with userID: " + userID);
+            }
+
+            return rs.getString(UserColumns.USERNAME.toLowerCase());
+        } catch (SQLException e) {
+            throw new DataAccessException("Error encountered while generating authorization token");
+        } finally {
+            super.closeResultSet();
+        }
+    }
+
     private AuthToken generateValidAuthToken() throws DataAccessException {
         String sql = allColsOfAuthTokensTableSQL();
 
@@ -100,6 +131,16 @@ public final class AuthTokenDao extends GeneralDao {
      * @throws DataAccessException An error that occurs when attempting to access the database
      * */
     public String getUserID(AuthToken authToken) throws DataAccessException {
+        SignedAuthTokens signedAuthTokens = SignedAuthTokens.getInstance();
+
+        if (signedAuthTokens.isEnabled()) {
+            try {
+                return signedAuthTokens.verify(authToken.toString()).getUserID();
+            } catch (InvalidAuthTokenException e) {
+                throw new DataAccessException(e.getMessage());
+            }
+        }
+
         String sql = userIDMatchingAuthTokenSQL();
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -0,0 +1,89 @@
+package server.dao;
+
+import server.exception.DataAccessException;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An open bulk insert into the persons or events table, to which rows can be added one at a time, as they are
+ * produced. The rows are sent to the database through a single prepared statement, in batches of
+ * {@link GeneralDao#getBatchSize()} rows, and are all stamped with the same change sequence number.
+ * <p>
+ * Any rows still unsent are only sent by {@link #finish()}; closing the inserter without finishing it discards them.
+ * @param <T> The type of the inserted objects
+ * @author griffinbholt
+ */
+public final class BatchInserter<T> implements AutoCloseable {
+    private final RequiringAuthorizationDao dao;
+    private final PreparedStatement stmt;
+    private final Function<T, String> usernameOf;
+    private final RequiringAuthorizationDao.RowWriter<T> rowWriter;
+
+    private final int batchSize = GeneralDao.getBatchSize();
+    private final Map<String, String> userIDs = new HashMap<>();
+    private final long startTime = System.nanoTime();
+    private int numAdded;
+
+    BatchInserter(RequiringAuthorizationDao dao, PreparedStatement stmt, Function<T, String> usernameOf,
+                  RequiringAuthorizationDao.RowWriter<T> rowWriter) {
+        this.dao = dao;
+        this.stmt = stmt;
+        this.usernameOf = usernameOf;
+        this.rowWriter = rowWriter;
+    }
+
+    /**
+     * Adds a row to the insert, sending the current batch to the database once it is full
+     * @param row The object to insert
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public void add(T row) throws DataAccessException {
+        try {
+            rowWriter.setInsertTableColumns(row, dao.lookUpUserID(usernameOf.apply(row), userIDs), stmt);
+            stmt.addBatch();
+            numAdded++;
+
+            if (0 == numAdded % batchSize) {
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(dao.ERROR_INSERTING);
+        }
+    }
+
+    /**
+     * Sends the rows of the last, partial batch to the database
+     * @return The number of rows inserted
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public int finish() throws DataAccessException {
+        try {
+            if (0 != numAdded % batchSize) {
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(dao.ERROR_INSERTING);
+        }
+
+        dao.logInsertRate(numAdded, System.nanoTime() - startTime);
+        return numAdded;
+    }
+
+    // Getter
+    public int getNumAdded() {
+        return numAdded;
+    }
+
+    @Override
+    public void close() throws DataAccessException {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            throw new DataAccessException(dao.ERROR_INSERTING);
+        }
+    }
+}
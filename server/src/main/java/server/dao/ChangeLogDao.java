@@ -0,0 +1,197 @@
+package server.dao;
+
+import server.exception.DataAccessException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Database access object for the change log of the persons and events tables, which consists of the
+ * <code>change_sequence</code> and <code>tombstones</code> tables.
+ * <p>
+ * Every write to the persons or events table draws a change sequence number, with which the written rows are stamped
+ * (see {@link RequiringAuthorizationDao}), and every erased row leaves a tombstone stamped with the sequence number of
+ * its erasure. The changes to the data of a user since a version are then the rows and tombstones of the user stamped
+ * after that version. The sequence numbers are drawn from a single counter for the whole database, so they keep
+ * increasing across /clear and /load, which delete every user without leaving any tombstones; instead, they record
+ * their sequence number as the reset sequence number, before which no changes can be reconstructed.
+ * @author griffinbholt
+ */
+public final class ChangeLogDao extends GeneralDao {
+    private static final String NEXT_SEQUENCE_SQL = "UPDATE change_sequence SET last_seq = last_seq + 1 WHERE id = 1;";
+    private static final String RESET_SEQUENCE_SQL = "UPDATE change_sequence SET reset_seq = last_seq WHERE id = 1;";
+    private static final String SELECT_SEQUENCE_SQL = "SELECT last_seq, reset_seq FROM change_sequence WHERE id = 1;";
+
+    private static final String ERROR_DRAWING_SEQUENCE = "Error encountered while drawing a change sequence number.";
+    private static final String ERROR_READING_SEQUENCE = "Error encountered while reading the change sequence number.";
+    private static final String ERROR_ADDING_TOMBSTONES = "Error encountered while recording erased rows.";
+    private static final String ERROR_QUERYING_TOMBSTONES = "Error encountered while querying for erased rows.";
+
+    /**
+     * Creates a new <code>ChangeLogDao</code> object with the input {@link java.sql.Connection Connection} object
+     * @param conn The {@link java.sql.Connection Connection} object, connecting to the database
+     */
+    public ChangeLogDao(Connection conn) {
+        super(conn, "tombstone", new String[]{
+                "username",
+                "table_name",
+                "row_id",
+                "change_seq"
+        });
+    }
+
+    /**
+     * Creates a new <code>ChangeLogDao</code> object with no {@link java.sql.Connection Connection} object
+     */
+    public ChangeLogDao() {
+        this(null);
+    }
+
+    /**
+     * Draws the next change sequence number. The number is only taken once the transaction commits, and no other
+     * transaction can draw one until then, so the sequence numbers of committed changes always increase.
+     * @return The drawn change sequence number
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    long nextChangeSequence() throws DataAccessException {
+        try (PreparedStatement stmt = conn.prepareStatement(NEXT_SEQUENCE_SQL)) {
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_DRAWING_SEQUENCE);
+        }
+
+        return getVersion().getCurrentSequence();
+    }
+
+    /**
+     * Draws the next change sequence number as the reset sequence number, and deletes every tombstone, because every
+     * user is about to be deleted (by /clear or /load)
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public void resetChanges() throws DataAccessException {
+        nextChangeSequence();
+
+        try (PreparedStatement stmt = conn.prepareStatement(RESET_SEQUENCE_SQL)) {
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_DRAWING_SEQUENCE);
+        }
+
+        deleteAll();
+    }
+
+    /**
+     * Reads the current and reset change sequence numbers
+     * @return The {@link Version} of the change log
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public Version getVersion() throws DataAccessException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_SEQUENCE_SQL)) {
+            executeQuery(stmt);
+
+            if (!queryFound()) {
+                throw new DataAccessException(ERROR_READING_SEQUENCE);
+            }
+
+            return new Version(rs.getLong(1), rs.getLong(2));
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_READING_SEQUENCE);
+        } finally {
+            closeResultSet();
+        }
+    }
+
+    /**
+     * Leaves a tombstone for every row of a user in the input table, before the rows are erased
+     * @param tableName The name of the table ("persons" or "events")
+     * @param userID The userID of the user
+     * @param changeSequence The change sequence number of the erasure
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    void addTombstones(String tableName, String userID, long changeSequence) throws DataAccessException {
+        String sql = "INSERT INTO tombstones (username, table_name, row_id, change_seq)" +
+                " SELECT users.username, ?, " + tableName + ".id, ? FROM " + tableName +
+                " JOIN users ON users.id = " + tableName + ".user_id" +
+                " WHERE " + tableName + ".user_id = ?;";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, tableName);
+            stmt.setLong(2, changeSequence);
+            stmt.setString(3, userID);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_ADDING_TOMBSTONES);
+        }
+    }
+
+    /**
+     * Queries the IDs of the rows of a user in the input table that were erased after the first, and up to the
+     * second, change sequence number. Rows that were written again since are left out.
+     * @param tableName The name of the table ("persons" or "events")
+     * @param username The username of the user
+     * @param since The change sequence number after which the rows were erased
+     * @param upTo The change sequence number up to which the rows were erased
+     * @return The IDs of the erased rows
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    List<String> getTombstones(String tableName, String username, long since, long upTo)
+            throws DataAccessException {
+        String sql = "SELECT DISTINCT row_id FROM tombstones" +
+                " WHERE username = ? AND table_name = ? AND change_seq > ? AND change_seq <= ?" +
+                " AND NOT EXISTS (SELECT 1 FROM " + tableName + " WHERE " + tableName + ".id = tombstones.row_id);";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, username);
+            stmt.setString(2, tableName);
+            stmt.setLong(3, since);
+            stmt.setLong(4, upTo);
+            rs = stmt.executeQuery();
+
+            List<String> rowIDs = new ArrayList<>();
+
+            while (queryFound()) {
+                rowIDs.add(rs.getString(1));
+            }
+
+            return rowIDs;
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_QUERYING_TOMBSTONES);
+        } finally {
+            closeResultSet();
+        }
+    }
+
+    /**
+     * The current and reset change sequence numbers of the change log
+     */
+    public static final class Version {
+        private final long currentSequence;
+        private final long resetSequence;
+
+        private Version(long currentSequence, long resetSequence) {
+            this.currentSequence = currentSequence;
+            this.resetSequence = resetSequence;
+        }
+
+        /**
+         * Checks whether the changes since the input version can be reconstructed from the change log
+         * @param since The version of the data held by a client
+         * @return true, if the client must replace all of its data; false, if it can apply the changes
+         */
+        public boolean requiresReset(long since) {
+            return since < resetSequence || since > currentSequence;
+        }
+
+        // Getters
+        public long getCurrentSequence() {
+            return currentSequence;
+        }
+
+        public long getResetSequence() {
+            return resetSequence;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package server.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The changes to the rows of a user in the persons or events table since a version held by a client
+ * (see {@link ChangeLogDao})
+ * @param <T> The type of the changed objects
+ * @author griffinbholt
+ */
+public final class ChangeSet<T> {
+    private final List<T> upserts;
+    private final List<String> deletedIDs;
+    private final long version;
+    private final boolean reset;
+
+    ChangeSet(List<T> upserts, List<String> deletedIDs, long version, boolean reset) {
+        this.upserts = upserts;
+        this.deletedIDs = deletedIDs;
+        this.version = version;
+        this.reset = reset;
+    }
+
+    // Getters
+    /**
+     * @return The rows written since the version, or every row of the user, if the change set is a reset
+     */
+    public List<T> getUpserts() {
+        return Collections.unmodifiableList(upserts);
+    }
+
+    /**
+     * @return The IDs of the rows erased since the version; always empty, if the change set is a reset
+     */
+    public List<String> getDeletedIDs() {
+        return Collections.unmodifiableList(deletedIDs);
+    }
+
+    /**
+     * @return The version of the data once the changes are applied
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return true, if the client must replace all of its data with the upserts; false, if it can apply the changes
+     */
+    public boolean isReset() {
+        return reset;
+    }
+}
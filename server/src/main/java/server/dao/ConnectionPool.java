@@ -0,0 +1,463 @@
+package server.dao;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import server.ServerOptions;
+import server.exception.DataAccessException;
+
+/**
+ * A pool of reusable connections to the database, configured by the startup options of the server:
+ * <ul>
+ *     <li><code>poolMin</code> - the number of connections opened at startup (default: 1)</li>
+ *     <li><code>poolMax</code> - the maximum number of open connections (default: 10)</li>
+ *     <li><code>poolTimeout</code> - milliseconds to wait for a free connection before failing (default: 5000)</li>
+ *     <li><code>poolLeak</code> - milliseconds a connection may be held before it is reported as leaked
+ *     (default: 30000)</li>
+ *     <li><code>writerTimeout</code> - milliseconds to wait for the writer connection in WAL mode before failing
+ *     (default: 120000)</li>
+ *     <li><code>writerLeak</code> - milliseconds the writer connection may be held in WAL mode before it is reported as
+ *     leaked (default: 600000)</li>
+ * </ul>
+ * In {@link JournalMode#WAL WAL} mode, the server keeps a pool of read-only connections for reading, and a writer
+ * pool of a single connection, through which every write transaction is serialized. In
+ * {@link JournalMode#ROLLBACK ROLLBACK} mode, one pool serves both. (See {@link ConnectionSettings}.)
+ * <p>
+ * A large /fill or /load holds the writer connection for its whole transaction, so every other write queues behind
+ * it. The writer pool therefore has its own, longer timeout and leak threshold, so that such a queued write waits
+ * for its turn instead of failing, while a stuck reader is still noticed after <code>poolTimeout</code>.
+ * <p>
+ * Every borrowed connection is validated before it is handed out, and must be given back with
+ * {@link #release(Connection)}, to the pool it was borrowed from. A pool replaced by {@link #configure} closes its idle
+ * connections, and closes the ones still borrowed as they are given back.
+ * @author griffinbholt
+ */
+public final class ConnectionPool {
+    private static final String MIN_SIZE_OPTION = "poolMin";
+    private static final String MAX_SIZE_OPTION = "poolMax";
+    private static final String ACQUIRE_TIMEOUT_OPTION = "poolTimeout";
+    private static final String LEAK_THRESHOLD_OPTION = "poolLeak";
+    private static final String WRITER_ACQUIRE_TIMEOUT_OPTION = "writerTimeout";
+    private static final String WRITER_LEAK_THRESHOLD_OPTION = "writerLeak";
+
+    private static final int DEFAULT_MIN_SIZE = 1;
+    private static final int DEFAULT_MAX_SIZE = 10;
+    private static final long DEFAULT_ACQUIRE_TIMEOUT_MILLIS = 5000;
+    private static final long DEFAULT_LEAK_THRESHOLD_MILLIS = 30000;
+    private static final long DEFAULT_WRITER_ACQUIRE_TIMEOUT_MILLIS = 120000;
+    private static final long DEFAULT_WRITER_LEAK_THRESHOLD_MILLIS = 600000;
+
+    private static final String VALIDATION_QUERY = "SELECT 1";
+
+    @SuppressWarnings("StaticVariableOfConcreteClass")
+    private static volatile ConnectionPool readerPool;
+
+    @SuppressWarnings("StaticVariableOfConcreteClass")
+    private static volatile ConnectionPool writerPool;
+
+    private final Logger logger = Logger.getLogger("ConnectionPool");
+
+    private final String name;
+    private final String connectionUrl;
+    private final List<String> pragmas;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutNanos;
+    private final long leakThresholdNanos;
+
+    private final BlockingDeque<Connection> idleConnections = new LinkedBlockingDeque<>();
+    private final Map<Connection, Lease> leases = new ConcurrentHashMap<>();
+    private final AtomicInteger numOpenConnections = new AtomicInteger();
+    private final ScheduledExecutorService leakDetector;
+
+    private final LongAdder numAcquisitions = new LongAdder();
+    private final LongAdder numTimeouts = new LongAdder();
+    private final LongAdder numLeaks = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private volatile boolean shutDown;
+
+    private ConnectionPool(String name, List<String> pragmas, int minSize, int maxSize, long acquireTimeoutMillis,
+                           long leakThresholdMillis) {
+        if (0 > minSize || minSize > maxSize || 0 >= maxSize) {
+            throw new IllegalArgumentException("Invalid connection pool size: min " + minSize + ", max " + maxSize);
+        }
+
+        this.name = name;
+        this.connectionUrl = GeneralDao.DB_CONNECTION_URL;
+        this.pragmas = pragmas;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(leakThresholdMillis);
+
+        this.leakDetector = startLeakDetector(leakThresholdMillis);
+    }
+
+    /**
+     * Replaces the connection pools of the server with ones configured by the input startup options
+     * @param options The startup options of the server
+     * @return A description of the configured connection settings, for logging
+     * @throws IllegalArgumentException One of the options has an invalid value
+     */
+    public static synchronized String configure(ServerOptions options) {
+        ConnectionSettings settings = new ConnectionSettings(options);
+        int minSize = options.getInt(MIN_SIZE_OPTION, DEFAULT_MIN_SIZE);
+        int maxSize = options.getInt(MAX_SIZE_OPTION, DEFAULT_MAX_SIZE);
+        int acquireTimeoutMillis = options.getInt(ACQUIRE_TIMEOUT_OPTION, (int) DEFAULT_ACQUIRE_TIMEOUT_MILLIS);
+        int leakThresholdMillis = options.getInt(LEAK_THRESHOLD_OPTION, (int) DEFAULT_LEAK_THRESHOLD_MILLIS);
+        int writerAcquireTimeoutMillis = options.getInt(WRITER_ACQUIRE_TIMEOUT_OPTION,
+                (int) DEFAULT_WRITER_ACQUIRE_TIMEOUT_MILLIS);
+        int writerLeakThresholdMillis = options.getInt(WRITER_LEAK_THRESHOLD_OPTION,
+                (int) DEFAULT_WRITER_LEAK_THRESHOLD_MILLIS);
+
+        ConnectionPool previousReaderPool = readerPool;
+        ConnectionPool previousWriterPool = writerPool;
+
+        if (JournalMode.WAL == settings.getJournalMode()) {
+            writerPool = new ConnectionPool("writer", settings.getPragmas(false), 1, 1,
+                    writerAcquireTimeoutMillis, writerLeakThresholdMillis);
+            readerPool = new ConnectionPool("reader", settings.getPragmas(true), minSize, maxSize,
+                    acquireTimeoutMillis, leakThresholdMillis);
+        } else {
+            writerPool = new ConnectionPool("shared", settings.getPragmas(false), minSize, maxSize,
+                    acquireTimeoutMillis, leakThresholdMillis);
+            readerPool = writerPool;
+        }
+
+        if (null != previousWriterPool) {
+            previousWriterPool.shutdown();
+        }
+
+        if (null != previousReaderPool && previousReaderPool != previousWriterPool) {
+            previousReaderPool.shutdown();
+        }
+
+        return settings.toString();
+    }
+
+    /**
+     * Returns the pool through which the server reads from the database
+     * @return The reader connection pool
+     * @throws IllegalStateException The connection pools have not been configured
+     */
+    public static ConnectionPool getReaderPool() {
+        return checkConfigured(readerPool);
+    }
+
+    /**
+     * Returns the pool through which the server writes to the database
+     * @return The writer connection pool
+     * @throws IllegalStateException The connection pools have not been configured
+     */
+    public static ConnectionPool getWriterPool() {
+        return checkConfigured(writerPool);
+    }
+
+    private static ConnectionPool checkConfigured(ConnectionPool pool) {
+        if (null == pool) {
+            throw new IllegalStateException("The connection pools have not been configured.");
+        }
+
+        return pool;
+    }
+
+    /**
+     * Opens connections until the pool holds its minimum number of connections
+     * @throws DataAccessException An error that occurs when attempting to open a connection to the database
+     */
+    public void warmUp() throws DataAccessException {
+        while (reserveConnectionSlot(minSize)) {
+            idleConnections.offerLast(openConnection());
+        }
+    }
+
+    /**
+     * Borrows a validated connection from the pool, opening a new one if none are idle and the pool is not full
+     * @return A connection to the database
+     * @throws DataAccessException No connection became free before the acquire timeout, or a connection could not
+     *                             be opened
+     */
+    public Connection acquire() throws DataAccessException {
+        long startTime = System.nanoTime();
+        long deadline = startTime + acquireTimeoutNanos;
+
+        while (true) {
+            Connection conn = nextConnection(deadline);
+
+            if (isValid(conn)) {
+                recordAcquisition(conn, System.nanoTime() - startTime);
+                return conn;
+            }
+
+            discard(conn);
+        }
+    }
+
+    private Connection nextConnection(long deadline) throws DataAccessException {
+        Connection conn = idleConnections.pollFirst();
+
+        if (null == conn && reserveConnectionSlot(maxSize)) {
+            return openConnection();
+        }
+
+        try {
+            while (null == conn) {
+                long remainingNanos = deadline - System.nanoTime();
+
+                if (0 >= remainingNanos) {
+                    numTimeouts.increment();
+                    throw new DataAccessException("Timed out waiting for a connection to the database.");
+                }
+
+                conn = idleConnections.pollFirst(remainingNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while waiting for a connection to the database.");
+        }
+
+        return conn;
+    }
+
+    private boolean reserveConnectionSlot(int limit) {
+        int numOpen = numOpenConnections.get();
+
+        while (numOpen < limit) {
+            if (numOpenConnections.compareAndSet(numOpen, numOpen + 1)) {
+                return true;
+            }
+
+            numOpen = numOpenConnections.get();
+        }
+
+        return false;
+    }
+
+    private Connection openConnection() throws DataAccessException {
+        Connection conn;
+
+        try {
+            conn = DriverManager.getConnection(connectionUrl);
+        } catch (SQLException e) {
+            numOpenConnections.decrementAndGet();
+            throw new DataAccessException("Unable to open connection to database");
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String pragma : pragmas) {
+                stmt.execute(pragma);
+            }
+        } catch (SQLException e) {
+            discard(conn);
+            throw new DataAccessException("Unable to configure connection to database: " + e.getMessage());
+        }
+
+        return conn;
+    }
+
+    private boolean isValid(Connection conn) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(VALIDATION_QUERY);
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void recordAcquisition(Connection conn, long waitNanos) {
+        leases.put(conn, new Lease());
+        numAcquisitions.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Returns a borrowed connection to the pool. Any uncommitted changes on the connection are rolled back. If the
+     * pool has been shut down, the connection is closed instead.
+     * @param conn The connection, borrowed through {@link #acquire()}
+     */
+    public void release(Connection conn) {
+        if (null == conn || null == leases.remove(conn)) {
+            return;
+        }
+
+        try {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            discard(conn);
+            return;
+        }
+
+        idleConnections.offerFirst(conn);
+
+        if (shutDown && idleConnections.remove(conn)) {
+            discard(conn);
+        }
+    }
+
+    private void discard(Connection conn) {
+        numOpenConnections.decrementAndGet();
+
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            logger.warning("Unable to close discarded connection: " + e.getMessage() + "\n");
+        }
+    }
+
+    /*
+     * The flag is set before the idle connections are closed, so a connection given back concurrently is either
+     * closed here, or taken back out and closed by the release that sees the flag
+     */
+    private void shutdown() {
+        shutDown = true;
+        leakDetector.shutdown();
+
+        for (Connection conn = idleConnections.pollFirst(); null != conn; conn = idleConnections.pollFirst()) {
+            discard(conn);
+        }
+    }
+
+    private ScheduledExecutorService startLeakDetector(long leakThresholdMillis) {
+        ScheduledExecutorService leakDetector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-connection-leak-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long period = Math.max(1, leakThresholdMillis / 2);
+        leakDetector.scheduleAtFixedRate(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+        return leakDetector;
+    }
+
+    private void detectLeaks() {
+        long now = System.nanoTime();
+
+        for (Lease lease : leases.values()) {
+            if (!lease.reported && now - lease.acquiredAt > leakThresholdNanos) {
+                lease.reported = true;
+                numLeaks.increment();
+                logger.log(Level.WARNING, "Possible connection leak in the " + name + " pool: connection held " +
+                        "for more than " + TimeUnit.NANOSECONDS.toMillis(leakThresholdNanos) + " ms.\n",
+                        lease.acquiredBy);
+            }
+        }
+
+        logger.fine(getStatistics() + "\n");
+    }
+
+    /**
+     * Takes a snapshot of the usage statistics of the pool
+     * @return The current {@link Statistics} of the pool
+     */
+    public Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    /*
+     * The record of a borrowed connection. The stack trace of the borrower is kept, so that a leaked connection can
+     * be traced back to the code that never released it.
+     */
+    private static final class Lease {
+        private final long acquiredAt = System.nanoTime();
+        private final Throwable acquiredBy = new Throwable("Connection acquired here");
+        private volatile boolean reported;
+    }
+
+    /**
+     * A snapshot of the usage statistics of a {@link ConnectionPool}
+     */
+    public static final class Statistics {
+        private final String poolName;
+        private final int numActive;
+        private final int numIdle;
+        private final long numAcquisitions;
+        private final long numTimeouts;
+        private final long numLeaks;
+        private final long averageWaitMicros;
+        private final long maxWaitMicros;
+
+        private Statistics(ConnectionPool pool) {
+            this.poolName = pool.name;
+            this.numActive = pool.leases.size();
+            this.numIdle = pool.idleConnections.size();
+            this.numAcquisitions = pool.numAcquisitions.sum();
+            this.numTimeouts = pool.numTimeouts.sum();
+            this.numLeaks = pool.numLeaks.sum();
+            this.averageWaitMicros = (0 == numAcquisitions) ? 0 :
+                    TimeUnit.NANOSECONDS.toMicros(pool.totalWaitNanos.sum() / numAcquisitions);
+            this.maxWaitMicros = TimeUnit.NANOSECONDS.toMicros(pool.maxWaitNanos.get());
+        }
+
+        /**
+         * Generates a string representation of the pool statistics
+         * @return The string representation of the pool statistics
+         */
+        @Override
+        public String toString() {
+            return "ConnectionPool.Statistics{" +
+                    "pool=" + poolName +
+                    ", active=" + numActive +
+                    ", idle=" + numIdle +
+                    ", acquisitions=" + numAcquisitions +
+                    ", timeouts=" + numTimeouts +
+                    ", leaks=" + numLeaks +
+                    ", averageWaitMicros=" + averageWaitMicros +
+                    ", maxWaitMicros=" + maxWaitMicros +
+                    '}';
+        }
+
+        // Getters
+        public String getPoolName() {
+            return poolName;
+        }
+
+        public int getNumActive() {
+            return numActive;
+        }
+
+        public int getNumIdle() {
+            return numIdle;
+        }
+
+        public long getNumAcquisitions() {
+            return numAcquisitions;
+        }
+
+        public long getNumTimeouts() {
+            return numTimeouts;
+        }
+
+        public long getNumLeaks() {
+            return numLeaks;
+        }
+
+        public long getAverageWaitMicros() {
+            return averageWaitMicros;
+        }
+
+        public long getMaxWaitMicros() {
+            return maxWaitMicros;
+        }
+    }
+}
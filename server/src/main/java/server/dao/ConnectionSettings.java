@@ -0,0 +1,118 @@
+package server.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import server.ServerOptions;
+
+/**
+ * The SQLite settings applied to every new database connection, configured by the startup options of the server:
+ * <ul>
+ *     <li><code>journal</code> - wal or rollback (default: wal)</li>
+ *     <li><code>synchronous</code> - OFF, NORMAL, FULL, or EXTRA (default: NORMAL)</li>
+ *     <li><code>cacheKb</code> - the page cache of each connection, in KiB (default: 16384)</li>
+ *     <li><code>mmapSize</code> - the bytes of the database file to memory-map (default: 268435456)</li>
+ *     <li><code>tempStore</code> - DEFAULT, FILE, or MEMORY (default: MEMORY)</li>
+ * </ul>
+ * The tuning options only apply in {@link JournalMode#WAL WAL} mode; in {@link JournalMode#ROLLBACK ROLLBACK} mode,
+ * the connections keep the SQLite defaults.
+ * @author griffinbholt
+ */
+final class ConnectionSettings {
+    private static final String JOURNAL_OPTION = "journal";
+    private static final String SYNCHRONOUS_OPTION = "synchronous";
+    private static final String CACHE_OPTION = "cacheKb";
+    private static final String MMAP_OPTION = "mmapSize";
+    private static final String TEMP_STORE_OPTION = "tempStore";
+
+    private static final String DEFAULT_SYNCHRONOUS = "NORMAL";
+    private static final int DEFAULT_CACHE_KB = 16384;
+    private static final int DEFAULT_MMAP_SIZE = 256 * 1024 * 1024;
+    private static final String DEFAULT_TEMP_STORE = "MEMORY";
+
+    private static final List<String> SYNCHRONOUS_LEVELS = Arrays.asList("OFF", "NORMAL", "FULL", "EXTRA");
+    private static final List<String> TEMP_STORES = Arrays.asList("DEFAULT", "FILE", "MEMORY");
+
+    private final JournalMode journalMode;
+    private final String synchronous;
+    private final int cacheKb;
+    private final int mmapSize;
+    private final String tempStore;
+
+    /**
+     * Constructor
+     * @param options The startup options of the server
+     * @throws IllegalArgumentException One of the options has an invalid value
+     */
+    ConnectionSettings(ServerOptions options) {
+        this.journalMode = JournalMode.generate(options.getString(JOURNAL_OPTION, JournalMode.WAL.toString()));
+        this.synchronous = checkOneOf(SYNCHRONOUS_OPTION, options.getString(SYNCHRONOUS_OPTION, DEFAULT_SYNCHRONOUS),
+                SYNCHRONOUS_LEVELS);
+        this.cacheKb = checkNotNegative(CACHE_OPTION, options.getInt(CACHE_OPTION, DEFAULT_CACHE_KB));
+        this.mmapSize = checkNotNegative(MMAP_OPTION, options.getInt(MMAP_OPTION, DEFAULT_MMAP_SIZE));
+        this.tempStore = checkOneOf(TEMP_STORE_OPTION, options.getString(TEMP_STORE_OPTION, DEFAULT_TEMP_STORE),
+                TEMP_STORES);
+    }
+
+    private static String checkOneOf(String name, String value, List<String> allowedValues) {
+        String upperCaseValue = value.toUpperCase(Locale.ROOT);
+
+        if (!allowedValues.contains(upperCaseValue)) {
+            throw new IllegalArgumentException("Option " + name + " must be one of " + allowedValues + ": " + value);
+        }
+
+        return upperCaseValue;
+    }
+
+    private static int checkNotNegative(String name, int value) {
+        if (0 > value) {
+            throw new IllegalArgumentException("Option " + name + " must not be negative: " + value);
+        }
+
+        return value;
+    }
+
+    /**
+     * Generates the PRAGMA statements to run on every new connection
+     * @param readOnly Whether the connection is only used for reading from the database
+     * @return The PRAGMA statements, in the order they must be run
+     */
+    List<String> getPragmas(boolean readOnly) {
+        List<String> pragmas = new ArrayList<>();
+        pragmas.add("PRAGMA journal_mode = " + journalMode.getPragmaValue());
+
+        if (JournalMode.WAL == journalMode) {
+            pragmas.add("PRAGMA synchronous = " + synchronous);
+            pragmas.add("PRAGMA cache_size = -" + cacheKb);
+            pragmas.add("PRAGMA mmap_size = " + mmapSize);
+            pragmas.add("PRAGMA temp_store = " + tempStore);
+        }
+
+        if (readOnly) {
+            pragmas.add("PRAGMA query_only = ON");
+        }
+
+        return pragmas;
+    }
+
+    /**
+     * Describes the settings, for logging
+     * @return A description of the journal mode and its tuning
+     */
+    @Override
+    public String toString() {
+        if (JournalMode.WAL == journalMode) {
+            return journalMode + " (synchronous: " + synchronous + ", cache: " + cacheKb + " KiB, mmap: " +
+                    mmapSize + " bytes, temp store: " + tempStore + ")";
+        }
+
+        return journalMode.toString();
+    }
+
+    // Getter
+    JournalMode getJournalMode() {
+        return journalMode;
+    }
+}
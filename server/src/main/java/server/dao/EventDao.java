@@ -6,6 +6,7 @@ import server.exception.InvalidAuthTokenException;
 import shared.model.AuthToken;
 import shared.model.ServerEvent;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -17,6 +18,23 @@ import java.util.List;
  * @author griffinbholt
  */
 public final class EventDao extends RequiringAuthorizationDao {
+    /*
+     * The events of a virtual tree, with their latitudes and longitudes rounded to floats, as they are when read from
+     * the table
+     */
+    private static final VirtualRows<ServerEvent> VIRTUAL_EVENTS = new VirtualRows<ServerEvent>() {
+        @Override
+        public void generate(VirtualTree virtualTree, VirtualFamilySource.RowVisitor<? super ServerEvent> visitor)
+                throws DataAccessException, IOException {
+            VirtualTreeDao.getFamilySource().generateEvents(virtualTree, event -> visitor.visit(asStored(event)));
+        }
+
+        @Override
+        public String getID(ServerEvent event) {
+            return event.getEventID();
+        }
+    };
+
     /**
      * Creates a new <code>EventDao</code> object with the input {@link java.sql.Connection Connection} object and
      * {@link server.dao.UserDao UserDao} object
@@ -36,7 +54,8 @@ public final class EventDao extends RequiringAuthorizationDao {
                 "country",
                 "city",
                 "type",
-                "year"
+                "year",
+                "change_seq"
         });
     }
 
@@ -59,17 +78,18 @@ public final class EventDao extends RequiringAuthorizationDao {
      * @throws DataAccessException An error that occurs when attempting to access the database
      */
     public void add(ServerEvent event) throws DataAccessException {
+        startChange();
+
         try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
-            setInsertTableColumns(event, stmt);
+            setInsertTableColumns(event, getUserIDFromUsername(event.getAssociatedUsername()), stmt);
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException(ERROR_INSERTING);
         }
     }
 
-    private void setInsertTableColumns(ServerEvent event, PreparedStatement stmt) throws SQLException, DataAccessException {
-        String userID = getUserIDFromUsername(event.getAssociatedUsername());
-
+    private void setInsertTableColumns(ServerEvent event, String userID, PreparedStatement stmt)
+            throws SQLException {
         stmt.setString(EventColumns.ID.colIndex(), event.getEventID());
         stmt.setString(EventColumns.USER_ID.colIndex(), userID);
         stmt.setString(EventColumns.PERSON_ID.colIndex(), event.getPersonID());
@@ -79,10 +99,11 @@ public final class EventDao extends RequiringAuthorizationDao {
         stmt.setString(EventColumns.CITY.colIndex(), event.getCity());
         stmt.setString(EventColumns.TYPE.colIndex(), event.getTypeName());
         stmt.setInt(EventColumns.YEAR.colIndex(), event.getYear().getValue());
+        stmt.setLong(EventColumns.CHANGE_SEQ.colIndex(), getChangeSequence());
     }
 
     /**
-     * Adds a list of events into the database
+     * Adds a list of events into the database, in batches sent through a single prepared statement
      * @param events A list of {@link ServerEvent event} objects, whose information will be added
      *               to the database
      * @return The number of events added
@@ -90,14 +111,16 @@ public final class EventDao extends RequiringAuthorizationDao {
      */
     @SuppressWarnings("BoundedWildcard")
     public int add(Iterable<ServerEvent> events) throws DataAccessException  {
-        int numAdded = 0;
-
-        for (ServerEvent event : events) {
-            add(event);
-            numAdded++;
-        }
+        return addInBatches(events, ServerEvent::getAssociatedUsername, this::setInsertTableColumns);
+    }
 
-        return numAdded;
+    /**
+     * Opens a bulk insert of events into the database, to which they can be added as they are generated
+     * @return The open {@link BatchInserter}, which must be closed
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public BatchInserter<ServerEvent> openBatchInserter() throws DataAccessException {
+        return openInserter(ServerEvent::getAssociatedUsername, this::setInsertTableColumns);
     }
 
     /**
@@ -111,12 +134,14 @@ public final class EventDao extends RequiringAuthorizationDao {
      * @throws DataAccessException An error that occurs when attempting to access the database
      */
     public ServerEvent getAuthorizedEvent(String eventID, AuthToken authToken) throws DataAccessException {
-        String userID = getUserIDFromAuthToken(authToken);
-        String username = getUsernameFromUserID(userID);
+        try (PreparedStatement stmt = prepareAuthorizedQuery(authToken, true)) {
+            String username = executeAuthorizedQuery(stmt, authToken, eventID);
 
-        try (PreparedStatement stmt = conn.prepareStatement(SELECT_MATCHING_ID_AND_USER_ID)) {
-            executeQuery(stmt, eventID, userID);
-            return getAuthorizedEventQueryResult(eventID, username);
+            if (hasTableRow()) {
+                return createResultingEvent(eventID, username);
+            }
+
+            return getVirtualEvent(eventID, username);
         } catch (SQLException e) {
             throw new DataAccessException(ERROR_QUERYING);
         } catch (InvalidAuthTokenException e) {
@@ -126,10 +151,12 @@ public final class EventDao extends RequiringAuthorizationDao {
         }
     }
 
-    private ServerEvent getAuthorizedEventQueryResult(String eventID, String username)
-            throws SQLException, InvalidAuthTokenException {
-        if (queryFound()) {
-            return createResultingEvent(eventID, username);
+    private ServerEvent getVirtualEvent(String eventID, String username)
+            throws DataAccessException, InvalidAuthTokenException {
+        ServerEvent event = findVirtualRow(username, eventID, VIRTUAL_EVENTS);
+
+        if (null != event) {
+            return event;
         }
 
         throw new InvalidAuthTokenException(NONE_EXIST_FOR_AUTH_TOKEN);
@@ -175,33 +202,129 @@ public final class EventDao extends RequiringAuthorizationDao {
      * @throws DataAccessException An error that occurs when attempting to access the database
      */
     public List<ServerEvent> getAllConnectedEvents(AuthToken authToken) throws DataAccessException {
-        String userID = getUserIDFromAuthToken(authToken);
-        String username = getUsernameFromUserID(userID);
-
-        try (PreparedStatement stmt = conn.prepareStatement(allEventsMatchingUserIDSQL())) {
-            executeQuery(stmt, userID);
+        try (PreparedStatement stmt = prepareAuthorizedQuery(authToken, false)) {
+            String username = executeAuthorizedQuery(stmt, authToken);
             return getAllEventsQueryResult(username);
         } catch (SQLException e) {
             throw new DataAccessException(ERROR_QUERYING);
+        } catch (InvalidAuthTokenException e) {
+            throw new DataAccessException(e.getMessage());
+        } finally {
+            closeResultSet();
+        }
+    }
+
+    /**
+     * Streams all events connected to the user, to whom the input authorization token is linked, to the input
+     * {@link RowSink} as they are read from the database cursor
+     * @param authToken Input {@link shared.model.AuthToken AuthToken} for the user
+     * @param sink The {@link RowSink} to pass the events to; it is started only if the authorization token is valid
+     * @return The number of events streamed
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     * @throws IOException An error that occurs in the {@link RowSink}
+     */
+    public int streamAllConnectedEvents(AuthToken authToken, RowSink<? super ServerEvent> sink)
+            throws DataAccessException, IOException {
+        try (PreparedStatement stmt = prepareAuthorizedQuery(authToken, false)) {
+            stmt.setFetchSize(getFetchSize());
+            String username = executeAuthorizedQuery(stmt, authToken);
+            return streamTableRows(sink, () -> createResultingEvent(username),
+                    visitor -> visitVirtualRows(username, VIRTUAL_EVENTS, visitor));
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        } catch (InvalidAuthTokenException e) {
+            throw new DataAccessException(e.getMessage());
         } finally {
             closeResultSet();
         }
     }
 
-    private String allEventsMatchingUserIDSQL() {
-        return getAllColumnsQueryStatement(EventColumns.USER_ID.ordinal());
+    /**
+     * Queries the database for the changes to the events connected to the user, to whom the input authorization token
+     * is linked, since the input version (see {@link ChangeLogDao})
+     * @param authToken Input {@link shared.model.AuthToken AuthToken} for the user
+     * @param since The version of the events held by the client
+     * @return The {@link ChangeSet} of the events of the user
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public ChangeSet<ServerEvent> getConnectedEventChanges(AuthToken authToken, long since)
+            throws DataAccessException {
+        try {
+            return getChangesSince(authToken, since, this::createResultingEvent, VIRTUAL_EVENTS);
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        } catch (InvalidAuthTokenException e) {
+            throw new DataAccessException(e.getMessage());
+        }
     }
 
-    private List<ServerEvent> getAllEventsQueryResult(String username) throws SQLException {
+    /**
+     * Queries the database for a page of the events connected to the user, to whom the input authorization token
+     * is linked, in order of ID
+     * @param authToken Input {@link shared.model.AuthToken AuthToken} for the user
+     * @param afterID The ID after which the page starts; null, for the first page
+     * @param limit The maximum number of events of the page
+     * @return The page of {@link ServerEvent} objects
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public List<ServerEvent> getConnectedEventsPage(AuthToken authToken, String afterID, int limit)
+            throws DataAccessException {
+        try {
+            return getPage(authToken, afterID, limit, this::createResultingEvent, VIRTUAL_EVENTS);
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        } catch (InvalidAuthTokenException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the projected fields of the events connected to the user, to whom the input authorization token is
+     * linked, to the input {@link RowSink}, reading only the columns of those fields
+     * @param authToken Input {@link shared.model.AuthToken AuthToken} for the user
+     * @param projection The {@link FieldProjection} of the events
+     * @param sink The {@link RowSink} to pass the values of the projected fields to; it is started only if the
+     *             authorization token is valid
+     * @return The number of events streamed
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     * @throws IOException An error that occurs in the {@link RowSink}
+     */
+    public int streamConnectedEventFields(AuthToken authToken, FieldProjection projection,
+                                          RowSink<? super Object[]> sink) throws DataAccessException, IOException {
+        try {
+            return streamProjectedRows(authToken, projection, sink, VIRTUAL_EVENTS);
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        } catch (InvalidAuthTokenException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    private List<ServerEvent> getAllEventsQueryResult(String username) throws SQLException, DataAccessException {
         List<ServerEvent> events = new ArrayList<>();
 
-        while (queryFound()) {
-            events.add(createResultingEvent(username));
+        if (hasTableRow()) {
+            do {
+                events.add(createResultingEvent(username));
+            } while (queryFound());
         }
 
+        addVirtualRows(username, VIRTUAL_EVENTS, events);
         return events;
     }
 
+    private static ServerEvent asStored(ServerEvent event) {
+        return new ServerEvent(event.getEventID(),
+                         event.getAssociatedUsername(),
+                         event.getPersonID(),
+                         (float) event.getLatitude(),
+                         (float) event.getLongitude(),
+                         event.getCountry(),
+                         event.getCity(),
+                         event.getEventType(),
+                         event.getYear());
+    }
+
     private ServerEvent createResultingEvent(String username) throws SQLException {
         String eventID = rs.getString(EventColumns.ID.toLowerCase());
         return createResultingEvent(eventID, username);
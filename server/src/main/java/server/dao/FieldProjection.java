@@ -0,0 +1,238 @@
+package server.dao;
+
+import server.dao.tablecolumns.EventColumns;
+import server.dao.tablecolumns.PersonColumns;
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A projection of the persons or events of a user onto a subset of their Json fields, as requested with the
+ * <code>fields</code> query parameter (e.g., "/event?fields=eventID,latitude,longitude").
+ * <p>
+ * The projection is pushed down into the query: only the columns of the requested fields are selected, and every row
+ * is read as an array of the values of the requested fields, in the order of {@link #getFieldNames()}, instead of as a
+ * whole {@link shared.model.ServerEvent ServerEvent} or {@link shared.model.ServerPerson ServerPerson}. The values
+ * have the same types as the fields of those objects, so that they are written out in the same Json format.
+ * @author griffinbholt
+ */
+public final class FieldProjection {
+    private static final String FIELD_SEPARATOR = ",";
+    private static final String ID_COLUMN = "id";
+
+    private static final List<Field> EVENT_FIELDS = Arrays.asList(
+            new Field("eventID", EventColumns.ID.toLowerCase(), ValueType.STRING, event(ServerEvent::getEventID)),
+            new Field("associatedUsername", null, ValueType.STRING, null),
+            new Field("personID", EventColumns.PERSON_ID.toLowerCase(), ValueType.STRING,
+                    event(ServerEvent::getPersonID)),
+            new Field("latitude", EventColumns.LATITUDE.toLowerCase(), ValueType.FLOAT,
+                    event(ServerEvent::getLatitude)),
+            new Field("longitude", EventColumns.LONGITUDE.toLowerCase(), ValueType.FLOAT,
+                    event(ServerEvent::getLongitude)),
+            new Field("country", EventColumns.COUNTRY.toLowerCase(), ValueType.STRING, event(ServerEvent::getCountry)),
+            new Field("city", EventColumns.CITY.toLowerCase(), ValueType.STRING, event(ServerEvent::getCity)),
+            new Field("eventType", EventColumns.TYPE.toLowerCase(), ValueType.STRING,
+                    event(ServerEvent::getTypeName)),
+            new Field("year", EventColumns.YEAR.toLowerCase(), ValueType.INTEGER, event(ServerEvent::getYearAsInt))
+    );
+
+    private static final List<Field> PERSON_FIELDS = Arrays.asList(
+            new Field("personID", PersonColumns.ID.toLowerCase(), ValueType.STRING,
+                    person(ServerPerson::getPersonID)),
+            new Field("associatedUsername", null, ValueType.STRING, null),
+            new Field("firstName", PersonColumns.FIRST_NAME.toLowerCase(), ValueType.STRING,
+                    person(ServerPerson::getFirstName)),
+            new Field("lastName", PersonColumns.LAST_NAME.toLowerCase(), ValueType.STRING,
+                    person(ServerPerson::getLastName)),
+            new Field("gender", PersonColumns.GENDER.toLowerCase(), ValueType.STRING,
+                    person(ServerPerson::getGenderAbbrev)),
+            new Field("fatherID", PersonColumns.FATHER_ID.toLowerCase(), ValueType.STRING,
+                    person(ServerPerson::getFatherID)),
+            new Field("motherID", PersonColumns.MOTHER_ID.toLowerCase(), ValueType.STRING,
+                    person(ServerPerson::getMotherID)),
+            new Field("spouseID", PersonColumns.SPOUSE_ID.toLowerCase(), ValueType.STRING,
+                    person(ServerPerson::getSpouseID))
+    );
+
+    private final String tableName;
+    private final Field[] fields;
+    private final String[] fieldNames;
+
+    private FieldProjection(String tableName, Field[] fields) {
+        this.tableName = tableName;
+        this.fields = fields;
+        this.fieldNames = new String[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            fieldNames[i] = fields[i].name;
+        }
+    }
+
+    /**
+     * Creates the projection of the events of a user onto the input fields
+     * @param fields The comma-separated names of the Json fields of a {@link shared.model.ServerEvent ServerEvent}
+     * @return The projection
+     * @throws IllegalArgumentException No fields were named, or a named field does not exist
+     */
+    public static FieldProjection ofEvents(String fields) {
+        return new FieldProjection("events", selectFields(EVENT_FIELDS, fields));
+    }
+
+    /**
+     * Creates the projection of the persons of a user onto the input fields
+     * @param fields The comma-separated names of the Json fields of a {@link shared.model.ServerPerson ServerPerson}
+     * @return The projection
+     * @throws IllegalArgumentException No fields were named, or a named field does not exist
+     */
+    public static FieldProjection ofPersons(String fields) {
+        return new FieldProjection("persons", selectFields(PERSON_FIELDS, fields));
+    }
+
+    private static Function<Object, Object> event(Function<ServerEvent, Object> getter) {
+        return row -> getter.apply((ServerEvent) row);
+    }
+
+    private static Function<Object, Object> person(Function<ServerPerson, Object> getter) {
+        return row -> getter.apply((ServerPerson) row);
+    }
+
+    /*
+     * The fields are kept in the order in which they are declared by the model classes, with any duplicates dropped,
+     * so that every way of naming the same fields yields the same projection (and the same cached response).
+     */
+    private static Field[] selectFields(List<Field> allFields, String fields) {
+        List<String> requestedNames = new ArrayList<>();
+
+        for (String name : fields.split(FIELD_SEPARATOR)) {
+            String trimmedName = name.trim();
+
+            if (!trimmedName.isEmpty()) {
+                requestedNames.add(trimmedName);
+            }
+        }
+
+        if (requestedNames.isEmpty()) {
+            throw new IllegalArgumentException("No fields requested.");
+        }
+
+        for (String name : requestedNames) {
+            if (allFields.stream().noneMatch(field -> field.name.equals(name))) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+        }
+
+        return allFields.stream().filter(field -> requestedNames.contains(field.name)).toArray(Field[]::new);
+    }
+
+    /**
+     * Builds the column list of the query for the projection. The ID column is always selected, as the authorized
+     * queries of {@link RequiringAuthorizationDao} rely on it to tell whether the user has any rows.
+     * @return The comma-separated, table-qualified column names
+     */
+    String toSelectList() {
+        StringBuilder selectList = new StringBuilder(tableName).append('.').append(ID_COLUMN);
+
+        for (Field field : fields) {
+            if (null != field.column && !ID_COLUMN.equals(field.column)) {
+                selectList.append(", ").append(tableName).append('.').append(field.column);
+            }
+        }
+
+        return selectList.toString();
+    }
+
+    /**
+     * Reads the values of the requested fields from the current row of the input result set
+     * @param rs The result set of a query built with {@link #toSelectList()}
+     * @param username The username of the user of the row
+     * @return The values, in the order of {@link #getFieldNames()}; null, where a column is null
+     * @throws SQLException An error that occurs when attempting to read the result set
+     */
+    Object[] readRow(ResultSet rs, String username) throws SQLException {
+        Object[] values = new Object[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = fields[i].read(rs, username);
+        }
+
+        return values;
+    }
+
+    /**
+     * Reads the values of the requested fields from the input object, for the rows that are generated instead of read
+     * from the table (see {@link VirtualTreeDao})
+     * @param row The {@link ServerEvent} or {@link ServerPerson}, as the projection is of events or persons
+     * @param username The username of the user of the row
+     * @return The values, in the order of {@link #getFieldNames()}
+     */
+    Object[] projectRow(Object row, String username) {
+        Object[] values = new Object[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = (null == fields[i].column) ? username : fields[i].getter.apply(row);
+        }
+
+        return values;
+    }
+
+    // Getters
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * @return The Json names of the requested fields, in the order of the values of every row
+     */
+    public String[] getFieldNames() {
+        return fieldNames.clone();
+    }
+
+    /**
+     * @return The comma-separated names of the requested fields, in canonical order
+     */
+    public String getKey() {
+        return String.join(FIELD_SEPARATOR, fieldNames);
+    }
+
+    /*
+     * Latitudes and longitudes are read as floats and widened, exactly as EventDao reads them into ServerEvent objects
+     */
+    private enum ValueType {
+        STRING, FLOAT, INTEGER
+    }
+
+    private static final class Field {
+        private final String name;
+        private final String column; // null, for the associated username
+        private final ValueType type;
+        private final Function<Object, Object> getter; // null, for the associated username
+
+        private Field(String name, String column, ValueType type, Function<Object, Object> getter) {
+            this.name = name;
+            this.column = column;
+            this.type = type;
+            this.getter = getter;
+        }
+
+        private Object read(ResultSet rs, String username) throws SQLException {
+            if (null == column) {
+                return username;
+            }
+
+            switch (type) {
+                case FLOAT:
+                    return (double) rs.getFloat(column);
+                case INTEGER:
+                    return rs.getInt(column);
+                default:
+                    return rs.getString(column);
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.sql.*;
 
 /**
  * An abstract superclass for Database Access Objects.
+ * A DAO holds the connection and result set of the request it is serving, so it must not be shared between requests.
  * @author griffinbholt
  */
 @SuppressWarnings({"ConstantDeclaredInAbstractClass", "ClassWithTooManyFields"})
@@ -27,6 +28,19 @@ public abstract class GeneralDao {
      */
     public static final String DB_CONNECTION_URL = "jdbc:sqlite:" + DATABASE_FOLDER + "/" + DATABASE_FILE;
 
+    /**
+     * The default number of rows sent to the database in each batch of a bulk insert
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * The default number of rows fetched from the database at a time by a streamed query
+     */
+    public static final int DEFAULT_FETCH_SIZE = 256;
+
+    private static volatile int batchSize = DEFAULT_BATCH_SIZE;
+    private static volatile int fetchSize = DEFAULT_FETCH_SIZE;
+
     Connection conn;
     final String INSERT_SQL;
 
@@ -183,13 +197,47 @@ public abstract class GeneralDao {
         }
     }
 
-    // Getter
+    // Getters
     Connection getConnection() {
         return conn;
     }
 
-    // Setter
+    public static int getBatchSize() {
+        return batchSize;
+    }
+
+    static int getFetchSize() {
+        return fetchSize;
+    }
+
+    // Setters
     public void setConnection(Connection conn) {
         this.conn = conn;
     }
+
+    /**
+     * Sets the number of rows sent to the database in each batch of a bulk insert
+     * @param batchSize The batch size
+     * @throws IllegalArgumentException The batch size is not positive
+     */
+    public static void setBatchSize(int batchSize) {
+        if (0 >= batchSize) {
+            throw new IllegalArgumentException("Option batchSize must be positive: " + batchSize);
+        }
+
+        GeneralDao.batchSize = batchSize;
+    }
+
+    /**
+     * Sets the number of rows fetched from the database at a time by a streamed query
+     * @param fetchSize The fetch size
+     * @throws IllegalArgumentException The fetch size is not positive
+     */
+    public static void setFetchSize(int fetchSize) {
+        if (0 >= fetchSize) {
+            throw new IllegalArgumentException("Option fetchSize must be positive: " + fetchSize);
+        }
+
+        GeneralDao.fetchSize = fetchSize;
+    }
 }
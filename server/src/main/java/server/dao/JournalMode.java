@@ -0,0 +1,46 @@
+package server.dao;
+
+/**
+ * An enumeration of the ways the server can run the SQLite database
+ * @author griffinbholt
+ */
+public enum JournalMode {
+    /**
+     * The default SQLite rollback journal: readers and writers share one connection pool, and a write transaction
+     * blocks every reader of the database until it commits
+     */
+    ROLLBACK("DELETE"),
+
+    /**
+     * The SQLite write-ahead log: reads go through a pool of read-only connections, and every write transaction goes
+     * through a single writer connection, so readers never wait on writers
+     */
+    WAL("WAL");
+
+    private final String pragmaValue;
+
+    JournalMode(String pragmaValue) {
+        this.pragmaValue = pragmaValue;
+    }
+
+    /**
+     * Returns the <code>JournalMode</code> with the input name, ignoring case
+     * @param name The name of the mode (rollback or wal)
+     * @return The matching <code>JournalMode</code>
+     * @throws IllegalArgumentException No mode exists with the input name
+     */
+    public static JournalMode generate(String name) {
+        for (JournalMode mode : values()) {
+            if (mode.toString().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown journal mode: " + name);
+    }
+
+    // Getter
+    String getPragmaValue() {
+        return pragmaValue;
+    }
+}
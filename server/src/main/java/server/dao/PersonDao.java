@@ -1,12 +1,12 @@
 package server.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
-import server.dao.tablecolumns.EventColumns;
 import server.dao.tablecolumns.PersonColumns;
 import server.exception.DataAccessException;
 import server.exception.InvalidAuthTokenException;
@@ -18,6 +18,22 @@ import shared.model.ServerPerson;
  * @author griffinbholt
  */
 public final class PersonDao extends RequiringAuthorizationDao {
+    /*
+     * The ancestors of a virtual tree; the person of its user is stored as a row
+     */
+    private static final VirtualRows<ServerPerson> VIRTUAL_PERSONS = new VirtualRows<ServerPerson>() {
+        @Override
+        public void generate(VirtualTree virtualTree, VirtualFamilySource.RowVisitor<? super ServerPerson> visitor)
+                throws DataAccessException, IOException {
+            VirtualTreeDao.getFamilySource().generatePersons(virtualTree, visitor);
+        }
+
+        @Override
+        public String getID(ServerPerson person) {
+            return person.getPersonID();
+        }
+    };
+
     /**
      * Creates a new <code>PersonDao</code> object with the input {@link java.sql.Connection Connection} object and
      * {@link server.dao.UserDao UserDao} object
@@ -36,7 +52,8 @@ public final class PersonDao extends RequiringAuthorizationDao {
                 "gender",
                 "father_id",
                 "mother_id",
-                "spouse_id"
+                "spouse_id",
+                "change_seq"
         });
     }
 
@@ -56,17 +73,18 @@ public final class PersonDao extends RequiringAuthorizationDao {
      * @throws DataAccessException An error that occurs when attempting to access the database
      */
     public void add(ServerPerson person) throws DataAccessException {
+        startChange();
+
         try (PreparedStatement stmt = conn.prepareStatement(this.INSERT_SQL)) {
-            setInsertTableColumns(person, stmt);
+            setInsertTableColumns(person, getUserIDFromUsername(person.getAssociatedUsername()), stmt);
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException(ERROR_INSERTING);
         }
     }
 
-    private void setInsertTableColumns(ServerPerson person, PreparedStatement stmt) throws DataAccessException, SQLException {
-        String userID = getUserIDFromUsername(person.getAssociatedUsername());
-
+    private void setInsertTableColumns(ServerPerson person, String userID, PreparedStatement stmt)
+            throws SQLException {
         stmt.setString(PersonColumns.ID.colIndex(), person.getPersonID());
         stmt.setString(PersonColumns.USER_ID.colIndex(), userID);
         stmt.setString(PersonColumns.FIRST_NAME.colIndex(), person.getFirstName());
@@ -75,24 +93,27 @@ public final class PersonDao extends RequiringAuthorizationDao {
         stmt.setString(PersonColumns.FATHER_ID.colIndex(), person.getFatherID());
         stmt.setString(PersonColumns.MOTHER_ID.colIndex(), person.getMotherID());
         stmt.setString(PersonColumns.SPOUSE_ID.colIndex(), person.getSpouseID());
+        stmt.setLong(PersonColumns.CHANGE_SEQ.colIndex(), getChangeSequence());
     }
 
     /**
-     * Adds a list of persons to the database
+     * Adds a list of persons to the database, in batches sent through a single prepared statement
      * @param persons A list of {@link ServerPerson Person} objects representing the ancestors to be
      *                added to the database
      * @return The number of persons added to the database
      * @throws DataAccessException An error that occurs when attempting to access the database
      */
     public int add(Iterable<ServerPerson> persons) throws DataAccessException {
-        int numAdded = 0;
-
-        for (ServerPerson person : persons) {
-            add(person);
-            numAdded++;
-        }
+        return addInBatches(persons, ServerPerson::getAssociatedUsername, this::setInsertTableColumns);
+    }
 
-        return numAdded;
+    /**
+     * Opens a bulk insert of persons into the database, to which they can be added as they are generated
+     * @return The open {@link BatchInserter}, which must be closed
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public BatchInserter<ServerPerson> openBatchInserter() throws DataAccessException {
+        return openInserter(ServerPerson::getAssociatedUsername, this::setInsertTableColumns);
     }
 
     /**
@@ -106,12 +127,14 @@ public final class PersonDao extends RequiringAuthorizationDao {
      * @throws DataAccessException An error that occurs when attempting to access the database
      */
     public ServerPerson getAuthorizedPerson(String personID, AuthToken authToken) throws DataAccessException {
-        String userID = getUserIDFromAuthToken(authToken);
-        String username = getUsernameFromUserID(userID);
+        try (PreparedStatement stmt = prepareAuthorizedQuery(authToken, true)) {
+            String username = executeAuthorizedQuery(stmt, authToken, personID);
+
+            if (hasTableRow()) {
+                return createResultingPerson(personID, username);
+            }
 
-        try (PreparedStatement stmt = conn.prepareStatement(SELECT_MATCHING_ID_AND_USER_ID)) {
-            executeQuery(stmt, personID, userID);
-            return getAuthorizedPersonQueryResult(personID, username);
+            return getVirtualPerson(personID, username);
         } catch (SQLException e) {
             throw new DataAccessException(ERROR_QUERYING);
         } catch (InvalidAuthTokenException e) {
@@ -121,10 +144,12 @@ public final class PersonDao extends RequiringAuthorizationDao {
         }
     }
 
-    private ServerPerson getAuthorizedPersonQueryResult(String personID, String username)
-            throws SQLException, InvalidAuthTokenException {
-        if (queryFound()) {
-            return createResultingPerson(personID, username);
+    private ServerPerson getVirtualPerson(String personID, String username)
+            throws DataAccessException, InvalidAuthTokenException {
+        ServerPerson person = findVirtualRow(username, personID, VIRTUAL_PERSONS);
+
+        if (null != person) {
+            return person;
         }
 
         throw new InvalidAuthTokenException(NONE_EXIST_FOR_AUTH_TOKEN);
@@ -170,30 +195,114 @@ public final class PersonDao extends RequiringAuthorizationDao {
      * @throws DataAccessException An error that occurs when attempting to access the database
      */
     public List<ServerPerson> getAncestorsFromAuthToken(AuthToken authToken) throws DataAccessException {
-        String userID = getUserIDFromAuthToken(authToken);
-        String username = getUsernameFromUserID(userID);
-
-        try (PreparedStatement stmt = conn.prepareStatement(allPersonsMatchingUserIDSQL())) {
-            executeQuery(stmt, userID);
+        try (PreparedStatement stmt = prepareAuthorizedQuery(authToken, false)) {
+            String username = executeAuthorizedQuery(stmt, authToken);
             return getAncestorsQueryResult(username);
         } catch (SQLException e) {
             throw new DataAccessException(ERROR_QUERYING);
+        } catch (InvalidAuthTokenException e) {
+            throw new DataAccessException(e.getMessage());
+        } finally {
+            closeResultSet();
+        }
+    }
+
+    /**
+     * Streams all ancestors of the user linked to the input authorization token to the input {@link RowSink} as they
+     * are read from the database cursor
+     * @param authToken The {@link shared.model.AuthToken AuthToken} linked to the user
+     * @param sink The {@link RowSink} to pass the persons to; it is started only if the authorization token is valid
+     * @return The number of persons streamed
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     * @throws IOException An error that occurs in the {@link RowSink}
+     */
+    public int streamAncestorsFromAuthToken(AuthToken authToken, RowSink<? super ServerPerson> sink)
+            throws DataAccessException, IOException {
+        try (PreparedStatement stmt = prepareAuthorizedQuery(authToken, false)) {
+            stmt.setFetchSize(getFetchSize());
+            String username = executeAuthorizedQuery(stmt, authToken);
+            return streamTableRows(sink, () -> createResultingPerson(username),
+                    visitor -> visitVirtualRows(username, VIRTUAL_PERSONS, visitor));
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        } catch (InvalidAuthTokenException e) {
+            throw new DataAccessException(e.getMessage());
         } finally {
             closeResultSet();
         }
     }
 
-    private String allPersonsMatchingUserIDSQL() {
-        return getAllColumnsQueryStatement(EventColumns.USER_ID.ordinal());
+    /**
+     * Queries the database for the changes to the persons of the user linked to the input authorization token since
+     * the input version (see {@link ChangeLogDao})
+     * @param authToken The {@link shared.model.AuthToken AuthToken} linked to the user
+     * @param since The version of the persons held by the client
+     * @return The {@link ChangeSet} of the persons of the user
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public ChangeSet<ServerPerson> getAncestorChangesFromAuthToken(AuthToken authToken, long since)
+            throws DataAccessException {
+        try {
+            return getChangesSince(authToken, since, this::createResultingPerson, VIRTUAL_PERSONS);
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        } catch (InvalidAuthTokenException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    /**
+     * Queries the database for a page of the ancestors of the user, to whom the input authorization token is linked,
+     * in order of ID
+     * @param authToken Input {@link shared.model.AuthToken AuthToken} for the user
+     * @param afterID The ID after which the page starts; null, for the first page
+     * @param limit The maximum number of persons of the page
+     * @return The page of {@link ServerPerson} objects
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public List<ServerPerson> getAncestorsPage(AuthToken authToken, String afterID, int limit)
+            throws DataAccessException {
+        try {
+            return getPage(authToken, afterID, limit, this::createResultingPerson, VIRTUAL_PERSONS);
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        } catch (InvalidAuthTokenException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the projected fields of the ancestors of the user, to whom the input authorization token is linked,
+     * to the input {@link RowSink}, reading only the columns of those fields
+     * @param authToken Input {@link shared.model.AuthToken AuthToken} for the user
+     * @param projection The {@link FieldProjection} of the persons
+     * @param sink The {@link RowSink} to pass the values of the projected fields to; it is started only if the
+     *             authorization token is valid
+     * @return The number of persons streamed
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     * @throws IOException An error that occurs in the {@link RowSink}
+     */
+    public int streamAncestorFields(AuthToken authToken, FieldProjection projection, RowSink<? super Object[]> sink)
+            throws DataAccessException, IOException {
+        try {
+            return streamProjectedRows(authToken, projection, sink, VIRTUAL_PERSONS);
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        } catch (InvalidAuthTokenException e) {
+            throw new DataAccessException(e.getMessage());
+        }
     }
 
-    private List<ServerPerson> getAncestorsQueryResult(String username) throws SQLException {
+    private List<ServerPerson> getAncestorsQueryResult(String username) throws SQLException, DataAccessException {
         List<ServerPerson> persons = new ArrayList<>();
 
-        while (queryFound()) {
-            persons.add(createResultingPerson(username));
+        if (hasTableRow()) {
+            do {
+                persons.add(createResultingPerson(username));
+            } while (queryFound());
         }
 
+        addVirtualRows(username, VIRTUAL_PERSONS, persons);
         return persons;
     }
 
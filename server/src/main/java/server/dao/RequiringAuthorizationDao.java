@@ -1,9 +1,27 @@
 package server.dao;
 
+import server.auth.SignedAuthTokens;
+import server.auth.TokenVerifier;
+import server.cache.AuthTokenCache;
 import server.exception.DataAccessException;
+import server.exception.InvalidAuthTokenException;
 import shared.model.AuthToken;
 
+import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Logger;
 
 /**
  * An abstract superclass for {@link server.dao.PersonDao PersonDao} and
@@ -21,25 +39,621 @@ abstract class RequiringAuthorizationDao extends GeneralDao {
      */
     private final AuthTokenDao authTokenDao;
 
+    /**
+     * A {@link server.dao.ChangeLogDao ChangeLogDao} object to stamp the writes to the table, and to record the
+     * erased rows
+     */
+    private final ChangeLogDao changeLogDao;
+
+    /**
+     * A {@link server.dao.VirtualTreeDao VirtualTreeDao} object to look up the virtual family tree of a user, whose
+     * rows are generated and merged with the rows of the table whenever they are read
+     */
+    private final VirtualTreeDao virtualTreeDao;
+
+    private static final String ASSOCIATED_USER_ID = "associated_user_id";
+    private static final String ASSOCIATED_USERNAME = "associated_username";
+
+    private final Logger logger = Logger.getLogger(this.getClass().getSimpleName());
+    private final String TABLE_NAME;
+
+    private final String ID_COLUMN;
+    final String SELECT_ALL_MATCHING_AUTH_TOKEN;
+    final String SELECT_MATCHING_ID_AND_AUTH_TOKEN;
+    final String SELECT_ALL_MATCHING_USER_ID;
     final String SELECT_MATCHING_ID_AND_USER_ID;
+    final String SELECT_CHANGES_MATCHING_AUTH_TOKEN;
+    final String SELECT_CHANGES_MATCHING_USER_ID;
     final String NONE_EXIST_FOR_AUTH_TOKEN;
     final String NONE_EXIST_FOR_ID;
 
+    private AuthTokenCache.Authorization cachedAuthorization;
+    private long authTokenCacheGeneration;
+    private boolean onTableRow;
+    private long changeSequence;
+
     RequiringAuthorizationDao(Connection conn, UserDao userDao, AuthTokenDao authTokenDao, String modelName,
                                String[] tableColumns) {
         super(conn, modelName, tableColumns);
 
-        this.SELECT_MATCHING_ID_AND_USER_ID = "SELECT * FROM " + modelName +
-                "s WHERE " + modelName + "s.id = ? AND " + modelName + "s.user_id = ?";
+        this.TABLE_NAME = modelName + "s";
+        this.ID_COLUMN = tableColumns[0];
+        this.SELECT_ALL_MATCHING_AUTH_TOKEN = authorizedQueryStatement(TABLE_NAME, TABLE_NAME + ".*", "", "");
+        this.SELECT_MATCHING_ID_AND_AUTH_TOKEN = authorizedQueryStatement(TABLE_NAME, TABLE_NAME + ".*",
+                " AND " + TABLE_NAME + ".id = ?", "");
+        this.SELECT_ALL_MATCHING_USER_ID = "SELECT * FROM " + TABLE_NAME + " WHERE " + TABLE_NAME + ".user_id = ?;";
+        this.SELECT_MATCHING_ID_AND_USER_ID = "SELECT * FROM " + TABLE_NAME +
+                " WHERE " + TABLE_NAME + ".id = ? AND " + TABLE_NAME + ".user_id = ?;";
+        this.SELECT_CHANGES_MATCHING_AUTH_TOKEN = authorizedQueryStatement(TABLE_NAME, TABLE_NAME + ".*",
+                " AND " + TABLE_NAME + ".change_seq > ? AND " + TABLE_NAME + ".change_seq <= ?", "");
+        this.SELECT_CHANGES_MATCHING_USER_ID = "SELECT * FROM " + TABLE_NAME + " WHERE " + TABLE_NAME +
+                ".change_seq > ? AND " + TABLE_NAME + ".change_seq <= ? AND " + TABLE_NAME + ".user_id = ?;";
 
         this.userDao = userDao;
         this.authTokenDao = authTokenDao;
+        this.changeLogDao = new ChangeLogDao(conn);
+        this.virtualTreeDao = new VirtualTreeDao(conn);
         this.NONE_EXIST_FOR_AUTH_TOKEN = "No such " + modelName + " exists for that authorization token.";
         this.NONE_EXIST_FOR_ID = "No " + modelName + " exists in the database with " + modelName +"ID: ";
     }
 
-    String getUserIDFromAuthToken(AuthToken authToken) throws DataAccessException {
-        return authTokenDao.getUserID(authToken);
+    /*
+     * The authorization token, its user, and the rows of the user are read in a single statement. The rows of the
+     * table are left-joined, so that a valid token always yields at least one row (with a null ID, if the user has no
+     * matching rows), while an invalid token yields none. The token row is picked by its rowid, so that SQLite knows
+     * the query starts from a single row, and reads the rows of a page in the order of the (user_id, id) index
+     * instead of sorting them.
+     */
+    private static String authorizedQueryStatement(String tableName, String selectList, String extraJoinCondition,
+                                                   String orderingClause) {
+        return "SELECT auth_tokens.user_id AS " + ASSOCIATED_USER_ID + ", users.username AS " + ASSOCIATED_USERNAME +
+                ", " + selectList + " FROM auth_tokens" +
+                " LEFT JOIN users ON users.id = auth_tokens.user_id" +
+                " LEFT JOIN " + tableName + " ON " + tableName + ".user_id = auth_tokens.user_id" + extraJoinCondition +
+                " WHERE auth_tokens.rowid = (SELECT rowid FROM auth_tokens WHERE auth_token = ? LIMIT 1)" +
+                orderingClause + ";";
+    }
+
+    /**
+     * Prepares the query for the rows of the user linked to the input authorization token. If the token is signed
+     * (see {@link SignedAuthTokens}) or is in the {@link AuthTokenCache}, the rows are queried by its userID alone;
+     * otherwise, the token is verified by the query itself.
+     * @param authToken The authorization token
+     * @param singleRow Whether only the row with a given ID is queried
+     * @return The prepared query, to be run by {@link #executeAuthorizedQuery(PreparedStatement, AuthToken, String...)}
+     * @throws SQLException An error that occurs when attempting to access the database
+     * @throws InvalidAuthTokenException The signed authorization token is invalid, or the authorization token was
+     *                                   recently found to be invalid
+     */
+    PreparedStatement prepareAuthorizedQuery(AuthToken authToken, boolean singleRow)
+            throws SQLException, InvalidAuthTokenException {
+        return singleRow ?
+                prepareAuthorizedQuery(authToken, SELECT_MATCHING_ID_AND_USER_ID, SELECT_MATCHING_ID_AND_AUTH_TOKEN) :
+                prepareAuthorizedQuery(authToken, SELECT_ALL_MATCHING_USER_ID, SELECT_ALL_MATCHING_AUTH_TOKEN);
+    }
+
+    private PreparedStatement prepareAuthorizedQuery(AuthToken authToken, String byUserIDSql, String byAuthTokenSql)
+            throws SQLException, InvalidAuthTokenException {
+        cachedAuthorization = TokenVerifier.verifyInMemory(authToken.toString());
+        return conn.prepareStatement((null != cachedAuthorization) ? byUserIDSql : byAuthTokenSql);
+    }
+
+    /**
+     * Runs a query prepared by {@link #prepareAuthorizedQuery(AuthToken, boolean)}, and moves to its first row
+     * @param stmt The prepared query
+     * @param authToken The authorization token
+     * @param rowIDs The ID of the queried row, if only a single row is queried
+     * @return The username of the user linked to the authorization token
+     * @throws SQLException An error that occurs when attempting to access the database
+     * @throws InvalidAuthTokenException The authorization token is not linked to any user
+     */
+    String executeAuthorizedQuery(PreparedStatement stmt, AuthToken authToken, String... rowIDs)
+            throws SQLException, InvalidAuthTokenException {
+        if (null != cachedAuthorization) {
+            executeQuery(stmt, withLastParameter(rowIDs, cachedAuthorization.getUserID()));
+            onTableRow = queryFound();
+            return cachedAuthorization.getUsername();
+        }
+
+        String token = authToken.toString();
+        executeQuery(stmt, withLastParameter(rowIDs, token));
+
+        if (!queryFound()) {
+            AuthTokenCache.getInstance().putInvalid(token, authTokenCacheGeneration);
+            throw new InvalidAuthTokenException();
+        }
+
+        String username = rs.getString(ASSOCIATED_USERNAME);
+        AuthTokenCache.getInstance().put(token, rs.getString(ASSOCIATED_USER_ID), username, authTokenCacheGeneration);
+        onTableRow = null != rs.getString(ID_COLUMN);
+        return username;
+    }
+
+    private static String[] withLastParameter(String[] parameters, String lastParameter) {
+        String[] allParameters = Arrays.copyOf(parameters, parameters.length + 1);
+        allParameters[parameters.length] = lastParameter;
+        return allParameters;
+    }
+
+    /**
+     * Checks whether an authorized query found any row of the table for the user
+     * @return true, if the query is on a row of the table; false, otherwise
+     */
+    boolean hasTableRow() {
+        return onTableRow;
+    }
+
+    /**
+     * Passes every row found by an authorized query to the input {@link RowSink}, straight off the database cursor,
+     * so that the rows are never all held in memory at once, followed by the rows of the virtual tree of the user
+     * @param sink The {@link RowSink} to pass the rows to
+     * @param rowReader Creates the object for the current row of the cursor
+     * @param virtualRowStream Passes the rows of the virtual tree of the user on, as they are generated
+     * @param <T> The type of the streamed objects
+     * @return The number of rows streamed
+     * @throws SQLException An error that occurs when attempting to access the database
+     * @throws IOException An error that occurs in the {@link RowSink}
+     * @throws DataAccessException An error that occurs when attempting to generate the virtual tree
+     */
+    <T> int streamTableRows(RowSink<? super T> sink, RowReader<T> rowReader, VirtualRowStream<T> virtualRowStream)
+            throws SQLException, IOException, DataAccessException {
+        sink.start();
+        int numStreamed = 0;
+
+        if (hasTableRow()) {
+            do {
+                sink.accept(rowReader.readRow());
+                numStreamed++;
+            } while (queryFound());
+        }
+
+        numStreamed += virtualRowStream.streamTo(row -> {
+            sink.accept(row);
+            return true;
+        });
+
+        sink.end();
+        return numStreamed;
+    }
+
+    /**
+     * Passes the rows of the virtual tree of the user with the input username to the input visitor, as they are
+     * generated, if the user has a virtual tree
+     * @param username The username of the user
+     * @param virtualRows The rows of a virtual tree stored in this table
+     * @param visitor The visitor of the rows
+     * @param <T> The type of the rows
+     * @return The number of rows visited
+     * @throws DataAccessException An error that occurs when attempting to generate the virtual tree
+     * @throws IOException An error that occurs in the visitor
+     */
+    <T> int visitVirtualRows(String username, VirtualRows<T> virtualRows,
+                             VirtualFamilySource.RowVisitor<? super T> visitor)
+            throws DataAccessException, IOException {
+        VirtualTree virtualTree = virtualTreeDao.getVirtualTree(username);
+
+        if ((null == virtualTree) || !virtualTree.isActive()) {
+            return 0;
+        }
+
+        int[] numVisited = {0};
+
+        virtualRows.generate(virtualTree, row -> {
+            numVisited[0]++;
+            return visitor.visit(row);
+        });
+
+        return numVisited[0];
+    }
+
+    /**
+     * Adds the rows of the virtual tree of the user with the input username to the input list, if the user has a
+     * virtual tree
+     * @param username The username of the user
+     * @param virtualRows The rows of a virtual tree stored in this table
+     * @param rows The list to add the rows to
+     * @param <T> The type of the rows
+     * @throws DataAccessException An error that occurs when attempting to generate the virtual tree
+     */
+    <T> void addVirtualRows(String username, VirtualRows<T> virtualRows, List<? super T> rows)
+            throws DataAccessException {
+        try {
+            visitVirtualRows(username, virtualRows, rows::add);
+        } catch (IOException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        }
+    }
+
+    /**
+     * Looks for the row with the input ID in the virtual tree of the user with the input username. The generation
+     * stops as soon as the row is found.
+     * @param username The username of the user
+     * @param rowID The ID of the row
+     * @param virtualRows The rows of a virtual tree stored in this table
+     * @param <T> The type of the row
+     * @return The row; null, if the user has no virtual tree, or its tree has no such row
+     * @throws DataAccessException An error that occurs when attempting to generate the virtual tree
+     */
+    <T> T findVirtualRow(String username, String rowID, VirtualRows<T> virtualRows) throws DataAccessException {
+        List<T> found = new ArrayList<>(1);
+
+        try {
+            visitVirtualRows(username, virtualRows, row -> {
+                if (rowID.equals(virtualRows.getID(row))) {
+                    found.add(row);
+                    return false;
+                }
+
+                return true;
+            });
+        } catch (IOException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        }
+
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Queries the changes to the rows of the user linked to the input authorization token since the input version.
+     * The version of the change log is read first, so that the changes are bounded by it: changes committed while the
+     * query runs are left for the next request. If the changes since the version cannot be reconstructed (see
+     * {@link ChangeLogDao.Version#requiresReset(long)}), every row of the user is returned instead. So it is, too,
+     * if the virtual tree of the user was written or erased since the version, as its rows leave no tombstones.
+     * @param authToken The authorization token
+     * @param since The version of the data held by the client
+     * @param rowReader Creates the object for the current row of the cursor
+     * @param virtualRows The rows of a virtual tree stored in this table
+     * @param <T> The type of the changed objects
+     * @return The {@link ChangeSet} of the user
+     * @throws SQLException An error that occurs when attempting to access the database
+     * @throws InvalidAuthTokenException The authorization token is not linked to any user
+     * @throws DataAccessException An error that occurs when attempting to access the change log
+     */
+    <T> ChangeSet<T> getChangesSince(AuthToken authToken, long since, UsernameRowReader<T> rowReader,
+                                     VirtualRows<T> virtualRows)
+            throws SQLException, InvalidAuthTokenException, DataAccessException {
+        ChangeLogDao.Version version = changeLogDao.getVersion();
+        boolean reset = version.requiresReset(since);
+        long from = reset ? -1 : since;
+        long upTo = version.getCurrentSequence();
+        List<T> upserts = new ArrayList<>();
+        String username;
+
+        try (PreparedStatement stmt = prepareAuthorizedQuery(authToken, SELECT_CHANGES_MATCHING_USER_ID,
+                SELECT_CHANGES_MATCHING_AUTH_TOKEN)) {
+            stmt.setFetchSize(getFetchSize());
+            username = executeAuthorizedQuery(stmt, authToken, Long.toString(from), Long.toString(upTo));
+
+            if (hasTableRow()) {
+                do {
+                    upserts.add(rowReader.readRow(username));
+                } while (queryFound());
+            }
+        } finally {
+            closeResultSet();
+        }
+
+        VirtualTree virtualTree = virtualTreeDao.getVirtualTree(username);
+
+        if (!reset && (null != virtualTree) && (since < virtualTree.getChangeSequence())) {
+            return getChangesSince(authToken, -1, rowReader, virtualRows);
+        }
+
+        if (reset) {
+            addVirtualRows(username, virtualRows, upserts);
+        }
+
+        List<String> deletedIDs = reset ? Collections.emptyList() :
+                changeLogDao.getTombstones(TABLE_NAME, username, since, upTo);
+
+        return new ChangeSet<>(upserts, deletedIDs, upTo, reset);
+    }
+
+    /**
+     * Queries a page of the rows of the user linked to the input authorization token, in order of ID. The page is
+     * read by a range scan of the (user_id, id) index, starting right after the last row of the previous page, so
+     * the cost of a page does not depend on how far into the rows it is. The rows of the virtual tree of the user are
+     * merged into the page by ID, from the sorted rows of the tree held by the {@link VirtualRowCache}.
+     * @param authToken The authorization token
+     * @param afterID The ID of the last row of the previous page; null, for the first page
+     * @param limit The maximum number of rows of the page
+     * @param rowReader Creates the object for the current row of the cursor
+     * @param virtualRows The rows of a virtual tree stored in this table
+     * @param <T> The type of the queried objects
+     * @return The rows of the page, in order of ID
+     * @throws SQLException An error that occurs when attempting to access the database
+     * @throws InvalidAuthTokenException The authorization token is not linked to any user
+     * @throws DataAccessException An error that occurs when attempting to close the result set
+     */
+    <T> List<T> getPage(AuthToken authToken, String afterID, int limit, UsernameRowReader<T> rowReader,
+                        VirtualRows<T> virtualRows)
+            throws SQLException, InvalidAuthTokenException, DataAccessException {
+        List<T> rows = new ArrayList<>();
+        String username;
+
+        try (PreparedStatement stmt = prepareAuthorizedQuery(authToken, pageMatchingUserIDStatement(limit),
+                pageMatchingAuthTokenStatement(limit))) {
+            username = executeAuthorizedQuery(stmt, authToken, (null == afterID) ? "" : afterID);
+
+            if (hasTableRow()) {
+                do {
+                    rows.add(rowReader.readRow(username));
+                } while (queryFound());
+            }
+        } finally {
+            closeResultSet();
+        }
+
+        return mergeVirtualPage(rows, username, afterID, limit, virtualRows);
+    }
+
+    String pageMatchingUserIDStatement(int limit) {
+        return "SELECT * FROM " + TABLE_NAME + " WHERE " + TABLE_NAME + ".id > ? AND " + TABLE_NAME + ".user_id = ?" +
+                pageOrderingClause(limit) + ";";
+    }
+
+    String pageMatchingAuthTokenStatement(int limit) {
+        return authorizedQueryStatement(TABLE_NAME, TABLE_NAME + ".*", " AND " + TABLE_NAME + ".id > ?",
+                pageOrderingClause(limit));
+    }
+
+    private String pageOrderingClause(int limit) {
+        return " ORDER BY " + TABLE_NAME + ".id LIMIT " + limit;
+    }
+
+    /*
+     * The rows of the virtual tree are generated once, sorted by ID and kept in the VirtualRowCache, so the rows of
+     * every later page are found by a binary search for the cursor. Only a tree too large for the cache is generated
+     * again for every page.
+     */
+    private <T> List<T> mergeVirtualPage(List<T> tableRows, String username, String afterID, int limit,
+                                         VirtualRows<T> virtualRows) throws DataAccessException {
+        VirtualTree virtualTree = virtualTreeDao.getVirtualTree(username);
+
+        if ((null == virtualTree) || !virtualTree.isActive()) {
+            return tableRows;
+        }
+
+        VirtualRowCache.SortedRows<T> sortedRows = getSortedVirtualRows(virtualTree, username, virtualRows);
+        Collection<T> virtualPage = (null == sortedRows) ?
+                generateVirtualPage(virtualTree, afterID, limit, virtualRows) : sortedRows.getPage(afterID, limit);
+
+        if (virtualPage.isEmpty()) {
+            return tableRows;
+        }
+
+        List<T> page = new ArrayList<>(tableRows);
+        page.addAll(virtualPage);
+        page.sort(Comparator.comparing(virtualRows::getID));
+        return (limit < page.size()) ? new ArrayList<>(page.subList(0, limit)) : page;
+    }
+
+    /*
+     * The generation of a tree with more rows than the cache holds is given up as soon as it outgrows the cache
+     */
+    private <T> VirtualRowCache.SortedRows<T> getSortedVirtualRows(VirtualTree virtualTree, String username,
+                                                                   VirtualRows<T> virtualRows)
+            throws DataAccessException {
+        VirtualRowCache cache = VirtualRowCache.getInstance();
+        long changeSequence = virtualTree.getChangeSequence();
+        VirtualRowCache.SortedRows<T> sortedRows = cache.get(TABLE_NAME, username, changeSequence);
+
+        if (null != sortedRows) {
+            return sortedRows;
+        }
+
+        long generation = cache.getGeneration();
+        List<T> rows = new ArrayList<>();
+
+        try {
+            virtualRows.generate(virtualTree, row -> rows.add(row) && (cache.getMaxRows() >= rows.size()));
+        } catch (IOException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        }
+
+        if (cache.getMaxRows() < rows.size()) {
+            return null;
+        }
+
+        sortedRows = new VirtualRowCache.SortedRows<>(rows, virtualRows::getID);
+        cache.put(TABLE_NAME, username, changeSequence, sortedRows, generation);
+        return sortedRows;
+    }
+
+    /*
+     * The first rows of the virtual tree after the cursor are kept in a bounded max-heap by ID, so a page of a virtual
+     * tree holds no more than a page of rows in memory, however large the tree is.
+     */
+    private <T> Collection<T> generateVirtualPage(VirtualTree virtualTree, String afterID, int limit,
+                                                  VirtualRows<T> virtualRows) throws DataAccessException {
+        Comparator<T> byID = Comparator.comparing(virtualRows::getID);
+        PriorityQueue<T> firstVirtualRows = new PriorityQueue<>(limit + 1, byID.reversed());
+
+        try {
+            virtualRows.generate(virtualTree, row -> {
+                if ((null == afterID) || (0 < virtualRows.getID(row).compareTo(afterID))) {
+                    firstVirtualRows.add(row);
+
+                    if (limit < firstVirtualRows.size()) {
+                        firstVirtualRows.poll();
+                    }
+                }
+
+                return true;
+            });
+        } catch (IOException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        }
+
+        return firstVirtualRows;
+    }
+
+    /**
+     * Passes the values of the projected fields of every row of the user linked to the input authorization token to
+     * the input {@link RowSink}, straight off the database cursor. Only the columns of the projected fields are
+     * selected, so the other columns are never read.
+     * @param authToken The authorization token
+     * @param projection The {@link FieldProjection} of the rows, which must be of this table
+     * @param sink The {@link RowSink} to pass the values of the rows to
+     * @param virtualRows The rows of a virtual tree stored in this table, which are projected as they are generated
+     * @param <T> The type of the rows of the virtual tree
+     * @return The number of rows streamed
+     * @throws SQLException An error that occurs when attempting to access the database
+     * @throws IOException An error that occurs in the {@link RowSink}
+     * @throws InvalidAuthTokenException The authorization token is not linked to any user
+     * @throws DataAccessException An error that occurs when attempting to close the result set
+     */
+    <T> int streamProjectedRows(AuthToken authToken, FieldProjection projection, RowSink<? super Object[]> sink,
+                                VirtualRows<T> virtualRows)
+            throws SQLException, IOException, InvalidAuthTokenException, DataAccessException {
+        if (!TABLE_NAME.equals(projection.getTableName())) {
+            throw new IllegalArgumentException("Projection of " + projection.getTableName() + " queried from " +
+                    TABLE_NAME + ".");
+        }
+
+        String selectList = projection.toSelectList();
+        String byUserIDSql = "SELECT " + selectList + " FROM " + TABLE_NAME + " WHERE " + TABLE_NAME + ".user_id = ?;";
+        String byAuthTokenSql = authorizedQueryStatement(TABLE_NAME, selectList, "", "");
+
+        try (PreparedStatement stmt = prepareAuthorizedQuery(authToken, byUserIDSql, byAuthTokenSql)) {
+            stmt.setFetchSize(getFetchSize());
+            String username = executeAuthorizedQuery(stmt, authToken);
+            return streamTableRows(sink, () -> projection.readRow(rs, username),
+                    visitor -> visitVirtualRows(username, virtualRows,
+                            row -> visitor.visit(projection.projectRow(row, username))));
+        } finally {
+            closeResultSet();
+        }
+    }
+
+    /**
+     * Creates the object for the current row of the result set of a DAO, for the user with the input username
+     * @param <T> The type of the objects
+     */
+    @FunctionalInterface
+    interface UsernameRowReader<T> {
+        T readRow(String username) throws SQLException;
+    }
+
+    /**
+     * Creates the object for the current row of the result set of a DAO
+     * @param <T> The type of the objects
+     */
+    @FunctionalInterface
+    interface RowReader<T> {
+        T readRow() throws SQLException;
+    }
+
+    /**
+     * Passes the rows of the virtual tree of the user of a streamed query on, as they are generated
+     * @param <T> The type of the objects
+     */
+    @FunctionalInterface
+    interface VirtualRowStream<T> {
+        int streamTo(VirtualFamilySource.RowVisitor<? super T> visitor) throws DataAccessException, IOException;
+    }
+
+    /**
+     * The rows of a {@link VirtualTree} that a DAO would otherwise store in its table
+     * @param <T> The type of the objects
+     */
+    interface VirtualRows<T> {
+        void generate(VirtualTree virtualTree, VirtualFamilySource.RowVisitor<? super T> visitor)
+                throws DataAccessException, IOException;
+
+        String getID(T row);
+    }
+
+    /**
+     * Inserts the input rows through a single prepared statement, sending them to the database in batches of
+     * {@link GeneralDao#getBatchSize()} rows. The userID of each associated username is queried only once.
+     * @param rows The objects to insert
+     * @param usernameOf Returns the username associated with a row
+     * @param rowWriter Sets the insert parameters of a row
+     * @param <T> The type of the inserted objects
+     * @return The number of rows inserted
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    <T> int addInBatches(Iterable<T> rows, Function<T, String> usernameOf, RowWriter<T> rowWriter)
+            throws DataAccessException {
+        try (BatchInserter<T> inserter = openInserter(usernameOf, rowWriter)) {
+            for (T row : rows) {
+                inserter.add(row);
+            }
+
+            return inserter.finish();
+        }
+    }
+
+    /**
+     * Opens a bulk insert into the table, to which rows can be added as they are produced (see
+     * {@link BatchInserter}). Draws the change sequence number with which all of its rows are stamped.
+     * @param usernameOf Returns the username associated with a row
+     * @param rowWriter Sets the insert parameters of a row
+     * @param <T> The type of the inserted objects
+     * @return The open inserter, which must be closed
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    <T> BatchInserter<T> openInserter(Function<T, String> usernameOf, RowWriter<T> rowWriter)
+            throws DataAccessException {
+        startChange();
+
+        try {
+            return new BatchInserter<>(this, conn.prepareStatement(INSERT_SQL), usernameOf, rowWriter);
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_INSERTING);
+        }
+    }
+
+    String lookUpUserID(String username, Map<String, String> userIDs) throws DataAccessException {
+        if (!userIDs.containsKey(username)) {
+            userIDs.put(username, getUserIDFromUsername(username));
+        }
+
+        return userIDs.get(username);
+    }
+
+    void logInsertRate(int numAdded, long elapsedNanos) {
+        if (0 == numAdded) {
+            return;
+        }
+
+        long elapsedMicros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        long rowsPerSecond = numAdded * TimeUnit.SECONDS.toMicros(1) / elapsedMicros;
+
+        logger.info("Inserted " + numAdded + " rows into " + TABLE_NAME + " in " +
+                TimeUnit.MICROSECONDS.toMillis(elapsedMicros) + " ms (" + rowsPerSecond + " rows/s)\n");
+    }
+
+    /**
+     * Sets the parameters of the insert statement of a DAO for a single row
+     * @param <T> The type of the inserted objects
+     */
+    @FunctionalInterface
+    interface RowWriter<T> {
+        void setInsertTableColumns(T row, String userID, PreparedStatement stmt) throws SQLException;
+    }
+
+    /**
+     * Draws the change sequence number with which the rows written next are stamped (see {@link ChangeLogDao}).
+     * Must be called before every write to the table.
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    void startChange() throws DataAccessException {
+        changeSequence = changeLogDao.nextChangeSequence();
+    }
+
+    /**
+     * Deletes all rows of the table belonging to the user with the input userID, leaving a tombstone for each of
+     * them in the change log. The user must still be in the users table.
+     * @param userID Input userID
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    @Override
+    public void eraseUserData(String userID) throws DataAccessException {
+        startChange();
+        changeLogDao.addTombstones(TABLE_NAME, userID, changeSequence);
+        super.eraseUserData(userID);
     }
 
     String getUserIDFromUsername(String username) throws DataAccessException {
@@ -50,15 +664,32 @@ abstract class RequiringAuthorizationDao extends GeneralDao {
         return userDao.getUsernameFromUserID(userID);
     }
 
-    // Getter
+    // Getters
     public AuthTokenDao getAuthTokenDao() {
         return authTokenDao;
     }
 
+    public ChangeLogDao getChangeLogDao() {
+        return changeLogDao;
+    }
+
+    public VirtualTreeDao getVirtualTreeDao() {
+        return virtualTreeDao;
+    }
+
+    long getChangeSequence() {
+        return changeSequence;
+    }
+
     // Setter
+    /*
+     * The generation of the AuthTokenCache is read when the connection is set, before its transaction reads anything,
+     * so a token verified in a snapshot taken before a /clear is never cached after the /clear invalidated the cache
+     */
     @Override
     public void setConnection(Connection conn) {
         super.setConnection(conn);
+        this.authTokenCacheGeneration = AuthTokenCache.getInstance().getGeneration();
 
         if (conn != this.userDao.getConnection()) {
             this.userDao.setConnection(conn);
@@ -67,5 +698,8 @@ abstract class RequiringAuthorizationDao extends GeneralDao {
         if (conn != this.authTokenDao.getConnection()) {
             this.authTokenDao.setConnection(conn);
         }
+
+        this.changeLogDao.setConnection(conn);
+        this.virtualTreeDao.setConnection(conn);
     }
 }
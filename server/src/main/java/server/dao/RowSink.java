@@ -0,0 +1,30 @@
+package server.dao;
+
+import java.io.IOException;
+
+/**
+ * Receives the rows of a streamed query, one at a time, as they are read from the database cursor
+ * @param <T> The type of the rows
+ * @author griffinbholt
+ */
+public interface RowSink<T> {
+    /**
+     * Called once the authorization token of the query has been verified, before the first row (if any)
+     * @throws IOException An error occurred while writing the rows out
+     */
+    void start() throws IOException;
+
+    /**
+     * Called for every row of the query, in order
+     * @param row The row
+     * @throws IOException An error occurred while writing the row out
+     */
+    void accept(T row) throws IOException;
+
+    /**
+     * Called once after the last row (if any) has been passed to the sink
+     * @throws IOException An error occurred while writing the rows out
+     */
+    default void end() throws IOException {
+    }
+}
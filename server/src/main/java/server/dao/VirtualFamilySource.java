@@ -0,0 +1,48 @@
+package server.dao;
+
+import java.io.IOException;
+
+import server.exception.DataAccessException;
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+
+/**
+ * Generates the rows of a {@link VirtualTree} when they are read. The same tree must always yield the same rows, down
+ * to every ID, though not necessarily in the same order. Registered with {@link VirtualTreeDao#setFamilySource}.
+ * @author griffinbholt
+ */
+public interface VirtualFamilySource {
+    /**
+     * Generates the ancestors of the tree, without the person of the user, which is stored as a row
+     * @param tree The virtual tree
+     * @param visitor The visitor of the generated persons
+     * @throws DataAccessException The generation failed
+     * @throws IOException An error that occurs in the visitor
+     */
+    void generatePersons(VirtualTree tree, RowVisitor<? super ServerPerson> visitor)
+            throws DataAccessException, IOException;
+
+    /**
+     * Generates the events of the tree, including the birth of the user
+     * @param tree The virtual tree
+     * @param visitor The visitor of the generated events
+     * @throws DataAccessException The generation failed
+     * @throws IOException An error that occurs in the visitor
+     */
+    void generateEvents(VirtualTree tree, RowVisitor<? super ServerEvent> visitor)
+            throws DataAccessException, IOException;
+
+    /**
+     * Receives the generated rows of a virtual tree, one at a time
+     * @param <T> The type of the rows
+     */
+    @FunctionalInterface
+    interface RowVisitor<T> {
+        /**
+         * @param row The generated row
+         * @return true, to go on generating; false, to stop the generation
+         * @throws IOException An error occurred while writing the row out
+         */
+        boolean visit(T row) throws IOException;
+    }
+}
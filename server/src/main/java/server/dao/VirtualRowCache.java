@@ -0,0 +1,198 @@
+package server.dao;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of the generated rows of the virtual trees (see {@link VirtualTree}), sorted by ID, so that the
+ * pages of a virtual tree are found by a binary search instead of generating the whole tree again for every page. The
+ * rows of a tree are cached by table, username and change sequence number of the tree: a tree that is written or
+ * erased draws a new change sequence number, so its old rows are never read again, and are left to be evicted.
+ * <p>
+ * The cache holds at most a configured number of rows, evicting the least recently read trees first. A tree with more
+ * rows than that is never cached. Because the rows are generated from the sample data, the cache must be invalidated
+ * when the sample data is reloaded (see {@link VirtualTreeDao#invalidateGeneratedRows()}). Every invalidation moves
+ * the cache to a new generation, and rows are only cached if they were generated in the current generation.
+ * @author griffinbholt
+ */
+final class VirtualRowCache {
+    @SuppressWarnings("StaticVariableOfConcreteClass")
+    private static volatile VirtualRowCache virtualRowCache =
+            new VirtualRowCache(VirtualTreeDao.DEFAULT_ROW_CACHE_SIZE);
+
+    private final int maxRows;
+    private final Map<Key, SortedRows<?>> sortedRows = new LinkedHashMap<>(16, 0.75f, true);
+    private long numRows;
+    private long generation;
+
+    private VirtualRowCache(int maxRows) {
+        if (0 > maxRows) {
+            throw new IllegalArgumentException("Option virtualCacheRows must not be negative: " + maxRows);
+        }
+
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Replaces the virtual row cache with an empty one holding at most the input number of rows
+     * @param maxRows The maximum number of cached rows; 0 disables the cache
+     * @throws IllegalArgumentException The maximum number of rows is negative
+     */
+    static void configure(int maxRows) {
+        virtualRowCache = new VirtualRowCache(maxRows);
+    }
+
+    /**
+     * Returns the virtual row cache of the server
+     * @return The virtual row cache of the server
+     */
+    static VirtualRowCache getInstance() {
+        return virtualRowCache;
+    }
+
+    /**
+     * Looks up the sorted rows of a virtual tree
+     * @param tableName The table the rows would otherwise be stored in
+     * @param username The username of the user of the tree
+     * @param changeSequence The change sequence number of the tree
+     * @param <T> The type of the rows, which is the same for every tree of a table
+     * @return The sorted rows of the tree; null, if they are not cached
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <T> SortedRows<T> get(String tableName, String username, long changeSequence) {
+        return (SortedRows<T>) sortedRows.get(new Key(tableName, username, changeSequence));
+    }
+
+    /**
+     * Caches the sorted rows of a virtual tree, unless the cache was invalidated since they were generated, or they
+     * do not fit into the cache
+     * @param tableName The table the rows would otherwise be stored in
+     * @param username The username of the user of the tree
+     * @param changeSequence The change sequence number of the tree
+     * @param rows The sorted rows of the tree
+     * @param generatedInGeneration The generation of the cache read before the rows were generated
+     * @return true, if the rows were cached
+     */
+    synchronized boolean put(String tableName, String username, long changeSequence, SortedRows<?> rows,
+                             long generatedInGeneration) {
+        if ((generatedInGeneration != generation) || (maxRows < rows.size())) {
+            return false;
+        }
+
+        SortedRows<?> replaced = sortedRows.put(new Key(tableName, username, changeSequence), rows);
+        numRows += rows.size() - ((null == replaced) ? 0 : replaced.size());
+
+        Iterator<SortedRows<?>> leastRecentlyRead = sortedRows.values().iterator();
+
+        while (maxRows < numRows) {
+            numRows -= leastRecentlyRead.next().size();
+            leastRecentlyRead.remove();
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes every cached row, and moves the cache to a new generation
+     */
+    synchronized void invalidateAll() {
+        generation++;
+        sortedRows.clear();
+        numRows = 0;
+    }
+
+    // Getters
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return The maximum number of cached rows; 0, if the cache is disabled
+     */
+    int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * The rows of a virtual tree, sorted by ID
+     * @param <T> The type of the rows
+     */
+    static final class SortedRows<T> {
+        private final List<T> rows;
+        private final String[] ids;
+
+        /**
+         * Sorts the input rows by ID
+         * @param rows The rows, which are sorted in place
+         * @param idOf Returns the ID of a row
+         */
+        SortedRows(List<T> rows, Function<T, String> idOf) {
+            rows.sort(Comparator.comparing(idOf));
+            this.rows = Collections.unmodifiableList(rows);
+            this.ids = new String[rows.size()];
+
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = idOf.apply(rows.get(i));
+            }
+        }
+
+        /**
+         * Returns the first rows with an ID after the input ID, found by a binary search
+         * @param afterID The ID of the last row of the previous page; null, for the first page
+         * @param limit The maximum number of rows of the page
+         * @return The rows of the page, in order of ID
+         */
+        List<T> getPage(String afterID, int limit) {
+            int from = (null == afterID) ? 0 : indexAfter(afterID);
+            return rows.subList(from, Math.min(from + limit, rows.size()));
+        }
+
+        private int indexAfter(String afterID) {
+            int index = Arrays.binarySearch(ids, afterID);
+            return (0 > index) ? -(index + 1) : index + 1;
+        }
+
+        int size() {
+            return rows.size();
+        }
+    }
+
+    private static final class Key {
+        private final String tableName;
+        private final String username;
+        private final long changeSequence;
+
+        private Key(String tableName, String username, long changeSequence) {
+            this.tableName = tableName;
+            this.username = username;
+            this.changeSequence = changeSequence;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return changeSequence == key.changeSequence && tableName.equals(key.tableName) &&
+                    username.equals(key.username);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tableName, username, changeSequence);
+        }
+    }
+}
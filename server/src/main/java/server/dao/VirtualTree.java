@@ -0,0 +1,59 @@
+package server.dao;
+
+import shared.model.ServerPerson;
+
+/**
+ * The record of the virtual family tree of a user (see {@link VirtualTreeDao}): the seed and the number of generations
+ * from which the ancestors and events of the user are generated whenever they are read, instead of being stored as
+ * rows. Only the person of the user, linked to the generated parents, is stored as a row.
+ * <p>
+ * A record is kept after its tree is erased, without a seed, so that clients holding the generated data can be told
+ * to replace it.
+ * @author griffinbholt
+ */
+public final class VirtualTree {
+    private final ServerPerson userPerson;
+    private final Long seed;
+    private final int numGenerations;
+    private final long changeSequence;
+
+    VirtualTree(ServerPerson userPerson, Long seed, int numGenerations, long changeSequence) {
+        this.userPerson = userPerson;
+        this.seed = seed;
+        this.numGenerations = numGenerations;
+        this.changeSequence = changeSequence;
+    }
+
+    /**
+     * @return true, if the tree is generated on every read; false, if it was erased
+     */
+    public boolean isActive() {
+        return (null != seed) && (null != userPerson);
+    }
+
+    // Getters
+    /**
+     * @return The stored person of the user, from which the tree is generated
+     */
+    public ServerPerson getUserPerson() {
+        return userPerson;
+    }
+
+    /**
+     * @return The seed of the tree; null, if the tree was erased
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    public int getNumGenerations() {
+        return numGenerations;
+    }
+
+    /**
+     * @return The change sequence number of the last time the tree was written or erased (see {@link ChangeLogDao})
+     */
+    public long getChangeSequence() {
+        return changeSequence;
+    }
+}
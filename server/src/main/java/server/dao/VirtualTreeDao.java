@@ -0,0 +1,187 @@
+package server.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import server.dao.tablecolumns.PersonColumns;
+import server.exception.DataAccessException;
+import shared.model.ServerPerson;
+
+/**
+ * Database access object for the <code>virtual_trees</code> table, which holds the {@link VirtualTree virtual family
+ * trees} of the users filled with the <code>virtual</code> fill storage. The rows of a virtual tree are not stored;
+ * {@link PersonDao} and {@link EventDao} generate them with the registered {@link VirtualFamilySource} whenever they
+ * read the data of its user, and merge them with the stored rows of the user.
+ * <p>
+ * Every write or erasure of a tree is stamped with a change sequence number (see {@link ChangeLogDao}), and the
+ * changes since any earlier version of the data of its user are then returned as a reset, as the erased rows of a
+ * virtual tree leave no tombstones.
+ * @author griffinbholt
+ */
+public final class VirtualTreeDao extends GeneralDao {
+    private static final String UPSERT_SQL = "INSERT OR REPLACE INTO virtual_trees " +
+            "(user_id, seed, generations, change_seq) VALUES(?,?,?,?);";
+    private static final String ERASE_TREE_SQL = "UPDATE virtual_trees SET seed = NULL, change_seq = ?" +
+            " WHERE user_id = ? AND seed IS NOT NULL;";
+    private static final String SELECT_MATCHING_USERNAME_SQL = "SELECT virtual_trees.seed AS tree_seed," +
+            " virtual_trees.generations AS tree_generations, virtual_trees.change_seq AS tree_change_seq," +
+            " persons.* FROM virtual_trees" +
+            " JOIN users ON users.id = virtual_trees.user_id" +
+            " LEFT JOIN persons ON persons.id = users.person_id" +
+            " WHERE users.username = ?;";
+
+    private static final String ERROR_ERASING = "Error encountered while erasing virtual tree.";
+    private static final String ERROR_NO_SOURCE = "Virtual family trees cannot be read: no source is registered.";
+
+    /**
+     * The default maximum number of generated rows of the virtual trees held in memory, sorted for their pages
+     */
+    public static final int DEFAULT_ROW_CACHE_SIZE = 100000;
+
+    private static volatile VirtualFamilySource familySource;
+
+    /**
+     * A {@link server.dao.ChangeLogDao ChangeLogDao} object to stamp the writes and erasures of the trees
+     */
+    private final ChangeLogDao changeLogDao;
+
+    /**
+     * Creates a new <code>VirtualTreeDao</code> object with the input {@link java.sql.Connection Connection} object
+     * @param conn The {@link java.sql.Connection Connection} object, connecting to the database
+     */
+    public VirtualTreeDao(Connection conn) {
+        super(conn, "virtual_tree", new String[]{
+                "user_id",
+                "seed",
+                "generations",
+                "change_seq"
+        });
+
+        this.changeLogDao = new ChangeLogDao(conn);
+    }
+
+    /**
+     * Creates a new <code>VirtualTreeDao</code> object with no {@link java.sql.Connection Connection} object
+     */
+    public VirtualTreeDao() {
+        this(null);
+    }
+
+    /**
+     * Records the virtual tree of the user with the input userID, replacing any earlier tree of the user. The person
+     * of the user must be stored separately.
+     * @param userID The userID of the user
+     * @param seed The seed from which the tree is generated
+     * @param numGenerations The number of generations of ancestors of the tree
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public void add(String userID, long seed, int numGenerations) throws DataAccessException {
+        long changeSequence = changeLogDao.nextChangeSequence();
+
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL)) {
+            stmt.setString(1, userID);
+            stmt.setLong(2, seed);
+            stmt.setInt(3, numGenerations);
+            stmt.setLong(4, changeSequence);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_INSERTING);
+        }
+    }
+
+    /**
+     * Erases the virtual tree of the user with the input userID, if it has one. The record of the tree is kept
+     * without its seed, stamped with the change sequence number of the erasure.
+     * @param userID Input userID
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    @Override
+    public void eraseUserData(String userID) throws DataAccessException {
+        long changeSequence = changeLogDao.nextChangeSequence();
+
+        try (PreparedStatement stmt = conn.prepareStatement(ERASE_TREE_SQL)) {
+            stmt.setLong(1, changeSequence);
+            stmt.setString(2, userID);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_ERASING);
+        }
+    }
+
+    /**
+     * Queries the virtual tree of the user with the input username, along with the stored person of the user
+     * @param username The username of the user
+     * @return The {@link VirtualTree} of the user; null, if the user never had one
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public VirtualTree getVirtualTree(String username) throws DataAccessException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_MATCHING_USERNAME_SQL)) {
+            executeQuery(stmt, username);
+            return queryFound() ? createResultingTree(username) : null;
+        } catch (SQLException e) {
+            throw new DataAccessException(ERROR_QUERYING);
+        } finally {
+            closeResultSet();
+        }
+    }
+
+    private VirtualTree createResultingTree(String username) throws SQLException {
+        long seed = rs.getLong("tree_seed");
+        boolean erased = rs.wasNull();
+        String personID = rs.getString(PersonColumns.ID.toLowerCase());
+        ServerPerson userPerson = (null == personID) ? null : new ServerPerson(personID,
+                username,
+                rs.getString(PersonColumns.FIRST_NAME.toLowerCase()),
+                rs.getString(PersonColumns.LAST_NAME.toLowerCase()),
+                rs.getString(PersonColumns.GENDER.toLowerCase()),
+                rs.getString(PersonColumns.FATHER_ID.toLowerCase()),
+                rs.getString(PersonColumns.MOTHER_ID.toLowerCase()),
+                rs.getString(PersonColumns.SPOUSE_ID.toLowerCase()));
+
+        return new VirtualTree(userPerson, erased ? null : seed, rs.getInt("tree_generations"),
+                rs.getLong("tree_change_seq"));
+    }
+
+    /**
+     * Registers the source that generates the rows of the virtual trees when they are read
+     * @param familySource The {@link VirtualFamilySource}
+     */
+    public static void setFamilySource(VirtualFamilySource familySource) {
+        VirtualTreeDao.familySource = familySource;
+    }
+
+    /**
+     * Replaces the cache of the sorted rows of the virtual trees, from which their pages are read, with an empty one
+     * holding at most the input number of rows
+     * @param maxRows The maximum number of cached rows; 0 disables the cache
+     * @throws IllegalArgumentException The maximum number of rows is negative
+     */
+    public static void setRowCacheSize(int maxRows) {
+        VirtualRowCache.configure(maxRows);
+    }
+
+    /**
+     * Removes every cached row of the virtual trees, once the source they are generated from has changed
+     */
+    public static void invalidateGeneratedRows() {
+        VirtualRowCache.getInstance().invalidateAll();
+    }
+
+    static VirtualFamilySource getFamilySource() throws DataAccessException {
+        VirtualFamilySource source = familySource;
+
+        if (null == source) {
+            throw new DataAccessException(ERROR_NO_SOURCE);
+        }
+
+        return source;
+    }
+
+    // Setter
+    @Override
+    public void setConnection(Connection conn) {
+        super.setConnection(conn);
+        this.changeLogDao.setConnection(conn);
+    }
+}
@@ -0,0 +1,52 @@
+package server.dao.migration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single, numbered step in the evolution of the database schema
+ * @author griffinbholt
+ */
+public final class Migration {
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+
+    /**
+     * Constructor
+     * @param version The schema version reached once the migration is applied
+     * @param description A short description of the change made by the migration
+     * @param statements The SQL statements of the migration, in the order they must be run
+     */
+    Migration(int version, String description, String... statements) {
+        this.version = version;
+        this.description = description;
+        this.statements = Collections.unmodifiableList(Arrays.asList(statements));
+    }
+
+    /**
+     * Generates a string representation of the <code>Migration</code>
+     * @return The string representation of the <code>Migration</code>
+     */
+    @Override
+    public String toString() {
+        return "Migration{" +
+                "version=" + version +
+                ", description='" + description + '\'' +
+                '}';
+    }
+
+    // Getters
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    List<String> getStatements() {
+        return statements;
+    }
+}
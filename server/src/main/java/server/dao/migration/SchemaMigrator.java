@@ -0,0 +1,265 @@
+package server.dao.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import server.exception.DataAccessException;
+
+/**
+ * Brings the database schema up to date, by applying, in order, every {@link Migration} newer than the version
+ * recorded in the <code>schema_version</code> table. Each migration is applied in its own transaction.
+ * @author griffinbholt
+ */
+public final class SchemaMigrator {
+    private static final String CREATE_SCHEMA_VERSION_TABLE =
+            "CREATE TABLE IF NOT EXISTS schema_version\n" +
+                    "(\n" +
+                    "\tversion INTEGER NOT NULL PRIMARY KEY,\n" +
+                    "\tdescription VARCHAR(255) NOT NULL,\n" +
+                    "\tapplied_at INTEGER NOT NULL\n" +
+                    ");\n";
+
+    private static final String SELECT_CURRENT_VERSION = "SELECT MAX(version) FROM schema_version;";
+
+    private static final String INSERT_VERSION =
+            "INSERT INTO schema_version (version, description, applied_at) VALUES(?,?,?)";
+
+    private static final String CREATE_USER_TABLE =
+            "CREATE TABLE IF NOT EXISTS users\n" +
+                    "(\n" +
+                    "\tid VARCHAR(255) NOT NULL PRIMARY KEY,\n" +
+                    "\tusername VARCHAR(255) NOT NULL,\n" +
+                    "\tpassword VARCHAR(255) NOT NULL,\n" +
+                    "\temail_address VARCHAR(320) NOT NULL,\n" +
+                    "\tfirst_name VARCHAR(255) NOT NULL,\n" +
+                    "\tlast_name VARCHAR(255) NOT NULL,\n" +
+                    "\tgender CHARACTER(1) NOT NULL,\n" +
+                    "\tperson_id VARCHAR(255) NOT NULL\n" +
+                    ");\n";
+
+    private static final String CREATE_AUTH_TOKEN_TABLE =
+            "CREATE TABLE IF NOT EXISTS auth_tokens\n" +
+                    "(\n" +
+                    "\tuser_id VARCHAR(255) NOT NULL,\n" +
+                    "\tauth_token VARCHAR(255) NOT NULL,\n" +
+                    "\tFOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE\n" +
+                    ");\n";
+
+    private static final String CREATE_PERSON_TABLE =
+            "CREATE TABLE IF NOT EXISTS persons\n" +
+                    "(\n" +
+                    "\tid VARCHAR(255) NOT NULL PRIMARY KEY,\n" +
+                    "\tuser_id VARCHAR(255) NOT NULL,\n" +
+                    "\tfirst_name VARCHAR(255) NOT NULL,\n" +
+                    "\tlast_name VARCHAR(255) NOT NULL,\n" +
+                    "\tgender CHARACTER(1) NOT NULL,\n" +
+                    "\tfather_id VARCHAR(255),\n" +
+                    "\tmother_id VARCHAR(255),\n" +
+                    "\tspouse_id VARCHAR(255),\n" +
+                    "\tFOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE,\n" +
+                    "\tFOREIGN KEY(father_id) REFERENCES persons(id) ON DELETE CASCADE,\n" +
+                    "\tFOREIGN KEY(mother_id) REFERENCES persons(id) ON DELETE CASCADE,\n" +
+                    "\tFOREIGN KEY(spouse_id) REFERENCES persons(id)\n" +
+                    ");\n";
+
+    private static final String CREATE_EVENT_TABLE =
+            "CREATE TABLE IF NOT EXISTS events\n" +
+                    "(\n" +
+                    "\tid VARCHAR(255) NOT NULL PRIMARY KEY,\n" +
+                    "\tuser_id VARCHAR(255) NOT NULL,\n" +
+                    "\tperson_id VARCHAR(255) NOT NULL,\n" +
+                    "\tlatitude DOUBLE NOT NULL,\n" +
+                    "\tlongitude DOUBLE NOT NULL,\n" +
+                    "\tcountry VARCHAR(74) NOT NULL,\n" +
+                    "\tcity VARCHAR(58) NOT NULL,\n" +
+                    "\ttype VARCHAR(255) NOT NULL,\n" +
+                    "\tyear INTEGER NOT NULL,\n" +
+                    "\tFOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE,\n" +
+                    "\tFOREIGN KEY(person_id) REFERENCES persons(id) ON DELETE CASCADE\n" +
+                    ");\n";
+
+    private static final String CREATE_CHANGE_SEQUENCE_TABLE =
+            "CREATE TABLE IF NOT EXISTS change_sequence\n" +
+                    "(\n" +
+                    "\tid INTEGER NOT NULL PRIMARY KEY,\n" +
+                    "\tlast_seq INTEGER NOT NULL,\n" +
+                    "\treset_seq INTEGER NOT NULL\n" +
+                    ");\n";
+
+    private static final String CREATE_TOMBSTONE_TABLE =
+            "CREATE TABLE IF NOT EXISTS tombstones\n" +
+                    "(\n" +
+                    "\tusername VARCHAR(255) NOT NULL,\n" +
+                    "\ttable_name VARCHAR(255) NOT NULL,\n" +
+                    "\trow_id VARCHAR(255) NOT NULL,\n" +
+                    "\tchange_seq INTEGER NOT NULL\n" +
+                    ");\n";
+
+    private static final String CREATE_VIRTUAL_TREE_TABLE =
+            "CREATE TABLE IF NOT EXISTS virtual_trees\n" +
+                    "(\n" +
+                    "\tuser_id VARCHAR(255) NOT NULL PRIMARY KEY,\n" +
+                    "\tseed INTEGER,\n" +
+                    "\tgenerations INTEGER NOT NULL,\n" +
+                    "\tchange_seq INTEGER NOT NULL,\n" +
+                    "\tFOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE\n" +
+                    ");\n";
+
+    /*
+     * The migrations, in order of version. Never edit a migration that has been released; add a new one instead.
+     *
+     * Version 2 indexes every lookup made through GeneralDao.getColumnQueryStatement and
+     * GeneralDao.getAllColumnsQueryStatement, as well as the user_id deletes of GeneralDao.eraseUserData:
+     *  - auth_tokens(auth_token, user_id) covers the user_id lookup of a token, and the token uniqueness check
+     *  - auth_tokens(user_id) serves the deletion of the tokens of a user
+     *  - users(username, id) covers the id lookup of a username, and serves the user lookup by username
+     *  - users(id, username) covers the username lookup of a user ID
+     *  - events(user_id) and persons(user_id) serve the reads and deletes of the data of a user
+     *
+     * Version 3 tracks the changes to the persons and events of each user, for the ?since= mode of /person and
+     * /event (see ChangeLogDao):
+     *  - persons.change_seq and events.change_seq hold the change sequence number of the last write of each row
+     *  - change_sequence holds the last sequence number drawn, and the one drawn by the last /clear or /load
+     *  - tombstones holds the IDs of the erased rows of each user, with the sequence number of their erasure
+     *
+     * Version 4 indexes events(user_id, id) and persons(user_id, id), so that the pages of /person and /event are read
+     * by an ordered range scan from the cursor, without sorting the rows of the user. These indexes serve every read
+     * and delete by user_id as well, so they replace the events(user_id) and persons(user_id) indexes of version 2,
+     * which would only slow down the inserts of /fill and /load.
+     *
+     * Version 5 holds the seed and number of generations of the family trees that are generated whenever they are read,
+     * instead of being stored as rows (see VirtualTreeDao)
+     */
+    private static final List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+            new Migration(1, "Create the data tables",
+                    CREATE_USER_TABLE,
+                    CREATE_PERSON_TABLE,
+                    CREATE_AUTH_TOKEN_TABLE,
+                    CREATE_EVENT_TABLE),
+            new Migration(2, "Index the lookups by auth token, username, and user ID",
+                    "CREATE INDEX IF NOT EXISTS auth_tokens_auth_token_idx ON auth_tokens (auth_token, user_id);",
+                    "CREATE INDEX IF NOT EXISTS auth_tokens_user_id_idx ON auth_tokens (user_id);",
+                    "CREATE INDEX IF NOT EXISTS users_username_idx ON users (username, id);",
+                    "CREATE INDEX IF NOT EXISTS users_id_username_idx ON users (id, username);",
+                    "CREATE INDEX IF NOT EXISTS events_user_id_idx ON events (user_id);",
+                    "CREATE INDEX IF NOT EXISTS persons_user_id_idx ON persons (user_id);"),
+            new Migration(3, "Track the changes to the persons and events of each user",
+                    "ALTER TABLE persons ADD COLUMN change_seq INTEGER NOT NULL DEFAULT 0;",
+                    "ALTER TABLE events ADD COLUMN change_seq INTEGER NOT NULL DEFAULT 0;",
+                    CREATE_CHANGE_SEQUENCE_TABLE,
+                    "INSERT INTO change_sequence (id, last_seq, reset_seq) VALUES(1, 1, 1);",
+                    CREATE_TOMBSTONE_TABLE,
+                    "CREATE INDEX IF NOT EXISTS tombstones_username_idx ON tombstones " +
+                            "(username, table_name, change_seq);",
+                    "CREATE INDEX IF NOT EXISTS persons_user_id_change_seq_idx ON persons (user_id, change_seq);",
+                    "CREATE INDEX IF NOT EXISTS events_user_id_change_seq_idx ON events (user_id, change_seq);"),
+            new Migration(4, "Index the pages of persons and events by user ID and ID",
+                    "CREATE INDEX IF NOT EXISTS persons_user_id_id_idx ON persons (user_id, id);",
+                    "CREATE INDEX IF NOT EXISTS events_user_id_id_idx ON events (user_id, id);",
+                    "DROP INDEX IF EXISTS persons_user_id_idx;",
+                    "DROP INDEX IF EXISTS events_user_id_idx;"),
+            new Migration(5, "Hold the virtual family trees of users",
+                    CREATE_VIRTUAL_TREE_TABLE)
+    ));
+
+    private final Logger logger = Logger.getLogger("SchemaMigrator");
+
+    private final Connection conn;
+
+    /**
+     * Constructor
+     * @param conn The {@link Connection} to the database to migrate
+     */
+    public SchemaMigrator(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * Applies every migration newer than the current schema version of the database
+     * @return The number of migrations applied
+     * @throws DataAccessException An error that occurs when attempting to migrate the database
+     */
+    public int migrate() throws DataAccessException {
+        int currentVersion = readCurrentVersion();
+        int numApplied = 0;
+
+        for (Migration migration : MIGRATIONS) {
+            if (migration.getVersion() > currentVersion) {
+                apply(migration);
+                numApplied++;
+            }
+        }
+
+        return numApplied;
+    }
+
+    private int readCurrentVersion() throws DataAccessException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_SCHEMA_VERSION_TABLE);
+
+            try (ResultSet rs = stmt.executeQuery(SELECT_CURRENT_VERSION)) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Unable to read the schema version of the database.");
+        }
+    }
+
+    private void apply(Migration migration) throws DataAccessException {
+        try {
+            conn.setAutoCommit(false);
+
+            runStatements(migration);
+            recordVersion(migration);
+
+            conn.commit();
+            logger.info("Applied schema " + migration + "\n");
+        } catch (SQLException e) {
+            rollback();
+            throw new DataAccessException("Unable to apply schema migration " + migration.getVersion() + ": " +
+                    e.getMessage());
+        } finally {
+            resetAutoCommit();
+        }
+    }
+
+    private void runStatements(Migration migration) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String statement : migration.getStatements()) {
+                stmt.execute(statement);
+            }
+        }
+    }
+
+    private void recordVersion(Migration migration) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_VERSION)) {
+            stmt.setInt(1, migration.getVersion());
+            stmt.setString(2, migration.getDescription());
+            stmt.setLong(3, System.currentTimeMillis());
+            stmt.executeUpdate();
+        }
+    }
+
+    private void rollback() {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            logger.warning("Unable to roll back schema migration: " + e.getMessage() + "\n");
+        }
+    }
+
+    private void resetAutoCommit() {
+        try {
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            logger.warning(e.getMessage() + "\n");
+        }
+    }
+}
@@ -2,11 +2,11 @@ package server.dao.tablecolumns;
 
 /**
  * An enumeration for the names of columns in the "events" table in the database.
- * Columns (in order): ID, USER_ID, PERSON_ID, LATITUDE, LONGITUDE, COUNTRY, CITY, TYPE, YEAR
+ * Columns (in order): ID, USER_ID, PERSON_ID, LATITUDE, LONGITUDE, COUNTRY, CITY, TYPE, YEAR, CHANGE_SEQ
  * @author griffinbholt
  */
 public enum EventColumns implements Columns {
-    ID, USER_ID, PERSON_ID, LATITUDE, LONGITUDE, COUNTRY, CITY, TYPE, YEAR;
+    ID, USER_ID, PERSON_ID, LATITUDE, LONGITUDE, COUNTRY, CITY, TYPE, YEAR, CHANGE_SEQ;
 
     /**
      * Returns the name of the enumerated "events" table column in all lowercase letters
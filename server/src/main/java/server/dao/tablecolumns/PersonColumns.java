@@ -2,11 +2,11 @@ package server.dao.tablecolumns;
 
 /**
  * An enumeration for the names of columns in the "persons" table in the database.
- * Columns (in order): ID, USER_ID, FIRST_NAME, LAST_NAME, GENDER, FATHER_ID, MOTHER_ID, SPOUSE_ID
+ * Columns (in order): ID, USER_ID, FIRST_NAME, LAST_NAME, GENDER, FATHER_ID, MOTHER_ID, SPOUSE_ID, CHANGE_SEQ
  * @author griffinbholt
  */
 public enum PersonColumns implements Columns {
-    ID, USER_ID, FIRST_NAME, LAST_NAME, GENDER, FATHER_ID, MOTHER_ID, SPOUSE_ID;
+    ID, USER_ID, FIRST_NAME, LAST_NAME, GENDER, FATHER_ID, MOTHER_ID, SPOUSE_ID, CHANGE_SEQ;
 
     /**
      * Returns the name of the enumerated "persons" table column in all lowercase letters
@@ -0,0 +1,39 @@
+package server.executor;
+
+/**
+ * An enumeration of the ways the server can dispatch incoming requests to its handlers
+ * @author griffinbholt
+ */
+public enum ExecutorMode {
+    /**
+     * Every request is handled on the single built-in dispatcher thread of the HTTP server
+     */
+    DISPATCHER,
+
+    /**
+     * Requests are handled by a bounded pool of platform threads
+     */
+    POOL,
+
+    /**
+     * Every request is handled on its own virtual thread (or on its own platform thread, if the
+     * runtime does not support virtual threads)
+     */
+    VIRTUAL;
+
+    /**
+     * Returns the <code>ExecutorMode</code> with the input name, ignoring case
+     * @param name The name of the mode (dispatcher, pool, or virtual)
+     * @return The matching <code>ExecutorMode</code>
+     * @throws IllegalArgumentException No mode exists with the input name
+     */
+    public static ExecutorMode generate(String name) {
+        for (ExecutorMode mode : values()) {
+            if (mode.toString().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown executor mode: " + name);
+    }
+}
@@ -0,0 +1,122 @@
+package server.executor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import server.ServerOptions;
+
+/**
+ * A factory that creates the {@link Executor} on which the server handles its requests, according to the
+ * startup options of the server:
+ * <ul>
+ *     <li><code>executor</code> - dispatcher, pool, or virtual (default: pool)</li>
+ *     <li><code>threads</code> - the number of threads in the pool (default: twice the number of processors)</li>
+ *     <li><code>queue</code> - the number of requests that may wait for a pool thread (default: 16 per thread)</li>
+ * </ul>
+ * @author griffinbholt
+ */
+public final class RequestExecutorFactory {
+    private static final String EXECUTOR_OPTION = "executor";
+    private static final String THREADS_OPTION = "threads";
+    private static final String QUEUE_OPTION = "queue";
+
+    private static final int QUEUED_REQUESTS_PER_THREAD = 16;
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final String VIRTUAL_THREAD_FACTORY_METHOD = "newVirtualThreadPerTaskExecutor";
+
+    private final Logger logger = Logger.getLogger("RequestExecutorFactory");
+
+    private final ExecutorMode mode;
+    private final int numThreads;
+    private final int queueCapacity;
+
+    /**
+     * Constructor
+     * @param options The startup options of the server
+     */
+    public RequestExecutorFactory(ServerOptions options) {
+        this.mode = ExecutorMode.generate(options.getString(EXECUTOR_OPTION, ExecutorMode.POOL.toString()));
+        this.numThreads = checkPositive(THREADS_OPTION,
+                options.getInt(THREADS_OPTION, 2 * Runtime.getRuntime().availableProcessors()));
+        this.queueCapacity = checkPositive(QUEUE_OPTION,
+                options.getInt(QUEUE_OPTION, QUEUED_REQUESTS_PER_THREAD * numThreads));
+    }
+
+    private static int checkPositive(String name, int value) {
+        if (0 >= value) {
+            throw new IllegalArgumentException("Option " + name + " must be positive: " + value);
+        }
+
+        return value;
+    }
+
+    /**
+     * Creates the {@link Executor} for the configured {@link ExecutorMode}
+     * @return The new {@link Executor}; null, if requests should be handled on the dispatcher thread of the server
+     */
+    public Executor createExecutor() {
+        switch (mode) {
+            case POOL:
+                return createBoundedPool();
+            case VIRTUAL:
+                return createThreadPerRequestExecutor();
+            default:
+                return null;
+        }
+    }
+
+    /*
+     * Once the pool is saturated, the dispatcher thread runs the request itself, which stops it from accepting
+     * new connections until a pool thread is free again.
+     */
+    private ExecutorService createBoundedPool() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(numThreads, numThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new RequestThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private ExecutorService createThreadPerRequestExecutor() {
+        try {
+            Method factoryMethod = Executors.class.getMethod(VIRTUAL_THREAD_FACTORY_METHOD);
+            return (ExecutorService) factoryMethod.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.warning("Virtual threads are not supported by this runtime; " +
+                    "using a platform thread per request instead.\n");
+            return Executors.newCachedThreadPool(new RequestThreadFactory());
+        }
+    }
+
+    /**
+     * Describes the configured executor, for logging
+     * @return A description of the executor mode and its sizing
+     */
+    @Override
+    public String toString() {
+        if (ExecutorMode.POOL == mode) {
+            return mode + " (threads: " + numThreads + ", queue: " + queueCapacity + ")";
+        }
+
+        return mode.toString();
+    }
+
+    private static final class RequestThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "request-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
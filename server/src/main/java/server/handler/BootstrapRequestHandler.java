@@ -0,0 +1,132 @@
+package server.handler;
+
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import server.exception.HttpBadRequestException;
+import server.service.BootstrapService;
+import server.service.LoginService;
+import server.service.RegisterService;
+import shared.http.FamilyMapUrl;
+import shared.json.JsonInterpreter;
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+import shared.request.LoginRequest;
+import shared.request.RegisterRequest;
+import shared.result.BootstrapResult;
+import shared.result.InfoResult;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * A handler to process bootstrap requests, which log in (or register) a user and send back the login result along
+ * with ALL family members of the user and ALL of their events, in a single {@link BootstrapResult} streamed straight
+ * off the database cursors
+ * @author griffinbholt
+ */
+public final class BootstrapRequestHandler extends PostHandler {
+    private static final String AUTH_TOKEN_FIELD = "authToken";
+    private static final String USER_NAME_FIELD = "userName";
+    private static final String PERSON_ID_FIELD = "personID";
+    private static final String PERSONS_FIELD = "persons";
+    private static final String EVENTS_FIELD = "events";
+    private static final String SUCCESS_FIELD = "success";
+
+    /**
+     * The method called by the server when an incoming {@link com.sun.net.httpserver.HttpExchange HttpExchange} for a
+     * bootstrap request is sent to the server
+     * @param exchange The incoming {@link com.sun.net.httpserver.HttpExchange HttpExchange}
+     * @throws IOException An error occurred while interacting with the
+     *                     {@link com.sun.net.httpserver.HttpExchange HttpExchange}
+     */
+    @Override
+    @SuppressWarnings("OverlyBroadCatchBlock")
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String uriPath = getRequestURIPath(exchange);
+
+            checkRequestMethod(exchange);
+
+            InfoResult infoResult;
+
+            if (FamilyMapUrl.BOOTSTRAP_LOGIN.equals(uriPath)) {
+                infoResult = processLoginRequest(getLoginRequest(exchange));
+            } else {
+                checkUriPath(FamilyMapUrl.BOOTSTRAP_REGISTER, uriPath);
+                infoResult = processRegisterRequest(getRegisterRequest(exchange));
+            }
+
+            if (infoResult.isSuccess()) {
+                sendFamilyData(exchange, infoResult);
+            } else {
+                sendResponse(exchange, BootstrapResult.newFailure(infoResult.getMessage()));
+            }
+        } catch (IOException e) {
+            handleInternalError(exchange, e.getMessage());
+        } catch (HttpBadRequestException e) {
+            handleBadRequest(exchange, e.getMessage());
+        } finally {
+            closeResponseBody(exchange);
+        }
+    }
+
+    private LoginRequest getLoginRequest(HttpExchange exchange) throws IOException {
+        return (LoginRequest) getRequest(exchange, LoginRequest.class);
+    }
+
+    private InfoResult processLoginRequest(LoginRequest request) {
+        logSuccess("Bootstrap login request received for user: " + request.getUserName());
+        return new LoginService().login(request);
+    }
+
+    private RegisterRequest getRegisterRequest(HttpExchange exchange) throws IOException {
+        return (RegisterRequest) getRequest(exchange, RegisterRequest.class);
+    }
+
+    private InfoResult processRegisterRequest(RegisterRequest request) {
+        logSuccess("Bootstrap register request received for new user: " + request.getUserName());
+        return new RegisterService().register(request);
+    }
+
+    /*
+     * Writes the fields of the login result, and then streams the family members and events of the user into the
+     * persons and events arrays of the same Json object. If the family data cannot be read before any of the body is
+     * sent, the buffered body is dropped for a failure result.
+     */
+    private void sendFamilyData(HttpExchange exchange, InfoResult infoResult) throws IOException {
+        exchange.getResponseHeaders().set(CONTENT_TYPE_HEADER, JSON_CONTENT_TYPE);
+
+        try (ResponseBodyStream respBody = new ResponseBodyStream(exchange, HttpURLConnection.HTTP_OK)) {
+            JsonWriter jsonWriter = JsonInterpreter.newJsonWriter(newResponseWriter(respBody));
+
+            jsonWriter.beginObject();
+            jsonWriter.name(AUTH_TOKEN_FIELD).value(infoResult.getAuthTokenString());
+            jsonWriter.name(USER_NAME_FIELD).value(infoResult.getUserName());
+            jsonWriter.name(PERSON_ID_FIELD).value(infoResult.getPersonID());
+
+            BootstrapResult failure = new BootstrapService().streamFamilyData(infoResult.getAuthToken(),
+                    new JsonArraySink<>(jsonWriter, PERSONS_FIELD, JsonRowSink.encoderOf(ServerPerson.class)),
+                    new JsonArraySink<>(jsonWriter, EVENTS_FIELD, JsonRowSink.encoderOf(ServerEvent.class)));
+
+            if (null != failure) {
+                sendFailure(exchange, respBody, failure);
+                return;
+            }
+
+            jsonWriter.name(SUCCESS_FIELD).value(true);
+            jsonWriter.endObject();
+            jsonWriter.flush();
+            respBody.commit();
+        }
+    }
+
+    private void sendFailure(HttpExchange exchange, ResponseBodyStream respBody, BootstrapResult failure)
+            throws IOException {
+        if (respBody.isSpilled()) {
+            throw new IOException("Streamed response failed after it was partly sent: " + failure.getMessage());
+        }
+
+        respBody.close();
+        sendResponse(exchange, failure);
+    }
+}
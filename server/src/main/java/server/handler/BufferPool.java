@@ -0,0 +1,41 @@
+package server.handler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * A pool of fixed-size byte buffers, shared by the handlers to buffer response bodies without allocating fresh
+ * arrays for every request. At most MAX_POOLED_BUFFERS idle buffers are kept; any others are left to the garbage
+ * collector.
+ */
+final class BufferPool {
+    static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final int MAX_POOLED_BUFFERS = 256;
+
+    private static final Queue<byte[]> idleBuffers = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger numIdleBuffers = new AtomicInteger();
+
+    private BufferPool() {
+    }
+
+    static byte[] acquire() {
+        byte[] buffer = idleBuffers.poll();
+
+        if (null == buffer) {
+            return new byte[BUFFER_SIZE];
+        }
+
+        numIdleBuffers.decrementAndGet();
+        return buffer;
+    }
+
+    static void release(byte[] buffer) {
+        if (numIdleBuffers.incrementAndGet() <= MAX_POOLED_BUFFERS) {
+            idleBuffers.offer(buffer);
+        } else {
+            numIdleBuffers.decrementAndGet();
+        }
+    }
+}
@@ -13,8 +13,6 @@ import java.io.IOException;
  * @author griffinbholt
  */
 public final class ClearRequestHandler extends PostHandler {
-    private final ClearService clearService = new ClearService();
-
     /**
      * The method called by the server when an incoming {@link com.sun.net.httpserver.HttpExchange HttpExchange} for a
      * clear request is sent to the server
@@ -46,7 +44,7 @@ public final class ClearRequestHandler extends PostHandler {
 
     private ClearResult processClearRequest() {
         logClearRequest();
-        return clearService.clearTables();
+        return new ClearService().clearTables();
     }
 
     private void logClearRequest() {
@@ -0,0 +1,87 @@
+package server.handler;
+
+import java.util.zip.Deflater;
+
+import server.ServerOptions;
+
+/**
+ * The response compression settings of the server, configured by its startup options:
+ * <ul>
+ *     <li><code>compressLevel</code> - the gzip/deflate level, from 1 (fastest) to 9 (smallest); 0 disables
+ *     compression (default: 6)</li>
+ *     <li><code>compressMinBytes</code> - responses smaller than this are never compressed (default: 1024)</li>
+ * </ul>
+ * Responses are compressed with the coding the client prefers in its Accept-Encoding header (gzip or deflate).
+ * @author griffinbholt
+ */
+public final class CompressionSettings {
+    private static final String LEVEL_OPTION = "compressLevel";
+    private static final String MIN_BYTES_OPTION = "compressMinBytes";
+
+    private static final int DEFAULT_LEVEL = 6;
+    private static final int DEFAULT_MIN_BYTES = 1024;
+
+    @SuppressWarnings("StaticVariableOfConcreteClass")
+    private static volatile CompressionSettings compressionSettings =
+            new CompressionSettings(DEFAULT_LEVEL, DEFAULT_MIN_BYTES);
+
+    private final int level;
+    private final int minBytes;
+
+    private CompressionSettings(int level, int minBytes) {
+        if (Deflater.NO_COMPRESSION > level || Deflater.BEST_COMPRESSION < level) {
+            throw new IllegalArgumentException("Option " + LEVEL_OPTION + " must be between 0 and 9: " + level);
+        }
+
+        if (0 > minBytes) {
+            throw new IllegalArgumentException("Option " + MIN_BYTES_OPTION + " must not be negative: " + minBytes);
+        }
+
+        this.level = level;
+        this.minBytes = minBytes;
+    }
+
+    /**
+     * Replaces the compression settings of the server with ones configured by the input startup options
+     * @param options The startup options of the server
+     * @throws IllegalArgumentException One of the options has an invalid value
+     */
+    public static void configure(ServerOptions options) {
+        compressionSettings = new CompressionSettings(options.getInt(LEVEL_OPTION, DEFAULT_LEVEL),
+                options.getInt(MIN_BYTES_OPTION, DEFAULT_MIN_BYTES));
+    }
+
+    /**
+     * Returns the compression settings of the server
+     * @return The compression settings of the server
+     */
+    public static CompressionSettings getInstance() {
+        return compressionSettings;
+    }
+
+    /**
+     * Checks whether the server compresses its responses at all
+     * @return true, if compression is enabled; false, otherwise
+     */
+    public boolean isEnabled() {
+        return Deflater.NO_COMPRESSION != level;
+    }
+
+    /**
+     * Checks whether a response body of the input size should be compressed
+     * @param size The size of the response body, in bytes
+     * @return true, if compression is enabled and the body is at least the minimum size; false, otherwise
+     */
+    public boolean shouldCompress(long size) {
+        return isEnabled() && size >= minBytes;
+    }
+
+    // Getters
+    public int getLevel() {
+        return level;
+    }
+
+    public int getMinBytes() {
+        return minBytes;
+    }
+}
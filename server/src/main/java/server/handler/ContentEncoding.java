@@ -0,0 +1,117 @@
+package server.handler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An enumeration of the content codings the server can compress its responses with
+ * @author griffinbholt
+ */
+enum ContentEncoding {
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private static final String QUALITY_PARAMETER = "q=";
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /*
+     * Picks the content coding the client prefers, from the value of its Accept-Encoding header. Codings with a
+     * quality of 0 are refused; ties go to gzip. Returns null, if the client accepts none of the codings.
+     */
+    static ContentEncoding negotiate(String acceptEncoding) {
+        if (null == acceptEncoding) {
+            return null;
+        }
+
+        ContentEncoding preferred = null;
+        double preferredQuality = 0;
+
+        for (ContentEncoding encoding : values()) {
+            double quality = encoding.getQuality(acceptEncoding);
+
+            if (quality > preferredQuality) {
+                preferred = encoding;
+                preferredQuality = quality;
+            }
+        }
+
+        return preferred;
+    }
+
+    boolean isAcceptedBy(String acceptEncoding) {
+        return (null != acceptEncoding) && (0 < getQuality(acceptEncoding));
+    }
+
+    private double getQuality(String acceptEncoding) {
+        double wildcardQuality = 0;
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+
+            if (token.equalsIgnoreCase(name)) {
+                return parseQuality(parameters);
+            }
+
+            if ("*".equals(name)) {
+                wildcardQuality = parseQuality(parameters);
+            }
+        }
+
+        return wildcardQuality;
+    }
+
+    private static double parseQuality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+
+            if (parameter.startsWith(QUALITY_PARAMETER)) {
+                try {
+                    return Double.parseDouble(parameter.substring(QUALITY_PARAMETER.length()));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+
+    /*
+     * Wraps the input stream in a compressor for this coding. Finishing or closing the compressor releases its
+     * native memory.
+     */
+    DeflaterOutputStream newCompressor(OutputStream outputStream, int level) throws IOException {
+        if (GZIP == this) {
+            return new LeveledGzipOutputStream(outputStream, level);
+        }
+
+        return new DeflaterOutputStream(outputStream, new Deflater(level), BufferPool.BUFFER_SIZE, false) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                def.end();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return token;
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        private LeveledGzipOutputStream(OutputStream outputStream, int level) throws IOException {
+            super(outputStream, BufferPool.BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
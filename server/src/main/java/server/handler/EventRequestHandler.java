@@ -1,6 +1,7 @@
 package server.handler;
 
 import com.sun.net.httpserver.HttpExchange;
+import server.dao.FieldProjection;
 import server.exception.HttpBadRequestException;
 
 import server.service.AllEventsService;
@@ -8,8 +9,8 @@ import server.service.SingleEventService;
 import shared.model.AuthToken;
 import shared.model.ServerEvent;
 import shared.result.AllEventsResult;
+import shared.result.EventChangesResult;
 import shared.result.EventResult;
-import shared.result.Result;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -20,9 +21,7 @@ import java.util.Arrays;
  */
 public final class EventRequestHandler extends GetHandler {
     private static final String MODEL_NAME = "ServerEvent";
-
-    private final SingleEventService singleEventService = new SingleEventService();
-    private final AllEventsService allEventsService = new AllEventsService();
+    private static final String RESOURCE = "event";
 
     /**
      * The method called by the server when an incoming {@link com.sun.net.httpserver.HttpExchange HttpExchange} for an
@@ -43,17 +42,25 @@ public final class EventRequestHandler extends GetHandler {
             checkRequestMethod(exchange);
 
             AuthToken authToken = getAuthToken(exchange);
+            String since = getQueryParameter(exchange, SINCE_PARAMETER);
+            String fields = getQueryParameter(exchange, FIELDS_PARAMETER);
 
-            Result result;
-
-            if (isSingleObjectRequest(numComponents)) {
+            if (null != fields) {
+                FieldProjection projection = getProjection(exchange, numComponents, fields, FieldProjection::ofEvents);
+                processEventFieldsRequest(exchange, authToken, projection);
+            } else if (isSingleObjectRequest(numComponents)) {
                 String eventID = getID(components);
-                result = processSingleEventRequest(eventID, authToken);
+                sendResponse(exchange, processSingleEventRequest(eventID, authToken));
+            } else if (null != since) {
+                checkNotPageRequest(exchange);
+                long sinceVersion = parseLongParameter(since, SINCE_PARAMETER);
+                sendResponse(exchange, processEventChangesRequest(sinceVersion, authToken));
+            } else if (isPageRequest(exchange)) {
+                String afterID = getPageAfterID(exchange);
+                sendResponse(exchange, processEventsPageRequest(afterID, getPageSize(exchange), authToken));
             } else {
-                result = processAllEventsRequest(authToken);
+                processAllEventsRequest(exchange, authToken);
             }
-
-            sendResponse(exchange, result);
         } catch (IOException e) {
             handleInternalError(exchange, e.getMessage());
         } catch (HttpBadRequestException e) {
@@ -65,16 +72,35 @@ public final class EventRequestHandler extends GetHandler {
 
     private EventResult processSingleEventRequest(String eventID, AuthToken authToken) {
         logSingleEventRequest(eventID);
-        return singleEventService.getEvent(eventID, authToken);
+        return new SingleEventService().getEvent(eventID, authToken);
     }
 
     private void logSingleEventRequest(String eventID) {
         logSingleObjectRequest(MODEL_NAME, eventID);
     }
 
-    private AllEventsResult processAllEventsRequest(AuthToken authToken) {
+    private void processAllEventsRequest(HttpExchange exchange, AuthToken authToken) throws IOException {
         logAllEventsRequest();
-        return allEventsService.getAllEvents(authToken);
+        sendAllObjectsResponse(exchange, authToken, RESOURCE, JsonRowSink.encoderOf(ServerEvent.class),
+                sink -> new AllEventsService().streamAllEvents(authToken, sink));
+    }
+
+    private void processEventFieldsRequest(HttpExchange exchange, AuthToken authToken, FieldProjection projection)
+            throws IOException {
+        logProjectionRequest(MODEL_NAME, projection);
+        sendAllObjectsResponse(exchange, authToken, projectedResource(RESOURCE, projection),
+                JsonRowSink.encoderOf(projection),
+                sink -> new AllEventsService().streamEventFields(authToken, projection, sink));
+    }
+
+    private AllEventsResult processEventsPageRequest(String afterID, int pageSize, AuthToken authToken) {
+        logPageRequest(MODEL_NAME, afterID, pageSize);
+        return new AllEventsService().getEventsPage(authToken, afterID, pageSize);
+    }
+
+    private EventChangesResult processEventChangesRequest(long since, AuthToken authToken) {
+        logChangesRequest(MODEL_NAME, since);
+        return new AllEventsService().getEventChanges(authToken, since);
     }
 
     private void logAllEventsRequest() {
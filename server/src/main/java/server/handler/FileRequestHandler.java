@@ -1,27 +1,38 @@
 package server.handler;
 
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import server.exception.HttpBadMethodException;
-import shared.http.FamilyMapUrl;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.nio.file.Files;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
 
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 /**
- * The default handler for the server
+ * The default handler for the server, which serves the static assets of the {@link StaticAssetCache}
  * @author griffinbholt
  */
 public final class FileRequestHandler extends Handler {
-    private static final String WEB_DIR = "web";
-    private static final String WEB_INDEX = "/index.html";
-    private static final String FILE_NOT_FOUND = WEB_DIR + "/HTML/404.html";
-
+    static final String WEB_DIR = "web";
+
+    private static final String CACHE_CONTROL_HEADER = "Cache-Control";
+    private static final String CONTENT_TYPE_HEADER = "Content-Type";
+    private static final String ETAG_HEADER = "ETag";
+    private static final String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    private static final String LAST_MODIFIED_HEADER = "Last-Modified";
+    private static final String ANY_ETAG = "*";
+    private static final String WEAK_ETAG_PREFIX = "W/";
+    private static final int NO_BODY_LENGTH = -1;
 
     /**
      * The method called by the server when it receives an {@link com.sun.net.httpserver.HttpExchange HttpExchange} that
@@ -37,7 +48,7 @@ public final class FileRequestHandler extends Handler {
         try {
             throwBadMethodIfNotGetRequest(exchange);
 
-            urlPath = getURLPath(exchange);
+            urlPath = getRequestURIPath(exchange);
 
             sendResponse(urlPath, exchange);
         } catch (HttpBadMethodException e) {
@@ -57,34 +68,137 @@ public final class FileRequestHandler extends Handler {
         }
     }
 
-    private String getURLPath(HttpExchange exchange) {
-        String uriPath = getRequestURIPath(exchange);
-
-        return (null == uriPath || FamilyMapUrl.DEFAULT_PATH.equals(uriPath)) ? WEB_DIR + WEB_INDEX : WEB_DIR + uriPath;
-    }
-
     @SuppressWarnings("DuplicateThrows")
     private void sendResponse(String urlPath, HttpExchange exchange) throws FileNotFoundException, IOException {
-        File urlFile = new File(urlPath);
+        StaticAsset asset = StaticAssetCache.getInstance().get(urlPath);
+
+        if (null == asset) {
+            throw new FileNotFoundException();
+        }
 
-        if (urlFile.exists()) {
-            sendHttpOkResponse(exchange);
-            sendFile(urlFile, exchange);
-            logSuccess(HTTP_OK + ": Page found: " + urlPath);
+        if (isNotModified(exchange, asset)) {
+            setCachingHeaders(exchange, asset, acceptsGzip(exchange) && hasGzipVariant(asset));
+            exchange.sendResponseHeaders(HTTP_NOT_MODIFIED, NO_BODY_LENGTH);
+            logSuccess(HTTP_NOT_MODIFIED + ": Page not modified: " + urlPath);
             return;
         }
 
-        throw new FileNotFoundException();
+        sendAsset(asset, exchange, HTTP_OK);
+        logSuccess(HTTP_OK + ": Page found: " + urlPath);
+    }
+
+    /*
+     * If-None-Match takes precedence over If-Modified-Since. ETags are compared weakly, as RFC 7232 requires for
+     * If-None-Match.
+     */
+    private boolean isNotModified(HttpExchange exchange, StaticAsset asset) {
+        Headers requestHeaders = exchange.getRequestHeaders();
+        String ifNoneMatch = requestHeaders.getFirst(IF_NONE_MATCH_HEADER);
+
+        if (null != ifNoneMatch) {
+            return matchesAnyEtag(ifNoneMatch, asset);
+        }
+
+        String ifModifiedSince = requestHeaders.getFirst(IF_MODIFIED_SINCE_HEADER);
+        return (null != ifModifiedSince) && isNotModifiedSince(ifModifiedSince, asset);
+    }
+
+    private boolean matchesAnyEtag(String ifNoneMatch, StaticAsset asset) {
+        for (String etag : ifNoneMatch.split(",")) {
+            String trimmedEtag = etag.trim();
+
+            if (ANY_ETAG.equals(trimmedEtag)) {
+                return true;
+            }
+
+            if (trimmedEtag.startsWith(WEAK_ETAG_PREFIX)) {
+                trimmedEtag = trimmedEtag.substring(WEAK_ETAG_PREFIX.length());
+            }
+
+            if (asset.matchesEtag(trimmedEtag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isNotModifiedSince(String ifModifiedSince, StaticAsset asset) {
+        try {
+            long sinceSeconds = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toEpochSecond();
+            return TimeUnit.MILLISECONDS.toSeconds(asset.getLastModifiedMillis()) <= sinceSeconds;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
     }
 
     private void handleNotFound(HttpExchange exchange, String urlPath) throws IOException {
-        sendHttpNotFoundResponse(exchange);
-        sendFile(new File(FILE_NOT_FOUND), exchange);
+        StaticAsset notFoundPage = StaticAssetCache.getInstance().getNotFoundPage();
+
+        if (null == notFoundPage) {
+            exchange.sendResponseHeaders(HTTP_NOT_FOUND, NO_BODY_LENGTH);
+        } else {
+            sendAsset(notFoundPage, exchange, HTTP_NOT_FOUND);
+        }
+
         logError(HTTP_NOT_FOUND + ": Page not found: " + urlPath);
     }
 
-    private void sendFile(File file, HttpExchange exchange) throws IOException {
-        OutputStream respBody = exchange.getResponseBody();
-        Files.copy(file.toPath(), respBody);
+    /*
+     * Sends the asset with an exact Content-Length, using its gzip variant if the client accepts gzip. Assets beyond
+     * the memory budget of the StaticAssetCache are streamed from disk, along with their precompressed variant.
+     */
+    private void sendAsset(StaticAsset asset, HttpExchange exchange, int statusCode) throws IOException {
+        boolean acceptsGzip = acceptsGzip(exchange);
+
+        if (null != asset.getBody()) {
+            boolean gzipped = acceptsGzip && (null != asset.getGzipBody());
+            setAssetHeaders(exchange, asset, gzipped);
+            sendBytes(exchange, statusCode, gzipped ? asset.getGzipBody() : asset.getBody());
+        } else {
+            File variant = acceptsGzip ? PrecompressedAssets.findVariant(asset.getPath()) : null;
+            setAssetHeaders(exchange, asset, null != variant);
+            sendFile(exchange, statusCode, (null != variant) ? variant : asset.getPath().toFile());
+        }
+    }
+
+    private void setAssetHeaders(HttpExchange exchange, StaticAsset asset, boolean gzipped) {
+        setCachingHeaders(exchange, asset, gzipped);
+
+        Headers headers = exchange.getResponseHeaders();
+        headers.set(CONTENT_TYPE_HEADER, asset.getContentType());
+
+        if (gzipped) {
+            headers.set(ResponseBodyStream.CONTENT_ENCODING_HEADER, ContentEncoding.GZIP.toString());
+        }
+    }
+
+    private void sendBytes(HttpExchange exchange, int statusCode, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(statusCode, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private void sendFile(HttpExchange exchange, int statusCode, File file) throws IOException {
+        exchange.sendResponseHeaders(statusCode, file.length());
+        Files.copy(file.toPath(), exchange.getResponseBody());
+    }
+
+    private void setCachingHeaders(HttpExchange exchange, StaticAsset asset, boolean gzipped) {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set(ResponseBodyStream.VARY_HEADER, ResponseBodyStream.ACCEPT_ENCODING_HEADER);
+        headers.set(ETAG_HEADER, gzipped ? asset.getGzipEtag() : asset.getEtag());
+        headers.set(LAST_MODIFIED_HEADER, asset.getLastModified());
+        headers.set(CACHE_CONTROL_HEADER, StaticAssetCache.getInstance().getCacheControl(asset));
+    }
+
+    private boolean hasGzipVariant(StaticAsset asset) {
+        return (null != asset.getBody()) ? (null != asset.getGzipBody()) :
+                (null != PrecompressedAssets.findVariant(asset.getPath()));
+    }
+
+    private boolean acceptsGzip(HttpExchange exchange) {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst(ResponseBodyStream.ACCEPT_ENCODING_HEADER);
+        return CompressionSettings.getInstance().isEnabled() && ContentEncoding.GZIP.isAcceptedBy(acceptEncoding);
     }
 }
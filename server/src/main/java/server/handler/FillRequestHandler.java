@@ -5,6 +5,7 @@ import server.exception.HttpBadRequestException;
 import server.exception.InvalidUriPathException;
 import server.service.FillService;
 import server.service.helper.FamilyDataGenerator;
+import shared.http.FamilyMapUrl;
 import shared.request.FillRequest;
 import shared.result.FillResult;
 
@@ -16,7 +17,7 @@ import java.util.Arrays;
  * @author griffinbholt
  */
 public final class FillRequestHandler extends PostHandler {
-    private final FillService fillService = new FillService();
+    private static final String SEED_PARAMETER = FamilyMapUrl.SEED;
 
     /**
      * The method called by the server when an incoming {@link com.sun.net.httpserver.HttpExchange HttpExchange} for a
@@ -33,7 +34,7 @@ public final class FillRequestHandler extends PostHandler {
 
             checkRequestMethod(exchange);
 
-            FillRequest request = parse(components);
+            FillRequest request = parse(exchange, components);
 
             FillResult result = processFillRequest(request);
 
@@ -49,22 +50,30 @@ public final class FillRequestHandler extends PostHandler {
 
     private FillResult processFillRequest(FillRequest request) {
         logFillRequest(request);
-        return fillService.fill(request);
+        return new FillService().fill(request);
     }
 
     private void logFillRequest(FillRequest request) {
         String username = request.getUserName();
         int numGenerations = request.getNumGenerations();
-        logSuccess("Fill request received: username{" + username + "}, numGenerations{" + numGenerations +"}.");
+        Long seed = request.getSeed();
+        logSuccess("Fill request received: username{" + username + "}, numGenerations{" + numGenerations +"}" +
+                ((null == seed) ? "" : ", seed{" + seed + "}") + ".");
     }
 
-    private FillRequest parse(String[] components) throws InvalidUriPathException {
+    private FillRequest parse(HttpExchange exchange, String[] components) throws HttpBadRequestException {
         checkComponents(components.length, Arrays.toString(components));
 
         String username = getUsername(components);
         int numGenerations = getNumGenerations(components);
+        Long seed = getSeed(exchange);
 
-        return new FillRequest(username, numGenerations);
+        return new FillRequest(username, numGenerations, seed);
+    }
+
+    private Long getSeed(HttpExchange exchange) throws HttpBadRequestException {
+        String seed = getQueryParameter(exchange, SEED_PARAMETER);
+        return (null == seed) ? null : parseLongParameter(seed, SEED_PARAMETER);
     }
 
     private void checkComponents(int numComponents, String uriPath) throws InvalidUriPathException {
@@ -2,13 +2,49 @@ package server.handler;
 
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
+import server.auth.TokenVerifier;
+import server.cache.AuthTokenCache;
+import server.cache.DataVersions;
+import server.cache.ResponseCache;
+import server.dao.FieldProjection;
+import server.dao.RowSink;
 import server.exception.HttpBadRequestException;
+import server.exception.InvalidAuthTokenException;
 import server.exception.InvalidUriPathException;
+import server.service.PageCursor;
+import shared.http.FamilyMapUrl;
 import shared.model.AuthToken;
+import shared.result.Result;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.util.function.Function;
 
 abstract class GetHandler extends JsonHandler {
     private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String CACHE_CONTROL_HEADER = "Cache-Control";
+    private static final String ETAG_HEADER = "ETag";
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    private static final String REVALIDATE_CACHE_CONTROL = "private, no-cache";
+    private static final String ANY_ETAG = "*";
+    private static final String WEAK_ETAG_PREFIX = "W/";
+    private static final int NO_BODY_LENGTH = -1;
     private static final String NOT_GET_REQUEST = "Not GET request.";
+    private static final String CURSOR_PARAMETER = FamilyMapUrl.CURSOR;
+    private static final String LIMIT_PARAMETER = FamilyMapUrl.LIMIT;
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 10000;
+
+    /**
+     * The query parameter with the version of the data held by the client, after which the changes are requested
+     */
+    static final String SINCE_PARAMETER = FamilyMapUrl.SINCE;
+
+    /**
+     * The query parameter with the comma-separated names of the fields of the objects requested by the client
+     */
+    static final String FIELDS_PARAMETER = FamilyMapUrl.FIELDS;
 
     void checkRequestMethod(HttpExchange exchange) throws HttpBadRequestException {
         if (!isGetRequest(exchange)) {
@@ -22,6 +58,97 @@ abstract class GetHandler extends JsonHandler {
         return new AuthToken(authToken);
     }
 
+    /**
+     * Checks whether the request is for a page of the objects of a user, i.e., whether it has a cursor or a limit
+     * @param exchange The {@link HttpExchange} of the request
+     * @return true, if the request is for a page; false, otherwise
+     */
+    boolean isPageRequest(HttpExchange exchange) {
+        return (null != getQueryParameter(exchange, CURSOR_PARAMETER)) ||
+                (null != getQueryParameter(exchange, LIMIT_PARAMETER));
+    }
+
+    /**
+     * Checks that a request for the changes since a version is not also a request for a page, which the change sets
+     * do not support
+     * @param exchange The {@link HttpExchange} of the request
+     * @throws HttpBadRequestException The request has a cursor or a limit
+     */
+    void checkNotPageRequest(HttpExchange exchange) throws HttpBadRequestException {
+        if (isPageRequest(exchange)) {
+            throw new HttpBadRequestException("The " + SINCE_PARAMETER + " parameter cannot be combined with the " +
+                    CURSOR_PARAMETER + " or " + LIMIT_PARAMETER + " parameters.");
+        }
+    }
+
+    /**
+     * Returns the ID after which the requested page starts, decoded from the cursor of the request
+     * @param exchange The {@link HttpExchange} of the request
+     * @return The ID after which the page starts; null, for the first page
+     * @throws HttpBadRequestException The cursor was not returned by the server
+     */
+    String getPageAfterID(HttpExchange exchange) throws HttpBadRequestException {
+        String cursor = getQueryParameter(exchange, CURSOR_PARAMETER);
+
+        if (null == cursor) {
+            return null;
+        }
+
+        try {
+            return PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new HttpBadRequestException("Invalid " + CURSOR_PARAMETER + " parameter: " + cursor);
+        }
+    }
+
+    /**
+     * Returns the maximum number of objects of the requested page: the limit of the request, capped at
+     * {@value #MAX_PAGE_SIZE}, or {@value #DEFAULT_PAGE_SIZE}, if the request has no limit
+     * @param exchange The {@link HttpExchange} of the request
+     * @return The maximum number of objects of the page
+     * @throws HttpBadRequestException The limit is not a positive number
+     */
+    int getPageSize(HttpExchange exchange) throws HttpBadRequestException {
+        String limit = getQueryParameter(exchange, LIMIT_PARAMETER);
+
+        if (null == limit) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        long pageSize = parseLongParameter(limit, LIMIT_PARAMETER);
+
+        if (0 >= pageSize) {
+            throw new HttpBadRequestException("Invalid " + LIMIT_PARAMETER + " parameter: " + limit);
+        }
+
+        return (int) Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Parses the fields of a request for the projection of all the objects of a user. Projections are only supported
+     * for the full list of the objects, not for a single object, a page, or the changes since a version.
+     * @param exchange The {@link HttpExchange} of the request
+     * @param numComponents The number of components of the URI path of the request
+     * @param fields The value of the fields parameter of the request
+     * @param parser Creates the {@link FieldProjection} from the fields (e.g., {@link FieldProjection#ofEvents})
+     * @return The {@link FieldProjection} of the objects
+     * @throws HttpBadRequestException The fields are invalid, or the request is not for all the objects of the user
+     */
+    FieldProjection getProjection(HttpExchange exchange, int numComponents, String fields,
+                                  Function<String, FieldProjection> parser) throws HttpBadRequestException {
+        if (isSingleObjectRequest(numComponents) || isPageRequest(exchange) ||
+                (null != getQueryParameter(exchange, SINCE_PARAMETER))) {
+            throw new HttpBadRequestException("The " + FIELDS_PARAMETER + " parameter is only supported for " +
+                    "requests for all the family data.");
+        }
+
+        try {
+            return parser.apply(fields);
+        } catch (IllegalArgumentException e) {
+            throw new HttpBadRequestException("Invalid " + FIELDS_PARAMETER + " parameter: " + e.getMessage());
+        }
+    }
+
     String getID(String[] components) {
         return components[2];
     }
@@ -47,4 +174,208 @@ abstract class GetHandler extends JsonHandler {
     void logAllObjectsRequest(String object) {
         logSuccess(object + " request received for all family " + object.toLowerCase() + "s.");
     }
+
+    void logPageRequest(String object, String afterID, int pageSize) {
+        logSuccess(object + " request received for " + pageSize + " family " + object.toLowerCase() + "s" +
+                ((null == afterID) ? "" : " after " + object.toLowerCase() + "Id{" + afterID + "}") + ".");
+    }
+
+    void logProjectionRequest(String object, FieldProjection projection) {
+        logSuccess(object + " request received for the fields " + projection.getKey() + " of all family " +
+                object.toLowerCase() + "s.");
+    }
+
+    void logChangesRequest(String object, long since) {
+        logSuccess(object + " request received for the changes to all family " + object.toLowerCase() +
+                "s since version " + since + ".");
+    }
+
+    /**
+     * Returns the key of the ResponseCache for the response to a request for the projection of all the objects of a
+     * user, which is cached apart from the response with the whole objects
+     * @param resource The name of the requested objects (e.g., "event")
+     * @param projection The {@link FieldProjection} of the objects
+     * @return The key of the response
+     */
+    String projectedResource(String resource, FieldProjection projection) {
+        return resource + "?" + FIELDS_PARAMETER + "=" + projection.getKey();
+    }
+
+    /*
+     * Sends the response to a request for all the objects of a user, from the ResponseCache when the token of the
+     * user can be verified in memory. Otherwise, the objects are streamed by the service straight off the database
+     * cursor into the response body, which is cached if it was small enough to be sent with an exact length.
+     *
+     * Every successful response is tagged with the DataVersions of the user, so a client that already has the current
+     * data gets a 304 without the tables being read. The version is read before the query whenever the user is known;
+     * otherwise, it is only trusted if no change was stamped since the query started.
+     */
+    <T> void sendAllObjectsResponse(HttpExchange exchange, AuthToken authToken, String resource,
+                                    JsonRowSink.RowEncoder<? super T> rowEncoder, StreamingService<T> service)
+            throws IOException {
+        ResponseCache responseCache = ResponseCache.getInstance();
+        DataVersions dataVersions = DataVersions.getInstance();
+        long stamp = dataVersions.currentStamp();
+        String username = getVerifiedUsername(authToken);
+
+        if (null != username) {
+            String etag = dataVersions.toEtag(username, dataVersions.getVersion(username));
+
+            if (isNotModified(exchange, etag)) {
+                sendNotModified(exchange, etag);
+                return;
+            }
+
+            setValidatorHeaders(exchange, etag);
+            ResponseCache.CachedResponse cachedResponse = responseCache.get(username, resource);
+
+            if (null != cachedResponse) {
+                sendCachedResponse(exchange, cachedResponse);
+                return;
+            }
+        }
+
+        long generation = responseCache.getGeneration();
+        exchange.getResponseHeaders().set(CONTENT_TYPE_HEADER, JSON_CONTENT_TYPE);
+
+        try (ResponseBodyStream respBody = new ResponseBodyStream(exchange, HttpURLConnection.HTTP_OK)) {
+            JsonRowSink<T> sink = new JsonRowSink<>(respBody, rowEncoder);
+            Result failure = service.stream(sink);
+
+            if (null != failure) {
+                sendFailure(exchange, respBody, failure);
+                return;
+            }
+
+            sink.finish();
+
+            if (null == username && !respBody.isSpilled()) {
+                tagStreamedResponse(exchange, authToken, stamp);
+            }
+
+            cacheResponse(respBody, authToken, resource, generation);
+            respBody.commit();
+        }
+    }
+
+    private boolean isNotModified(HttpExchange exchange, String etag) {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst(IF_NONE_MATCH_HEADER);
+
+        if (null == ifNoneMatch) {
+            return false;
+        }
+
+        String opaqueTag = stripWeakness(etag);
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+
+            if (ANY_ETAG.equals(tag) || opaqueTag.equals(stripWeakness(tag))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String stripWeakness(String etag) {
+        return etag.startsWith(WEAK_ETAG_PREFIX) ? etag.substring(WEAK_ETAG_PREFIX.length()) : etag;
+    }
+
+    private void sendNotModified(HttpExchange exchange, String etag) throws IOException {
+        setValidatorHeaders(exchange, etag);
+        exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, NO_BODY_LENGTH);
+    }
+
+    private void setValidatorHeaders(HttpExchange exchange, String etag) {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set(ETAG_HEADER, etag);
+        headers.set(CACHE_CONTROL_HEADER, REVALIDATE_CACHE_CONTROL);
+    }
+
+    private void tagStreamedResponse(HttpExchange exchange, AuthToken authToken, long stamp) {
+        String username = getVerifiedUsername(authToken);
+
+        if (null == username) {
+            return;
+        }
+
+        DataVersions dataVersions = DataVersions.getInstance();
+        long version = dataVersions.getVersion(username);
+
+        if (version <= stamp) {
+            setValidatorHeaders(exchange, dataVersions.toEtag(username, version));
+        }
+    }
+
+    private void sendFailure(HttpExchange exchange, ResponseBodyStream respBody, Result failure) throws IOException {
+        if (respBody.isSpilled()) {
+            throw new IOException("Streamed response failed after it was partly sent: " + failure.getMessage());
+        }
+
+        respBody.close();
+        exchange.getResponseHeaders().remove(ETAG_HEADER);
+        exchange.getResponseHeaders().remove(CACHE_CONTROL_HEADER);
+        sendResponse(exchange, failure);
+    }
+
+    private void cacheResponse(ResponseBodyStream respBody, AuthToken authToken, String resource, long generation) {
+        String username = getVerifiedUsername(authToken);
+        byte[] body = respBody.toByteArray();
+
+        if (null != username && null != body) {
+            ResponseCache.getInstance().put(username, resource, body, generation);
+        }
+    }
+
+    private String getVerifiedUsername(AuthToken authToken) {
+        try {
+            AuthTokenCache.Authorization authorization = TokenVerifier.verifyInMemory(authToken.toString());
+            return (null == authorization) ? null : authorization.getUsername();
+        } catch (InvalidAuthTokenException e) {
+            return null;
+        }
+    }
+
+    private void sendCachedResponse(HttpExchange exchange, ResponseCache.CachedResponse cachedResponse)
+            throws IOException {
+        if (acceptsGzip(exchange, cachedResponse.getBody().length)) {
+            sendBody(exchange, cachedResponse.getCompressedBody(), true);
+        } else {
+            sendBody(exchange, cachedResponse.getBody(), false);
+        }
+    }
+
+    /*
+     * The cache only keeps a gzip variant of its responses, so clients that only accept deflate get the identity body
+     */
+    private boolean acceptsGzip(HttpExchange exchange, int bodyLength) {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst(ResponseBodyStream.ACCEPT_ENCODING_HEADER);
+        return CompressionSettings.getInstance().shouldCompress(bodyLength) &&
+                ContentEncoding.GZIP.isAcceptedBy(acceptEncoding);
+    }
+
+    private void sendBody(HttpExchange exchange, byte[] body, boolean gzipped) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set(CONTENT_TYPE_HEADER, JSON_CONTENT_TYPE);
+
+        if (gzipped) {
+            headers.set(ResponseBodyStream.CONTENT_ENCODING_HEADER, ContentEncoding.GZIP.toString());
+            headers.set(ResponseBodyStream.VARY_HEADER, ResponseBodyStream.ACCEPT_ENCODING_HEADER);
+        }
+
+        exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, body.length);
+
+        OutputStream respBody = exchange.getResponseBody();
+        respBody.write(body);
+        respBody.flush();
+    }
+
+    /*
+     * Streams all the objects of a user to a RowSink, and returns the failure result if the request failed
+     */
+    @FunctionalInterface
+    interface StreamingService<T> {
+        Result stream(RowSink<T> sink) throws IOException;
+    }
 }
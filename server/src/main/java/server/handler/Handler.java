@@ -3,8 +3,12 @@ package server.handler;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
+import server.exception.HttpBadRequestException;
+
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.util.logging.Logger;
 
 abstract class Handler implements HttpHandler {
@@ -17,6 +21,50 @@ abstract class Handler implements HttpHandler {
         return exchange.getRequestURI().getPath();
     }
 
+    /**
+     * Returns the value of a parameter of the query string of the request
+     * @param exchange The {@link HttpExchange} of the request
+     * @param name The name of the parameter
+     * @return The decoded value of the parameter; an empty string, if it has no value; null, if it is not in the query
+     */
+    String getQueryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+
+        if (null == query) {
+            return null;
+        }
+
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            String key = (0 > separator) ? parameter : parameter.substring(0, separator);
+
+            if (name.equals(decode(key))) {
+                return (0 > separator) ? "" : decode(parameter.substring(separator + 1));
+            }
+        }
+
+        return null;
+    }
+
+    private static String decode(String component) {
+        return URLDecoder.decode(component, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a parameter of the query string of the request as a number
+     * @param value The value of the parameter, as returned by {@link #getQueryParameter(HttpExchange, String)}
+     * @param name The name of the parameter
+     * @return The parsed number
+     * @throws HttpBadRequestException The value is not a number
+     */
+    long parseLongParameter(String value, String name) throws HttpBadRequestException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new HttpBadRequestException("Invalid " + name + " parameter: " + value);
+        }
+    }
+
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     boolean isGetRequest(HttpExchange exchange) {
         return GET.equals(exchange.getRequestMethod().toUpperCase());
@@ -0,0 +1,39 @@
+package server.handler;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import server.dao.RowSink;
+
+/*
+ * Writes streamed rows as a named array field of a Json object that is being written by the caller, so that several
+ * streamed queries can be written out as the arrays of a single response (e.g. BootstrapResult)
+ */
+final class JsonArraySink<T> implements RowSink<T> {
+    private final JsonWriter jsonWriter;
+    private final String fieldName;
+    private final JsonRowSink.RowEncoder<? super T> rowEncoder;
+
+    JsonArraySink(JsonWriter jsonWriter, String fieldName, JsonRowSink.RowEncoder<? super T> rowEncoder) {
+        this.jsonWriter = jsonWriter;
+        this.fieldName = fieldName;
+        this.rowEncoder = rowEncoder;
+    }
+
+    @Override
+    public void start() throws IOException {
+        jsonWriter.name(fieldName);
+        jsonWriter.beginArray();
+    }
+
+    @Override
+    public void accept(T row) throws IOException {
+        rowEncoder.write(row, jsonWriter);
+    }
+
+    @Override
+    public void end() throws IOException {
+        jsonWriter.endArray();
+    }
+}
@@ -8,6 +8,9 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
 
 import server.exception.HttpBadRequestException;
 import server.exception.InvalidUriPathException;
@@ -15,6 +18,9 @@ import shared.json.JsonInterpreter;
 import shared.result.Result;
 
 abstract class JsonHandler extends Handler {
+    static final String CONTENT_TYPE_HEADER = "Content-Type";
+    static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
     private static final int READ_BUFFER_LENGTH = 1024;
 
     String[] getRequestURIPathComponents(HttpExchange exchange) {
@@ -23,21 +29,28 @@ abstract class JsonHandler extends Handler {
     }
 
     void sendResponse(HttpExchange exchange, Result result) throws IOException {
-        sendAppropriateResponseHeaders(exchange, result);
-        writeResultToResponseBody(result, exchange.getResponseBody());
-    }
+        int statusCode = result.isSuccess() ? HttpURLConnection.HTTP_OK : HttpURLConnection.HTTP_BAD_REQUEST;
+        exchange.getResponseHeaders().set(CONTENT_TYPE_HEADER, JSON_CONTENT_TYPE);
 
-    private void sendAppropriateResponseHeaders(HttpExchange exchange, Result result) throws IOException {
-        if (result.isSuccess()) {
-            sendHttpOkResponse(exchange);
-        } else {
-            sendHttpBadRequestResponse(exchange);
+        try (ResponseBodyStream respBody = new ResponseBodyStream(exchange, statusCode)) {
+            writeResultToOutputStream(result, respBody);
+            respBody.commit();
         }
     }
 
-    private void writeResultToResponseBody(Result result, OutputStream respBody) throws IOException {
-        String resultJsonString = JsonInterpreter.generateJsonString(result);
-        writeStringToOutputStream(resultJsonString, respBody);
+    private void writeResultToOutputStream(Result result, OutputStream outputStream) throws IOException {
+        Writer writer = newResponseWriter(outputStream);
+        JsonInterpreter.writeJson(result, writer);
+        writer.flush();
+    }
+
+    /*
+     * Gson writes a pretty-printed document as many short strings, and an OutputStreamWriter copies every string it is
+     * given into a new char array before encoding it, so the writer is buffered to encode whole chunks of the document
+     * instead
+     */
+    static Writer newResponseWriter(OutputStream outputStream) {
+        return new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
     }
 
     Object getRequest(HttpExchange exchange, Class<?> jsonClass) throws IOException {
@@ -58,13 +71,6 @@ abstract class JsonHandler extends Handler {
         return stringBuilder.toString();
     }
 
-    private void writeStringToOutputStream(String str, OutputStream outputStream) throws IOException {
-        OutputStreamWriter streamWriter = new OutputStreamWriter(outputStream);
-        BufferedWriter bufferedWriter = new BufferedWriter(streamWriter);
-        bufferedWriter.write(str);
-        bufferedWriter.flush();
-    }
-
     void checkUriPath(String expectedPath, String uriPath) throws InvalidUriPathException {
         if (!(uriPath.equals(expectedPath)) || (uriPath.equals(expectedPath + "/"))) {
             throw new InvalidUriPathException(uriPath);
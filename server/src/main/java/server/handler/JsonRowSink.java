@@ -0,0 +1,87 @@
+package server.handler;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+import server.dao.FieldProjection;
+import server.dao.RowSink;
+import shared.json.JsonInterpreter;
+
+/*
+ * Writes streamed rows as the data array of a successful result (e.g. AllEventsResult or FamilyMembersResult),
+ * in the same Json format as JsonInterpreter.generateJsonString. Services clear the message of these results, so
+ * only the data and success fields are written. The rows are either whole model objects, or the values of the fields
+ * of a FieldProjection, which are written as objects with only those fields.
+ */
+final class JsonRowSink<T> implements RowSink<T> {
+    private static final String DATA_FIELD = "data";
+    private static final String SUCCESS_FIELD = "success";
+
+    private final OutputStream outputStream;
+    private final RowEncoder<? super T> rowEncoder;
+
+    private JsonWriter jsonWriter;
+
+    JsonRowSink(OutputStream outputStream, RowEncoder<? super T> rowEncoder) {
+        this.outputStream = outputStream;
+        this.rowEncoder = rowEncoder;
+    }
+
+    static <T> RowEncoder<T> encoderOf(Type rowType) {
+        return (row, jsonWriter) -> JsonInterpreter.writeJson(row, rowType, jsonWriter);
+    }
+
+    /*
+     * Null values are left out, as JsonInterpreter leaves out null fields
+     */
+    static RowEncoder<Object[]> encoderOf(FieldProjection projection) {
+        String[] fieldNames = projection.getFieldNames();
+
+        return (values, jsonWriter) -> {
+            jsonWriter.beginObject();
+
+            for (int i = 0; i < fieldNames.length; i++) {
+                Object value = values[i];
+
+                if (value instanceof Number) {
+                    jsonWriter.name(fieldNames[i]).value((Number) value);
+                } else if (null != value) {
+                    jsonWriter.name(fieldNames[i]).value(value.toString());
+                }
+            }
+
+            jsonWriter.endObject();
+        };
+    }
+
+    @Override
+    public void start() throws IOException {
+        jsonWriter = JsonInterpreter.newJsonWriter(JsonHandler.newResponseWriter(outputStream));
+        jsonWriter.beginObject();
+        jsonWriter.name(DATA_FIELD);
+        jsonWriter.beginArray();
+    }
+
+    @Override
+    public void accept(T row) throws IOException {
+        rowEncoder.write(row, jsonWriter);
+    }
+
+    void finish() throws IOException {
+        jsonWriter.endArray();
+        jsonWriter.name(SUCCESS_FIELD).value(true);
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    /*
+     * Writes a single row to the Json writer of the sink
+     */
+    @FunctionalInterface
+    interface RowEncoder<T> {
+        void write(T row, JsonWriter jsonWriter) throws IOException;
+    }
+}
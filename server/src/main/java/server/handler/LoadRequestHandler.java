@@ -8,14 +8,15 @@ import shared.request.LoadRequest;
 import shared.result.LoadResult;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 
 /**
  * A handler to process {@link LoadRequest load requests}
  * @author griffinbholt
  */
 public final class LoadRequestHandler extends PostHandler {
-    private final LoadService loadService = new LoadService();
-
     /**
      * The method called by the server when an incoming {@link com.sun.net.httpserver.HttpExchange HttpExchange} for a
      * load request is sent to the server
@@ -32,9 +33,7 @@ public final class LoadRequestHandler extends PostHandler {
             checkRequestMethod(exchange);
             checkUriPath(FamilyMapUrl.LOAD, uriPath);
 
-            LoadRequest request = getLoadRequest(exchange);
-
-            LoadResult result = processLoadRequest(request);
+            LoadResult result = processLoadRequest(exchange);
 
             sendResponse(exchange, result);
         } catch (IOException e) {
@@ -46,24 +45,9 @@ public final class LoadRequestHandler extends PostHandler {
         }
     }
 
-    private LoadRequest getLoadRequest(HttpExchange exchange) throws IOException {
-        return (LoadRequest) getRequest(exchange, LoadRequest.class);
+    private LoadResult processLoadRequest(HttpExchange exchange) {
+        logSuccess("Load request received.");
+        Reader requestBody = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8);
+        return new LoadService().load(requestBody);
     }
-
-    private LoadResult processLoadRequest(LoadRequest request) {
-        logLoadRequest(request);
-        return loadService.load(request);
-    }
-
-    private void logLoadRequest(LoadRequest request) {
-        int numUsers = request.getUsers().size();
-        int numPersons = request.getPersons().size();
-        int numEvents = request.getEvents().size();
-
-        String logMessage = "Load request received: " + numUsers + " users, " + numPersons + " persons, & "
-                + numEvents + " events.";
-
-        logSuccess(logMessage);
-    }
-
-}
\ No newline at end of file
+}
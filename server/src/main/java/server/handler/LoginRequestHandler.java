@@ -14,8 +14,6 @@ import java.io.IOException;
  * @author griffinbholt
  */
 public final class LoginRequestHandler extends PostHandler {
-    private final LoginService loginService = new LoginService();
-
     /**
      * The method called by the server when an incoming {@link com.sun.net.httpserver.HttpExchange HttpExchange} for a
      * login request is sent to the server
@@ -53,7 +51,7 @@ public final class LoginRequestHandler extends PostHandler {
 
     private LoginResult processLoginRequest(LoginRequest request) {
         logLoginRequest(request.getUserName());
-        return loginService.login(request);
+        return new LoginService().login(request);
     }
 
     private void logLoginRequest(String username) {
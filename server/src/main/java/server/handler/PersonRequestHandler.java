@@ -1,14 +1,15 @@
 package server.handler;
 
 import com.sun.net.httpserver.HttpExchange;
+import server.dao.FieldProjection;
 import server.exception.HttpBadRequestException;
 import server.service.FamilyMembersService;
 import server.service.SinglePersonService;
 import shared.model.AuthToken;
 import shared.model.ServerPerson;
 import shared.result.FamilyMembersResult;
+import shared.result.PersonChangesResult;
 import shared.result.PersonResult;
-import shared.result.Result;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -19,9 +20,7 @@ import java.util.Arrays;
  */
 public final class PersonRequestHandler extends GetHandler {
     private static final String MODEL_NAME = "Person";
-
-    private final SinglePersonService personService = new SinglePersonService();
-    private final FamilyMembersService familyMembersService = new FamilyMembersService();
+    private static final String RESOURCE = "person";
 
     /**
      * The method called by the server when an incoming {@link com.sun.net.httpserver.HttpExchange HttpExchange} for a
@@ -42,17 +41,25 @@ public final class PersonRequestHandler extends GetHandler {
             checkRequestMethod(exchange);
 
             AuthToken authToken = getAuthToken(exchange);
+            String since = getQueryParameter(exchange, SINCE_PARAMETER);
+            String fields = getQueryParameter(exchange, FIELDS_PARAMETER);
 
-            Result result;
-
-            if (isSingleObjectRequest(numComponents)) {
+            if (null != fields) {
+                FieldProjection projection = getProjection(exchange, numComponents, fields, FieldProjection::ofPersons);
+                processFamilyMemberFieldsRequest(exchange, authToken, projection);
+            } else if (isSingleObjectRequest(numComponents)) {
                 String personID = getID(components);
-                result = processPersonRequest(personID, authToken);
+                sendResponse(exchange, processPersonRequest(personID, authToken));
+            } else if (null != since) {
+                checkNotPageRequest(exchange);
+                long sinceVersion = parseLongParameter(since, SINCE_PARAMETER);
+                sendResponse(exchange, processFamilyMemberChangesRequest(sinceVersion, authToken));
+            } else if (isPageRequest(exchange)) {
+                String afterID = getPageAfterID(exchange);
+                sendResponse(exchange, processFamilyMembersPageRequest(afterID, getPageSize(exchange), authToken));
             } else {
-                result = processFamilyMembersRequest(authToken);
+                processFamilyMembersRequest(exchange, authToken);
             }
-
-            sendResponse(exchange, result);
         } catch (IOException e) {
             handleInternalError(exchange, e.getMessage());
         } catch (HttpBadRequestException e) {
@@ -64,16 +71,35 @@ public final class PersonRequestHandler extends GetHandler {
 
     private PersonResult processPersonRequest(String personID, AuthToken authToken) {
         logPersonRequest(personID);
-        return personService.getPerson(personID, authToken);
+        return new SinglePersonService().getPerson(personID, authToken);
     }
 
     private void logPersonRequest(String personID) {
         logSingleObjectRequest(MODEL_NAME, personID);
     }
 
-    private FamilyMembersResult processFamilyMembersRequest(AuthToken authToken) {
+    private void processFamilyMembersRequest(HttpExchange exchange, AuthToken authToken) throws IOException {
         logAllEventsRequest();
-        return familyMembersService.getAllFamilyMembers(authToken);
+        sendAllObjectsResponse(exchange, authToken, RESOURCE, JsonRowSink.encoderOf(ServerPerson.class),
+                sink -> new FamilyMembersService().streamAllFamilyMembers(authToken, sink));
+    }
+
+    private void processFamilyMemberFieldsRequest(HttpExchange exchange, AuthToken authToken,
+                                                  FieldProjection projection) throws IOException {
+        logProjectionRequest(MODEL_NAME, projection);
+        sendAllObjectsResponse(exchange, authToken, projectedResource(RESOURCE, projection),
+                JsonRowSink.encoderOf(projection),
+                sink -> new FamilyMembersService().streamFamilyMemberFields(authToken, projection, sink));
+    }
+
+    private FamilyMembersResult processFamilyMembersPageRequest(String afterID, int pageSize, AuthToken authToken) {
+        logPageRequest(MODEL_NAME, afterID, pageSize);
+        return new FamilyMembersService().getFamilyMembersPage(authToken, afterID, pageSize);
+    }
+
+    private PersonChangesResult processFamilyMemberChangesRequest(long since, AuthToken authToken) {
+        logChangesRequest(MODEL_NAME, since);
+        return new FamilyMembersService().getFamilyMemberChanges(authToken, since);
     }
 
     private void logAllEventsRequest() {
@@ -0,0 +1,86 @@
+package server.handler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * A growable byte buffer made of buffers taken from the BufferPool. release() returns the buffers to the pool;
+ * close() does nothing, so the buffer can sit under a compressing stream that closes it.
+ */
+final class PooledByteBuffer extends OutputStream {
+    private final List<byte[]> buffers = new ArrayList<>();
+    private byte[] currentBuffer;
+    private int position;
+    private long size;
+
+    @Override
+    public void write(int b) {
+        ensureBufferSpace();
+        currentBuffer[position++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        while (0 < length) {
+            ensureBufferSpace();
+
+            int numCopied = Math.min(length, currentBuffer.length - position);
+            System.arraycopy(bytes, offset, currentBuffer, position, numCopied);
+
+            position += numCopied;
+            offset += numCopied;
+            length -= numCopied;
+            size += numCopied;
+        }
+    }
+
+    private void ensureBufferSpace() {
+        if (null == currentBuffer || currentBuffer.length == position) {
+            currentBuffer = BufferPool.acquire();
+            buffers.add(currentBuffer);
+            position = 0;
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    void writeTo(OutputStream outputStream) throws IOException {
+        int lastIndex = buffers.size() - 1;
+
+        for (int i = 0; i <= lastIndex; i++) {
+            byte[] buffer = buffers.get(i);
+            outputStream.write(buffer, 0, (i == lastIndex) ? position : buffer.length);
+        }
+    }
+
+    byte[] toByteArray() {
+        byte[] bytes = new byte[Math.toIntExact(size)];
+        int copied = 0;
+        int lastIndex = buffers.size() - 1;
+
+        for (int i = 0; i <= lastIndex; i++) {
+            int length = (i == lastIndex) ? position : buffers.get(i).length;
+            System.arraycopy(buffers.get(i), 0, bytes, copied, length);
+            copied += length;
+        }
+
+        return bytes;
+    }
+
+    void release() {
+        buffers.forEach(BufferPool::release);
+        buffers.clear();
+        currentBuffer = null;
+        position = 0;
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,126 @@
+package server.handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Keeps a gzip-compressed variant (<code>name.gz</code>) of every static asset that compresses well, so that the
+ * {@link FileRequestHandler} can serve it to clients that accept gzip without compressing on every request.
+ * Variants are rebuilt whenever their asset is newer, and are only kept if they save at least a tenth of the size
+ * of the asset. They are written to a tree of their own under <code>cache/web</code>, which mirrors the web directory,
+ * so that the served directory is never written to.
+ * @author griffinbholt
+ */
+public final class PrecompressedAssets {
+    static final String SUFFIX = ".gz";
+
+    private static final String CACHE_DIR = "cache" + File.separator + FileRequestHandler.WEB_DIR;
+
+    private static final int MIN_SAVINGS_DIVISOR = 10;
+
+    private static final Logger logger = Logger.getLogger("PrecompressedAssets");
+
+    private PrecompressedAssets() {
+    }
+
+    /**
+     * Builds the missing or outdated compressed variants of the static assets served by the {@link FileRequestHandler}
+     * @throws IOException An error occurred while reading an asset or writing a variant
+     */
+    public static void precompress() throws IOException {
+        Path webPath = webRoot();
+
+        if (!Files.isDirectory(webPath)) {
+            return;
+        }
+
+        int numCompressed = 0;
+
+        try (Stream<Path> paths = Files.walk(webPath)) {
+            for (Path asset : (Iterable<Path>) paths.filter(PrecompressedAssets::isAsset)::iterator) {
+                if (precompressIfOutdated(asset)) {
+                    numCompressed++;
+                }
+            }
+        }
+
+        logger.info("Precompressed " + numCompressed + " static assets in " + cacheRoot() + "\n");
+    }
+
+    private static boolean isAsset(Path path) {
+        return Files.isRegularFile(path) && !path.toString().endsWith(SUFFIX);
+    }
+
+    private static boolean precompressIfOutdated(Path asset) throws IOException {
+        Path variant = variantPath(asset);
+
+        if (isUpToDate(asset.toFile(), variant.toFile())) {
+            return false;
+        }
+
+        Files.createDirectories(variant.getParent());
+        Path tempFile = Files.createTempFile(variant.getParent(), asset.getFileName().toString(), SUFFIX + ".tmp");
+
+        try {
+            gzip(asset, tempFile);
+
+            long assetSize = Files.size(asset);
+
+            if (Files.size(tempFile) > assetSize - assetSize / MIN_SAVINGS_DIVISOR) {
+                Files.deleteIfExists(variant);
+                return false;
+            }
+
+            Files.move(tempFile, variant, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static void gzip(Path source, Path target) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(source);
+             OutputStream fileStream = Files.newOutputStream(target);
+             DeflaterOutputStream compressor =
+                     ContentEncoding.GZIP.newCompressor(fileStream, Deflater.BEST_COMPRESSION)) {
+            inputStream.transferTo(compressor);
+        }
+    }
+
+    /*
+     * Returns the variant of the input asset, if it exists and is at least as new as the asset; null, otherwise
+     */
+    static File findVariant(Path asset) {
+        File variant = variantPath(asset).toFile();
+        return isUpToDate(asset.toFile(), variant) ? variant : null;
+    }
+
+    /*
+     * The path of the variant of the input asset, at the same place in the cache tree as the asset in the web tree
+     */
+    private static Path variantPath(Path asset) {
+        Path relativePath = webRoot().relativize(asset.toAbsolutePath().normalize());
+        return cacheRoot().resolve(relativePath + SUFFIX);
+    }
+
+    private static Path webRoot() {
+        return Path.of(FileRequestHandler.WEB_DIR).toAbsolutePath().normalize();
+    }
+
+    private static Path cacheRoot() {
+        return Path.of(CACHE_DIR).toAbsolutePath().normalize();
+    }
+
+    private static boolean isUpToDate(File asset, File variant) {
+        return variant.isFile() && variant.lastModified() >= asset.lastModified();
+    }
+}
@@ -14,8 +14,6 @@ import java.io.IOException;
  * @author griffinbholt
  */
 public final class RegisterRequestHandler extends PostHandler {
-    private final RegisterService registerService = new RegisterService();
-
     /**
      * The method called by the server when an incoming {@link com.sun.net.httpserver.HttpExchange HttpExchange} for a
      * register request is sent to the server
@@ -52,7 +50,7 @@ public final class RegisterRequestHandler extends PostHandler {
 
     private RegisterResult processRegisterRequest(RegisterRequest request) {
         logRegisterRequest(request.getUserName());
-        return registerService.register(request);
+        return new RegisterService().register(request);
     }
 
     private void logRegisterRequest(String username) {
@@ -0,0 +1,162 @@
+package server.handler;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+
+/*
+ * An OutputStream for the body of a response, which holds back the response headers until the size of the body is
+ * known. The body is buffered in a PooledByteBuffer, and commit() sends it with an exact Content-Length.
+ * A body that outgrows MAX_BUFFERED_BYTES is spilled to the exchange instead, and the rest of it is streamed with
+ * chunked encoding.
+ *
+ * If the client accepts gzip or deflate (see ContentEncoding), a body of at least the minimum size of the
+ * CompressionSettings is compressed: a buffered body all at once on commit, and a spilled body by a compressor
+ * streaming into the exchange, so that memory stays flat either way.
+ *
+ * If the body is never committed, no headers are sent, so the handler can still send an error response. Closing the
+ * stream returns its buffers to the pool, but never closes the response body of the exchange.
+ */
+final class ResponseBodyStream extends OutputStream {
+    private static final int MAX_BUFFERED_BYTES = 1024 * 1024;
+    private static final int CHUNKED_LENGTH = 0;
+    private static final int NO_BODY_LENGTH = -1;
+
+    static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+    static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+    static final String VARY_HEADER = "Vary";
+
+    private final HttpExchange exchange;
+    private final int statusCode;
+    private final CompressionSettings compressionSettings = CompressionSettings.getInstance();
+    private final ContentEncoding encoding;
+
+    private final PooledByteBuffer body = new PooledByteBuffer();
+
+    private OutputStream spilledBody;
+
+    ResponseBodyStream(HttpExchange exchange, int statusCode) {
+        this.exchange = exchange;
+        this.statusCode = statusCode;
+        this.encoding = compressionSettings.isEnabled() ?
+                ContentEncoding.negotiate(exchange.getRequestHeaders().getFirst(ACCEPT_ENCODING_HEADER)) : null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (null != spilledBody) {
+            spilledBody.write(b);
+            return;
+        }
+
+        if (body.size() + 1 > MAX_BUFFERED_BYTES) {
+            spill();
+            spilledBody.write(b);
+            return;
+        }
+
+        body.write(b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (null != spilledBody) {
+            spilledBody.write(bytes, offset, length);
+            return;
+        }
+
+        if (body.size() + length > MAX_BUFFERED_BYTES) {
+            spill();
+            spilledBody.write(bytes, offset, length);
+            return;
+        }
+
+        body.write(bytes, offset, length);
+    }
+
+    private void spill() throws IOException {
+        if (null == encoding) {
+            exchange.sendResponseHeaders(statusCode, CHUNKED_LENGTH);
+            spilledBody = exchange.getResponseBody();
+        } else {
+            setEncodingHeaders();
+            exchange.sendResponseHeaders(statusCode, CHUNKED_LENGTH);
+            spilledBody = encoding.newCompressor(exchange.getResponseBody(), compressionSettings.getLevel());
+        }
+
+        body.writeTo(spilledBody);
+        body.release();
+    }
+
+    private void setEncodingHeaders() {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set(CONTENT_ENCODING_HEADER, encoding.toString());
+        headers.set(VARY_HEADER, ACCEPT_ENCODING_HEADER);
+    }
+
+    boolean isSpilled() {
+        return null != spilledBody;
+    }
+
+    /*
+     * Copies the buffered (uncompressed) body, before it is committed; null, if the body has been spilled
+     */
+    byte[] toByteArray() {
+        return isSpilled() ? null : body.toByteArray();
+    }
+
+    /*
+     * Sends the response headers, with the exact Content-Length if the whole body is still buffered, and then the
+     * buffered body
+     */
+    void commit() throws IOException {
+        if (isSpilled()) {
+            finishSpilledBody();
+        } else if (null != encoding && compressionSettings.shouldCompress(body.size())) {
+            sendCompressedBody();
+        } else {
+            sendBody(body);
+        }
+    }
+
+    private void finishSpilledBody() throws IOException {
+        if (spilledBody instanceof DeflaterOutputStream) {
+            spilledBody.close();
+        } else {
+            spilledBody.flush();
+        }
+    }
+
+    private void sendCompressedBody() throws IOException {
+        PooledByteBuffer compressedBody = new PooledByteBuffer();
+
+        try {
+            try (DeflaterOutputStream compressor =
+                         encoding.newCompressor(compressedBody, compressionSettings.getLevel())) {
+                body.writeTo(compressor);
+            }
+
+            setEncodingHeaders();
+            sendBody(compressedBody);
+        } finally {
+            compressedBody.release();
+        }
+    }
+
+    private void sendBody(PooledByteBuffer bodyToSend) throws IOException {
+        long length = bodyToSend.size();
+        exchange.sendResponseHeaders(statusCode, (0 == length) ? NO_BODY_LENGTH : length);
+
+        OutputStream respBody = exchange.getResponseBody();
+        bodyToSend.writeTo(respBody);
+        respBody.flush();
+    }
+
+    @Override
+    public void close() {
+        body.release();
+    }
+}
@@ -0,0 +1,193 @@
+package server.handler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/*
+ * A snapshot of a static asset, as of its last modification time and size: its strong ETag, its Last-Modified date,
+ * and, if it fits in the memory budget of the StaticAssetCache, its content and gzip variant. An asset that does not
+ * fit is streamed from disk instead.
+ */
+final class StaticAsset {
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int ETAG_DIGEST_BYTES = 16;
+    private static final int MIN_SAVINGS_DIVISOR = 10;
+    private static final String GZIP_ETAG_SUFFIX = "-gz";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "html", "text/html; charset=utf-8",
+            "css", "text/css; charset=utf-8",
+            "js", "text/javascript; charset=utf-8",
+            "json", "application/json; charset=utf-8",
+            "png", "image/png",
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "ico", "image/x-icon",
+            "svg", "image/svg+xml");
+
+    private final Path path;
+    private final long lastModifiedMillis;
+    private final long size;
+    private final byte[] body;
+    private final byte[] gzipBody;
+    private final String etag;
+    private final String gzipEtag;
+    private final String lastModified;
+    private final String contentType;
+
+    private volatile long checkedAtMillis;
+
+    private StaticAsset(Path path, BasicFileAttributes attributes, byte[] body, byte[] gzipBody, byte[] digest) {
+        this.path = path;
+        this.lastModifiedMillis = attributes.lastModifiedTime().toMillis();
+        this.size = attributes.size();
+        this.body = body;
+        this.gzipBody = gzipBody;
+
+        String hash = Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, ETAG_DIGEST_BYTES));
+        this.etag = '"' + hash + '"';
+        this.gzipEtag = '"' + hash + GZIP_ETAG_SUFFIX + '"';
+        this.lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                Instant.ofEpochMilli(lastModifiedMillis).atOffset(ZoneOffset.UTC));
+        this.contentType = CONTENT_TYPES.getOrDefault(getExtension(path), DEFAULT_CONTENT_TYPE);
+        this.checkedAtMillis = System.currentTimeMillis();
+    }
+
+    /*
+     * Reads the asset at the input path into memory, along with its gzip variant (the precompressed one on disk, if
+     * up to date; otherwise, one compressed now, if it saves at least a tenth of the size)
+     */
+    static StaticAsset load(Path path, BasicFileAttributes attributes) throws IOException {
+        byte[] body = Files.readAllBytes(path);
+        return new StaticAsset(path, attributes, body, loadGzipBody(path, body), digest(body));
+    }
+
+    /*
+     * Only hashes the asset at the input path, so that it can be streamed from disk
+     */
+    static StaticAsset loadWithoutBody(Path path, BasicFileAttributes attributes) throws IOException {
+        MessageDigest digest = newDigest();
+
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(path), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+
+        return new StaticAsset(path, attributes, null, null, digest.digest());
+    }
+
+    private static byte[] loadGzipBody(Path path, byte[] body) throws IOException {
+        File variant = PrecompressedAssets.findVariant(path);
+
+        if (null != variant) {
+            return Files.readAllBytes(variant.toPath());
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 2);
+
+        try (DeflaterOutputStream compressor =
+                     ContentEncoding.GZIP.newCompressor(compressed, Deflater.BEST_COMPRESSION)) {
+            compressor.write(body);
+        }
+
+        return (compressed.size() <= body.length - body.length / MIN_SAVINGS_DIVISOR) ? compressed.toByteArray() : null;
+    }
+
+    private static byte[] digest(byte[] body) {
+        MessageDigest digest = newDigest();
+        return digest.digest(body);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static String getExtension(Path path) {
+        String fileName = path.getFileName().toString();
+        int dotIndex = fileName.lastIndexOf('.');
+        return (-1 == dotIndex) ? "" : fileName.substring(dotIndex + 1).toLowerCase(Locale.ROOT);
+    }
+
+    boolean isModified(BasicFileAttributes attributes) {
+        return attributes.lastModifiedTime().toMillis() != lastModifiedMillis || attributes.size() != size;
+    }
+
+    boolean matchesEtag(String etagToMatch) {
+        return etag.equals(etagToMatch) || gzipEtag.equals(etagToMatch);
+    }
+
+    /*
+     * The number of bytes the asset takes up in memory
+     */
+    long getMemorySize() {
+        return ((null == body) ? 0 : body.length) + ((null == gzipBody) ? 0 : gzipBody.length);
+    }
+
+    // Getters
+    Path getPath() {
+        return path;
+    }
+
+    long getLastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+
+    byte[] getGzipBody() {
+        return gzipBody;
+    }
+
+    String getEtag() {
+        return etag;
+    }
+
+    String getGzipEtag() {
+        return gzipEtag;
+    }
+
+    String getLastModified() {
+        return lastModified;
+    }
+
+    String getContentType() {
+        return contentType;
+    }
+
+    long getCheckedAtMillis() {
+        return checkedAtMillis;
+    }
+
+    // Setter
+    void setCheckedAtMillis(long checkedAtMillis) {
+        this.checkedAtMillis = checkedAtMillis;
+    }
+}
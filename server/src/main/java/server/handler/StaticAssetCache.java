@@ -0,0 +1,202 @@
+package server.handler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import server.ServerOptions;
+import shared.http.FamilyMapUrl;
+
+/**
+ * A cache of the static assets served by the {@link FileRequestHandler}, configured by the startup options of the
+ * server:
+ * <ul>
+ *     <li><code>staticCacheMb</code> - the memory budget for the content of the assets, in MiB; assets beyond the
+ *     budget are streamed from disk (default: 16)</li>
+ *     <li><code>staticMaxAge</code> - seconds browsers may reuse an asset without revalidating it; HTML pages are
+ *     always revalidated (default: 3600)</li>
+ *     <li><code>staticRecheck</code> - milliseconds between checks of an asset for changes on disk (default: 2000)</li>
+ * </ul>
+ * Every asset is loaded at startup, along with its strong ETag and gzip variant. A changed asset is reloaded the
+ * first time it is requested after its recheck interval, and new assets are loaded when they are first requested.
+ * @author griffinbholt
+ */
+public final class StaticAssetCache {
+    private static final String BUDGET_OPTION = "staticCacheMb";
+    private static final String MAX_AGE_OPTION = "staticMaxAge";
+    private static final String RECHECK_OPTION = "staticRecheck";
+
+    private static final int DEFAULT_BUDGET_MB = 16;
+    private static final int DEFAULT_MAX_AGE_SECONDS = 3600;
+    private static final int DEFAULT_RECHECK_MILLIS = 2000;
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
+    private static final String INDEX_PATH = "/index.html";
+    private static final String NOT_FOUND_PATH = "/HTML/404.html";
+    private static final String HTML_CACHE_CONTROL = "no-cache";
+
+    @SuppressWarnings("StaticVariableOfConcreteClass")
+    private static volatile StaticAssetCache staticAssetCache =
+            new StaticAssetCache(DEFAULT_BUDGET_MB, DEFAULT_MAX_AGE_SECONDS, DEFAULT_RECHECK_MILLIS);
+
+    private final Logger logger = Logger.getLogger("StaticAssetCache");
+
+    private final Path webRoot = Path.of(FileRequestHandler.WEB_DIR).toAbsolutePath().normalize();
+    private final Map<Path, StaticAsset> assets = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    private final long budgetBytes;
+    private final String assetCacheControl;
+    private final long recheckMillis;
+
+    private StaticAssetCache(int budgetMb, int maxAgeSeconds, int recheckMillis) {
+        if (0 > budgetMb || 0 > maxAgeSeconds || 0 > recheckMillis) {
+            throw new IllegalArgumentException("The static asset cache options must not be negative.");
+        }
+
+        this.budgetBytes = budgetMb * BYTES_PER_MB;
+        this.assetCacheControl = "public, max-age=" + maxAgeSeconds;
+        this.recheckMillis = recheckMillis;
+    }
+
+    /**
+     * Replaces the static asset cache of the server with one configured by the input startup options
+     * @param options The startup options of the server
+     * @throws IllegalArgumentException One of the options has an invalid value
+     */
+    public static void configure(ServerOptions options) {
+        staticAssetCache = new StaticAssetCache(options.getInt(BUDGET_OPTION, DEFAULT_BUDGET_MB),
+                options.getInt(MAX_AGE_OPTION, DEFAULT_MAX_AGE_SECONDS),
+                options.getInt(RECHECK_OPTION, DEFAULT_RECHECK_MILLIS));
+    }
+
+    /**
+     * Returns the static asset cache of the server
+     * @return The static asset cache of the server
+     */
+    public static StaticAssetCache getInstance() {
+        return staticAssetCache;
+    }
+
+    /**
+     * Loads every static asset into the cache, starting with the 404 page, so that it is the first to get memory
+     * @throws IOException An error occurred while reading the assets
+     */
+    public void load() throws IOException {
+        if (!Files.isDirectory(webRoot)) {
+            return;
+        }
+
+        get(NOT_FOUND_PATH);
+
+        try (Stream<Path> paths = Files.walk(webRoot)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (!path.toString().endsWith(PrecompressedAssets.SUFFIX)) {
+                    refresh(path, assets.get(path), System.currentTimeMillis());
+                }
+            }
+        }
+
+        logger.info("Loaded " + assets.size() + " static assets (" + usedBytes.get() + " bytes in memory)\n");
+    }
+
+    /*
+     * Returns the asset at the input request path ("/" is the index page); null, if there is no such asset
+     */
+    StaticAsset get(String uriPath) throws IOException {
+        Path path = resolve((null == uriPath || FamilyMapUrl.DEFAULT_PATH.equals(uriPath)) ? INDEX_PATH : uriPath);
+
+        if (null == path) {
+            return null;
+        }
+
+        StaticAsset asset = assets.get(path);
+        long now = System.currentTimeMillis();
+
+        if (null != asset && now - asset.getCheckedAtMillis() < recheckMillis) {
+            return asset;
+        }
+
+        return refresh(path, asset, now);
+    }
+
+    StaticAsset getNotFoundPage() throws IOException {
+        return get(NOT_FOUND_PATH);
+    }
+
+    String getCacheControl(StaticAsset asset) {
+        return asset.getContentType().startsWith("text/html") ? HTML_CACHE_CONTROL : assetCacheControl;
+    }
+
+    private Path resolve(String uriPath) {
+        try {
+            Path path = webRoot.resolve(uriPath.substring(1)).normalize();
+            return path.startsWith(webRoot) ? path : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private synchronized StaticAsset refresh(Path path, StaticAsset cachedAsset, long now) throws IOException {
+        StaticAsset asset = assets.get(path);
+
+        if (asset != cachedAsset && null != asset) {
+            return asset;
+        }
+
+        BasicFileAttributes attributes = readAttributes(path);
+
+        if (null == attributes || !attributes.isRegularFile()) {
+            remove(path);
+            return null;
+        }
+
+        if (null != asset && !asset.isModified(attributes)) {
+            asset.setCheckedAtMillis(now);
+            return asset;
+        }
+
+        return replace(path, asset, attributes);
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private StaticAsset replace(Path path, StaticAsset oldAsset, BasicFileAttributes attributes) throws IOException {
+        long oldMemorySize = (null == oldAsset) ? 0 : oldAsset.getMemorySize();
+        boolean fitsInMemory = usedBytes.get() - oldMemorySize + attributes.size() <= budgetBytes;
+
+        StaticAsset asset = fitsInMemory ? StaticAsset.load(path, attributes) :
+                StaticAsset.loadWithoutBody(path, attributes);
+
+        assets.put(path, asset);
+        usedBytes.addAndGet(asset.getMemorySize() - oldMemorySize);
+
+        if (null != oldAsset) {
+            logger.info("Reloaded changed static asset " + webRoot.relativize(path) + "\n");
+        }
+
+        return asset;
+    }
+
+    private void remove(Path path) {
+        StaticAsset removed = assets.remove(path);
+
+        if (null != removed) {
+            usedBytes.addAndGet(-removed.getMemorySize());
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package server.service;
 
+import server.dao.ChangeSet;
+import server.dao.FieldProjection;
+import server.dao.RowSink;
 import server.exception.DataAccessException;
+import shared.http.FamilyMapUrl;
 import shared.model.AuthToken;
 import shared.model.ServerEvent;
 import shared.result.AllEventsResult;
+import shared.result.EventChangesResult;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -39,6 +45,121 @@ public final class AllEventsService extends EventsOnlyService {
         }
     }
 
+    /**
+     * Streams all {@link ServerEvent ServerEvent} objects connected to the user with the specified authorization token
+     * to the input {@link RowSink}, as they are read from the database, without holding them all in memory.
+     * Requires an authorization token.
+     * @param authToken The authorization token of the party requesting the {@link ServerEvent ServerEvent} objects
+     * @param sink The {@link RowSink} to pass the events to; it is started only if the authorization token is valid
+     * @return The failure result, if the request failed; null, if every event was streamed to the sink
+     * @throws IOException An error that occurred in the {@link RowSink}
+     */
+    public AllEventsResult streamAllEvents(AuthToken authToken, RowSink<? super ServerEvent> sink) throws IOException {
+        try {
+            super.openConnection();
+            int numEvents = eventDao.streamAllConnectedEvents(authToken, sink);
+            super.commitChanges();
+            super.logSuccess("Successfully streamed " + numEvents + " events for the input authorization token.");
+            return null;
+        } catch (DataAccessException e) {
+            AllEventsResult failure = this.reportError(e);
+            super.rollbackChanges();
+            return failure;
+        } finally {
+            super.closeConnection();
+        }
+    }
+
+    /**
+     * Streams the projected fields of the {@link ServerEvent ServerEvent} objects connected to the user with the
+     * specified authorization token to the input {@link RowSink}, as they are read from the database. Only the
+     * columns of the projected fields are read.
+     * @param authToken The authorization token of the party requesting the events
+     * @param projection The {@link FieldProjection} of the events
+     * @param sink The {@link RowSink} to pass the values of the projected fields to; it is started only if the
+     *             authorization token is valid
+     * @return The failure result, if the request failed; null, if every row was streamed to the sink
+     * @throws IOException An error that occurred in the {@link RowSink}
+     */
+    public AllEventsResult streamEventFields(AuthToken authToken, FieldProjection projection,
+                                             RowSink<? super Object[]> sink) throws IOException {
+        try {
+            super.openConnection();
+            int numEvents = eventDao.streamConnectedEventFields(authToken, projection, sink);
+            super.commitChanges();
+            super.logSuccess("Successfully streamed the fields " + projection.getKey() + " of " + numEvents +
+                    " events for the input authorization token.");
+            return null;
+        } catch (DataAccessException e) {
+            AllEventsResult failure = this.reportError(e);
+            super.rollbackChanges();
+            return failure;
+        } finally {
+            super.closeConnection();
+        }
+    }
+
+    /**
+     * Returns the changes to the {@link ServerEvent ServerEvent} objects connected to the user with the specified
+     * authorization token since the input version, as tracked by the {@link server.dao.ChangeLogDao ChangeLogDao}.
+     * @param authToken The authorization token of the party requesting the {@link ServerEvent ServerEvent} objects
+     * @param since The version of the events held by the client
+     * @return The result of the request (containing the changed {@link ServerEvent ServerEvent} objects and the IDs
+     *         of the deleted ones, if successful)
+     */
+    public EventChangesResult getEventChanges(AuthToken authToken, long since) {
+        try {
+            super.openConnection();
+            ChangeSet<ServerEvent> changes = eventDao.getConnectedEventChanges(authToken, since);
+            super.commitChanges();
+            EventChangesResult success = EventChangesResult.newSuccess(changes.getUpserts(), changes.getDeletedIDs(),
+                    changes.getVersion(), changes.isReset());
+            super.reportSuccess(success);
+            return success;
+        } catch (DataAccessException e) {
+            String errorMessage = "Error: Family member event changes request failed. " + e.getMessage();
+            logError(errorMessage);
+            super.rollbackChanges();
+            return EventChangesResult.newFailure(errorMessage);
+        } finally {
+            super.closeConnection();
+        }
+    }
+
+    /**
+     * Returns a page of the {@link ServerEvent ServerEvent} objects connected to the user with the specified
+     * authorization token, in order of ID. The page links to the next page, unless it is the last one.
+     * @param authToken The authorization token of the party requesting the {@link ServerEvent} objects
+     * @param afterID The ID after which the page starts; null, for the first page
+     * @param pageSize The maximum number of objects of the page
+     * @return The result of the request (containing the page and the link to the next page, if successful)
+     */
+    public AllEventsResult getEventsPage(AuthToken authToken, String afterID, int pageSize) {
+        try {
+            super.openConnection();
+            List<ServerEvent> events = eventDao.getConnectedEventsPage(authToken, afterID, pageSize + 1);
+            super.commitChanges();
+            String next = null;
+
+            if (events.size() > pageSize) {
+                events = events.subList(0, pageSize);
+                String cursor = PageCursor.encode(events.get(pageSize - 1).getEventID());
+                next = FamilyMapUrl.page(FamilyMapUrl.EVENT, cursor, pageSize);
+            }
+
+            AllEventsResult success = AllEventsResult.newSuccess(events, next);
+            super.reportSuccess(success);
+            return success;
+        } catch (DataAccessException e) {
+            String errorMessage = "Error: Family member events page request failed. " + e.getMessage();
+            logError(errorMessage);
+            super.rollbackChanges();
+            return AllEventsResult.newFailure(errorMessage);
+        } finally {
+            super.closeConnection();
+        }
+    }
+
     private List<ServerEvent> getEventsFromDatabase(AuthToken authToken) throws DataAccessException {
         return eventDao.getAllConnectedEvents(authToken);
     }
@@ -0,0 +1,96 @@
+package server.service;
+
+import server.dao.AuthTokenDao;
+import server.dao.ConnectionPool;
+import server.dao.EventDao;
+import server.dao.PersonDao;
+import server.dao.RowSink;
+import server.dao.UserDao;
+import server.exception.DataAccessException;
+import shared.model.AuthToken;
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+import shared.result.BootstrapResult;
+
+import java.io.IOException;
+
+/**
+ * A <code>BootstrapService</code> object manages the requests for all the family data of a user that was just signed
+ * in, i.e., ALL of his/her family members and ALL of their events, which are read in a single read transaction
+ * @author griffinbholt
+ */
+public final class BootstrapService extends Service {
+    private final PersonDao personDao;
+    private final EventDao eventDao;
+
+    /**
+     * Default constructor
+     */
+    public BootstrapService() {
+        UserDao userDao = new UserDao();
+
+        AuthTokenDao authTokenDao = new AuthTokenDao();
+
+        this.personDao = new PersonDao(userDao, authTokenDao);
+        userDao.setPersonDao(this.personDao);
+
+        this.eventDao = new EventDao(userDao, authTokenDao);
+    }
+
+    /**
+     * Streams ALL family members of the user associated with the specified authorization token, and then ALL of their
+     * events, to the input {@link RowSink} objects, as they are read from the database. Both are read from the same
+     * snapshot of the database, so the events always belong to the streamed family members. Only the first query
+     * verifies the authorization token against the database; the second one finds it in the
+     * {@link server.cache.AuthTokenCache AuthTokenCache}.
+     * @param authToken The authorization token of the user that was just signed in
+     * @param personSink The {@link RowSink} to pass the family members to
+     * @param eventSink The {@link RowSink} to pass the events to
+     * @return The failure result, if the request failed; null, if every family member and event was streamed
+     * @throws IOException An error that occurred in one of the {@link RowSink} objects
+     */
+    public BootstrapResult streamFamilyData(AuthToken authToken, RowSink<? super ServerPerson> personSink,
+                                            RowSink<? super ServerEvent> eventSink) throws IOException {
+        try {
+            this.openConnection();
+            int numFamilyMembers = this.personDao.streamAncestorsFromAuthToken(authToken, personSink);
+            int numEvents = this.eventDao.streamAllConnectedEvents(authToken, eventSink);
+            super.commitChanges();
+            super.logSuccess("Successfully streamed " + numFamilyMembers + " family members and " + numEvents +
+                    " events for the input authorization token.");
+            return null;
+        } catch (DataAccessException e) {
+            BootstrapResult failure = this.reportError(e);
+            super.rollbackChanges();
+            return failure;
+        } finally {
+            this.closeConnection();
+        }
+    }
+
+    @Override
+    ConnectionPool getConnectionPool() {
+        return ConnectionPool.getReaderPool();
+    }
+
+    @Override
+    void openConnection() throws DataAccessException {
+        super.openConnection();
+        this.personDao.setConnection(dbConn);
+        this.eventDao.setConnection(dbConn);
+    }
+
+    @Override
+    void closeConnection() {
+        super.closeConnection();
+        this.personDao.setConnection(null);
+        this.eventDao.setConnection(null);
+    }
+
+    @Override
+    protected BootstrapResult reportError(Exception e) {
+        String errorMessage = "Error: Family data request failed. " + e.getMessage();
+        logError(errorMessage);
+        return BootstrapResult.newFailure(errorMessage);
+    }
+}
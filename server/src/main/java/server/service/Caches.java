@@ -0,0 +1,44 @@
+package server.service;
+
+import server.auth.SignedAuthTokens;
+import server.cache.AuthTokenCache;
+import server.cache.DataVersions;
+import server.cache.ResponseCache;
+
+/**
+ * Invalidates every in-memory cache of the data of the database, once a change to the data has been committed:
+ * <ul>
+ *     <li>the {@link AuthTokenCache} and the {@link SignedAuthTokens}, since the users and tokens may be gone</li>
+ *     <li>the {@link ResponseCache} of the /person and /event responses</li>
+ *     <li>the {@link DataVersions} behind the entity tags of those responses</li>
+ * </ul>
+ * The caches must only be invalidated after the commit, so that no reader can fill them again from the data as it was
+ * before the change.
+ * @author griffinbholt
+ */
+final class Caches {
+    private Caches() {
+    }
+
+    /**
+     * Invalidates the cached data of every user, after the whole database was cleared or replaced (by /clear or
+     * /load)
+     */
+    static void invalidateAll() {
+        AuthTokenCache.getInstance().invalidateAll();
+        SignedAuthTokens.getInstance().rotateKey();
+        ResponseCache.getInstance().invalidateAll();
+        DataVersions.getInstance().bumpAll();
+    }
+
+    /**
+     * Invalidates the cached data of a single user, after its data was replaced (by /fill)
+     * @param username The username of the user
+     */
+    static void invalidateUser(String username) {
+        AuthTokenCache.getInstance().invalidateUser(username);
+        SignedAuthTokens.getInstance().revokeUser(username);
+        ResponseCache.getInstance().invalidateUser(username);
+        DataVersions.getInstance().bumpUser(username);
+    }
+}
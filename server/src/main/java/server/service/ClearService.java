@@ -28,6 +28,7 @@ public final class ClearService extends UsersService {
             this.openConnection();
             databaseClearer.clearAllTables();
             super.commitChanges();
+            Caches.invalidateAll();
             ClearResult success = ClearResult.newSuccess();
             super.reportSuccess(success);
             return success;
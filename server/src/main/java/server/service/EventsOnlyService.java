@@ -1,6 +1,7 @@
 package server.service;
 
 import server.dao.AuthTokenDao;
+import server.dao.ConnectionPool;
 import server.dao.EventDao;
 import server.dao.PersonDao;
 import server.dao.UserDao;
@@ -22,6 +23,11 @@ abstract class EventsOnlyService extends Service {
         this.eventDao = new EventDao(userDao, authTokenDao);
     }
 
+    @Override
+    ConnectionPool getConnectionPool() {
+        return ConnectionPool.getReaderPool();
+    }
+
     @Override
     void openConnection() throws DataAccessException {
         super.openConnection();
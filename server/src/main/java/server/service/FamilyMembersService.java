@@ -1,10 +1,16 @@
 package server.service;
 
+import server.dao.ChangeSet;
+import server.dao.FieldProjection;
+import server.dao.RowSink;
 import server.exception.DataAccessException;
+import shared.http.FamilyMapUrl;
 import shared.model.AuthToken;
 import shared.model.ServerPerson;
 import shared.result.FamilyMembersResult;
+import shared.result.PersonChangesResult;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -36,6 +42,122 @@ public final class FamilyMembersService extends PersonsOnlyService {
         }
     }
 
+    /**
+     * Streams ALL family members of the user associated with the specified authorization token to the input
+     * {@link RowSink}, as they are read from the database, without holding them all in memory.
+     * @param authToken The authorization token of the party requesting the {@link ServerPerson Person} objects
+     * @param sink The {@link RowSink} to pass the persons to; it is started only if the authorization token is valid
+     * @return The failure result, if the request failed; null, if every family member was streamed to the sink
+     * @throws IOException An error that occurred in the {@link RowSink}
+     */
+    public FamilyMembersResult streamAllFamilyMembers(AuthToken authToken, RowSink<? super ServerPerson> sink)
+            throws IOException {
+        try {
+            super.openConnection();
+            int numFamilyMembers = this.personDao.streamAncestorsFromAuthToken(authToken, sink);
+            super.commitChanges();
+            super.logSuccess("Successfully streamed " + numFamilyMembers +
+                    " family members for the input authorization token.");
+            return null;
+        } catch (DataAccessException e) {
+            FamilyMembersResult failure = this.reportError(e);
+            super.rollbackChanges();
+            return failure;
+        } finally {
+            super.closeConnection();
+        }
+    }
+
+    /**
+     * Streams the projected fields of the family members of the user associated with the specified authorization
+     * token to the input {@link RowSink}, as they are read from the database. Only the columns of the projected
+     * fields are read.
+     * @param authToken The authorization token of the party requesting the family members
+     * @param projection The {@link FieldProjection} of the family members
+     * @param sink The {@link RowSink} to pass the values of the projected fields to; it is started only if the
+     *             authorization token is valid
+     * @return The failure result, if the request failed; null, if every row was streamed to the sink
+     * @throws IOException An error that occurred in the {@link RowSink}
+     */
+    public FamilyMembersResult streamFamilyMemberFields(AuthToken authToken, FieldProjection projection,
+                                                        RowSink<? super Object[]> sink) throws IOException {
+        try {
+            super.openConnection();
+            int numFamilyMembers = this.personDao.streamAncestorFields(authToken, projection, sink);
+            super.commitChanges();
+            super.logSuccess("Successfully streamed the fields " + projection.getKey() + " of " + numFamilyMembers +
+                    " family members for the input authorization token.");
+            return null;
+        } catch (DataAccessException e) {
+            FamilyMembersResult failure = this.reportError(e);
+            super.rollbackChanges();
+            return failure;
+        } finally {
+            super.closeConnection();
+        }
+    }
+
+    /**
+     * Returns the changes to the family members of the user associated with the specified authorization token since
+     * the input version, as tracked by the {@link server.dao.ChangeLogDao ChangeLogDao}.
+     * @param authToken The authorization token of the party requesting the {@link ServerPerson Person} objects
+     * @param since The version of the family members held by the client
+     * @return The result of the request (containing the changed {@link ServerPerson Person} objects and the IDs of
+     *         the deleted ones, if successful)
+     */
+    public PersonChangesResult getFamilyMemberChanges(AuthToken authToken, long since) {
+        try {
+            super.openConnection();
+            ChangeSet<ServerPerson> changes = this.personDao.getAncestorChangesFromAuthToken(authToken, since);
+            super.commitChanges();
+            PersonChangesResult success = PersonChangesResult.newSuccess(changes.getUpserts(),
+                    changes.getDeletedIDs(), changes.getVersion(), changes.isReset());
+            super.reportSuccess(success);
+            return success;
+        } catch (DataAccessException e) {
+            String errorMessage = "Error: Family member changes request failed. " + e.getMessage();
+            logError(errorMessage);
+            super.rollbackChanges();
+            return PersonChangesResult.newFailure(errorMessage);
+        } finally {
+            super.closeConnection();
+        }
+    }
+
+    /**
+     * Returns a page of the family members of the user associated with the specified authorization token, in order
+     * of ID. The page links to the next page, unless it is the last one.
+     * @param authToken The authorization token of the party requesting the {@link ServerPerson} objects
+     * @param afterID The ID after which the page starts; null, for the first page
+     * @param pageSize The maximum number of objects of the page
+     * @return The result of the request (containing the page and the link to the next page, if successful)
+     */
+    public FamilyMembersResult getFamilyMembersPage(AuthToken authToken, String afterID, int pageSize) {
+        try {
+            super.openConnection();
+            List<ServerPerson> familyMembers = this.personDao.getAncestorsPage(authToken, afterID, pageSize + 1);
+            super.commitChanges();
+            String next = null;
+
+            if (familyMembers.size() > pageSize) {
+                familyMembers = familyMembers.subList(0, pageSize);
+                String cursor = PageCursor.encode(familyMembers.get(pageSize - 1).getPersonID());
+                next = FamilyMapUrl.page(FamilyMapUrl.PERSON, cursor, pageSize);
+            }
+
+            FamilyMembersResult success = FamilyMembersResult.newSuccess(familyMembers, next);
+            super.reportSuccess(success);
+            return success;
+        } catch (DataAccessException e) {
+            String errorMessage = "Error: Family members page request failed. " + e.getMessage();
+            logError(errorMessage);
+            super.rollbackChanges();
+            return FamilyMembersResult.newFailure(errorMessage);
+        } finally {
+            super.closeConnection();
+        }
+    }
+
     private List<ServerPerson> getFamilyMembersFromDatabase(AuthToken authToken) throws DataAccessException {
         return this.personDao.getAncestorsFromAuthToken(authToken);
     }
@@ -39,6 +39,7 @@ public final class FillService extends FillingService {
             super.openConnection();
             FillResult success = process(request);
             super.commitChanges();
+            Caches.invalidateUser(request.getUserName());
             super.reportSuccess(success);
             return success;
         } catch (DataAccessException e) {
@@ -57,7 +58,7 @@ public final class FillService extends FillingService {
         User user = this.userDao.getUserFromUsername(username);
         nullifyRelatives(user);
         eraseUserData(username);
-        return generateFamilyData(user, numGenerations);
+        return generateFamilyData(user, numGenerations, request.getSeed());
     }
 
     private void checkNumGenerations(int numGenerations) throws DataAccessException {
@@ -76,19 +77,16 @@ public final class FillService extends FillingService {
 
     private void eraseUserData(String username) throws DataAccessException {
         String userID = this.userDao.getUserIDFromUsername(username);
-        this.userDao.eraseUserData(userID);
         this.personDao.eraseUserData(userID);
+        this.personDao.getVirtualTreeDao().eraseUserData(userID);
         this.eventDao.eraseUserData(userID);
+        this.userDao.eraseUserData(userID);
         this.authTokenDao.eraseUserData(userID);
     }
 
-    private FillResult generateFamilyData(User user, int numGenerations) throws DataAccessException {
+    private FillResult generateFamilyData(User user, int numGenerations, Long seed) throws DataAccessException {
         String userID = this.userDao.add(user);
-
-        int numPersonsGenerated = super.generateAncestors(userID, user, numGenerations);
-        int numEventsGenerated = super.generateEvents(user);
-
-        return FillResult.newSuccess(numPersonsGenerated + 1, numEventsGenerated);
+        return super.fillFamilyData(userID, user, numGenerations, seed);
     }
 
     @Override
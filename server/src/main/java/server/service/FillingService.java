@@ -1,30 +1,66 @@
 package server.service;
 
-import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
 
 import server.exception.DataAccessException;
 import server.service.helper.FamilyDataGenerator;
-import shared.model.ServerEvent;
-import shared.model.ServerPerson;
+import server.service.helper.FamilyDataWriter;
+import server.service.helper.FillStorage;
+import server.service.helper.GenerationSettings;
 import shared.model.User;
+import shared.result.FillResult;
 
 abstract class FillingService extends LoadingService {
     private final FamilyDataGenerator familyDataGenerator;
 
     FillingService() { this.familyDataGenerator = new FamilyDataGenerator(); }
 
-    int generateAncestors(String userID, User user, int numGenerations) throws DataAccessException {
-        Collection<ServerPerson> ancestors = familyDataGenerator.generateAncestors(user, numGenerations);
-        super.loadUserPerson(userID, user.getPersonObj());
-        super.loadPersons(ancestors);
+    /*
+     * The family data is written into the database while it is still being generated, so only a bounded number of
+     * generated persons and events is ever held in memory, however many generations are filled. With a seed, the
+     * same family is generated every time for the same user.
+     */
+    FillResult fillFamilyData(String userID, User user, int numGenerations, Long seed) throws DataAccessException {
+        if (FillStorage.VIRTUAL == GenerationSettings.getInstance().getFillStorage()) {
+            return fillVirtualFamilyData(userID, user, numGenerations,
+                    (null == seed) ? ThreadLocalRandom.current().nextLong() : seed);
+        }
 
-        return ancestors.size();
+        try (FamilyDataWriter familyDataWriter = super.openFamilyWriter(userID)) {
+            if (null == seed) {
+                familyDataGenerator.generateFamily(user, numGenerations, familyDataWriter);
+            } else {
+                familyDataGenerator.generateFamily(user, numGenerations, seed, familyDataWriter);
+            }
+
+            familyDataWriter.finish();
+
+            return FillResult.newSuccess(familyDataWriter.getNumPersons(), familyDataWriter.getNumEvents());
+        }
     }
 
-    int generateEvents(User user) throws DataAccessException {
-        Collection<ServerEvent> familyEvents = familyDataGenerator.generateEvents(user);
-        super.loadEvents(familyEvents);
+    /*
+     * Only the parents of the user are generated, to link the person of the user to them: they are drawn first, so
+     * they are the same for every number of generations. The rest of the tree is generated whenever it is read, so the
+     * number of generations is bounded, to bound the work of each read.
+     */
+    private FillResult fillVirtualFamilyData(String userID, User user, int numGenerations, long seed)
+            throws DataAccessException {
+        int maxGenerations = GenerationSettings.getInstance().getMaxVirtualGenerations();
+
+        if (maxGenerations < numGenerations) {
+            throw new DataAccessException("The number of generations of a virtual fill must be at most " +
+                    maxGenerations + ".");
+        }
+
+        familyDataGenerator.generateFamily(user, Math.min(1, numGenerations), seed, (persons, events) -> { });
+        super.storeVirtualFamily(userID, user.getPersonObj(), seed, numGenerations);
+
+        long numCouples = (1L << Math.min(numGenerations, Integer.SIZE)) - 1;
+        return FillResult.newSuccess(toCount(2 * numCouples + 1), toCount(6 * numCouples + 1));
+    }
 
-        return familyEvents.size();
+    private static int toCount(long count) {
+        return (int) Math.min(count, Integer.MAX_VALUE);
     }
 }
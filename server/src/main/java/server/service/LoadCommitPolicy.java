@@ -0,0 +1,45 @@
+package server.service;
+
+/**
+ * An enumeration of the ways a /load request can commit its data
+ * @author griffinbholt
+ */
+public enum LoadCommitPolicy {
+    /**
+     * The whole load is committed in a single transaction, so a failed load changes nothing
+     */
+    ALL("all"),
+
+    /**
+     * The load is committed every <code>loadChunkRows</code> rows, so a failed load keeps the chunks committed before
+     * the failure, and the write lock is released between chunks
+     */
+    CHUNKED("chunked");
+
+    private final String name;
+
+    LoadCommitPolicy(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the <code>LoadCommitPolicy</code> with the input name, ignoring case
+     * @param name The name of the policy (all or chunked)
+     * @return The matching <code>LoadCommitPolicy</code>
+     * @throws IllegalArgumentException No policy exists with the input name
+     */
+    public static LoadCommitPolicy generate(String name) {
+        for (LoadCommitPolicy policy : values()) {
+            if (policy.name.equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown load commit policy: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -1,20 +1,30 @@
 package server.service;
 
+import server.dao.GeneralDao;
 import server.exception.DataAccessException;
+import shared.json.LoadRequestReader;
 import shared.model.ServerEvent;
 import shared.model.ServerPerson;
 import shared.model.User;
-import shared.request.LoadRequest;
 import shared.result.LoadResult;
 import server.service.helper.DatabaseClearer;
 
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Logger;
 
 /**
  * A <code>LoadService</code> object manages load requests
  * @author griffinbholt
  */
 public final class LoadService extends LoadingService {
+    private final Logger logger = Logger.getLogger("LoadService");
+
     private final DatabaseClearer databaseClearer;
 
     /**
@@ -25,55 +35,125 @@ public final class LoadService extends LoadingService {
     }
 
     /**
-     * Processes a request to clear all data from the database, and then loads the posted user, person, and event data
-     * (found in the {@link shared.request.LoadRequest LoadRequest} object) into the database.
-     * @param request The @link shared.requests.LoadRequest LoadRequest} object containing the
-     *                posted user, person, and event data
-     * @return The result of the request, in the form of a {@link shared.result.LoadResult LoadResult} object
+     * Processes a request to clear all data from the database, and then loads the user, person, and event data of a
+     * load request, parsed from the input {@link Reader} as it is inserted. At most one batch of objects
+     * (see {@link GeneralDao#getBatchSize()}) is held in memory at a time. The data is committed according to the
+     * {@link LoadCommitPolicy} of the {@link LoadSettings}. The users must come before the persons and events, as
+     * they are needed to insert them; a request with persons or events before its users fails.
+     * @param requestBody The {@link Reader} containing the Json of the load request
+     * @return The result of the request, in the form of a {@link shared.result.LoadResult LoadResult} object, with
+     *         the number of users, persons, and events committed to the database
      */
-    public LoadResult load(LoadRequest request) {
-        try {
+    public LoadResult load(Reader requestBody) {
+        LoadProgress progress = new LoadProgress(LoadSettings.getInstance());
+
+        try (LoadRequestReader reader = new LoadRequestReader(requestBody)) {
             super.openConnection();
-            LoadResult success = processLoadRequest(request);
-            super.commitChanges();
+            databaseClearer.clearAllTables();
+            loadSections(reader, progress);
+            commitChunk(progress);
+            Caches.invalidateAll();
+            LoadResult success = LoadResult.newSuccess(progress.getNumCommitted(LoadRequestReader.Section.USERS),
+                    progress.getNumCommitted(LoadRequestReader.Section.PERSONS),
+                    progress.getNumCommitted(LoadRequestReader.Section.EVENTS));
             super.reportSuccess(success);
             return success;
-        } catch (DataAccessException e) {
-            LoadResult failure = this.reportError(e);
+        } catch (DataAccessException | IOException | JsonParseException | IllegalStateException e) {
+            LoadResult failure = this.reportError(e, progress);
             super.rollbackChanges();
-            return failure ;
+
+            if (progress.hasCommitted()) {
+                Caches.invalidateAll();
+            }
+
+            return failure;
         } finally {
             super.closeConnection();
         }
     }
 
-    private LoadResult processLoadRequest(LoadRequest request) throws DataAccessException {
-        databaseClearer.clearAllTables();
-
-        int numUsers = loadUsers(request);
-        int numPersonsAdded = loadPersons(request);
-        int numEventsAdded = loadRequestEvents(request);
+    private void loadSections(LoadRequestReader reader, LoadProgress progress)
+            throws IOException, DataAccessException {
+        LoadRequestReader.Section section;
+        boolean usersLoaded = false;
+
+        while (null != (section = reader.nextSection())) {
+            switch (section) {
+                case USERS:
+                    loadSection(reader, section, User.class, this.userDao::add, progress);
+                    usersLoaded = true;
+                    break;
+                case PERSONS:
+                    checkUsersLoaded(reader, usersLoaded);
+                    loadSection(reader, section, ServerPerson.class, this::loadPersons, progress);
+                    break;
+                case EVENTS:
+                    checkUsersLoaded(reader, usersLoaded);
+                    loadSection(reader, section, ServerEvent.class, this::loadEvents, progress);
+                    break;
+            }
+        }
+    }
 
-        return LoadResult.newSuccess(numUsers, numPersonsAdded, numEventsAdded);
+    /*
+     * A person or event is inserted under the userID of its associated username, so its user must already be loaded
+     */
+    private static void checkUsersLoaded(LoadRequestReader reader, boolean usersLoaded)
+            throws IOException, DataAccessException {
+        if (!usersLoaded && reader.hasNextObject()) {
+            throw new DataAccessException("The users of a load request must come before its persons and events.");
+        }
     }
 
-    private int loadUsers(LoadRequest request) throws DataAccessException {
-        List<User> users = request.getUsers();
+    private <T> void loadSection(LoadRequestReader reader, LoadRequestReader.Section section, Class<T> objectClass,
+                                 BatchLoader<T> batchLoader, LoadProgress progress)
+            throws IOException, DataAccessException {
+        int batchSize = GeneralDao.getBatchSize();
+        List<T> batch = new ArrayList<>(batchSize);
 
-        return this.userDao.add(users);
+        while (reader.hasNextObject()) {
+            batch.add(objectClass.cast(reader.nextObject()));
+
+            if (batch.size() == batchSize) {
+                loadBatch(section, batch, batchLoader, progress);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            loadBatch(section, batch, batchLoader, progress);
+        }
     }
 
-    private int loadPersons(LoadRequest request) throws DataAccessException {
-        List<ServerPerson> persons = request.getPersons();
+    private <T> void loadBatch(LoadRequestReader.Section section, List<T> batch, BatchLoader<T> batchLoader,
+                               LoadProgress progress) throws DataAccessException {
+        progress.addLoaded(section, batchLoader.load(batch));
+        batch.clear();
 
-        return loadPersons(persons);
+        if (progress.isChunkFull()) {
+            commitChunk(progress);
+            logger.info("Load progress: committed " + progress + "\n");
+        }
     }
 
+    private void commitChunk(LoadProgress progress) throws DataAccessException {
+        try {
+            dbConn.commit();
+            progress.commit();
+        } catch (SQLException e) {
+            throw new DataAccessException("Unable to commit the loaded data: " + e.getMessage());
+        }
+    }
 
-    private int loadRequestEvents(LoadRequest request) throws DataAccessException {
-        List<ServerEvent> events = request.getEvents();
+    private LoadResult reportError(Exception e, LoadProgress progress) {
+        if (!progress.hasCommitted()) {
+            return this.reportError(e);
+        }
 
-        return loadEvents(events);
+        String errorMessage = "Error: Load request failed. " + e.getMessage();
+        logError(errorMessage + " Committed " + progress + " before the failure.");
+        return LoadResult.newFailure(errorMessage, progress.getNumCommitted(LoadRequestReader.Section.USERS),
+                progress.getNumCommitted(LoadRequestReader.Section.PERSONS),
+                progress.getNumCommitted(LoadRequestReader.Section.EVENTS));
     }
 
     @Override
@@ -82,4 +162,63 @@ public final class LoadService extends LoadingService {
         logError(errorMessage);
         return LoadResult.newFailure(errorMessage);
     }
+
+    /*
+     * Inserts a batch of the objects of a load request, and returns the number of objects inserted
+     */
+    @FunctionalInterface
+    private interface BatchLoader<T> {
+        int load(List<T> batch) throws DataAccessException;
+    }
+
+    /*
+     * Counts the objects of a load request that have been inserted, and that have been committed
+     */
+    private static final class LoadProgress {
+        private final int[] numLoaded = new int[LoadRequestReader.Section.values().length];
+        private final int[] numCommitted = new int[LoadRequestReader.Section.values().length];
+        private final boolean chunked;
+        private final int chunkRows;
+        private int numRowsSinceCommit;
+
+        private LoadProgress(LoadSettings settings) {
+            this.chunked = LoadCommitPolicy.CHUNKED == settings.getCommitPolicy();
+            this.chunkRows = settings.getChunkRows();
+        }
+
+        private void addLoaded(LoadRequestReader.Section section, int numRows) {
+            numLoaded[section.ordinal()] += numRows;
+            numRowsSinceCommit += numRows;
+        }
+
+        private boolean isChunkFull() {
+            return chunked && numRowsSinceCommit >= chunkRows;
+        }
+
+        private void commit() {
+            System.arraycopy(numLoaded, 0, numCommitted, 0, numLoaded.length);
+            numRowsSinceCommit = 0;
+        }
+
+        private boolean hasCommitted() {
+            for (int numRows : numCommitted) {
+                if (0 != numRows) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private int getNumCommitted(LoadRequestReader.Section section) {
+            return numCommitted[section.ordinal()];
+        }
+
+        @Override
+        public String toString() {
+            return getNumCommitted(LoadRequestReader.Section.USERS) + " users, " +
+                    getNumCommitted(LoadRequestReader.Section.PERSONS) + " persons, and " +
+                    getNumCommitted(LoadRequestReader.Section.EVENTS) + " events";
+        }
+    }
 }
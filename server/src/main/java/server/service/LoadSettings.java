@@ -0,0 +1,61 @@
+package server.service;
+
+import server.ServerOptions;
+
+/**
+ * The settings of /load requests, configured by the startup options of the server:
+ * <ul>
+ *     <li><code>loadCommit</code> - all or chunked (default: all; see {@link LoadCommitPolicy})</li>
+ *     <li><code>loadChunkRows</code> - rows committed per transaction by the chunked policy (default: 50000)</li>
+ * </ul>
+ * @author griffinbholt
+ */
+public final class LoadSettings {
+    private static final String COMMIT_OPTION = "loadCommit";
+    private static final String CHUNK_ROWS_OPTION = "loadChunkRows";
+
+    private static final int DEFAULT_CHUNK_ROWS = 50000;
+
+    @SuppressWarnings("StaticVariableOfConcreteClass")
+    private static volatile LoadSettings loadSettings = new LoadSettings(LoadCommitPolicy.ALL, DEFAULT_CHUNK_ROWS);
+
+    private final LoadCommitPolicy commitPolicy;
+    private final int chunkRows;
+
+    private LoadSettings(LoadCommitPolicy commitPolicy, int chunkRows) {
+        if (0 >= chunkRows) {
+            throw new IllegalArgumentException("Option " + CHUNK_ROWS_OPTION + " must be positive: " + chunkRows);
+        }
+
+        this.commitPolicy = commitPolicy;
+        this.chunkRows = chunkRows;
+    }
+
+    /**
+     * Replaces the load settings of the server with ones configured by the input startup options
+     * @param options The startup options of the server
+     * @throws IllegalArgumentException One of the options has an invalid value
+     */
+    public static void configure(ServerOptions options) {
+        loadSettings = new LoadSettings(
+                LoadCommitPolicy.generate(options.getString(COMMIT_OPTION, LoadCommitPolicy.ALL.toString())),
+                options.getInt(CHUNK_ROWS_OPTION, DEFAULT_CHUNK_ROWS));
+    }
+
+    /**
+     * Returns the load settings of the server
+     * @return The load settings of the server
+     */
+    public static LoadSettings getInstance() {
+        return loadSettings;
+    }
+
+    // Getters
+    public LoadCommitPolicy getCommitPolicy() {
+        return commitPolicy;
+    }
+
+    public int getChunkRows() {
+        return chunkRows;
+    }
+}
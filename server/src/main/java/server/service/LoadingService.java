@@ -7,6 +7,7 @@ import server.exception.DataAccessException;
 import shared.model.ServerEvent;
 import shared.model.ServerPerson;
 import server.service.helper.FamilyDataLoader;
+import server.service.helper.FamilyDataWriter;
 
 abstract class LoadingService extends UsersService {
     private final FamilyDataLoader familyDataLoader;
@@ -16,8 +17,13 @@ abstract class LoadingService extends UsersService {
         this.familyDataLoader = new FamilyDataLoader(this.userDao.getPersonDao(), eventDao);
     }
 
-    void loadUserPerson(String userID, ServerPerson person) throws DataAccessException {
-        familyDataLoader.loadUserPerson(userID, person);
+    FamilyDataWriter openFamilyWriter(String userID) throws DataAccessException {
+        return familyDataLoader.openFamilyWriter(userID);
+    }
+
+    void storeVirtualFamily(String userID, ServerPerson userPerson, long seed, int numGenerations)
+            throws DataAccessException {
+        familyDataLoader.storeVirtualFamily(userID, userPerson, seed, numGenerations);
     }
 
     int loadPersons(Iterable<ServerPerson> persons) throws DataAccessException {
@@ -1,5 +1,7 @@
 package server.service;
 
+import server.auth.SignedAuthTokens;
+import server.dao.ConnectionPool;
 import server.exception.DataAccessException;
 import shared.request.LoginRequest;
 import shared.result.LoginResult;
@@ -42,6 +44,16 @@ public final class LoginService extends UsersService {
         }
     }
 
+    /*
+     * A signed token is issued without writing to the auth_tokens table, so in that mode a login only reads, and does
+     * not have to queue behind a long /fill or /load for the writer connection
+     */
+    @Override
+    ConnectionPool getConnectionPool() {
+        return SignedAuthTokens.getInstance().isEnabled() ? ConnectionPool.getReaderPool() :
+                super.getConnectionPool();
+    }
+
     @Override
     void openConnection() throws DataAccessException {
         super.openConnection();
@@ -0,0 +1,43 @@
+package server.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The opaque cursor of a page of the persons or events of a user. The cursor encodes the ID of the last row of the
+ * previous page, after which the page starts, so that a page is read by seeking the (user_id, id) index instead of
+ * skipping over the rows of every previous page.
+ * @author griffinbholt
+ */
+public final class PageCursor {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private PageCursor() {
+    }
+
+    /**
+     * Encodes the cursor of the page after the row with the input ID
+     * @param lastID The ID of the last row of the previous page
+     * @return The cursor, safe to use as a query parameter
+     */
+    public static String encode(String lastID) {
+        return ENCODER.encodeToString(lastID.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the ID of the last row of the previous page from the input cursor
+     * @param cursor The cursor of the page
+     * @return The ID of the last row of the previous page
+     * @throws IllegalArgumentException The cursor was not produced by {@link #encode(String)}
+     */
+    public static String decode(String cursor) {
+        String lastID = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+
+        if (lastID.isEmpty()) {
+            throw new IllegalArgumentException("Empty cursor.");
+        }
+
+        return lastID;
+    }
+}
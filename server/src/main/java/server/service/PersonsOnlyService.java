@@ -1,6 +1,7 @@
 package server.service;
 
 import server.dao.AuthTokenDao;
+import server.dao.ConnectionPool;
 import server.dao.PersonDao;
 import server.dao.UserDao;
 import server.exception.DataAccessException;
@@ -23,6 +24,11 @@ abstract class PersonsOnlyService extends Service {
         userDao.setPersonDao(this.personDao);
     }
 
+    @Override
+    ConnectionPool getConnectionPool() {
+        return ConnectionPool.getReaderPool();
+    }
+
     @Override
     void openConnection() throws DataAccessException {
         super.openConnection();
@@ -92,12 +92,7 @@ public final class RegisterService extends FillingService {
     }
 
     private void generateFamilyData(String userID, User newUser) throws DataAccessException {
-        generateAncestors(userID, newUser);
-        super.generateEvents(newUser);
-    }
-
-    private void generateAncestors(String userID, User newUser) throws DataAccessException {
-        super.generateAncestors(userID, newUser, FamilyDataGenerator.DEFAULT_NUM_GENERATIONS);
+        super.fillFamilyData(userID, newUser, FamilyDataGenerator.DEFAULT_NUM_GENERATIONS, null);
     }
 
     private AuthToken loginNewUser(User newUser) throws DataAccessException {
@@ -1,11 +1,10 @@
 package server.service;
 
-import server.dao.GeneralDao;
+import server.dao.ConnectionPool;
 import server.exception.DataAccessException;
 import shared.result.Result;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -14,6 +13,11 @@ abstract class Service {
     @SuppressWarnings("PackageVisibleField")
     Connection dbConn;
 
+    /*
+     * The pool the connection was borrowed from, to which it is given back even if the pools were replaced since
+     */
+    private ConnectionPool dbPool;
+
     private final Logger logger;
 
     Service() {
@@ -21,15 +25,25 @@ abstract class Service {
     }
 
     void openConnection() throws DataAccessException {
-        try {
-            dbConn = DriverManager.getConnection(GeneralDao.DB_CONNECTION_URL);
+        dbPool = getConnectionPool();
+        dbConn = dbPool.acquire();
 
+        try {
             dbConn.setAutoCommit(false);
         } catch (SQLException e) {
+            closeConnection();
             throw new DataAccessException("Unable to open connection to database");
         }
     }
 
+    /*
+     * Services that only read from the database override this to use the reader pool, so that they never wait on
+     * a write transaction in WAL mode.
+     */
+    ConnectionPool getConnectionPool() {
+        return ConnectionPool.getWriterPool();
+    }
+
     void commitChanges() {
         try {
             dbConn.commit();
@@ -39,7 +53,14 @@ abstract class Service {
         }
     }
 
+    /*
+     * Nothing is rolled back if no connection was ever acquired, e.g., because the pool timed out
+     */
     void rollbackChanges() {
+        if (null == dbConn) {
+            return;
+        }
+
         try {
             dbConn.rollback();
         } catch (SQLException e) {
@@ -49,13 +70,12 @@ abstract class Service {
     }
 
     void closeConnection() {
-        try {
-            dbConn.close();
-            dbConn = null;
-        } catch (SQLException e) {
-            logger.severe(e.getMessage());
-            System.exit(0);
+        if (null != dbPool) {
+            dbPool.release(dbConn);
         }
+
+        dbConn = null;
+        dbPool = null;
     }
 
     protected abstract Result reportError(Exception e);
@@ -68,6 +88,10 @@ abstract class Service {
         logger.log(level, message + "\n");
     }
 
+    void logSuccess(String message) {
+        this.log(Level.INFO, message);
+    }
+
     void logError(String message) {
         this.log(Level.WARNING, message);
     }
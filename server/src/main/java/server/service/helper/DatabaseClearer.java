@@ -50,13 +50,16 @@ public class DatabaseClearer {
     }
 
     /**
-     * Clears all tables in the database
+     * Clears all tables in the database, and resets the change log (see {@link server.dao.ChangeLogDao ChangeLogDao}),
+     * so that clients replace all of their data on their next request for changes
      * @throws DataAccessException An error that occurs when attempting to access the database
      */
     public void clearAllTables() throws DataAccessException {
+        this.personDao.getChangeLogDao().resetChanges();
         this.userDao.deleteAll();
         this.authTokenDao.deleteAll();
         this.personDao.deleteAll();
+        this.personDao.getVirtualTreeDao().deleteAll();
         this.eventDao.deleteAll();
     }
 }
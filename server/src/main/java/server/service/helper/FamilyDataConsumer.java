@@ -0,0 +1,22 @@
+package server.service.helper;
+
+import java.util.List;
+
+import server.exception.DataAccessException;
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+
+/**
+ * Consumes the family data of a user as it is generated by a {@link FamilyDataGenerator}, one chunk at a time
+ * @author griffinbholt
+ */
+@FunctionalInterface
+public interface FamilyDataConsumer {
+    /**
+     * Consumes the next chunk of generated family data. The chunk is not used by the generator afterwards.
+     * @param persons The generated persons of the chunk
+     * @param events The generated events of the chunk
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    void accept(List<ServerPerson> persons, List<ServerEvent> events) throws DataAccessException;
+}
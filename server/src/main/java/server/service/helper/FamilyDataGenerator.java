@@ -1,15 +1,12 @@
 package server.service.helper;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-
-import server.service.helper.jsonobjects.Location;
-import server.service.helper.jsonobjects.LocationCatalog;
-import server.service.helper.jsonobjects.NameCatalog;
-import shared.json.JsonInterpreter;
+import java.time.Year;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import server.dao.GeneralDao;
+import server.exception.DataAccessException;
+import shared.model.Gender;
 import shared.model.ServerEvent;
 import shared.model.ServerPerson;
 import shared.model.User;
@@ -24,86 +21,121 @@ public class FamilyDataGenerator {
      */
     public static final int DEFAULT_NUM_GENERATIONS = 4;
 
-    private static final String SAMPLE_DATA_DIR = "sample_data";
+    /**
+     * The year from which the birth years of seeded family data are counted back
+     */
+    public static final Year SEEDED_CURRENT_YEAR = Year.of(2020);
 
-    private GenerateAncestorsGadget generateAncestorsGadget;
-    private GenerateEventsGadget generateEventsGadget;
+    private final ForkJoinPool generatorPool;
+    private final int queueChunks;
 
     /**
-     * Default constructor
+     * Default constructor, which generates deep family trees in the generator pool configured for the server
+     * (see {@link GenerationSettings})
      */
     public FamilyDataGenerator() {
-        setupGenerateGadgets();
-    }
-
-    private void setupGenerateGadgets() {
-        setupAncestorsGadget();
-        setupEventsGadget();
-    }
-
-    private void setupAncestorsGadget() {
-        List<String> surnames = readInSurnames();
-        List<String> femaleNames = readInFemaleNames();
-        List<String> maleNames = readInMaleNames();
-
-        this.generateAncestorsGadget = new GenerateAncestorsGadget(surnames, femaleNames, maleNames);
-    }
-
-    private List<String> readInSurnames() {
-        final String SURNAMES_FILE = "snames.json";
-        return readInNameCatalog(SURNAMES_FILE);
+        this(GenerationSettings.getInstance().getGeneratorPool(), GenerationSettings.getInstance().getQueueChunks());
     }
 
-    private List<String> readInFemaleNames() {
-        final String FEMALE_NAMES_FILE = "fnames.json";
-        return readInNameCatalog(FEMALE_NAMES_FILE);
+    /**
+     * Creates a new <code>FamilyDataGenerator</code> object, which generates deep family trees in the input pool
+     * @param generatorPool The fork/join pool in which to generate family trees deeper than
+     *                      {@link GenerateFamilyTask#SEQUENTIAL_GENERATIONS} generations; null, to generate every
+     *                      tree in the calling thread
+     * @param queueChunks The maximum number of generated chunks that may wait to be consumed
+     */
+    public FamilyDataGenerator(ForkJoinPool generatorPool, int queueChunks) {
+        this.generatorPool = generatorPool;
+        this.queueChunks = queueChunks;
     }
 
-    private List<String> readInMaleNames() {
-        final String MALE_NAMES_FILE = "mnames.json";
-        return readInNameCatalog(MALE_NAMES_FILE);
+    /*
+     * Generates the person of a user, with a random name, for the users of generated load requests
+     */
+    static ServerPerson generateUserPerson(String username, Gender gender, SplittableRandom randomNumGenerator) {
+        GenerateAncestorsGadget generateAncestorsGadget = new GenerateAncestorsGadget(randomNumGenerator,
+                SampleDataCatalog.getInstance());
+        return generateAncestorsGadget.generatePerson(username, gender);
     }
 
-    private List<String> readInNameCatalog(String fileName) {
-        NameCatalog nameCatalog = (NameCatalog) parseJson(fileName, NameCatalog.class);
-        return nameCatalog.getNames();
+    /**
+     * Generates the ancestors of the input user for the specified number of generations, along with the events of the
+     * user and of the ancestors, and passes them to the input consumer in chunks of {@link GeneralDao#getBatchSize()}
+     * rows, as they are generated. The person of the user is passed, too, once it is linked to the generated parents.
+     * <p>
+     * Family trees deeper than {@link GenerateFamilyTask#SEQUENTIAL_GENERATIONS} generations are generated in
+     * parallel, in the generator pool, while the calling thread consumes them; the generation waits whenever the
+     * consumer falls behind by more than the capacity of the queue. Shallower trees, and every tree of a generator
+     * without a pool, are generated in the calling thread, which consumes each chunk as soon as it is generated.
+     * @param user Input {@link User}, for whom the family data will be generated
+     * @param numGenerations Specified number of generations of ancestors to be generated
+     * @param consumer The consumer of the generated persons and events
+     * @throws DataAccessException The generation failed, or the consumer failed
+     */
+    public void generateFamily(User user, int numGenerations, FamilyDataConsumer consumer)
+            throws DataAccessException {
+        generateFamily(user, numGenerations, new SplittableRandom(), Year.now(), consumer);
     }
 
-    private void setupEventsGadget() {
-        List<Location> locations = readInLocations();
-        this.generateEventsGadget = new GenerateEventsGadget(locations);
+    /**
+     * Generates the same family data as {@link #generateFamily(User, int, FamilyDataConsumer)}, down to every ID,
+     * every time it is called with the same seed, for the same user with the same person. The families of different
+     * users differ for the same seed. The birth years are counted back from {@link #SEEDED_CURRENT_YEAR}, instead of
+     * the current year, so that they do not change from one year to the next. The data is passed to the consumer in
+     * the same order every time, unless it is generated in parallel.
+     * @param user Input {@link User}, for whom the family data will be generated
+     * @param numGenerations Specified number of generations of ancestors to be generated
+     * @param seed The seed from which the family data is generated
+     * @param consumer The consumer of the generated persons and events
+     * @throws DataAccessException The generation failed, or the consumer failed
+     */
+    public void generateFamily(User user, int numGenerations, long seed, FamilyDataConsumer consumer)
+            throws DataAccessException {
+        SplittableRandom randomNumGenerator = new SplittableRandom(seed ^ hashUsername(user.getUserName()));
+        generateFamily(user, numGenerations, randomNumGenerator, SEEDED_CURRENT_YEAR, consumer);
     }
 
-    private List<Location> readInLocations() {
-        final String LOCATIONS_FILE = "locations.json";
-
-        LocationCatalog locationCatalog = (LocationCatalog) parseJson(LOCATIONS_FILE, LocationCatalog.class);
-
-        return locationCatalog.getLocations();
-    }
+    /*
+     * A 64-bit hash, so that the IDs of the families of different users, drawn from the same seed, do not collide
+     */
+    private static long hashUsername(String username) {
+        long hash = 0;
 
-    private Object parseJson(String fileName, Class<?> jsonObjClass) {
-        Path LOCATIONS_FILEPATH = Paths.get(SAMPLE_DATA_DIR, fileName);
-        return JsonInterpreter.parseJson(LOCATIONS_FILEPATH, jsonObjClass);
-    }
+        for (int i = 0; i < username.length(); i++) {
+            hash = 31 * hash + username.charAt(i);
+        }
 
-    /**
-     * Generates ancestors for the input user for the specified number of generations
-     * @param user Input {@link User}, for whom the ancestor data will be generated
-     * @param numGenerations Specified number of generations of ancestors to be generated
-     * @return A collection of {@link ServerPerson} objects, representing the generated ancestors
-     */
-    public Collection<ServerPerson> generateAncestors(User user, int numGenerations) {
-        return this.generateAncestorsGadget.generateAncestors(user, numGenerations);
+        return new SplittableRandom(hash).nextLong();
     }
 
-    /**
-     * Generates events for the user and all of his/her generated ancestors
-     * @param user Input {@link User}, for whom the event data will be generated
-     * @return A collection of {@link ServerEvent} objects, representing the generated events
+    /*
+     * The whole family is drawn from the catalog current when its generation starts, even if the sample data is
+     * reloaded meanwhile (see SampleDataCatalog)
      */
-    public Collection<ServerEvent> generateEvents(User user) {
-        Map<String, ServerPerson> generatedAncestors = this.generateAncestorsGadget.getGeneratedAncestors();
-        return this.generateEventsGadget.generateEvents(user, generatedAncestors);
+    private void generateFamily(User user, int numGenerations, SplittableRandom randomNumGenerator, Year currentYear,
+                                FamilyDataConsumer consumer) throws DataAccessException {
+        ServerPerson userPerson = user.getPersonObj();
+        String username = userPerson.getAssociatedUsername();
+        SampleDataCatalog catalog = SampleDataCatalog.getInstance();
+
+        GenerateEventsGadget generateEventsGadget = new GenerateEventsGadget(randomNumGenerator, catalog);
+        ServerEvent userBirth = generateEventsGadget.generateUserBirthEvent(username, userPerson.getPersonID(),
+                currentYear);
+
+        boolean generateInParallel = (null != generatorPool) &&
+                (GenerateFamilyTask.SEQUENTIAL_GENERATIONS < numGenerations);
+        int chunkRows = GeneralDao.getBatchSize();
+        GeneratedFamilyQueue queue = generateInParallel ? new GeneratedFamilyQueue(queueChunks, chunkRows) :
+                new GeneratedFamilyQueue(consumer, chunkRows);
+        GenerateFamilyTask generateFamilyTask = new GenerateFamilyTask(catalog, queue, userPerson,
+                userBirth, numGenerations, randomNumGenerator, generateInParallel);
+
+        if (generateInParallel) {
+            generatorPool.execute(generateFamilyTask);
+        } else {
+            generateFamilyTask.quietlyInvoke();
+        }
+
+        queue.drainTo(consumer);
     }
 }
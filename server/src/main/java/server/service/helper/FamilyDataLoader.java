@@ -38,14 +38,33 @@ public class FamilyDataLoader {
     }
 
     /**
-     * Loads the {@link ServerPerson} object of the user with the input userID
-     * @param userID userID of the user, to whom the {@link ServerPerson} object belongs
-     * @param person The user's {@link ServerPerson} object
+     * Opens a {@link FamilyDataWriter} that writes the generated family data of the user with the input userID into
+     * the database. The person of the user, which was added along with the user, is erased first, as it is replaced
+     * by the generated one, which is linked to the generated parents.
+     * @param userID userID of the user, to whom the family data belongs
+     * @return The open {@link FamilyDataWriter}, which must be closed
      * @throws DataAccessException An error that occurs when attempting to access the database
      */
-    public void loadUserPerson(String userID, ServerPerson person) throws DataAccessException {
+    public FamilyDataWriter openFamilyWriter(String userID) throws DataAccessException {
         personDao.eraseUserData(userID);
-        personDao.add(person);
+        return new FamilyDataWriter(personDao, eventDao);
+    }
+
+    /**
+     * Stores the virtual family tree of the user with the input userID (see {@link server.dao.VirtualTreeDao
+     * VirtualTreeDao}): only its seed and number of generations, along with the person of the user, which replaces
+     * the one that was added along with the user
+     * @param userID userID of the user, to whom the family tree belongs
+     * @param userPerson The person of the user, linked to the generated parents
+     * @param seed The seed from which the family tree is generated
+     * @param numGenerations The number of generations of ancestors of the family tree
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public void storeVirtualFamily(String userID, ServerPerson userPerson, long seed, int numGenerations)
+            throws DataAccessException {
+        personDao.eraseUserData(userID);
+        personDao.add(userPerson);
+        personDao.getVirtualTreeDao().add(userID, seed, numGenerations);
     }
 
     /**
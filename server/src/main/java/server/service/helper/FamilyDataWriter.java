@@ -0,0 +1,69 @@
+package server.service.helper;
+
+import java.util.List;
+
+import server.dao.BatchInserter;
+import server.dao.EventDao;
+import server.dao.PersonDao;
+import server.exception.DataAccessException;
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+
+/**
+ * A {@link FamilyDataConsumer} that writes the generated family data of a user into the database as it arrives,
+ * through one open {@link BatchInserter} for the persons and one for the events
+ * @author griffinbholt
+ */
+public final class FamilyDataWriter implements FamilyDataConsumer, AutoCloseable {
+    private final BatchInserter<ServerPerson> personInserter;
+    private final BatchInserter<ServerEvent> eventInserter;
+
+    FamilyDataWriter(PersonDao personDao, EventDao eventDao) throws DataAccessException {
+        this.personInserter = personDao.openBatchInserter();
+
+        try {
+            this.eventInserter = eventDao.openBatchInserter();
+        } catch (DataAccessException e) {
+            personInserter.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void accept(List<ServerPerson> persons, List<ServerEvent> events) throws DataAccessException {
+        for (ServerPerson person : persons) {
+            personInserter.add(person);
+        }
+
+        for (ServerEvent event : events) {
+            eventInserter.add(event);
+        }
+    }
+
+    /**
+     * Sends the last rows of the family data to the database
+     * @throws DataAccessException An error that occurs when attempting to access the database
+     */
+    public void finish() throws DataAccessException {
+        personInserter.finish();
+        eventInserter.finish();
+    }
+
+    // Getters
+    public int getNumPersons() {
+        return personInserter.getNumAdded();
+    }
+
+    public int getNumEvents() {
+        return eventInserter.getNumAdded();
+    }
+
+    @Override
+    public void close() throws DataAccessException {
+        try {
+            personInserter.close();
+        } finally {
+            eventInserter.close();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package server.service.helper;
+
+/**
+ * An enumeration of the ways the generated family data of /fill and /register requests can be stored
+ * @author griffinbholt
+ */
+public enum FillStorage {
+    /**
+     * Every generated person and event is written into the database as a row
+     */
+    ROWS("rows"),
+
+    /**
+     * Only the seed and number of generations of the family tree are stored, along with the person of the user, and
+     * the rest of the tree is generated again whenever it is read (see {@link server.dao.VirtualTreeDao
+     * VirtualTreeDao})
+     */
+    VIRTUAL("virtual");
+
+    private final String name;
+
+    FillStorage(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the <code>FillStorage</code> with the input name, ignoring case
+     * @param name The name of the storage (rows or virtual)
+     * @return The matching <code>FillStorage</code>
+     * @throws IllegalArgumentException No storage exists with the input name
+     */
+    public static FillStorage generate(String name) {
+        for (FillStorage storage : values()) {
+            if (storage.name.equalsIgnoreCase(name)) {
+                return storage;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown fill storage: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
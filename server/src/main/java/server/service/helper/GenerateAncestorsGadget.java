@@ -1,92 +1,73 @@
 package server.service.helper;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.SplittableRandom;
 
 import shared.model.Gender;
 import shared.model.ServerPerson;
-import shared.model.User;
 
 /**
- * A gadget that manages the logic for generating family members for a user
+ * A gadget that manages the logic for generating the family members of a user, one couple of parents at a time
  * @author griffinbholt
  */
 final class GenerateAncestorsGadget extends GenerateDataGadget {
-    private final List<String> surnames;
-    private final List<String> femaleNames;
-    private final List<String> maleNames;
+    private final SampleDataCatalog catalog;
 
-    private final int numSurnames;
-    private final int numFemaleNames;
-    private final int numMaleNames;
+    GenerateAncestorsGadget(SplittableRandom randomNumGenerator, SampleDataCatalog catalog) {
+        super(randomNumGenerator);
 
-    private Map<String, ServerPerson> generatedAncestors;
-
-    GenerateAncestorsGadget(List<String> surnames, List<String> femaleNames, List<String> maleNames) {
-        this.surnames = surnames;
-        this.numSurnames = surnames.size();
-
-        this.femaleNames = femaleNames;
-        this.numFemaleNames = femaleNames.size();
-
-        this.maleNames = maleNames;
-        this.numMaleNames = maleNames.size();
+        this.catalog = catalog;
     }
 
-    Collection<ServerPerson> generateAncestors(User user, int numGenerations) {
-        assert null != user;
-
-        ServerPerson userPerson = user.getPersonObj();
-        assert null != userPerson;
-
-        String username = userPerson.getAssociatedUsername();
-        String lastName = userPerson.getLastName();
-
-        this.generatedAncestors = new HashMap<>();
-
-        generateParents(username, lastName, numGenerations, userPerson);
-
-        return generatedAncestors.values();
+    /**
+     * Generates the mother of a person, with a random maiden name
+     * @param username The username of the user to whom the generated family belongs
+     * @return The generated mother
+     */
+    ServerPerson generateMother(String username) {
+        String maidenName = getRandomSurname();
+        return generatePerson(username, maidenName, Gender.FEMALE);
     }
 
-    private void generateParents(String username, String lastName, int numGens, ServerPerson person) {
-        // Base Case - No more generations to generate
-        if (0 == numGens) {
-            return;
-        }
+    /**
+     * Generates the father of a person, who shares the last name of the person
+     * @param username The username of the user to whom the generated family belongs
+     * @param lastName The last name of the person
+     * @return The generated father
+     */
+    ServerPerson generateFather(String username, String lastName) {
+        return generatePerson(username, lastName, Gender.MALE);
+    }
 
-        // Recursive Case
-        ServerPerson mother = generateFemale(username, numGens - 1);
+    /**
+     * Links a person to his/her generated parents, and the parents to each other
+     * @param person The person
+     * @param mother The generated mother of the person
+     * @param father The generated father of the person
+     */
+    void linkParents(ServerPerson person, ServerPerson mother, ServerPerson father) {
         String motherID = mother.getPersonID();
-        person.setMotherID(motherID);
-
-        ServerPerson father = generateMale(username, lastName, numGens - 1);
         String fatherID = father.getPersonID();
+
+        person.setMotherID(motherID);
         person.setFatherID(fatherID);
 
         father.setSpouseID(motherID);
         mother.setSpouseID(fatherID);
     }
 
-    private ServerPerson generateFemale(String username, int numGens) {
-        String maidenName = getRandomSurname();
-        return generatePerson(username, maidenName, Gender.FEMALE, numGens);
+    /**
+     * Generates a person with a random first and last name
+     * @param username The username of the user to whom the person belongs
+     * @param gender The gender of the person
+     * @return The generated person
+     */
+    ServerPerson generatePerson(String username, Gender gender) {
+        return generatePerson(username, getRandomSurname(), gender);
     }
 
-    private ServerPerson generateMale(String username, String lastName, int numGens) {
-        return generatePerson(username, lastName, Gender.MALE, numGens);
-    }
-
-    private ServerPerson generatePerson(String username, String lastName, Gender gender, int numGens) {
+    private ServerPerson generatePerson(String username, String lastName, Gender gender) {
         String firstName = getRandomFirstName(gender);
-        ServerPerson person = new ServerPerson(username, firstName, lastName, gender);
-        generateParents(username, lastName, numGens, person);
-
-        generatedAncestors.put(person.getPersonID(), person);
-
-        return person;
+        return new ServerPerson(generateID(), username, firstName, lastName, gender, null, null, null);
     }
 
     private String getRandomFirstName(Gender gender) {
@@ -106,19 +87,14 @@ final class GenerateAncestorsGadget extends GenerateDataGadget {
     }
 
     private String getRandomFemaleName() {
-        return (String) getRandomElementFromList(numFemaleNames, femaleNames);
+        return catalog.getFemaleName(getRandomNumber(catalog.getNumFemaleNames()));
     }
 
     private String getRandomMaleName() {
-        return (String) getRandomElementFromList(numMaleNames, maleNames);
+        return catalog.getMaleName(getRandomNumber(catalog.getNumMaleNames()));
     }
 
     private String getRandomSurname() {
-        return (String) getRandomElementFromList(numSurnames, surnames);
-    }
-
-    // Getter
-    Map<String, ServerPerson> getGeneratedAncestors() {
-        return generatedAncestors;
+        return catalog.getSurname(getRandomNumber(catalog.getNumSurnames()));
     }
 }
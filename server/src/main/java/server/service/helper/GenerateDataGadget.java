@@ -1,17 +1,28 @@
 package server.service.helper;
 
-import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.UUID;
 
+/*
+ * Every gadget draws from the SplittableRandom stream of the task that created it, so that the gadgets of concurrent
+ * generation tasks never share a random number generator.
+ */
 abstract class GenerateDataGadget {
-    private final Random randomNumGenerator = new Random();
+    private final SplittableRandom randomNumGenerator;
 
-    Object getRandomElementFromList(int numElements, List<?> elements) {
-        int randomIndex = getRandomNumber(numElements);
-        return elements.get(randomIndex);
+    GenerateDataGadget(SplittableRandom randomNumGenerator) {
+        this.randomNumGenerator = randomNumGenerator;
     }
 
     int getRandomNumber(int upperBound) {
         return randomNumGenerator.nextInt(upperBound);
     }
+
+    /*
+     * IDs are drawn from the stream of the gadget, instead of from UUID.randomUUID(), whose single SecureRandom
+     * would serialize the generation tasks
+     */
+    String generateID() {
+        return new UUID(randomNumGenerator.nextLong(), randomNumGenerator.nextLong()).toString();
+    }
 }
@@ -1,13 +1,10 @@
 package server.service.helper;
 
-import server.service.helper.jsonobjects.Location;
 import shared.model.*;
 
 import java.time.Year;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.SplittableRandom;
 
 /**
  * A gadget that manages the logic for generating events for a user and his/her family
@@ -36,77 +33,38 @@ public final class GenerateEventsGadget extends GenerateDataGadget {
      */
     public static final int MAX_AGE_TO_DIE = 119;
 
-    private final List<Location> locations;
+    private final SampleDataCatalog catalog;
 
-    private final int numLocations;
+    GenerateEventsGadget(SplittableRandom randomNumGenerator, SampleDataCatalog catalog) {
+        super(randomNumGenerator);
 
-    private Map<String, ServerPerson> generatedAncestors;
-    private Collection<ServerEvent> generatedEvents;
-
-    GenerateEventsGadget(List<Location> locations) {
-        this.locations = locations;
-        this.numLocations = locations.size();
-    }
-
-    Collection<ServerEvent> generateEvents(User user, Map<String, ServerPerson> generatedAncestors) {
-        ServerPerson userPerson = user.getPersonObj();
-        String username = userPerson.getAssociatedUsername();
-        String userPersonID = userPerson.getPersonID();
-
-        this.generatedEvents = new ArrayList<>();
-        this.generatedAncestors = generatedAncestors;
-
-        ServerEvent userBirth = generateUserBirthEvent(username, userPersonID);
-        Year userBirthYear = userBirth.getYear();
-
-        this.generatedEvents.add(userBirth);
-
-        recursivelyGenerateEvents(username, userPerson, userBirthYear);
-
-        return generatedEvents;
+        this.catalog = catalog;
     }
 
-    private void recursivelyGenerateEvents(String username, ServerPerson person, Year childBirthYear) {
-        String motherID = person.getMotherID();
-        String fatherID = person.getFatherID();
-
-        // Base Case - No mother/father
-        if (null != motherID && null != fatherID) {
-            // Recursive Case - Mother & father exist
-
-            // Mother
-            ServerPerson mother = getPerson(motherID);
-            ServerEvent motherBirth = addParentBirth(username, motherID, childBirthYear);
-            Year motherBirthYear = motherBirth.getYear();
-
-            // Father
-            ServerPerson father = getPerson(fatherID);
-            ServerEvent fatherBirth = addParentBirth(username, fatherID, childBirthYear);
-            Year fatherBirthYear = fatherBirth.getYear();
-
-            // Mother
-            ServerEvent marriage = addMarriageForMother(username, motherID, childBirthYear, motherBirthYear, fatherBirthYear);
-            addParentDeath(username, motherID, childBirthYear, motherBirthYear);
-
-            // Father
-            addMarriageForFather(father, marriage);
-            addParentDeath(username, fatherID, childBirthYear, fatherBirthYear);
-
-            // Recurse Mother & Father's Parents
-            recursivelyGenerateEvents(username, mother, motherBirthYear);
-            recursivelyGenerateEvents(username, father, fatherBirthYear);
-        }
-    }
+    /**
+     * Generates the birth, marriage and death events of the parents of a person, who was born in the input year
+     * @param mother The mother of the person
+     * @param father The father of the person
+     * @param childBirthYear The birth year of the person
+     * @param generatedEvents The events generated so far, to which the events of the parents are added
+     * @return The birth years of the mother and the father, in that order
+     */
+    Year[] generateParentEvents(ServerPerson mother, ServerPerson father, Year childBirthYear,
+                                List<ServerEvent> generatedEvents) {
+        String username = mother.getAssociatedUsername();
+        String motherID = mother.getPersonID();
+        String fatherID = father.getPersonID();
 
+        // Births
+        ServerEvent motherBirth = generateAncestorBirthEvent(username, motherID, childBirthYear);
+        Year motherBirthYear = motherBirth.getYear();
+        generatedEvents.add(motherBirth);
 
-    private ServerEvent addParentBirth(String username, String parentID, Year childBirthYear) {
-        ServerEvent parentBirth = generateAncestorBirthEvent(username, parentID, childBirthYear);
-        generatedEvents.add(parentBirth);
-        return parentBirth;
-    }
+        ServerEvent fatherBirth = generateAncestorBirthEvent(username, fatherID, childBirthYear);
+        Year fatherBirthYear = fatherBirth.getYear();
+        generatedEvents.add(fatherBirth);
 
-    private ServerEvent addMarriageForMother(String username, String motherID, Year childBirthYear, Year motherBirthYear,
-                                             Year fatherBirthYear) {
+        // Marriage
         Year mostRecentParentBirth = motherBirthYear;
 
         if (fatherBirthYear.getValue() > motherBirthYear.getValue()) {
@@ -115,25 +73,17 @@ public final class GenerateEventsGadget extends GenerateDataGadget {
 
         ServerEvent marriage = generateMarriageForMother(username, motherID, childBirthYear, mostRecentParentBirth);
         generatedEvents.add(marriage);
-        return marriage;
-    }
+        generatedEvents.add(generateMarriageForFather(father, marriage));
 
-    private void addMarriageForFather(ServerPerson father, ServerEvent marriage) {
-        ServerEvent duplicateMarriage = generateMarriageForFather(father, marriage);
-        generatedEvents.add(duplicateMarriage);
-    }
-
-    private void addParentDeath(String username, String parentID, Year childBirthYear, Year parentBirthYear) {
-        ServerEvent parentDeath = generateDeathEvent(username, parentID, childBirthYear, parentBirthYear);
-        generatedEvents.add(parentDeath);
-    }
+        // Deaths
+        generatedEvents.add(generateDeathEvent(username, motherID, childBirthYear, motherBirthYear));
+        generatedEvents.add(generateDeathEvent(username, fatherID, childBirthYear, fatherBirthYear));
 
-    private ServerPerson getPerson(String personID) {
-        return generatedAncestors.get(personID);
+        return new Year[]{motherBirthYear, fatherBirthYear};
     }
 
-    private ServerEvent generateUserBirthEvent(String username, String personID) {
-        Year userBirthYear = calculateDependentMinusYear(MIN_USER_AGE, MAX_AGE_TO_DIE, Year.now());
+    ServerEvent generateUserBirthEvent(String username, String personID, Year currentYear) {
+        Year userBirthYear = calculateDependentMinusYear(MIN_USER_AGE, MAX_AGE_TO_DIE, currentYear);
         return generateBirthEvent(username, personID, userBirthYear);
     }
 
@@ -177,7 +127,8 @@ public final class GenerateEventsGadget extends GenerateDataGadget {
         String city = marriage.getCity();
         Year year = marriage.getYear();
 
-        return new ServerEvent(username, fatherID, marriageLat, marriageLong, country, city, EventType.MARRIAGE, year);
+        return new ServerEvent(generateID(), username, fatherID, marriageLat, marriageLong, country, city,
+                EventType.MARRIAGE, year);
     }
 
     private ServerEvent generateDeathEvent(String username, String personID, Year childBirth, Year parentBirth) {
@@ -201,17 +152,17 @@ public final class GenerateEventsGadget extends GenerateDataGadget {
     }
 
     private ServerEvent generateEvent(String username, String personID, EventType eventType, Year year) {
-        Location location = getRandomLocation();
+        int location = getRandomLocation();
 
-        double latitude = location.getLatitude();
-        double longitude = location.getLongitude();
-        String country = location.getCountry();
-        String city = location.getCity();
+        double latitude = catalog.getLatitude(location);
+        double longitude = catalog.getLongitude(location);
+        String country = catalog.getCountry(location);
+        String city = catalog.getCity(location);
 
-        return new ServerEvent(username, personID, latitude, longitude, country, city, eventType, year);
+        return new ServerEvent(generateID(), username, personID, latitude, longitude, country, city, eventType, year);
     }
 
-    private Location getRandomLocation() {
-        return (Location) getRandomElementFromList(numLocations, locations);
+    private int getRandomLocation() {
+        return getRandomNumber(catalog.getNumLocations());
     }
 }
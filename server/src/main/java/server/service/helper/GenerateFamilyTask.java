@@ -0,0 +1,188 @@
+package server.service.helper;
+
+import java.time.Year;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountedCompleter;
+
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+
+/**
+ * A fork/join task that generates the ancestors of a person, together with their events, for a number of generations,
+ * and hands them over in chunks to a {@link GeneratedFamilyQueue}.
+ * <p>
+ * The tree is walked depth-first with an explicit stack, rather than by recursion, so the depth of a fill is not
+ * limited by the call stack, and the stack only ever holds about two ancestors per generation. Every person is handed
+ * over as soon as his/her parents are generated, along with their events.
+ * <p>
+ * The ancestors of the mother and of the father of a person depend on nothing but the parent and his/her birth year,
+ * so every parent with at least {@link #SEQUENTIAL_GENERATIONS} generations of ancestors still to generate draws from
+ * its own split of the random number stream of the child, and can be handed to a separate task whenever the worker has
+ * few enough queued tasks of its own; otherwise, it is pushed onto the stack of the current task. The streams are
+ * split the same way either way, so a seeded stream generates the same family however the work is divided, and,
+ * without forking, in the same order. The tasks never contend with each other but on the queue, and the root task
+ * completes once every task it spawned has completed.
+ * @author griffinbholt
+ */
+final class GenerateFamilyTask extends CountedCompleter<Void> {
+    // ForkJoinTask is Serializable, but a task is never serialized: it only lives in the pool of a single /fill
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The depth, in generations, below which the ancestors of a person are generated without forking any more tasks
+     */
+    static final int SEQUENTIAL_GENERATIONS = 8;
+
+    /*
+     * New tasks are only forked while the worker has fewer surplus tasks queued than this, which bounds the number of
+     * tasks waiting in the pool (see ForkJoinTask.getSurplusQueuedTaskCount)
+     */
+    private static final int MAX_SURPLUS_TASKS = 3;
+
+    private final SampleDataCatalog catalog;
+    private final GeneratedFamilyQueue queue;
+    private final Ancestor root;
+    private final ServerEvent rootBirth;
+    private final boolean forkSubtrees;
+
+    private SplittableRandom randomNumGenerator;
+    private GenerateAncestorsGadget generateAncestorsGadget;
+    private GenerateEventsGadget generateEventsGadget;
+
+    /**
+     * Creates the root task, which generates the ancestors of the input person, and their events
+     * @param catalog The sample data from which the ancestors and events are drawn
+     * @param queue The queue to which the generated persons and events are handed over
+     * @param person The person, who is handed over, too, once his/her parent IDs are filled in
+     * @param birth The birth event of the person, which is handed over with the person
+     * @param numGenerations The number of generations of ancestors to generate
+     * @param randomNumGenerator The random number stream of the person
+     * @param forkSubtrees true, to hand subtrees to separate tasks (only in a fork/join pool); false, to generate the
+     *                     whole family in this task, in a reproducible order
+     */
+    GenerateFamilyTask(SampleDataCatalog catalog, GeneratedFamilyQueue queue, ServerPerson person, ServerEvent birth,
+                       int numGenerations, SplittableRandom randomNumGenerator, boolean forkSubtrees) {
+        this(null, catalog, queue, new Ancestor(person, birth.getYear(), numGenerations, randomNumGenerator), birth,
+                forkSubtrees);
+    }
+
+    private GenerateFamilyTask(GenerateFamilyTask parent, SampleDataCatalog catalog, GeneratedFamilyQueue queue,
+                               Ancestor root, ServerEvent rootBirth, boolean forkSubtrees) {
+        super(parent);
+        this.catalog = catalog;
+        this.queue = queue;
+        this.root = root;
+        this.rootBirth = rootBirth;
+        this.forkSubtrees = forkSubtrees;
+    }
+
+    @Override
+    public void compute() {
+        GeneratedFamilyQueue.Chunk chunk = queue.newChunk();
+
+        if (null != rootBirth) {
+            chunk.getEvents().add(rootBirth);
+        }
+
+        Deque<Ancestor> pending = new ArrayDeque<>();
+        pending.push(root);
+
+        while (!pending.isEmpty()) {
+            Ancestor ancestor = pending.pop();
+
+            if (0 < ancestor.numGenerations) {
+                useRandomNumGenerator(ancestor.randomNumGenerator);
+
+                ServerPerson person = ancestor.person;
+                String username = person.getAssociatedUsername();
+
+                ServerPerson mother = generateAncestorsGadget.generateMother(username);
+                ServerPerson father = generateAncestorsGadget.generateFather(username, person.getLastName());
+                generateAncestorsGadget.linkParents(person, mother, father);
+
+                Year[] parentBirthYears = generateEventsGadget.generateParentEvents(mother, father, ancestor.birthYear,
+                        chunk.getEvents());
+
+                int parentGenerations = ancestor.numGenerations - 1;
+                schedule(new Ancestor(father, parentBirthYears[1], parentGenerations, streamOf(parentGenerations)),
+                        pending);
+                schedule(new Ancestor(mother, parentBirthYears[0], parentGenerations, streamOf(parentGenerations)),
+                        pending);
+            }
+
+            chunk.addPerson(ancestor.person);
+
+            if (chunk.isFull()) {
+                queue.put(chunk);
+                chunk = queue.newChunk();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            queue.put(chunk);
+        }
+
+        tryComplete();
+    }
+
+    /*
+     * The gadgets draw from the stream of the ancestor whose parents they generate
+     */
+    private void useRandomNumGenerator(SplittableRandom ancestorRandomNumGenerator) {
+        if (ancestorRandomNumGenerator != randomNumGenerator) {
+            randomNumGenerator = ancestorRandomNumGenerator;
+            generateAncestorsGadget = new GenerateAncestorsGadget(randomNumGenerator, catalog);
+            generateEventsGadget = new GenerateEventsGadget(randomNumGenerator, catalog);
+        }
+    }
+
+    private SplittableRandom streamOf(int parentGenerations) {
+        return (SEQUENTIAL_GENERATIONS <= parentGenerations) ? randomNumGenerator.split() : randomNumGenerator;
+    }
+
+    private void schedule(Ancestor parent, Deque<Ancestor> pending) {
+        if (forkSubtrees && SEQUENTIAL_GENERATIONS <= parent.numGenerations &&
+                MAX_SURPLUS_TASKS > getSurplusQueuedTaskCount()) {
+            addToPendingCount(1);
+            new GenerateFamilyTask(this, catalog, queue, parent, null, true).fork();
+        } else {
+            pending.push(parent);
+        }
+    }
+
+    @Override
+    public void onCompletion(CountedCompleter<?> caller) {
+        if (null == getCompleter()) {
+            queue.finish(null);
+        }
+    }
+
+    @Override
+    public boolean onExceptionalCompletion(Throwable ex, CountedCompleter<?> caller) {
+        if (null == getCompleter()) {
+            queue.finish(ex);
+        }
+
+        return true;
+    }
+
+    /**
+     * A person whose ancestors are still to be generated
+     */
+    private static final class Ancestor {
+        private final ServerPerson person;
+        private final Year birthYear;
+        private final int numGenerations;
+        private final SplittableRandom randomNumGenerator;
+
+        private Ancestor(ServerPerson person, Year birthYear, int numGenerations,
+                         SplittableRandom randomNumGenerator) {
+            this.person = person;
+            this.birthYear = birthYear;
+            this.numGenerations = numGenerations;
+            this.randomNumGenerator = randomNumGenerator;
+        }
+    }
+}
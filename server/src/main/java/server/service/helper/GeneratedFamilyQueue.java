@@ -0,0 +1,186 @@
+package server.service.helper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import server.exception.DataAccessException;
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+
+/**
+ * The queue through which the {@link GenerateFamilyTask generation tasks} of a family hand chunks of generated persons
+ * and events to the thread that consumes them. A bounded queue blocks the tasks while it is full, so the consumer
+ * paces the generation, and the generated data held in memory never exceeds the capacity of the queue.
+ * <p>
+ * If the consumer stops early, the queue is cancelled, and every task then fails as soon as it next hands over a chunk.
+ * <p>
+ * A direct queue instead passes every chunk straight to the consumer, in the thread of the task that hands it over, for
+ * a family generated by a single task in the calling thread.
+ * @author griffinbholt
+ */
+final class GeneratedFamilyQueue {
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final String ERROR_GENERATING = "Error encountered while generating family data.";
+
+    private static final Chunk END = new Chunk(0);
+
+    private final BlockingQueue<Chunk> chunks;
+    private final FamilyDataConsumer directConsumer;
+    private final int chunkRows;
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    private volatile boolean cancelled;
+    private volatile Throwable failure;
+    private volatile DataAccessException consumerFailure;
+
+    /**
+     * Creates a new bounded queue
+     * @param capacity The maximum number of chunks waiting to be consumed
+     * @param chunkRows The number of rows (persons and events) at which a chunk is handed over
+     */
+    GeneratedFamilyQueue(int capacity, int chunkRows) {
+        this.chunks = new LinkedBlockingQueue<>(capacity);
+        this.directConsumer = null;
+        this.chunkRows = chunkRows;
+    }
+
+    /**
+     * Creates a new direct queue
+     * @param consumer The consumer of the chunks
+     * @param chunkRows The number of rows (persons and events) at which a chunk is handed over
+     */
+    GeneratedFamilyQueue(FamilyDataConsumer consumer, int chunkRows) {
+        this.chunks = null;
+        this.directConsumer = consumer;
+        this.chunkRows = chunkRows;
+    }
+
+    Chunk newChunk() {
+        return new Chunk(chunkRows);
+    }
+
+    /**
+     * Hands over a chunk to the consumer, waiting while the queue is full
+     * @param chunk The chunk
+     * @throws CancellationException The consumer stopped consuming
+     */
+    void put(Chunk chunk) {
+        if (null != directConsumer) {
+            passDirectly(chunk);
+            return;
+        }
+
+        offerUntilCancelled(chunk);
+
+        if (cancelled) {
+            throw new CancellationException("The consumer of the generated family stopped.");
+        }
+    }
+
+    /**
+     * Signals the end of the generation to the consumer. Only the first call has any effect.
+     * @param failure The exception with which the generation failed; null, if it succeeded
+     */
+    void finish(Throwable failure) {
+        if (finished.compareAndSet(false, true)) {
+            this.failure = failure;
+
+            if (null == directConsumer) {
+                offerUntilCancelled(END);
+            }
+        }
+    }
+
+    private void passDirectly(Chunk chunk) {
+        try {
+            directConsumer.accept(chunk.persons, chunk.events);
+        } catch (DataAccessException e) {
+            consumerFailure = e;
+            throw new CancellationException("The consumer of the generated family failed.");
+        }
+    }
+
+    private void offerUntilCancelled(Chunk chunk) {
+        try {
+            while (!cancelled && !chunks.offer(chunk, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                // Waits until the consumer catches up, or stops
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Passes every chunk of a bounded queue to the input consumer as it is handed over, until the end of the
+     * generation. A direct queue has already passed every chunk to its consumer by the end of the generation.
+     * @param consumer The consumer of the chunks
+     * @throws DataAccessException The generation failed, or the consumer failed
+     */
+    void drainTo(FamilyDataConsumer consumer) throws DataAccessException {
+        if (null != directConsumer) {
+            checkFailures();
+            return;
+        }
+
+        try {
+            for (Chunk chunk = chunks.take(); END != chunk; chunk = chunks.take()) {
+                consumer.accept(chunk.persons, chunk.events);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException(ERROR_GENERATING);
+        } finally {
+            cancelled = true;
+            chunks.clear();
+        }
+
+        checkFailures();
+    }
+
+    private void checkFailures() throws DataAccessException {
+        if (null != consumerFailure) {
+            throw consumerFailure;
+        }
+
+        if (null != failure || !finished.get()) {
+            throw new DataAccessException(ERROR_GENERATING);
+        }
+    }
+
+    /**
+     * A chunk of generated persons and events
+     */
+    static final class Chunk {
+        private final List<ServerPerson> persons;
+        private final List<ServerEvent> events;
+        private final int chunkRows;
+
+        private Chunk(int chunkRows) {
+            this.persons = new ArrayList<>();
+            this.events = new ArrayList<>();
+            this.chunkRows = chunkRows;
+        }
+
+        void addPerson(ServerPerson person) {
+            persons.add(person);
+        }
+
+        List<ServerEvent> getEvents() {
+            return events;
+        }
+
+        boolean isFull() {
+            return chunkRows <= persons.size() + events.size();
+        }
+
+        boolean isEmpty() {
+            return persons.isEmpty() && events.isEmpty();
+        }
+    }
+}
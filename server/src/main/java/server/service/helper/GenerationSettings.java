@@ -0,0 +1,98 @@
+package server.service.helper;
+
+import java.util.concurrent.ForkJoinPool;
+
+import server.ServerOptions;
+
+/**
+ * The settings of the generation of family data for /fill and /register requests, configured by the startup options
+ * of the server:
+ * <ul>
+ *     <li><code>generatorThreads</code> - worker threads of the fork/join pool that generates the deep family trees
+ *     (default: the number of available processors)</li>
+ *     <li><code>generatorQueue</code> - chunks of generated rows that may wait to be written into the database, which
+ *     bounds the memory of a fill (default: 16)</li>
+ *     <li><code>fillStorage</code> - rows or virtual (default: rows; see {@link FillStorage})</li>
+ *     <li><code>virtualMaxGenerations</code> - the most generations of a virtual fill, whose tree is generated
+ *     again whenever it is read and not cached (default: 10)</li>
+ * </ul>
+ * @author griffinbholt
+ */
+public final class GenerationSettings {
+    private static final String THREADS_OPTION = "generatorThreads";
+    private static final String QUEUE_OPTION = "generatorQueue";
+    private static final String STORAGE_OPTION = "fillStorage";
+    private static final String MAX_VIRTUAL_GENERATIONS_OPTION = "virtualMaxGenerations";
+
+    private static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int DEFAULT_QUEUE_CHUNKS = 16;
+    private static final int DEFAULT_MAX_VIRTUAL_GENERATIONS = 10;
+
+    @SuppressWarnings("StaticVariableOfConcreteClass")
+    private static volatile GenerationSettings generationSettings = new GenerationSettings(DEFAULT_THREADS,
+            DEFAULT_QUEUE_CHUNKS, FillStorage.ROWS, DEFAULT_MAX_VIRTUAL_GENERATIONS);
+
+    private final ForkJoinPool generatorPool;
+    private final int queueChunks;
+    private final FillStorage fillStorage;
+    private final int maxVirtualGenerations;
+
+    private GenerationSettings(int threads, int queueChunks, FillStorage fillStorage, int maxVirtualGenerations) {
+        if (0 >= threads) {
+            throw new IllegalArgumentException("Option " + THREADS_OPTION + " must be positive: " + threads);
+        }
+
+        if (0 >= queueChunks) {
+            throw new IllegalArgumentException("Option " + QUEUE_OPTION + " must be positive: " + queueChunks);
+        }
+
+        if (0 > maxVirtualGenerations) {
+            throw new IllegalArgumentException("Option " + MAX_VIRTUAL_GENERATIONS_OPTION +
+                    " must be non-negative: " + maxVirtualGenerations);
+        }
+
+        this.generatorPool = new ForkJoinPool(threads);
+        this.queueChunks = queueChunks;
+        this.fillStorage = fillStorage;
+        this.maxVirtualGenerations = maxVirtualGenerations;
+    }
+
+    /**
+     * Replaces the generation settings of the server with ones configured by the input startup options
+     * @param options The startup options of the server
+     * @throws IllegalArgumentException One of the options has an invalid value
+     */
+    public static void configure(ServerOptions options) {
+        GenerationSettings previousSettings = generationSettings;
+        generationSettings = new GenerationSettings(options.getInt(THREADS_OPTION, DEFAULT_THREADS),
+                options.getInt(QUEUE_OPTION, DEFAULT_QUEUE_CHUNKS),
+                FillStorage.generate(options.getString(STORAGE_OPTION, FillStorage.ROWS.toString())),
+                options.getInt(MAX_VIRTUAL_GENERATIONS_OPTION, DEFAULT_MAX_VIRTUAL_GENERATIONS));
+        previousSettings.generatorPool.shutdown();
+    }
+
+    /**
+     * Returns the generation settings of the server
+     * @return The generation settings of the server
+     */
+    public static GenerationSettings getInstance() {
+        return generationSettings;
+    }
+
+    // Getters
+    public ForkJoinPool getGeneratorPool() {
+        return generatorPool;
+    }
+
+    public int getQueueChunks() {
+        return queueChunks;
+    }
+
+    public FillStorage getFillStorage() {
+        return fillStorage;
+    }
+
+    public int getMaxVirtualGenerations() {
+        return maxVirtualGenerations;
+    }
+}
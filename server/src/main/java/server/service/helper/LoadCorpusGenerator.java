@@ -0,0 +1,169 @@
+package server.service.helper;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import server.exception.DataAccessException;
+import shared.json.JsonInterpreter;
+import shared.model.Gender;
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+import shared.model.User;
+
+/**
+ * A standalone generator of load request corpora, for benchmarks of /load and of the reads of the persons and events
+ * it loads, which must run against the same data every time.
+ * <p>
+ * It writes a {@link shared.request.LoadRequest LoadRequest} with a number of users, each with the seeded family data
+ * of a number of generations (see {@link FamilyDataGenerator#generateFamily(User, int, long, FamilyDataConsumer)}).
+ * The same arguments always produce the same file, byte for byte. The Json is streamed straight to disk: the users are
+ * regenerated from the seed for each of the sections of the request, and their families, for both the persons and the
+ * events sections, so that only one chunk of generated data is ever held in memory, however large the corpus.
+ * <p>
+ * USAGE (from the root directory of the project, which holds the sample data):
+ * java server.service.helper.LoadCorpusGenerator outputFile numUsers numGenerations [seed]
+ * <p>
+ * The user i is named "user{i}", with the password "password{i}".
+ * @author griffinbholt
+ */
+public final class LoadCorpusGenerator {
+    private static final String USAGE = "USAGE: java server.service.helper.LoadCorpusGenerator " +
+            "outputFile numUsers numGenerations [seed]";
+    private static final long DEFAULT_SEED = 1;
+    private static final long USER_SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    private final int numUsers;
+    private final int numGenerations;
+    private final long seed;
+    private final FamilyDataGenerator familyDataGenerator = new FamilyDataGenerator(null, 0);
+
+    private long numPersons;
+    private long numEvents;
+
+    private LoadCorpusGenerator(int numUsers, int numGenerations, long seed) {
+        this.numUsers = numUsers;
+        this.numGenerations = numGenerations;
+        this.seed = seed;
+    }
+
+    /**
+     * Generates a load request corpus
+     * @param args The path of the output file, the number of users, the number of generations of each user, and
+     *             the seed (optional)
+     */
+    public static void main(String[] args) {
+        if (3 > args.length) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        Path outputFile = Paths.get(args[0]);
+        int numUsers = Integer.parseInt(args[1]);
+        int numGenerations = Integer.parseInt(args[2]);
+        long seed = (3 < args.length) ? Long.parseLong(args[3]) : DEFAULT_SEED;
+
+        LoadCorpusGenerator corpusGenerator = new LoadCorpusGenerator(numUsers, numGenerations, seed);
+        long startTime = System.nanoTime();
+
+        try (Writer writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+            corpusGenerator.write(writer);
+        } catch (IOException e) {
+            System.err.println("Unable to write the corpus: " + e.getMessage());
+            System.exit(1);
+        }
+
+        System.out.printf("Wrote %d users, %d persons and %d events to %s in %d ms%n", numUsers,
+                corpusGenerator.numPersons, corpusGenerator.numEvents, outputFile,
+                (System.nanoTime() - startTime) / 1000000);
+    }
+
+    private void write(Writer writer) throws IOException {
+        JsonWriter jsonWriter = JsonInterpreter.newJsonWriter(writer);
+        jsonWriter.setIndent("");
+        jsonWriter.beginObject();
+
+        jsonWriter.name("users").beginArray();
+
+        for (int i = 0; i < numUsers; i++) {
+            writeUser(generateUser(i), jsonWriter);
+        }
+
+        jsonWriter.endArray();
+
+        jsonWriter.name("persons").beginArray();
+
+        for (int i = 0; i < numUsers; i++) {
+            generateFamily(generateUser(i), (persons, events) -> writeObjects(persons, ServerPerson.class,
+                    jsonWriter));
+        }
+
+        jsonWriter.endArray();
+
+        jsonWriter.name("events").beginArray();
+
+        for (int i = 0; i < numUsers; i++) {
+            generateFamily(generateUser(i), (persons, events) -> writeObjects(events, ServerEvent.class, jsonWriter));
+        }
+
+        jsonWriter.endArray();
+
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    private User generateUser(int i) {
+        SplittableRandom randomNumGenerator = new SplittableRandom(seed ^ (i * USER_SEED_INCREMENT));
+
+        String username = "user" + i;
+        Gender gender = randomNumGenerator.nextBoolean() ? Gender.FEMALE : Gender.MALE;
+        ServerPerson person = FamilyDataGenerator.generateUserPerson(username, gender, randomNumGenerator);
+
+        return new User(username, "password" + i, username + "@example.com", person.getFirstName(),
+                person.getLastName(), person.getGenderAbbrev(), person.getPersonID(), person);
+    }
+
+    private void writeUser(User user, JsonWriter jsonWriter) throws IOException {
+        jsonWriter.beginObject();
+        jsonWriter.name("userName").value(user.getUserName());
+        jsonWriter.name("password").value(user.getPassword());
+        jsonWriter.name("email").value(user.getEmail());
+        jsonWriter.name("firstName").value(user.getFirstName());
+        jsonWriter.name("lastName").value(user.getLastName());
+        jsonWriter.name("gender").value(user.getGenderAbbr());
+        jsonWriter.name("personID").value(user.getPersonID());
+        jsonWriter.endObject();
+    }
+
+    private void generateFamily(User user, FamilyDataConsumer consumer) throws IOException {
+        try {
+            familyDataGenerator.generateFamily(user, numGenerations, seed, consumer);
+        } catch (DataAccessException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private void writeObjects(List<?> objects, Class<?> objectClass, JsonWriter jsonWriter)
+            throws DataAccessException {
+        try {
+            for (Object object : objects) {
+                JsonInterpreter.writeJson(object, objectClass, jsonWriter);
+            }
+        } catch (IOException e) {
+            throw new DataAccessException("Unable to write the corpus: " + e.getMessage());
+        }
+
+        if (ServerPerson.class == objectClass) {
+            numPersons += objects.size();
+        } else {
+            numEvents += objects.size();
+        }
+    }
+}
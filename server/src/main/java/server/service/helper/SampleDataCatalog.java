@@ -0,0 +1,250 @@
+package server.service.helper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import server.ServerOptions;
+import server.cache.DataVersions;
+import server.cache.ResponseCache;
+import server.dao.VirtualTreeDao;
+import server.service.helper.jsonobjects.Location;
+import server.service.helper.jsonobjects.LocationCatalog;
+import server.service.helper.jsonobjects.NameCatalog;
+import shared.json.JsonInterpreter;
+
+/**
+ * The sample names and locations from which family data is generated, read from the <code>sample_data</code>
+ * directory once per process and shared (read-only) by every generator. A catalog is immutable: its names and places
+ * are interned, and the coordinates of its locations are held in primitive arrays, instead of one object per location.
+ * <p>
+ * The catalog of the process is configured by the startup options of the server:
+ * <ul>
+ *     <li><code>sampleRecheck</code> - milliseconds between checks of the sample data files for changes on disk
+ *     (default: 2000)</li>
+ * </ul>
+ * A changed file is read again the first time a catalog is requested after the recheck interval, and replaces the
+ * catalog for every family generated from then on; families being generated keep the catalog they started with. If
+ * the changed files cannot be read, the previous catalog is kept. Because the virtual family trees (see
+ * {@link FillStorage#VIRTUAL}) are generated from the catalog, a reload changes their names and places, so their
+ * cached rows, and every cached response and entity tag, are invalidated along with it.
+ * @author griffinbholt
+ */
+public final class SampleDataCatalog {
+    private static final String RECHECK_OPTION = "sampleRecheck";
+    private static final int DEFAULT_RECHECK_MILLIS = 2000;
+
+    private static final String SAMPLE_DATA_DIR = "sample_data";
+    private static final String SURNAMES_FILE = "snames.json";
+    private static final String FEMALE_NAMES_FILE = "fnames.json";
+    private static final String MALE_NAMES_FILE = "mnames.json";
+    private static final String LOCATIONS_FILE = "locations.json";
+    private static final String[] FILE_NAMES = {SURNAMES_FILE, FEMALE_NAMES_FILE, MALE_NAMES_FILE, LOCATIONS_FILE};
+
+    private static final Logger logger = Logger.getLogger("SampleDataCatalog");
+
+    private static volatile long recheckMillis = DEFAULT_RECHECK_MILLIS;
+
+    @SuppressWarnings("StaticVariableOfConcreteClass")
+    private static volatile SampleDataCatalog sampleDataCatalog;
+    private static volatile long checkedAtMillis;
+
+    private final String[] surnames;
+    private final String[] femaleNames;
+    private final String[] maleNames;
+
+    private final String[] countries;
+    private final String[] cities;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    private final long[] fileStamps;
+
+    private SampleDataCatalog(String[] surnames, String[] femaleNames, String[] maleNames, List<Location> locations,
+                              long[] fileStamps) {
+        this.surnames = surnames;
+        this.femaleNames = femaleNames;
+        this.maleNames = maleNames;
+
+        int numLocations = locations.size();
+        this.countries = new String[numLocations];
+        this.cities = new String[numLocations];
+        this.latitudes = new double[numLocations];
+        this.longitudes = new double[numLocations];
+
+        for (int i = 0; i < numLocations; i++) {
+            Location location = locations.get(i);
+            countries[i] = location.getCountry().intern();
+            cities[i] = location.getCity().intern();
+            latitudes[i] = location.getLatitude();
+            longitudes[i] = location.getLongitude();
+        }
+
+        this.fileStamps = fileStamps;
+    }
+
+    /**
+     * Configures the catalog of the process with the input startup options
+     * @param options The startup options of the server
+     * @throws IllegalArgumentException One of the options has an invalid value
+     */
+    public static void configure(ServerOptions options) {
+        int recheck = options.getInt(RECHECK_OPTION, DEFAULT_RECHECK_MILLIS);
+
+        if (0 > recheck) {
+            throw new IllegalArgumentException("Option " + RECHECK_OPTION + " must not be negative: " + recheck);
+        }
+
+        recheckMillis = recheck;
+    }
+
+    /**
+     * Returns the current catalog of the process, which is read in on the first call, and read in again if the sample
+     * data files changed since the last check
+     * @return The current catalog
+     * @throws IllegalStateException The sample data files cannot be read, and no catalog was read before
+     */
+    public static SampleDataCatalog getInstance() {
+        SampleDataCatalog catalog = sampleDataCatalog;
+        long now = System.currentTimeMillis();
+
+        if (null != catalog && now - checkedAtMillis < recheckMillis) {
+            return catalog;
+        }
+
+        return refresh(catalog, now);
+    }
+
+    private static synchronized SampleDataCatalog refresh(SampleDataCatalog cachedCatalog, long now) {
+        SampleDataCatalog catalog = sampleDataCatalog;
+
+        if (catalog != cachedCatalog) {
+            return catalog;
+        }
+
+        checkedAtMillis = now;
+
+        try {
+            long[] fileStamps = readFileStamps();
+
+            if (null != catalog && Arrays.equals(fileStamps, catalog.fileStamps)) {
+                return catalog;
+            }
+
+            sampleDataCatalog = read(fileStamps);
+        } catch (IOException | RuntimeException e) {
+            if (null == catalog) {
+                throw new IllegalStateException("Unable to read the sample data: " + e.getMessage(), e);
+            }
+
+            logger.warning("Unable to reload the sample data, keeping the previous catalog: " + e.getMessage() + "\n");
+            return catalog;
+        }
+
+        if (null != catalog) {
+            VirtualTreeDao.invalidateGeneratedRows();
+            ResponseCache.getInstance().invalidateAll();
+            DataVersions.getInstance().bumpAll();
+        }
+
+        logger.info(((null == catalog) ? "Loaded" : "Reloaded") + " the sample data catalog: " +
+                sampleDataCatalog + "\n");
+        return sampleDataCatalog;
+    }
+
+    /*
+     * The size and modification time of every file, so that a file replaced within the same clock tick is still
+     * noticed, as long as its size changed
+     */
+    private static long[] readFileStamps() throws IOException {
+        long[] fileStamps = new long[2 * FILE_NAMES.length];
+
+        for (int i = 0; i < FILE_NAMES.length; i++) {
+            BasicFileAttributes attributes = Files.readAttributes(Paths.get(SAMPLE_DATA_DIR, FILE_NAMES[i]),
+                    BasicFileAttributes.class);
+            fileStamps[2 * i] = attributes.size();
+            fileStamps[2 * i + 1] = attributes.lastModifiedTime().toMillis();
+        }
+
+        return fileStamps;
+    }
+
+    private static SampleDataCatalog read(long[] fileStamps) throws IOException {
+        LocationCatalog locationCatalog = (LocationCatalog) parseJson(LOCATIONS_FILE, LocationCatalog.class);
+
+        return new SampleDataCatalog(readNames(SURNAMES_FILE), readNames(FEMALE_NAMES_FILE),
+                readNames(MALE_NAMES_FILE), locationCatalog.getLocations(), fileStamps);
+    }
+
+    private static String[] readNames(String fileName) throws IOException {
+        NameCatalog nameCatalog = (NameCatalog) parseJson(fileName, NameCatalog.class);
+        return nameCatalog.getNames().stream().map(String::intern).toArray(String[]::new);
+    }
+
+    private static Object parseJson(String fileName, Class<?> jsonObjClass) throws IOException {
+        Path filePath = Paths.get(SAMPLE_DATA_DIR, fileName);
+        Object jsonObj = JsonInterpreter.parseJson(filePath, jsonObjClass);
+
+        if (null == jsonObj) {
+            throw new IOException("Unable to parse " + filePath);
+        }
+
+        return jsonObj;
+    }
+
+    @Override
+    public String toString() {
+        return surnames.length + " surnames, " + femaleNames.length + " female names, " + maleNames.length +
+                " male names, " + countries.length + " locations";
+    }
+
+    // Getters
+    public int getNumSurnames() {
+        return surnames.length;
+    }
+
+    public String getSurname(int index) {
+        return surnames[index];
+    }
+
+    public int getNumFemaleNames() {
+        return femaleNames.length;
+    }
+
+    public String getFemaleName(int index) {
+        return femaleNames[index];
+    }
+
+    public int getNumMaleNames() {
+        return maleNames.length;
+    }
+
+    public String getMaleName(int index) {
+        return maleNames[index];
+    }
+
+    public int getNumLocations() {
+        return countries.length;
+    }
+
+    public String getCountry(int index) {
+        return countries[index];
+    }
+
+    public String getCity(int index) {
+        return cities[index];
+    }
+
+    public double getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    public double getLongitude(int index) {
+        return longitudes[index];
+    }
+}
@@ -0,0 +1,111 @@
+package server.service.helper;
+
+import java.io.IOException;
+import java.util.List;
+
+import server.dao.VirtualFamilySource;
+import server.dao.VirtualTree;
+import server.exception.DataAccessException;
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+import shared.model.User;
+
+/**
+ * The {@link VirtualFamilySource} of the server, which generates the rows of a {@link VirtualTree} again from its seed,
+ * exactly as {@link FamilyDataGenerator#generateFamily(User, int, long, FamilyDataConsumer)} generated them when the
+ * tree was filled. Deep trees are generated in the generator pool of the server (see {@link GenerationSettings}),
+ * while the reading thread passes the rows on.
+ * @author griffinbholt
+ */
+public final class VirtualFamilyGenerator implements VirtualFamilySource {
+    @Override
+    public void generatePersons(VirtualTree tree, RowVisitor<? super ServerPerson> visitor)
+            throws DataAccessException, IOException {
+        String userPersonID = tree.getUserPerson().getPersonID();
+
+        generate(tree, (persons, events) -> {
+            for (ServerPerson person : persons) {
+                if (!userPersonID.equals(person.getPersonID()) && !visitor.visit(person)) {
+                    return false;
+                }
+            }
+
+            return true;
+        });
+    }
+
+    @Override
+    public void generateEvents(VirtualTree tree, RowVisitor<? super ServerEvent> visitor)
+            throws DataAccessException, IOException {
+        generate(tree, (persons, events) -> {
+            for (ServerEvent event : events) {
+                if (!visitor.visit(event)) {
+                    return false;
+                }
+            }
+
+            return true;
+        });
+    }
+
+    /*
+     * The user is rebuilt from its stored person, which is linked to the generated parents again, to the same IDs
+     */
+    private static void generate(VirtualTree tree, ChunkVisitor chunkVisitor) throws DataAccessException,
+            IOException {
+        ServerPerson userPerson = tree.getUserPerson();
+        User user = new User(userPerson.getAssociatedUsername(), null, null, userPerson.getFirstName(),
+                userPerson.getLastName(), userPerson.getGenderAbbrev(), userPerson.getPersonID(), userPerson);
+        VisitingConsumer consumer = new VisitingConsumer(chunkVisitor);
+
+        try {
+            new FamilyDataGenerator().generateFamily(user, tree.getNumGenerations(), tree.getSeed(), consumer);
+        } catch (DataAccessException e) {
+            consumer.rethrowFailure(e);
+        }
+    }
+
+    /**
+     * Receives the generated chunks of a virtual tree
+     */
+    @FunctionalInterface
+    private interface ChunkVisitor {
+        boolean visit(List<ServerPerson> persons, List<ServerEvent> events) throws IOException;
+    }
+
+    /*
+     * A FamilyDataConsumer can only fail with a DataAccessException, so a stop or a failure of the visitor is signalled
+     * with an exception of its own, which is told apart from a failure of the generation once the generation ends.
+     */
+    private static final class VisitingConsumer implements FamilyDataConsumer {
+        private final ChunkVisitor chunkVisitor;
+        private final DataAccessException stopped = new DataAccessException("The visitor of the family stopped.");
+        private IOException visitorFailure;
+
+        private VisitingConsumer(ChunkVisitor chunkVisitor) {
+            this.chunkVisitor = chunkVisitor;
+        }
+
+        @Override
+        public void accept(List<ServerPerson> persons, List<ServerEvent> events) throws DataAccessException {
+            try {
+                if (!chunkVisitor.visit(persons, events)) {
+                    throw stopped;
+                }
+            } catch (IOException e) {
+                visitorFailure = e;
+                throw stopped;
+            }
+        }
+
+        private void rethrowFailure(DataAccessException e) throws DataAccessException, IOException {
+            if (null != visitorFailure) {
+                throw visitorFailure;
+            }
+
+            if (stopped != e) {
+                throw e;
+            }
+        }
+    }
+}
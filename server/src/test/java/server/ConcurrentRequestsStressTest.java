@@ -0,0 +1,231 @@
+package server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import server.dao.ConnectionPool;
+import shared.http.FamilyMapUrl;
+import shared.json.JsonInterpreter;
+import shared.request.LoginRequest;
+import shared.result.LoginResult;
+import shared.result.RegisterResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Parallel readers of /person and /event, running against concurrent /fill and /clear requests on the pooled
+ * executor. Every request must get a response, and the only failures allowed are the ones the data race legitimately
+ * causes: a token or user deleted by a /clear. Any other failure, such as a busy database or a timed-out connection,
+ * fails the test.
+ */
+class ConcurrentRequestsStressTest {
+    private static final int NUM_READERS = 8;
+    private static final int NUM_FILLERS = 2;
+    private static final int FILL_GENERATIONS = 5;
+    private static final long CLEAR_INTERVAL_MILLIS = 250;
+    private static final long DURATION_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final String INVALID_TOKEN = "Invalid authorization token.";
+    private static final String NO_SUCH_USER = "That username does not exist in our records.";
+    private static final String[] DATABASE_FAILURES = {"SQLITE_BUSY", "database is locked", "Timed out waiting"};
+
+    private final AtomicInteger numSent = new AtomicInteger();
+    private final AtomicInteger numReceived = new AtomicInteger();
+    private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+    private final Handler databaseFailureHandler = new DatabaseFailureHandler();
+
+    private TestServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = TestServer.start("executor=pool", "threads=16");
+        Logger.getLogger("").addHandler(databaseFailureHandler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Logger.getLogger("").removeHandler(databaseFailureHandler);
+        server.close();
+    }
+
+    @Test
+    void parallelReadersAgainstFillAndClear() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(NUM_READERS + NUM_FILLERS + 1);
+        List<Future<?>> running = new ArrayList<>();
+        long deadline = System.nanoTime() + DURATION_NANOS;
+
+        try {
+            for (int i = 0; i < NUM_READERS; i++) {
+                String reader = "reader" + i;
+                running.add(clients.submit(() -> read(reader, deadline)));
+            }
+
+            for (int i = 0; i < NUM_FILLERS; i++) {
+                String filler = "filler" + i;
+                running.add(clients.submit(() -> fill(filler, deadline)));
+            }
+
+            running.add(clients.submit(() -> clear(deadline)));
+
+            for (Future<?> client : running) {
+                awaitClient(client);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        assertTrue(failures.isEmpty(), "Failed requests: " + failures);
+        assertEquals(numSent.get(), numReceived.get(), "Lost responses");
+        assertEquals(0, ConnectionPool.getWriterPool().getStatistics().getNumTimeouts());
+        assertEquals(0, ConnectionPool.getReaderPool().getStatistics().getNumTimeouts());
+    }
+
+    private void awaitClient(Future<?> client) throws InterruptedException {
+        try {
+            client.get();
+        } catch (ExecutionException e) {
+            failures.add("Client failed: " + e.getCause());
+        }
+    }
+
+    private Void read(String username, long deadline) throws IOException {
+        String authToken = null;
+
+        for (int i = 0; deadline - System.nanoTime() > 0; i++) {
+            if (null == authToken) {
+                authToken = logIn(username);
+                continue;
+            }
+
+            String path = (0 == i % 2) ? FamilyMapUrl.PERSON : FamilyMapUrl.EVENT;
+            String token = authToken;
+            TestServer.Response response = send(() -> server.get(path, token));
+
+            if (!isSuccess(response)) {
+                checkFailure(response, INVALID_TOKEN);
+                authToken = null;
+            }
+        }
+
+        return null;
+    }
+
+    /*
+     * A /clear may delete the user at any time, so it is registered again whenever it cannot log in
+     */
+    private String logIn(String username) throws IOException {
+        String login = JsonInterpreter.generateJsonString(new LoginRequest(username, username));
+        TestServer.Response response = send(() -> server.post(FamilyMapUrl.LOGIN, login));
+
+        if (isSuccess(response)) {
+            return response.parse(LoginResult.class).getAuthTokenString();
+        }
+
+        checkFailure(response, NO_SUCH_USER);
+        TestServer.Response registered = register(username);
+        return isSuccess(registered) ? registered.parse(RegisterResult.class).getAuthTokenString() : null;
+    }
+
+    private TestServer.Response register(String username) throws IOException {
+        TestServer.Response response = send(() -> server.register(username));
+
+        if (!isSuccess(response)) {
+            failures.add(FamilyMapUrl.REGISTER + ": " + response);
+        }
+
+        return response;
+    }
+
+    private Void fill(String username, long deadline) throws IOException {
+        while (deadline - System.nanoTime() > 0) {
+            TestServer.Response response = send(() -> server.post(FamilyMapUrl.FILL + "/" + username + "/" +
+                    FILL_GENERATIONS, ""));
+
+            if (!isSuccess(response)) {
+                checkFailure(response, NO_SUCH_USER);
+                register(username);
+            }
+        }
+
+        return null;
+    }
+
+    private Void clear(long deadline) throws IOException, InterruptedException {
+        while (deadline - System.nanoTime() > 0) {
+            TimeUnit.MILLISECONDS.sleep(CLEAR_INTERVAL_MILLIS);
+            TestServer.Response response = send(() -> server.post(FamilyMapUrl.CLEAR, ""));
+
+            if (!isSuccess(response)) {
+                failures.add(FamilyMapUrl.CLEAR + ": " + response);
+            }
+        }
+
+        return null;
+    }
+
+    /*
+     * A request that gets no response (a refused or reset connection, or a timeout) throws, and stops its client
+     */
+    private TestServer.Response send(Request request) throws IOException {
+        numSent.incrementAndGet();
+        TestServer.Response response = request.send();
+        numReceived.incrementAndGet();
+        return response;
+    }
+
+    private static boolean isSuccess(TestServer.Response response) {
+        return HttpURLConnection.HTTP_OK == response.getStatusCode();
+    }
+
+    private void checkFailure(TestServer.Response response, String expectedReason) {
+        boolean expected = HttpURLConnection.HTTP_BAD_REQUEST == response.getStatusCode() &&
+                response.getBody().contains(expectedReason);
+
+        if (!expected) {
+            failures.add(response.toString());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        TestServer.Response send() throws IOException;
+    }
+
+    private final class DatabaseFailureHandler extends Handler {
+        @Override
+        public void publish(LogRecord record) {
+            String message = String.valueOf(record.getMessage());
+
+            for (String databaseFailure : DATABASE_FAILURES) {
+                if (message.contains(databaseFailure)) {
+                    failures.add("Logged: " + message.trim());
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
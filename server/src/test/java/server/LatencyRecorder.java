@@ -0,0 +1,69 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latencies of the requests of a load test or benchmark, from any number of threads, and summarizes them
+ * as a throughput and percentiles
+ * @author griffinbholt
+ */
+public final class LatencyRecorder {
+    private final String name;
+    private final List<Long> latencyNanos = new ArrayList<>();
+
+    /**
+     * Constructor
+     * @param name The name of the recorded requests, for the summary
+     */
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records the latency of a request
+     * @param startNanos The value of {@link System#nanoTime()} when the request was sent
+     */
+    public synchronized void record(long startNanos) {
+        latencyNanos.add(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return The number of recorded requests
+     */
+    public synchronized int getCount() {
+        return latencyNanos.size();
+    }
+
+    /**
+     * Returns a percentile of the recorded latencies
+     * @param percentile The percentile, from 0 to 100
+     * @return The latency at the percentile, in microseconds; 0, if nothing was recorded
+     */
+    public synchronized long getPercentileMicros(double percentile) {
+        if (latencyNanos.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> sorted = new ArrayList<>(latencyNanos);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * sorted.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(sorted.get(Math.max(0, index)));
+    }
+
+    /**
+     * Summarizes the recorded latencies
+     * @param elapsedNanos The time over which the requests were sent
+     * @return The number of requests, the requests per second, and the median, 99th percentile, and maximum latency
+     */
+    public String summarize(long elapsedNanos) {
+        int count = getCount();
+        double requestsPerSecond = count * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos);
+
+        return String.format("%-24s %7d requests %9.1f req/s   p50 %8.2f ms   p99 %8.2f ms   max %8.2f ms", name,
+                count, requestsPerSecond, getPercentileMicros(50) / 1000.0, getPercentileMicros(99) / 1000.0,
+                getPercentileMicros(100) / 1000.0);
+    }
+}
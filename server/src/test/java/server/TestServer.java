@@ -0,0 +1,186 @@
+package server;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import server.exception.DataAccessException;
+import shared.http.FamilyMapUrl;
+import shared.json.JsonInterpreter;
+import shared.request.RegisterRequest;
+
+/**
+ * A server started by the tests on a free port, with an empty database, to which requests are sent over HTTP, as a
+ * client would send them. The database lives in the <code>db</code> directory of the working directory of the tests.
+ * @author griffinbholt
+ */
+public final class TestServer implements AutoCloseable {
+    private static final int TIMEOUT_MILLIS = 60000;
+    private static final int READ_BUFFER_LENGTH = 8192;
+
+    private final HttpServer httpServer;
+    private final String baseUrl;
+
+    private TestServer(HttpServer httpServer) {
+        this.httpServer = httpServer;
+        this.baseUrl = "http://localhost:" + httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Starts a server with the input startup options, and clears its database
+     * @param options The startup options of the server (name=value), without the port number
+     * @return The started server, which must be closed
+     * @throws IOException An error that occurs when attempting to start the server
+     * @throws DataAccessException An error that occurs when attempting to set up the database
+     */
+    public static TestServer start(String... options) throws IOException, DataAccessException {
+        String[] args = new String[options.length + 1];
+        args[0] = "0";
+        System.arraycopy(options, 0, args, 1, options.length);
+
+        TestServer server = new TestServer(Server.start(ServerOptions.parse(args)));
+        Response cleared = server.post(FamilyMapUrl.CLEAR, "");
+
+        if (HttpURLConnection.HTTP_OK != cleared.getStatusCode()) {
+            server.close();
+            throw new IOException("Unable to clear the database: " + cleared.getBody());
+        }
+
+        return server;
+    }
+
+    /**
+     * Registers a new user, whose password is its username, with 4 generations of generated family data
+     * @param username The username of the user
+     * @return The response, whose body is a {@link shared.result.RegisterResult RegisterResult}
+     * @throws IOException An error that occurs when attempting to send the request or read its response
+     */
+    public Response register(String username) throws IOException {
+        RegisterRequest request = new RegisterRequest(username, username, username + "@example.com", "First",
+                "Last", "f");
+        return post(FamilyMapUrl.REGISTER, JsonInterpreter.generateJsonString(request));
+    }
+
+    /**
+     * Sends a GET request
+     * @param path The path (and query) of the request
+     * @param authToken The authorization token of the request; null, for none
+     * @return The response
+     * @throws IOException An error that occurs when attempting to send the request or read its response
+     */
+    public Response get(String path, String authToken) throws IOException {
+        HttpURLConnection connection = open(path, "GET");
+
+        if (null != authToken) {
+            connection.setRequestProperty("Authorization", authToken);
+        }
+
+        return readResponse(connection);
+    }
+
+    /**
+     * Sends a POST request
+     * @param path The path (and query) of the request
+     * @param body The body of the request
+     * @return The response
+     * @throws IOException An error that occurs when attempting to send the request or read its response
+     */
+    public Response post(String path, String body) throws IOException {
+        HttpURLConnection connection = open(path, "POST");
+        connection.setDoOutput(true);
+
+        try (OutputStream requestBody = connection.getOutputStream()) {
+            requestBody.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return readResponse(connection);
+    }
+
+    private HttpURLConnection open(String path, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        return connection;
+    }
+
+    private static Response readResponse(HttpURLConnection connection) throws IOException {
+        int statusCode = connection.getResponseCode();
+        InputStream responseBody = (HttpURLConnection.HTTP_BAD_REQUEST > statusCode) ? connection.getInputStream() :
+                connection.getErrorStream();
+
+        if (null == responseBody) {
+            return new Response(statusCode, "");
+        }
+
+        try (InputStream in = responseBody) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buf = new byte[READ_BUFFER_LENGTH];
+            int len;
+
+            while (0 < (len = in.read(buf))) {
+                body.write(buf, 0, len);
+            }
+
+            return new Response(statusCode, body.toString(StandardCharsets.UTF_8.name()));
+        }
+    }
+
+    /**
+     * Stops the server, along with the executor of its requests
+     */
+    @Override
+    public void close() {
+        Executor executor = httpServer.getExecutor();
+        httpServer.stop(0);
+
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdownNow();
+        }
+    }
+
+    /**
+     * The status code and body of a response of the server
+     */
+    public static final class Response {
+        private final int statusCode;
+        private final String body;
+
+        private Response(int statusCode, String body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        /**
+         * Parses the Json body of the response
+         * @param resultClass The class of the result in the body
+         * @param <T> The type of the result
+         * @return The parsed result
+         */
+        public <T> T parse(Class<T> resultClass) {
+            return resultClass.cast(JsonInterpreter.parseJson(body, resultClass));
+        }
+
+        @Override
+        public String toString() {
+            return statusCode + " " + body;
+        }
+
+        // Getters
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+}
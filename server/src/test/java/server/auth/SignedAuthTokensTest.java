@@ -0,0 +1,56 @@
+package server.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import server.ServerOptions;
+import server.exception.InvalidAuthTokenException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+ * The revocation of the signed tokens of a user, with tokens issued in the same millisecond as the revocation: every
+ * token issued before it must be revoked, and every token issued after it must stay valid.
+ */
+class SignedAuthTokensTest {
+    private static final String USER_ID = "user-1";
+    private static final String USERNAME = "filler";
+    private static final int NUM_ROUNDS = 10000;
+
+    private SignedAuthTokens signedAuthTokens;
+
+    @BeforeEach
+    void setUp() {
+        SignedAuthTokens.configure(ServerOptions.parse(new String[]{"0", "tokenMode=signed"}));
+        signedAuthTokens = SignedAuthTokens.getInstance();
+    }
+
+    @Test
+    void tokenIssuedRightBeforeRevocationIsRevoked() {
+        for (int i = 0; i < NUM_ROUNDS; i++) {
+            String token = signedAuthTokens.issue(USER_ID, USERNAME).toString();
+            signedAuthTokens.revokeUser(USERNAME);
+
+            assertThrows(InvalidAuthTokenException.class, () -> signedAuthTokens.verify(token), "Round " + i);
+        }
+    }
+
+    @Test
+    void tokenIssuedRightAfterRevocationIsValid() throws InvalidAuthTokenException {
+        for (int i = 0; i < NUM_ROUNDS; i++) {
+            signedAuthTokens.revokeUser(USERNAME);
+            String token = signedAuthTokens.issue(USER_ID, USERNAME).toString();
+
+            assertEquals(USERNAME, signedAuthTokens.verify(token).getUsername(), "Round " + i);
+        }
+    }
+
+    @Test
+    void rotatedKeyRevokesEveryToken() {
+        String token = signedAuthTokens.issue(USER_ID, USERNAME).toString();
+        signedAuthTokens.rotateKey();
+
+        assertThrows(InvalidAuthTokenException.class, () -> signedAuthTokens.verify(token));
+    }
+}
@@ -0,0 +1,21 @@
+package server.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/*
+ * The entity tags of two users at the same version must differ, even if their usernames have the same String hash
+ * code ("Aa" and "BB" do), so that a client holding the tag of one user can never revalidate the data of the other.
+ */
+class DataVersionsTest {
+    @Test
+    void usersWithCollidingHashCodesGetDifferentEtags() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        DataVersions dataVersions = DataVersions.getInstance();
+        assertNotEquals(dataVersions.toEtag("Aa", 7), dataVersions.toEtag("BB", 7));
+        assertEquals(dataVersions.toEtag("Aa", 7), dataVersions.toEtag("Aa", 7));
+    }
+}
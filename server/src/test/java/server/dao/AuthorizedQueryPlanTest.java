@@ -0,0 +1,132 @@
+package server.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import server.dao.migration.SchemaMigrator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Checks, through EXPLAIN QUERY PLAN on a freshly migrated database, that the authorized reads of /person and /event
+ * search the (user_id, id) and (user_id, change_seq) indexes of the migrations, and never scan or sort a table.
+ */
+class AuthorizedQueryPlanTest {
+    private static final String PLAN_DETAIL_COLUMN = "detail";
+    private static final int PAGE_LIMIT = 100;
+
+    private Connection conn;
+    private PersonDao personDao;
+    private EventDao eventDao;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator(conn).migrate();
+
+        UserDao userDao = new UserDao();
+        AuthTokenDao authTokenDao = new AuthTokenDao();
+        personDao = new PersonDao(conn, userDao, authTokenDao);
+        eventDao = new EventDao(conn, userDao, authTokenDao);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void authorizedPersonReadsUseUserIdIndexes() throws SQLException {
+        checkAuthorizedReads(personDao, "persons");
+    }
+
+    @Test
+    void authorizedEventReadsUseUserIdIndexes() throws SQLException {
+        checkAuthorizedReads(eventDao, "events");
+    }
+
+    @Test
+    void singleColumnUserIdIndexesAreDropped() throws SQLException {
+        List<String> indexes = new ArrayList<>();
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'index';")) {
+            while (rs.next()) {
+                indexes.add(rs.getString(1));
+            }
+        }
+
+        assertFalse(indexes.contains("persons_user_id_idx"), indexes.toString());
+        assertFalse(indexes.contains("events_user_id_idx"), indexes.toString());
+        assertTrue(indexes.contains("persons_user_id_id_idx"), indexes.toString());
+        assertTrue(indexes.contains("events_user_id_id_idx"), indexes.toString());
+    }
+
+    private void checkAuthorizedReads(RequiringAuthorizationDao dao, String tableName) throws SQLException {
+        String byID = tableName + "_user_id_id_idx";
+        String byChangeSeq = tableName + "_user_id_change_seq_idx";
+
+        checkJoinedPlan(dao.SELECT_ALL_MATCHING_AUTH_TOKEN, tableName, byID + " (user_id=?)");
+        checkJoinedPlan(dao.SELECT_MATCHING_ID_AND_AUTH_TOKEN, tableName, byID + " (user_id=? AND id=?)");
+        checkJoinedPlan(dao.SELECT_CHANGES_MATCHING_AUTH_TOKEN, tableName, byChangeSeq + " (user_id=?");
+        checkJoinedPlan(dao.pageMatchingAuthTokenStatement(PAGE_LIMIT), tableName, byID + " (user_id=? AND id>?)");
+
+        checkUserIDPlan(dao.SELECT_ALL_MATCHING_USER_ID, tableName, byID + " (user_id=?)");
+        checkUserIDPlan(dao.SELECT_CHANGES_MATCHING_USER_ID, tableName, byChangeSeq + " (user_id=?");
+        checkUserIDPlan(dao.pageMatchingUserIDStatement(PAGE_LIMIT), tableName, byID + " (user_id=? AND id>?)");
+    }
+
+    /*
+     * The token is found through its covering index, and its user through the primary key of users, before the rows
+     * of the user are searched
+     */
+    private void checkJoinedPlan(String sql, String tableName, String expectedIndexSearch) throws SQLException {
+        List<String> plan = explain(sql);
+
+        assertTrue(plan.contains("SEARCH TABLE auth_tokens USING COVERING INDEX auth_tokens_auth_token_idx " +
+                "(auth_token=?)"), sql + "\n" + plan);
+        assertTrue(plan.contains("SEARCH TABLE users USING INDEX sqlite_autoindex_users_1 (id=?)"),
+                sql + "\n" + plan);
+        checkUserIDPlan(plan, sql, tableName, expectedIndexSearch);
+    }
+
+    private void checkUserIDPlan(String sql, String tableName, String expectedIndexSearch) throws SQLException {
+        checkUserIDPlan(explain(sql), sql, tableName, expectedIndexSearch);
+    }
+
+    private static void checkUserIDPlan(List<String> plan, String sql, String tableName, String expectedIndexSearch) {
+        String expected = "SEARCH TABLE " + tableName + " USING INDEX " + expectedIndexSearch;
+        long numMatches = plan.stream().filter(step -> step.startsWith(expected)).count();
+
+        assertEquals(1, numMatches, sql + "\n" + plan);
+
+        for (String step : plan) {
+            assertFalse(step.startsWith("SCAN TABLE"), sql + "\n" + plan);
+            assertFalse(step.contains("TEMP B-TREE"), sql + "\n" + plan);
+        }
+    }
+
+    private List<String> explain(String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) {
+                plan.add(rs.getString(PLAN_DETAIL_COLUMN));
+            }
+        }
+
+        return plan;
+    }
+}
@@ -0,0 +1,153 @@
+package server.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import server.ServerOptions;
+import server.auth.SignedAuthTokens;
+import server.cache.AuthTokenCache;
+import server.dao.migration.SchemaMigrator;
+import server.exception.InvalidAuthTokenException;
+import shared.model.AuthToken;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * An authorized read whose snapshot of a WAL database was taken before a /clear deleted its token, but whose query
+ * finishes after the /clear invalidated the AuthTokenCache: the token is still verified by the read, but must not be
+ * cached, so that the next read of the token fails.
+ */
+class AuthorizedReadClearRaceTest {
+    private static final String USER_ID = "user-1";
+    private static final String USERNAME = "reader";
+    private static final String TOKEN = "token-1";
+
+    private Path databaseFile;
+    private Connection readerConn;
+    private Connection clearerConn;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ServerOptions options = ServerOptions.parse(new String[]{"0"});
+        AuthTokenCache.configure(options);
+        SignedAuthTokens.configure(options);
+
+        databaseFile = Files.createTempFile("family_map", ".sqlite");
+        clearerConn = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+
+        try (Statement stmt = clearerConn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode=WAL;");
+        }
+
+        new SchemaMigrator(clearerConn).migrate();
+
+        try (Statement stmt = clearerConn.createStatement()) {
+            stmt.execute("INSERT INTO users VALUES('" + USER_ID + "', '" + USERNAME + "', 'password', " +
+                    "'reader@example.com', 'First', 'Last', 'f', 'person-1');");
+            stmt.execute("INSERT INTO auth_tokens VALUES('" + USER_ID + "', '" + TOKEN + "');");
+        }
+
+        readerConn = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        readerConn.close();
+        clearerConn.close();
+        Files.deleteIfExists(databaseFile);
+        Files.deleteIfExists(databaseFile.resolveSibling(databaseFile.getFileName() + "-wal"));
+        Files.deleteIfExists(databaseFile.resolveSibling(databaseFile.getFileName() + "-shm"));
+    }
+
+    @Test
+    void readOverlappingClearDoesNotCacheDeletedToken() throws Exception {
+        EventDao eventDao = openReader();
+        startSnapshot();
+
+        clear();
+
+        assertEquals(USERNAME, readEvents(eventDao), "The snapshot of the read still holds the token");
+        assertNull(AuthTokenCache.getInstance().get(TOKEN), "The deleted token was cached");
+
+        readerConn.rollback();
+        assertThrows(InvalidAuthTokenException.class, () -> readEvents(openReader()));
+    }
+
+    @Test
+    void readAfterClearCachesInvalidToken() throws Exception {
+        clear();
+
+        assertThrows(InvalidAuthTokenException.class, () -> readEvents(openReader()));
+        assertThrows(InvalidAuthTokenException.class, () -> AuthTokenCache.getInstance().get(TOKEN));
+    }
+
+    @Test
+    void staleGenerationIsNotCached() throws Exception {
+        AuthTokenCache cache = AuthTokenCache.getInstance();
+        long generation = cache.getGeneration();
+        cache.invalidateAll();
+
+        assertFalse(cache.put(TOKEN, USER_ID, USERNAME, generation));
+        assertFalse(cache.putInvalid(TOKEN, generation));
+        assertNull(cache.get(TOKEN));
+
+        assertTrue(cache.put(TOKEN, USER_ID, USERNAME, cache.getGeneration()));
+        assertEquals(USERNAME, cache.get(TOKEN).getUsername());
+    }
+
+    /*
+     * A reader as a service opens it: the DAO gets its connection before the transaction reads anything
+     */
+    private EventDao openReader() throws SQLException {
+        readerConn.setAutoCommit(false);
+        UserDao userDao = new UserDao();
+        AuthTokenDao authTokenDao = new AuthTokenDao();
+        userDao.setPersonDao(new PersonDao(userDao, authTokenDao));
+        EventDao eventDao = new EventDao(userDao, authTokenDao);
+        eventDao.setConnection(readerConn);
+        return eventDao;
+    }
+
+    private void startSnapshot() throws SQLException {
+        try (Statement stmt = readerConn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM auth_tokens;")) {
+            assertTrue(rs.next());
+        }
+    }
+
+    /*
+     * What ClearService does: the tables are cleared and committed, and only then is the cache invalidated
+     */
+    private void clear() throws SQLException {
+        try (Statement stmt = clearerConn.createStatement()) {
+            stmt.execute("DELETE FROM auth_tokens;");
+            stmt.execute("DELETE FROM users;");
+        }
+
+        AuthTokenCache.getInstance().invalidateAll();
+    }
+
+    private static String readEvents(EventDao eventDao) throws Exception {
+        AuthToken authToken = new AuthToken(TOKEN);
+
+        try (PreparedStatement stmt = eventDao.prepareAuthorizedQuery(authToken, false)) {
+            return eventDao.executeAuthorizedQuery(stmt, authToken);
+        } finally {
+            eventDao.closeResultSet();
+        }
+    }
+}
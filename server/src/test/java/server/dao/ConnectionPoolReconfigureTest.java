@@ -0,0 +1,47 @@
+package server.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+
+import server.ServerOptions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Connections still borrowed from a pool when the pools are configured again are closed as they are given back,
+ * instead of being parked in the replaced pool with their SQLite handles open.
+ */
+class ConnectionPoolReconfigureTest {
+    @Test
+    void connectionReleasedToReplacedPoolIsClosed() throws Exception {
+        ConnectionPool.configure(ServerOptions.parse(new String[]{"0", "journal=wal"}));
+        ConnectionPool replacedWriterPool = ConnectionPool.getWriterPool();
+        ConnectionPool replacedReaderPool = ConnectionPool.getReaderPool();
+        Connection writerConn = replacedWriterPool.acquire();
+        Connection readerConn = replacedReaderPool.acquire();
+
+        ConnectionPool.configure(ServerOptions.parse(new String[]{"0", "journal=wal"}));
+
+        replacedWriterPool.release(writerConn);
+        replacedReaderPool.release(readerConn);
+
+        assertTrue(writerConn.isClosed());
+        assertTrue(readerConn.isClosed());
+        assertEquals(0, replacedWriterPool.getStatistics().getNumIdle());
+    }
+
+    @Test
+    void connectionReleasedToCurrentPoolStaysOpen() throws Exception {
+        ConnectionPool.configure(ServerOptions.parse(new String[]{"0", "journal=wal"}));
+        ConnectionPool writerPool = ConnectionPool.getWriterPool();
+        Connection conn = writerPool.acquire();
+
+        writerPool.release(conn);
+
+        assertFalse(conn.isClosed());
+        assertEquals(1, writerPool.getStatistics().getNumIdle());
+    }
+}
@@ -0,0 +1,120 @@
+package server.dao;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import server.LatencyRecorder;
+import server.TestServer;
+import shared.http.FamilyMapUrl;
+import shared.result.RegisterResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Load tests of the journal modes of the database: a fixed time of concurrent reads (/person, /event) against
+ * repeated /fill requests, once with the rollback journal, in which a fill locks the readers out of the database for
+ * its whole transaction, and once in WAL mode, in which the readers keep reading the last committed data. Reports the
+ * requests per second and the latency percentiles of each kind of request, and the failed requests of each mode.
+ * Run with: gradlew :server:benchmark
+ */
+@Tag("benchmark")
+class JournalModeLoadTest {
+    private static final int NUM_READERS = 16;
+    private static final int NUM_FILLERS = 2;
+    private static final int FILL_GENERATIONS = 8;
+    private static final long DURATION_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    @Test
+    void rollbackJournalUnderMixedLoad() throws Exception {
+        int numFailures = runMixedLoad(JournalMode.ROLLBACK);
+        System.out.println(JournalMode.ROLLBACK + " failed requests: " + numFailures);
+    }
+
+    @Test
+    void walUnderMixedLoad() throws Exception {
+        int numFailures = runMixedLoad(JournalMode.WAL);
+        assertEquals(0, numFailures, "Failed requests");
+    }
+
+    private static int runMixedLoad(JournalMode journalMode) throws Exception {
+        LatencyRecorder reads = new LatencyRecorder(journalMode + " reads");
+        LatencyRecorder fills = new LatencyRecorder(journalMode + " fills");
+        AtomicInteger numFailures = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(NUM_READERS + NUM_FILLERS);
+
+        try (TestServer server = TestServer.start("journal=" + journalMode, "executor=pool", "threads=" +
+                (NUM_READERS + NUM_FILLERS))) {
+            List<Future<?>> running = new ArrayList<>();
+            long deadline = System.nanoTime() + DURATION_NANOS;
+            long startTime = System.nanoTime();
+
+            for (int i = 0; i < NUM_READERS; i++) {
+                RegisterResult reader = server.register("reader" + i).parse(RegisterResult.class);
+                assertTrue(reader.isSuccess(), reader.getMessage());
+                running.add(clients.submit(() -> read(server, reader.getAuthTokenString(), deadline, reads,
+                        numFailures)));
+            }
+
+            for (int i = 0; i < NUM_FILLERS; i++) {
+                String filler = "filler" + i;
+                assertTrue(server.register(filler).parse(RegisterResult.class).isSuccess());
+                running.add(clients.submit(() -> fill(server, filler, deadline, fills, numFailures)));
+            }
+
+            for (Future<?> client : running) {
+                client.get();
+            }
+
+            long elapsedNanos = System.nanoTime() - startTime;
+            System.out.println(reads.summarize(elapsedNanos));
+            System.out.println(fills.summarize(elapsedNanos));
+        } finally {
+            clients.shutdownNow();
+        }
+
+        return numFailures.get();
+    }
+
+    private static Void read(TestServer server, String authToken, long deadline, LatencyRecorder reads,
+                             AtomicInteger numFailures) throws IOException {
+        for (int i = 0; deadline - System.nanoTime() > 0; i++) {
+            long startTime = System.nanoTime();
+            TestServer.Response response = server.get((0 == i % 2) ? FamilyMapUrl.PERSON : FamilyMapUrl.EVENT,
+                    authToken);
+            reads.record(startTime);
+            countFailure(response, numFailures);
+        }
+
+        return null;
+    }
+
+    private static Void fill(TestServer server, String username, long deadline, LatencyRecorder fills,
+                             AtomicInteger numFailures) throws IOException {
+        while (deadline - System.nanoTime() > 0) {
+            long startTime = System.nanoTime();
+            TestServer.Response response = server.post(FamilyMapUrl.FILL + "/" + username + "/" + FILL_GENERATIONS,
+                    "");
+            fills.record(startTime);
+            countFailure(response, numFailures);
+        }
+
+        return null;
+    }
+
+    private static void countFailure(TestServer.Response response, AtomicInteger numFailures) {
+        if (HttpURLConnection.HTTP_OK != response.getStatusCode()) {
+            numFailures.incrementAndGet();
+        }
+    }
+}
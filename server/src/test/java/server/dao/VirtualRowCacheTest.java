@@ -0,0 +1,93 @@
+package server.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * The pages of the sorted rows of a virtual tree, found by a binary search for the cursor, and the bounds and
+ * invalidation of the cache holding them.
+ */
+class VirtualRowCacheTest {
+    private static final String TABLE_NAME = "events";
+    private static final String USERNAME = "reader";
+    private static final int PAGE_LIMIT = 3;
+
+    @AfterEach
+    void tearDown() {
+        VirtualTreeDao.setRowCacheSize(VirtualTreeDao.DEFAULT_ROW_CACHE_SIZE);
+    }
+
+    @Test
+    void pagesVisitEveryRowOnceInOrder() {
+        VirtualRowCache.SortedRows<String> sortedRows = sortedRows("g", "c", "a", "e", "b", "f", "d");
+        List<String> visited = new ArrayList<>();
+        String afterID = null;
+
+        for (List<String> page = sortedRows.getPage(null, PAGE_LIMIT); !page.isEmpty();
+             page = sortedRows.getPage(afterID, PAGE_LIMIT)) {
+            visited.addAll(page);
+            afterID = page.get(page.size() - 1);
+        }
+
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f", "g"), visited);
+    }
+
+    @Test
+    void cursorBetweenRowsStartsAtNextRow() {
+        VirtualRowCache.SortedRows<String> sortedRows = sortedRows("b", "d", "f");
+
+        assertEquals(Arrays.asList("d", "f"), sortedRows.getPage("c", PAGE_LIMIT));
+        assertEquals(Arrays.asList("b", "d", "f"), sortedRows.getPage("a", PAGE_LIMIT));
+        assertTrue(sortedRows.getPage("g", PAGE_LIMIT).isEmpty());
+    }
+
+    @Test
+    void staleGenerationIsNotCached() {
+        VirtualRowCache cache = VirtualRowCache.getInstance();
+        long generation = cache.getGeneration();
+        VirtualTreeDao.invalidateGeneratedRows();
+
+        assertFalse(cache.put(TABLE_NAME, USERNAME, 1, sortedRows("a"), generation));
+        assertNull(cache.get(TABLE_NAME, USERNAME, 1));
+
+        assertTrue(cache.put(TABLE_NAME, USERNAME, 1, sortedRows("a"), cache.getGeneration()));
+        assertNotNull(cache.get(TABLE_NAME, USERNAME, 1));
+
+        VirtualTreeDao.invalidateGeneratedRows();
+        assertNull(cache.get(TABLE_NAME, USERNAME, 1));
+    }
+
+    @Test
+    void leastRecentlyReadTreesAreEvicted() {
+        VirtualTreeDao.setRowCacheSize(4);
+        VirtualRowCache cache = VirtualRowCache.getInstance();
+        long generation = cache.getGeneration();
+
+        assertTrue(cache.put(TABLE_NAME, USERNAME, 1, sortedRows("a", "b"), generation));
+        assertTrue(cache.put(TABLE_NAME, USERNAME, 2, sortedRows("c", "d"), generation));
+        assertNotNull(cache.get(TABLE_NAME, USERNAME, 1));
+        assertTrue(cache.put(TABLE_NAME, USERNAME, 3, sortedRows("e"), generation));
+
+        assertNotNull(cache.get(TABLE_NAME, USERNAME, 1));
+        assertNull(cache.get(TABLE_NAME, USERNAME, 2));
+        assertNotNull(cache.get(TABLE_NAME, USERNAME, 3));
+
+        assertFalse(cache.put(TABLE_NAME, USERNAME, 4, sortedRows("f", "g", "h", "i", "j"), generation));
+        assertNull(cache.get(TABLE_NAME, USERNAME, 4));
+    }
+
+    private static VirtualRowCache.SortedRows<String> sortedRows(String... ids) {
+        return new VirtualRowCache.SortedRows<>(new ArrayList<>(Arrays.asList(ids)), Function.identity());
+    }
+}
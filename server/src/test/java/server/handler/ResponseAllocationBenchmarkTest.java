@@ -0,0 +1,176 @@
+package server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import shared.json.JsonInterpreter;
+import shared.model.EventType;
+import shared.model.ServerEvent;
+import shared.result.AllEventsResult;
+import shared.result.Result;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * Benchmark of the bytes allocated by the server thread that encodes and sends a JSON response, for /event results of
+ * 1k, 10k, and 50k events: before, the result was turned into one pretty-printed String, which was copied through an
+ * OutputStreamWriter and a BufferedWriter into a chunked response; after, it is written straight into a
+ * ResponseBodyStream of pooled buffers, and sent with an exact Content-Length (or spilled, past 1 MiB). The streamed
+ * body is also measured through a bare OutputStreamWriter, which copies each of the many short strings Gson writes,
+ * to show why the writer of JsonHandler is buffered. The allocation is read from the thread allocation counter of the
+ * JVM around the encoding of each response, and the median of the measured requests is reported.
+ * Run with: gradlew :server:benchmark
+ */
+@Tag("benchmark")
+class ResponseAllocationBenchmarkTest {
+    private static final int[] NUM_EVENTS = {1000, 10000, 50000};
+    private static final int NUM_WARMUP_REQUESTS = 5;
+    private static final int NUM_MEASURED_REQUESTS = 15;
+    private static final int READ_BUFFER_LENGTH = 8192;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final List<Long> allocatedBytes = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile Result result;
+
+    @Test
+    void allocationPerResponse() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/before", exchange -> measure(exchange, () -> sendAsString(exchange, result)));
+        server.createContext("/unbuffered", exchange -> measure(exchange, () -> sendStreamed(exchange, result, false)));
+        server.createContext("/after", exchange -> measure(exchange, () -> sendStreamed(exchange, result, true)));
+        server.start();
+
+        try {
+            String baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+            for (int numEvents : NUM_EVENTS) {
+                result = AllEventsResult.newSuccess(generateEvents(numEvents));
+                long beforeBytes = measureRequests(baseUrl + "/before");
+                long unbufferedBytes = measureRequests(baseUrl + "/unbuffered");
+                long afterBytes = measureRequests(baseUrl + "/after");
+
+                System.out.printf("%6d events   before %8.2f MiB/request   unbuffered %8.2f MiB/request   " +
+                                "after %8.2f MiB/request   (%.1fx less than before)%n", numEvents, toMiB(beforeBytes),
+                        toMiB(unbufferedBytes), toMiB(afterBytes), (double) beforeBytes / afterBytes);
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private long measureRequests(String url) throws IOException {
+        long expectedLength = -1;
+
+        for (int i = 0; i < NUM_WARMUP_REQUESTS + NUM_MEASURED_REQUESTS; i++) {
+            if (NUM_WARMUP_REQUESTS == i) {
+                allocatedBytes.clear();
+            }
+
+            long length = fetch(url);
+
+            if (0 <= expectedLength) {
+                assertEquals(expectedLength, length);
+            }
+
+            expectedLength = length;
+        }
+
+        List<Long> measured = new ArrayList<>(allocatedBytes);
+        Collections.sort(measured);
+        return measured.get(measured.size() / 2);
+    }
+
+    private void measure(HttpExchange exchange, Response response) throws IOException {
+        long startBytes = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+        try {
+            response.send();
+        } finally {
+            allocatedBytes.add(THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - startBytes);
+            exchange.close();
+        }
+    }
+
+    /*
+     * JsonHandler.sendResponse before it was streamed
+     */
+    private static void sendAsString(HttpExchange exchange, Result result) throws IOException {
+        exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+        String resultJsonString = JsonInterpreter.generateJsonString(result);
+        OutputStreamWriter streamWriter = new OutputStreamWriter(exchange.getResponseBody());
+        BufferedWriter bufferedWriter = new BufferedWriter(streamWriter);
+        bufferedWriter.write(resultJsonString);
+        bufferedWriter.flush();
+    }
+
+    /*
+     * JsonHandler.sendResponse as it is now, or with a bare OutputStreamWriter instead of its buffered writer
+     */
+    private static void sendStreamed(HttpExchange exchange, Result result, boolean buffered) throws IOException {
+        try (ResponseBodyStream respBody = new ResponseBodyStream(exchange, HttpURLConnection.HTTP_OK)) {
+            Writer writer = buffered ? JsonHandler.newResponseWriter(respBody) :
+                    new OutputStreamWriter(respBody, StandardCharsets.UTF_8);
+            JsonInterpreter.writeJson(result, writer);
+            writer.flush();
+            respBody.commit();
+        }
+    }
+
+    private static long fetch(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        long length = 0;
+
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buf = new byte[READ_BUFFER_LENGTH];
+            int len;
+
+            while (0 < (len = in.read(buf))) {
+                length += len;
+            }
+        }
+
+        return length;
+    }
+
+    private static List<ServerEvent> generateEvents(int numEvents) {
+        List<ServerEvent> events = new ArrayList<>(numEvents);
+
+        for (int i = 0; i < numEvents; i++) {
+            events.add(new ServerEvent("event-" + i, "benchmark", "person-" + (i / 3), 40.0 + i % 50,
+                    -111.0 + i % 70, "United States", "Provo", EventType.BIRTH, Year.of(1900 + i % 120)));
+        }
+
+        return events;
+    }
+
+    private static double toMiB(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    @FunctionalInterface
+    private interface Response {
+        void send() throws IOException;
+    }
+}
@@ -0,0 +1,88 @@
+package server.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import server.LatencyRecorder;
+import server.TestServer;
+import shared.http.FamilyMapUrl;
+import shared.json.JsonInterpreter;
+import shared.request.LoginRequest;
+import shared.result.FillResult;
+import shared.result.LoginResult;
+import shared.result.RegisterResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Latency benchmark of the authorized reads of /person and /event, sent one at a time by a single client, for families
+ * of 4 and 8 generations. With the auth token cache disabled, every read verifies its token in the joined query; with
+ * it enabled, the rows are read by userID alone. The response cache is disabled in both, so every read goes to the
+ * database.
+ * Run with: gradlew :server:benchmark
+ */
+@Tag("benchmark")
+class AuthorizedReadBenchmarkTest {
+    private static final String USERNAME = "benchmark";
+    private static final int[] GENERATIONS = {4, 8};
+    private static final int NUM_WARM_UP_READS = 200;
+    private static final int NUM_READS = 1000;
+
+    @Test
+    void joinedQueryReads() throws Exception {
+        runReads("joined", "tokenCacheSize=0", "responseCacheMb=0");
+    }
+
+    @Test
+    void cachedTokenReads() throws Exception {
+        runReads("cached token", "responseCacheMb=0");
+    }
+
+    private static void runReads(String name, String... options) throws Exception {
+        try (TestServer server = TestServer.start(options)) {
+            RegisterResult registered = server.register(USERNAME).parse(RegisterResult.class);
+            assertTrue(registered.isSuccess(), registered.getMessage());
+
+            for (int generations : GENERATIONS) {
+                FillResult filled = server.post(FamilyMapUrl.FILL + "/" + USERNAME + "/" + generations, "")
+                        .parse(FillResult.class);
+                assertTrue(filled.isSuccess(), filled.getMessage());
+                String authToken = logIn(server);
+
+                for (String path : new String[]{FamilyMapUrl.PERSON, FamilyMapUrl.EVENT}) {
+                    LatencyRecorder reads = new LatencyRecorder(name + " " + path + " (" + generations + ")");
+                    read(server, path, authToken, NUM_WARM_UP_READS, null);
+
+                    long startTime = System.nanoTime();
+                    read(server, path, authToken, NUM_READS, reads);
+                    System.out.println(reads.summarize(System.nanoTime() - startTime));
+                }
+            }
+        }
+    }
+
+    private static String logIn(TestServer server) throws IOException {
+        String login = JsonInterpreter.generateJsonString(new LoginRequest(USERNAME, USERNAME));
+        LoginResult loggedIn = server.post(FamilyMapUrl.LOGIN, login).parse(LoginResult.class);
+        assertTrue(loggedIn.isSuccess(), loggedIn.getMessage());
+        return loggedIn.getAuthTokenString();
+    }
+
+    private static void read(TestServer server, String path, String authToken, int numReads, LatencyRecorder reads)
+            throws IOException {
+        for (int i = 0; i < numReads; i++) {
+            long startTime = System.nanoTime();
+            TestServer.Response response = server.get(path, authToken);
+
+            if (null != reads) {
+                reads.record(startTime);
+            }
+
+            assertEquals(HttpURLConnection.HTTP_OK, response.getStatusCode(), response.toString());
+        }
+    }
+}
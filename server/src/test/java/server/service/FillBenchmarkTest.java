@@ -0,0 +1,73 @@
+package server.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import server.TestServer;
+import shared.http.FamilyMapUrl;
+import shared.result.FillResult;
+import shared.result.RegisterResult;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Benchmark of the batched bulk inserts of /fill: fills of 10, 12, and 14 generations (about 2k, 8k, and 33k persons,
+ * with three times as many events), reporting the rows filled per second, with the default batch size and with
+ * batches of a single row for comparison. The time of a fill covers the whole request: erasing the previous family,
+ * generating the new one, and inserting it. Each fill is run a few times, and the fastest run is reported.
+ * Run with: gradlew :server:benchmark
+ */
+@Tag("benchmark")
+class FillBenchmarkTest {
+    private static final int[] GENERATIONS = {10, 12, 14};
+    private static final int NUM_RUNS = 3;
+    private static final Pattern FILL_COUNTS = Pattern.compile("added (\\d+) persons and (\\d+) events");
+
+    @Test
+    void fillWithDefaultBatchSize() throws Exception {
+        runFills("default batches");
+    }
+
+    @Test
+    void fillWithSingleRowBatches() throws Exception {
+        runFills("single-row batches", "batchSize=1");
+    }
+
+    private static void runFills(String name, String... options) throws Exception {
+        try (TestServer server = TestServer.start(options)) {
+            String username = "benchmark";
+            RegisterResult registered = server.register(username).parse(RegisterResult.class);
+            assertTrue(registered.isSuccess(), registered.getMessage());
+
+            for (int generations : GENERATIONS) {
+                long bestNanos = Long.MAX_VALUE;
+                int numRows = 0;
+
+                for (int run = 0; run < NUM_RUNS; run++) {
+                    long startTime = System.nanoTime();
+                    FillResult result = server.post(FamilyMapUrl.FILL + "/" + username + "/" + generations, "")
+                            .parse(FillResult.class);
+                    long elapsedNanos = System.nanoTime() - startTime;
+
+                    assertTrue(result.isSuccess(), result.getMessage());
+                    numRows = countRows(result.getMessage());
+                    bestNanos = Math.min(bestNanos, elapsedNanos);
+                }
+
+                double seconds = bestNanos / (double) TimeUnit.SECONDS.toNanos(1);
+                System.out.println(String.format("%-20s %2d generations %7d rows %8.0f ms %10.0f rows/s", name,
+                        generations, numRows, seconds * 1000, numRows / seconds));
+            }
+        }
+    }
+
+    private static int countRows(String message) {
+        Matcher matcher = FILL_COUNTS.matcher(message);
+        assertTrue(matcher.find(), message);
+        return Integer.parseInt(matcher.group(1)) + Integer.parseInt(matcher.group(2));
+    }
+}
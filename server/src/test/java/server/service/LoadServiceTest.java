@@ -0,0 +1,92 @@
+package server.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.HttpURLConnection;
+import java.util.Collections;
+
+import server.TestServer;
+import shared.http.FamilyMapUrl;
+import shared.json.JsonInterpreter;
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+import shared.model.User;
+import shared.result.LoadResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * The order of the sections of a streamed /load request: the users must come before the persons and events.
+ */
+class LoadServiceTest {
+    private static final String USERS_FIRST_MESSAGE =
+            "The users of a load request must come before its persons and events.";
+
+    private final String users = JsonInterpreter.generateJsonString(Collections.singletonList(
+            new User("loader", "password", "loader@example.com", "First", "Last", "f", "person-1", null)));
+    private final String persons = JsonInterpreter.generateJsonString(Collections.singletonList(
+            new ServerPerson("person-1", "loader", "First", "Last", "f", null, null, null)));
+    private final String events = JsonInterpreter.generateJsonString(Collections.singletonList(
+            new ServerEvent("event-1", "loader", "person-1", 40.25, -111.65, "United States", "Provo", "birth",
+                    1990)));
+
+    private TestServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = TestServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void usersFirstIsLoaded() throws Exception {
+        TestServer.Response response = load("users", users, "persons", persons, "events", events);
+        LoadResult result = response.parse(LoadResult.class);
+
+        assertEquals(HttpURLConnection.HTTP_OK, response.getStatusCode(), response.toString());
+        assertTrue(result.isSuccess(), result.getMessage());
+        assertTrue(result.getMessage().contains("1 users, 1 persons, and 1 events"), result.getMessage());
+    }
+
+    @Test
+    void personsBeforeUsersAreRejected() throws Exception {
+        checkRejected(load("persons", persons, "users", users, "events", events));
+    }
+
+    @Test
+    void eventsBeforeUsersAreRejected() throws Exception {
+        checkRejected(load("events", events, "users", users, "persons", persons));
+    }
+
+    @Test
+    void emptySectionBeforeUsersIsLoaded() throws Exception {
+        TestServer.Response response = load("persons", "[]", "users", users, "events", "[]");
+        assertEquals(HttpURLConnection.HTTP_OK, response.getStatusCode(), response.toString());
+    }
+
+    private static void checkRejected(TestServer.Response response) {
+        LoadResult result = response.parse(LoadResult.class);
+
+        assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, response.getStatusCode(), response.toString());
+        assertFalse(result.isSuccess());
+        assertTrue(result.getMessage().contains(USERS_FIRST_MESSAGE), result.getMessage());
+    }
+
+    private TestServer.Response load(String... sections) throws Exception {
+        StringBuilder body = new StringBuilder("{");
+
+        for (int i = 0; i < sections.length; i += 2) {
+            body.append((0 == i) ? "" : ",").append('"').append(sections[i]).append("\":").append(sections[i + 1]);
+        }
+
+        return server.post(FamilyMapUrl.LOAD, body.append('}').toString());
+    }
+}
@@ -0,0 +1,66 @@
+package server.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.HttpURLConnection;
+import java.sql.Connection;
+
+import server.TestServer;
+import server.dao.ConnectionPool;
+import shared.http.FamilyMapUrl;
+import shared.json.JsonInterpreter;
+import shared.request.LoginRequest;
+import shared.result.LoginResult;
+import shared.result.RegisterResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * A request that times out waiting for the writer connection, held here as a long /fill would hold it, must still get
+ * a failure result, instead of failing on the connection it never acquired.
+ */
+class PoolTimeoutTest {
+    private static final String USERNAME = "waiter";
+
+    private TestServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = TestServer.start("journal=wal", "writerTimeout=50");
+        assertTrue(server.register(USERNAME).parse(RegisterResult.class).isSuccess());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void loginTimingOutOnWriterGetsFailureResult() throws Exception {
+        ConnectionPool writerPool = ConnectionPool.getWriterPool();
+        Connection heldConnection = writerPool.acquire();
+
+        try {
+            TestServer.Response response = logIn();
+            assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, response.getStatusCode(), response.toString());
+
+            LoginResult failure = response.parse(LoginResult.class);
+            assertFalse(failure.isSuccess());
+            assertTrue(failure.getMessage().contains("Timed out waiting for a connection"), failure.getMessage());
+        } finally {
+            writerPool.release(heldConnection);
+        }
+
+        TestServer.Response response = logIn();
+        assertEquals(HttpURLConnection.HTTP_OK, response.getStatusCode(), response.toString());
+    }
+
+    private TestServer.Response logIn() throws Exception {
+        String login = JsonInterpreter.generateJsonString(new LoginRequest(USERNAME, USERNAME));
+        return server.post(FamilyMapUrl.LOGIN, login);
+    }
+}
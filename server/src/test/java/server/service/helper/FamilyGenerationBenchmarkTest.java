@@ -0,0 +1,118 @@
+package server.service.helper;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import server.exception.DataAccessException;
+import shared.model.Gender;
+import shared.model.User;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * Benchmark of the parallel generation of family data for deep /fill requests: times the generation of the ancestors
+ * and events of a user for 12, 14, 16, and 18 generations with 1, 2, 4, ... up to all available processors, and
+ * reports the speedup of every thread count over a single thread. The database is not involved: the generated rows
+ * are streamed to a consumer that only counts them, so any number of generations runs in a small heap. Each
+ * combination is run a few times, and the fastest run is reported.
+ * Run with: gradlew :server:benchmark
+ */
+@Tag("benchmark")
+class FamilyGenerationBenchmarkTest {
+    private static final int[] GENERATIONS = {12, 14, 16, 18};
+    private static final int NUM_RUNS = 3;
+    private static final int QUEUE_CHUNKS = 16;
+
+    @Test
+    void generateWithEveryThreadCount() throws Exception {
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        System.out.printf("%11s %7s %9s %10s %9s %8s%n", "generations", "threads", "persons", "events", "millis",
+                "speedup");
+
+        warmUp();
+
+        for (int numGenerations : GENERATIONS) {
+            double singleThreadMillis = 0;
+
+            for (int threads : threadCounts()) {
+                ForkJoinPool generatorPool = new ForkJoinPool(threads);
+
+                try {
+                    double bestMillis = Double.MAX_VALUE;
+                    int[] sizes = null;
+
+                    for (int run = 0; run < NUM_RUNS; run++) {
+                        long startTime = System.nanoTime();
+                        sizes = generate(generatorPool, numGenerations);
+                        bestMillis = Math.min(bestMillis, (System.nanoTime() - startTime) / 1e6);
+                    }
+
+                    checkSizes(numGenerations, sizes);
+
+                    if (1 == threads) {
+                        singleThreadMillis = bestMillis;
+                    }
+
+                    System.out.printf("%11d %7d %9d %10d %9.1f %7.2fx%n", numGenerations, threads, sizes[0], sizes[1],
+                            bestMillis, singleThreadMillis / bestMillis);
+                } finally {
+                    generatorPool.shutdown();
+                }
+            }
+        }
+    }
+
+    /*
+     * The generated rows are only counted, so the consumer never holds the generation back
+     */
+    private static int[] generate(ForkJoinPool generatorPool, int numGenerations) throws DataAccessException {
+        FamilyDataGenerator familyDataGenerator = new FamilyDataGenerator(generatorPool, QUEUE_CHUNKS);
+        User user = new User("benchmark", "password", "benchmark@example.com", "Bench", "Mark", Gender.FEMALE);
+        int[] sizes = new int[2];
+
+        familyDataGenerator.generateFamily(user, numGenerations, (persons, events) -> {
+            sizes[0] += persons.size();
+            sizes[1] += events.size();
+        });
+
+        return sizes;
+    }
+
+    /*
+     * The user and every couple of ancestors are generated, and every couple has a birth, a marriage, and a death
+     * each, and the user has a birth
+     */
+    private static void checkSizes(int numGenerations, int[] sizes) {
+        int numCouples = (1 << numGenerations) - 1;
+        assertEquals(2 * numCouples + 1, sizes[0], "persons");
+        assertEquals(6 * numCouples + 1, sizes[1], "events");
+    }
+
+    private static void warmUp() throws DataAccessException {
+        ForkJoinPool generatorPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        try {
+            for (int run = 0; run < NUM_RUNS; run++) {
+                generate(generatorPool, GENERATIONS[0]);
+            }
+        } finally {
+            generatorPool.shutdown();
+        }
+    }
+
+    private static List<Integer> threadCounts() {
+        int availableProcessors = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+
+        for (int threads = 1; threads < availableProcessors; threads *= 2) {
+            threadCounts.add(threads);
+        }
+
+        threadCounts.add(availableProcessors);
+        return threadCounts;
+    }
+}
@@ -43,8 +43,64 @@ public class FamilyMapUrl {
      */
     public final static String REGISTER = "/user/register";
 
+    /**
+     * The base URL path shared by the requests to login or register a user and get all of his/her person and event
+     * data at once
+     */
+    public final static String BOOTSTRAP = "/bootstrap";
+
+    /**
+     * The base URL path for requests to login a user and get all of his/her person and event data at once
+     */
+    public final static String BOOTSTRAP_LOGIN = BOOTSTRAP + "/login";
+
+    /**
+     * The base URL path for requests to register a user and get all of his/her person and event data at once
+     */
+    public final static String BOOTSTRAP_REGISTER = BOOTSTRAP + "/register";
+
+    /**
+     * The query parameter for requests for the changes to the person or event data since a version
+     * (e.g., "/event?since=42")
+     */
+    public final static String SINCE = "since";
+
+    /**
+     * The query parameter for requests for a page of the person or event data, with the opaque cursor returned as
+     * the link to the next page (e.g., "/event?cursor=ZXZ0XzEyMw")
+     */
+    public final static String CURSOR = "cursor";
+
+    /**
+     * The query parameter for the maximum number of persons or events of a page
+     */
+    public final static String LIMIT = "limit";
+
+    /**
+     * The query parameter for requests for only some of the fields of the person or event data
+     * (e.g., "/event?fields=eventID,latitude,longitude")
+     */
+    public final static String FIELDS = "fields";
+
+    /**
+     * The query parameter for fill requests that generate the same family data for the same seed
+     * (e.g., "/fill/username/4?seed=42")
+     */
+    public final static String SEED = "seed";
+
     /**
      * The default base URL
      */
     public final static String DEFAULT_PATH = "/";
+
+    /**
+     * Builds the link to a page of the person or event data
+     * @param path The base URL path of the data ({@link #PERSON} or {@link #EVENT})
+     * @param cursor The cursor of the page
+     * @param limit The maximum number of objects of the page
+     * @return The link to the page
+     */
+    public static String page(String path, String cursor, int limit) {
+        return path + "?" + CURSOR + "=" + cursor + "&" + LIMIT + "=" + limit;
+    }
 }
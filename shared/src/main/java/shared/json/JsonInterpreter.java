@@ -2,11 +2,16 @@ package shared.json;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Year;
 
@@ -55,6 +60,46 @@ public class JsonInterpreter {
         return jsonInterpreter.gsonSerializer.toJson(object);
     }
 
+    /**
+     * Writes the Json representation of the input {@link Object} straight to a {@link Writer}, without building the
+     * whole Json string in memory first. The writer is not flushed or closed.
+     *
+     * @param object An Json-serializable {@link Object}
+     * @param writer The {@link Writer} to write the Json to
+     */
+    public static void writeJson(Object object, Writer writer) {
+        jsonInterpreter.gsonSerializer.toJson(object, writer);
+    }
+
+    /**
+     * Creates a {@link JsonWriter} with the same formatting as {@link #generateJsonString(Object)}, to write a Json
+     * document piece by piece
+     *
+     * @param writer The {@link Writer} to write the Json to
+     * @return The new {@link JsonWriter}
+     * @throws IOException An error occurred while setting up the {@link JsonWriter}
+     */
+    public static JsonWriter newJsonWriter(Writer writer) throws IOException {
+        return jsonInterpreter.gsonSerializer.newJsonWriter(writer);
+    }
+
+    /**
+     * Writes the Json representation of the input {@link Object} as the next value of a {@link JsonWriter} created
+     * by {@link #newJsonWriter(Writer)}
+     *
+     * @param object An Json-serializable {@link Object}
+     * @param type The type of the {@link Object}
+     * @param jsonWriter The {@link JsonWriter} to write the Json to
+     * @throws IOException An error occurred while writing the Json
+     */
+    public static void writeJson(Object object, Type type, JsonWriter jsonWriter) throws IOException {
+        try {
+            jsonInterpreter.gsonSerializer.toJson(object, type, jsonWriter);
+        } catch (JsonIOException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
     /**
      * Parses a Json string for an object of the input class.
      * @param jsonString The Json string to parse
@@ -66,19 +111,37 @@ public class JsonInterpreter {
     }
 
     /**
-     * Parses a file that contains a Json string for the input class.
+     * Creates a {@link JsonReader} to parse a Json document piece by piece, with the same settings as
+     * {@link #parseJson(String, Class)}
+     * @param reader The {@link Reader} to read the Json from
+     * @return The new {@link JsonReader}
+     */
+    public static JsonReader newJsonReader(Reader reader) {
+        return jsonInterpreter.gsonDeserializer.newJsonReader(reader);
+    }
+
+    /**
+     * Parses the next value of a {@link JsonReader} created by {@link #newJsonReader(Reader)} for an object of the
+     * input class.
+     * @param jsonReader The {@link JsonReader} positioned at the value
+     * @param jsonClass The class that the value represents
+     * @param <T> The class that the value represents
+     * @return An object of the input class that was represented by the value
+     */
+    public static <T> T parseJson(JsonReader jsonReader, Class<T> jsonClass) {
+        return jsonInterpreter.gsonDeserializer.fromJson(jsonReader, jsonClass);
+    }
+
+    /**
+     * Parses a file that contains a Json string for the input class, with the same settings as
+     * {@link #parseJson(String, Class)}.
      * @param filePath The file containing the Json string
      * @param jsonClass The class that the Json string represents
-     * @return An object of the input class that was represented by the Json string
+     * @return An object of the input class that was represented by the Json string; null, if the file cannot be read
      */
     public static Object parseJson(Path filePath, Class<?> jsonClass) {
-        File locationFile = filePath.toFile();
-
-        try (FileReader fileReader = new FileReader(locationFile)) {
-            BufferedReader bufferedReader = new BufferedReader(fileReader);
-
-            Gson gson = new Gson();
-            return gson.fromJson(bufferedReader, jsonClass);
+        try (BufferedReader bufferedReader = Files.newBufferedReader(filePath)) {
+            return jsonInterpreter.gsonDeserializer.fromJson(bufferedReader, jsonClass);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,138 @@
+package shared.json;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+import shared.model.User;
+
+/**
+ * Reads a {@link shared.request.LoadRequest LoadRequest} from a stream one object at a time, so that a load request
+ * never has to be held in memory as a whole. The sections (users, persons, and events) are returned in the order in
+ * which they appear in the stream; any other fields are skipped.
+ * <p>
+ * Usage:
+ * <pre>
+ * LoadRequestReader.Section section;
+ * while (null != (section = reader.nextSection())) {
+ *     while (reader.hasNextObject()) {
+ *         Object object = reader.nextObject();
+ *     }
+ * }
+ * </pre>
+ * @author griffinbholt
+ */
+public final class LoadRequestReader implements Closeable {
+    private final JsonReader jsonReader;
+
+    private Section currentSection;
+
+    /**
+     * Creates a new <code>LoadRequestReader</code>, reading from the input {@link Reader}
+     * @param reader The {@link Reader} containing the Json of a load request
+     */
+    public LoadRequestReader(Reader reader) {
+        this.jsonReader = JsonInterpreter.newJsonReader(reader);
+    }
+
+    /**
+     * Moves to the next section of the load request, skipping any objects left in the current section
+     * @return The next {@link Section}; null, if the load request has no more sections
+     * @throws IOException The stream could not be read, or is not a valid load request
+     */
+    public Section nextSection() throws IOException {
+        if (null == currentSection) {
+            jsonReader.beginObject();
+        } else {
+            while (jsonReader.hasNext()) {
+                jsonReader.skipValue();
+            }
+
+            jsonReader.endArray();
+        }
+
+        while (jsonReader.hasNext()) {
+            Section section = Section.fromFieldName(jsonReader.nextName());
+
+            if (null != section && JsonToken.BEGIN_ARRAY == jsonReader.peek()) {
+                jsonReader.beginArray();
+                currentSection = section;
+                return section;
+            }
+
+            jsonReader.skipValue();
+        }
+
+        jsonReader.endObject();
+        currentSection = null;
+        return null;
+    }
+
+    /**
+     * Checks whether the current section has another object
+     * @return true, if the current section has another object; false, otherwise
+     * @throws IOException The stream could not be read, or is not a valid load request
+     */
+    public boolean hasNextObject() throws IOException {
+        return jsonReader.hasNext();
+    }
+
+    /**
+     * Reads the next object of the current section
+     * @return The next {@link User}, {@link ServerPerson}, or {@link ServerEvent}, depending on the current section
+     * @throws com.google.gson.JsonParseException The object is not valid
+     */
+    public Object nextObject() {
+        return JsonInterpreter.parseJson(jsonReader, currentSection.getObjectClass());
+    }
+
+    /**
+     * Closes the underlying {@link Reader}
+     * @throws IOException The {@link Reader} could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        jsonReader.close();
+    }
+
+    /**
+     * An enumeration of the sections of a load request
+     */
+    public enum Section {
+        USERS("users", User.class),
+        PERSONS("persons", ServerPerson.class),
+        EVENTS("events", ServerEvent.class);
+
+        private final String fieldName;
+        private final Class<?> objectClass;
+
+        Section(String fieldName, Class<?> objectClass) {
+            this.fieldName = fieldName;
+            this.objectClass = objectClass;
+        }
+
+        private static Section fromFieldName(String fieldName) {
+            for (Section section : values()) {
+                if (section.fieldName.equals(fieldName)) {
+                    return section;
+                }
+            }
+
+            return null;
+        }
+
+        // Getters
+        public String getFieldName() {
+            return fieldName;
+        }
+
+        public Class<?> getObjectClass() {
+            return objectClass;
+        }
+    }
+}
@@ -17,14 +17,30 @@ public class FillRequest {
      */
     private final int numGenerations;
 
+    /**
+     * The seed from which the genealogical data is generated; null, if the data is to be random
+     */
+    private final Long seed;
+
     /**
      * Constructor to create a fill request
      * @param userName The username of the user for whom the data will be generated
      * @param numGenerations The number of generations of genealogical data to be generated
      */
     public FillRequest(String userName, int numGenerations) {
+        this(userName, numGenerations, null);
+    }
+
+    /**
+     * Constructor to create a fill request that generates the same genealogical data every time for the same user
+     * @param userName The username of the user for whom the data will be generated
+     * @param numGenerations The number of generations of genealogical data to be generated
+     * @param seed The seed from which the data is generated; null, if the data is to be random
+     */
+    public FillRequest(String userName, int numGenerations, Long seed) {
         this.userName = userName;
         this.numGenerations = numGenerations;
+        this.seed = seed;
     }
 
     /**
@@ -36,14 +52,15 @@ public class FillRequest {
         return "FillRequest{" +
                 "userName='" + userName + '\'' +
                 ", numGenerations=" + numGenerations +
+                ", seed=" + seed +
                 '}';
     }
 
     /**
      * Tests if the input <code>FillRequest</code> object is equal to the current instance
      * @param o Input <code>Object</code> to be tested for equality with the current <code>FillRequest</code> instance
-     * @return true, if the two fill requests are have the same username and number of generations to be generated;
-     *         false, if otherwise
+     * @return true, if the two fill requests are have the same username, number of generations to be generated, and
+     *         seed; false, if otherwise
      */
     @Override
     public boolean equals(Object o) {
@@ -51,7 +68,8 @@ public class FillRequest {
         if (!(o instanceof FillRequest)) return false;
         FillRequest that = (FillRequest) o;
         return getNumGenerations() == that.getNumGenerations() &&
-                getUserName().equals(that.getUserName());
+                getUserName().equals(that.getUserName()) &&
+                Objects.equals(getSeed(), that.getSeed());
     }
 
     /**
@@ -60,7 +78,7 @@ public class FillRequest {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(getUserName(), getNumGenerations());
+        return Objects.hash(getUserName(), getNumGenerations(), getSeed());
     }
 
     // Getters
@@ -71,4 +89,8 @@ public class FillRequest {
     public int getNumGenerations() {
         return this.numGenerations;
     }
+
+    public Long getSeed() {
+        return this.seed;
+    }
 }
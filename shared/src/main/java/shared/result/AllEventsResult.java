@@ -17,6 +17,11 @@ public final class AllEventsResult extends Result {
      */
     private final List<ServerEvent> data;
 
+    /**
+     * The link to the next page of the events, if the result is a page that is not the last one
+     */
+    private final String next;
+
     /**
      * Factory method that creates a new <code>AllEventsResult</code> object,
      * with <code>success</code> set to <code>true</code>
@@ -25,11 +30,22 @@ public final class AllEventsResult extends Result {
      * @return The new success <code>AllEventsResult</code> object
      */
     public static AllEventsResult newSuccess(List<ServerEvent> events) {
-        return new AllEventsResult(events);
+        return new AllEventsResult(events, null);
     }
 
-    private AllEventsResult(List<ServerEvent> events) {
-        this(events, "Successfully found " + events.size() + " events for the input authorization token.", true);
+    /**
+     * Factory method that creates a new <code>AllEventsResult</code> object for a page of the events,
+     * with <code>success</code> set to <code>true</code>
+     * @param events The events of the page
+     * @param next The link to the next page; null, if the page is the last one
+     * @return The new success <code>AllEventsResult</code> object
+     */
+    public static AllEventsResult newSuccess(List<ServerEvent> events, String next) {
+        return new AllEventsResult(events, next);
+    }
+
+    private AllEventsResult(List<ServerEvent> events, String next) {
+        this(events, next, "Successfully found " + events.size() + " events for the input authorization token.", true);
     }
 
     /**
@@ -43,16 +59,21 @@ public final class AllEventsResult extends Result {
     }
 
     private AllEventsResult(String errorMessage) {
-        this(null, errorMessage, false);
+        this(null, null, errorMessage, false);
     }
 
-    private AllEventsResult(List<ServerEvent> events, String message, boolean success) {
+    private AllEventsResult(List<ServerEvent> events, String next, String message, boolean success) {
         super(message, success);
         this.data = events;
+        this.next = next;
     }
 
-    // Getter
+    // Getters
     public List<ServerEvent> getData() {
         return (null != data) ? Collections.unmodifiableList(data) : null;
     }
+
+    public String getNext() {
+        return next;
+    }
 }
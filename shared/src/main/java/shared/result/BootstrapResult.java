@@ -0,0 +1,76 @@
+package shared.result;
+
+import shared.model.AuthToken;
+import shared.model.ServerEvent;
+import shared.model.ServerPerson;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a bootstrap request, which logs in (or registers) a user and returns ALL family members of the user
+ * and ALL events related to them, all at once.
+ * Inherits from {@link InfoResult InfoResult}.
+ * @author griffinbholt
+ */
+public final class BootstrapResult extends InfoResult {
+    private static final String SUCCESS_VERB = "signed in";
+
+    /**
+     * An array of {@link ServerPerson Person} objects, representing ALL family members of the user
+     */
+    private final List<ServerPerson> persons;
+
+    /**
+     * An array of {@link ServerEvent ServerEvent} objects, representing ALL events related to ALL family members of
+     * the user
+     */
+    private final List<ServerEvent> events;
+
+    /**
+     * Factory method that creates a new <code>BootstrapResult</code> object,
+     * with <code>success</code> set to <code>true</code>
+     * @param authToken Resulting {@link shared.model.AuthToken AuthToken} for the user that was signed in
+     * @param userName Username of the user that was signed in
+     * @param personID Person ID of the user that was signed in
+     * @param persons ALL family members of the user
+     * @param events ALL events related to ALL family members of the user
+     * @return The new success <code>BootstrapResult</code> object
+     */
+    public static BootstrapResult newSuccess(AuthToken authToken, String userName, String personID,
+                                             List<ServerPerson> persons, List<ServerEvent> events) {
+        return new BootstrapResult(authToken, userName, personID, persons, events);
+    }
+
+    private BootstrapResult(AuthToken authToken, String userName, String personID, List<ServerPerson> persons,
+                            List<ServerEvent> events) {
+        super(authToken, userName, personID, SUCCESS_VERB);
+        this.persons = persons;
+        this.events = events;
+    }
+
+    /**
+     * Factory method that creates a new <code>BootstrapResult</code> object,
+     * with <code>success</code> set to <code>false</code>
+     * @param errorMessage The error message accounting for the reason behind the failed bootstrap
+     * @return The new failure <code>BootstrapResult</code> object
+     */
+    public static BootstrapResult newFailure(String errorMessage) {
+        return new BootstrapResult(errorMessage);
+    }
+
+    private BootstrapResult(String errorMessage) {
+        super(errorMessage);
+        this.persons = null;
+        this.events = null;
+    }
+
+    // Getters
+    public List<ServerPerson> getPersons() {
+        return (null != persons) ? Collections.unmodifiableList(persons) : null;
+    }
+
+    public List<ServerEvent> getEvents() {
+        return (null != events) ? Collections.unmodifiableList(events) : null;
+    }
+}
@@ -0,0 +1,92 @@
+package shared.result;
+
+import shared.model.ServerEvent;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a request for the changes to the events of the current user since a version held by the client
+ * @author griffinbholt
+ */
+public final class EventChangesResult extends Result {
+    /**
+     * The {@link ServerEvent ServerEvent} objects added or rewritten since the version; ALL events of the current
+     * user, if <code>reset</code> is <code>true</code>
+     */
+    private final List<ServerEvent> data;
+
+    /**
+     * The IDs of the events deleted since the version
+     */
+    private final List<String> deleted;
+
+    /**
+     * The version of the events once the changes are applied, to be sent with the next request for changes
+     */
+    private final long version;
+
+    /**
+     * Whether the client must replace ALL of its events with <code>data</code>, instead of applying the changes
+     */
+    private final boolean reset;
+
+    /**
+     * Factory method that creates a new <code>EventChangesResult</code> object,
+     * with <code>success</code> set to <code>true</code>
+     * @param events The {@link ServerEvent ServerEvent} objects added or rewritten since the version
+     * @param deletedIDs The IDs of the events deleted since the version
+     * @param version The version of the events once the changes are applied
+     * @param reset Whether the client must replace ALL of its events
+     * @return The new success <code>EventChangesResult</code> object
+     */
+    public static EventChangesResult newSuccess(List<ServerEvent> events, List<String> deletedIDs, long version,
+                                                boolean reset) {
+        return new EventChangesResult(events, deletedIDs, version, reset);
+    }
+
+    private EventChangesResult(List<ServerEvent> events, List<String> deletedIDs, long version, boolean reset) {
+        this(events, deletedIDs, version, reset, "Successfully found " + events.size() + " changed and " +
+                deletedIDs.size() + " deleted events for the input authorization token.", true);
+    }
+
+    /**
+     * Factory method that creates a new <code>EventChangesResult</code> object,
+     * with <code>success</code> set to <code>false</code>
+     * @param errorMessage The error message accounting for the reason behind the failed changes query
+     * @return  The new failure <code>EventChangesResult</code> object
+     */
+    public static EventChangesResult newFailure(String errorMessage) {
+        return new EventChangesResult(errorMessage);
+    }
+
+    private EventChangesResult(String errorMessage) {
+        this(null, null, 0, false, errorMessage, false);
+    }
+
+    private EventChangesResult(List<ServerEvent> events, List<String> deletedIDs, long version, boolean reset,
+                               String message, boolean success) {
+        super(message, success);
+        this.data = events;
+        this.deleted = deletedIDs;
+        this.version = version;
+        this.reset = reset;
+    }
+
+    // Getters
+    public List<ServerEvent> getData() {
+        return (null != data) ? Collections.unmodifiableList(data) : null;
+    }
+
+    public List<String> getDeleted() {
+        return (null != deleted) ? Collections.unmodifiableList(deleted) : null;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+}
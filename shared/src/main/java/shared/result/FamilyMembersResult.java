@@ -16,6 +16,11 @@ public final class FamilyMembersResult extends Result {
      */
     private final List<ServerPerson> data;
 
+    /**
+     * The link to the next page of the persons, if the result is a page that is not the last one
+     */
+    private final String next;
+
     /**
      * Factory method that creates a new <code>FamilyMembersResult</code> object,
      * with <code>success</code> set to <code>true</code>
@@ -24,11 +29,23 @@ public final class FamilyMembersResult extends Result {
      * @return The new success <code>FamilyMembersResult</code> object
      */
     public static FamilyMembersResult newSuccess(List<ServerPerson> persons) {
-        return new FamilyMembersResult(persons);
+        return new FamilyMembersResult(persons, null);
     }
 
-    private FamilyMembersResult(List<ServerPerson> persons) {
-        this(persons, "Successfully found " + persons.size() + " persons for the input authorization token.", true);
+    /**
+     * Factory method that creates a new <code>FamilyMembersResult</code> object for a page of the persons,
+     * with <code>success</code> set to <code>true</code>
+     * @param persons The persons of the page
+     * @param next The link to the next page; null, if the page is the last one
+     * @return The new success <code>FamilyMembersResult</code> object
+     */
+    public static FamilyMembersResult newSuccess(List<ServerPerson> persons, String next) {
+        return new FamilyMembersResult(persons, next);
+    }
+
+    private FamilyMembersResult(List<ServerPerson> persons, String next) {
+        this(persons, next, "Successfully found " + persons.size() + " persons for the input authorization token.",
+                true);
     }
 
     /**
@@ -43,16 +60,21 @@ public final class FamilyMembersResult extends Result {
 
 
     private FamilyMembersResult(String errorMessage) {
-        this(null, errorMessage, false);
+        this(null, null, errorMessage, false);
     }
 
-    private FamilyMembersResult(List<ServerPerson> persons, String message, boolean success) {
+    private FamilyMembersResult(List<ServerPerson> persons, String next, String message, boolean success) {
         super(message, success);
         this.data = persons;
+        this.next = next;
     }
 
-    // Getter
+    // Getters
     public List<ServerPerson> getData() {
         return (null != data) ? Collections.unmodifiableList(data) : null;
     }
+
+    public String getNext() {
+        return next;
+    }
 }
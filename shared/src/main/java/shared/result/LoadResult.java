@@ -8,6 +8,21 @@ import shared.request.LoadRequest;
  * @author griffinbholt
  */
 public final class LoadResult extends Result {
+    /**
+     * The number of users committed to the database
+     */
+    private final int numUsers;
+
+    /**
+     * The number of persons committed to the database
+     */
+    private final int numPersons;
+
+    /**
+     * The number of events committed to the database
+     */
+    private final int numEvents;
+
     /**
      * Factory method that creates a new <code>LoadResult</code> object, with <code>success</code>
      * set to <code>true</code>
@@ -21,8 +36,8 @@ public final class LoadResult extends Result {
     }
 
     private LoadResult(int numUsers, int numPersons, int numEvents) {
-        super("Successfully added " + numUsers + " users, " + numPersons + " persons, and " +
-                numEvents + " events to the database.", true);
+        this("Successfully added " + numUsers + " users, " + numPersons + " persons, and " +
+                numEvents + " events to the database.", true, numUsers, numPersons, numEvents);
     }
 
     /**
@@ -32,10 +47,40 @@ public final class LoadResult extends Result {
      * @return The new failure <code>LoadResult</code> object
      */
     public static LoadResult newFailure(String errorMessage) {
-        return new LoadResult(errorMessage);
+        return new LoadResult(errorMessage, false, 0, 0, 0);
+    }
+
+    /**
+     * Factory method that creates a new <code>LoadResult</code> object, with <code>success</code>
+     * set to <code>false</code>, for a load that committed part of its data before it failed
+     * @param errorMessage The error message accounting for the reason behind the failed attempt to fill the database
+     * @param numUsers The number of users committed to the database before the failure
+     * @param numPersons The number of persons committed to the database before the failure
+     * @param numEvents The number of events committed to the database before the failure
+     * @return The new failure <code>LoadResult</code> object
+     */
+    public static LoadResult newFailure(String errorMessage, int numUsers, int numPersons, int numEvents) {
+        return new LoadResult(errorMessage + " Committed " + numUsers + " users, " + numPersons + " persons, and " +
+                numEvents + " events before the failure.", false, numUsers, numPersons, numEvents);
+    }
+
+    private LoadResult(String message, boolean success, int numUsers, int numPersons, int numEvents) {
+        super(message, success);
+        this.numUsers = numUsers;
+        this.numPersons = numPersons;
+        this.numEvents = numEvents;
+    }
+
+    // Getters
+    public int getNumUsers() {
+        return numUsers;
+    }
+
+    public int getNumPersons() {
+        return numPersons;
     }
 
-    private LoadResult(String errorMessage) {
-        super(errorMessage, false);
+    public int getNumEvents() {
+        return numEvents;
     }
 }
@@ -0,0 +1,92 @@
+package shared.result;
+
+import shared.model.ServerPerson;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a request for the changes to the family members of the current user since a version held by the client
+ * @author griffinbholt
+ */
+public final class PersonChangesResult extends Result {
+    /**
+     * The {@link ServerPerson Person} objects added or rewritten since the version; ALL family members of the current
+     * user, if <code>reset</code> is <code>true</code>
+     */
+    private final List<ServerPerson> data;
+
+    /**
+     * The IDs of the persons deleted since the version
+     */
+    private final List<String> deleted;
+
+    /**
+     * The version of the persons once the changes are applied, to be sent with the next request for changes
+     */
+    private final long version;
+
+    /**
+     * Whether the client must replace ALL of its persons with <code>data</code>, instead of applying the changes
+     */
+    private final boolean reset;
+
+    /**
+     * Factory method that creates a new <code>PersonChangesResult</code> object,
+     * with <code>success</code> set to <code>true</code>
+     * @param persons The {@link ServerPerson Person} objects added or rewritten since the version
+     * @param deletedIDs The IDs of the persons deleted since the version
+     * @param version The version of the persons once the changes are applied
+     * @param reset Whether the client must replace ALL of its persons
+     * @return The new success <code>PersonChangesResult</code> object
+     */
+    public static PersonChangesResult newSuccess(List<ServerPerson> persons, List<String> deletedIDs, long version,
+                                                 boolean reset) {
+        return new PersonChangesResult(persons, deletedIDs, version, reset);
+    }
+
+    private PersonChangesResult(List<ServerPerson> persons, List<String> deletedIDs, long version, boolean reset) {
+        this(persons, deletedIDs, version, reset, "Successfully found " + persons.size() + " changed and " +
+                deletedIDs.size() + " deleted persons for the input authorization token.", true);
+    }
+
+    /**
+     * Factory method that creates a new <code>PersonChangesResult</code> object,
+     * with <code>success</code> set to <code>false</code>
+     * @param errorMessage The error message accounting for the reason behind the failed changes query
+     * @return  The new failure <code>PersonChangesResult</code> object
+     */
+    public static PersonChangesResult newFailure(String errorMessage) {
+        return new PersonChangesResult(errorMessage);
+    }
+
+    private PersonChangesResult(String errorMessage) {
+        this(null, null, 0, false, errorMessage, false);
+    }
+
+    private PersonChangesResult(List<ServerPerson> persons, List<String> deletedIDs, long version, boolean reset,
+                                String message, boolean success) {
+        super(message, success);
+        this.data = persons;
+        this.deleted = deletedIDs;
+        this.version = version;
+        this.reset = reset;
+    }
+
+    // Getters
+    public List<ServerPerson> getData() {
+        return (null != data) ? Collections.unmodifiableList(data) : null;
+    }
+
+    public List<String> getDeleted() {
+        return (null != deleted) ? Collections.unmodifiableList(deleted) : null;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+}